@@ -2,44 +2,93 @@ package burp.zota;
 
 import burp.api.montoya.BurpExtension;
 import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.Annotations;
+import burp.api.montoya.core.HighlightColor;
 import burp.api.montoya.core.ToolType;
 import burp.api.montoya.http.Http;
 import burp.api.montoya.http.handler.*;
+import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.ui.UserInterface;
+import burp.zota.budget.LatencyBudget;
+import burp.zota.config.ZotaConfig;
 import burp.zota.controller.ZotaController;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.correlation.OrderCorrelationIndex;
+import burp.zota.pacing.RatePacer;
+import burp.zota.poll.MontoyaStatusTransport;
+import burp.zota.poll.OrderStatusPoller;
 import burp.zota.profile.ZotaProfile;
+import burp.zota.report.OrdersReportIngestor;
+import burp.zota.scope.SigningScope;
+import burp.zota.service.SigningService;
 import burp.zota.signer.ZotaSigner;
+import burp.zota.ui.LazyPanel;
 import burp.zota.ui.ZotaSettingsTab;
 import burp.zota.ui.menu.ZotaRepeaterContextMenu;
 import burp.zota.util.ZotaLogger;
 
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
 public class ZotaExtension implements BurpExtension, HttpHandler {
 
     private MontoyaApi api;
+    private ZotaExecutors executors;
     private ZotaController controller;
     private ZotaSigner signer;
+    private OrdersReportIngestor reports;
+    private OrderCorrelationIndex orders;
+    private OrderStatusPoller poller;
+    private RatePacer pacer;
+    private LatencyBudget budget;
+    private SigningService service;
+
+    private static final int WARM_UP_ROUNDS = 200;
+    /** Tools whose signed requests adaptive pacing holds back; interactive tools are never delayed. */
+    private static final Set<ToolType> PACED_TOOLS = EnumSet.of(ToolType.INTRUDER, ToolType.SCANNER);
 
     @Override
     public void initialize(MontoyaApi api) {
         this.api = api;
+        long start = System.nanoTime();
+        StringBuilder phases = new StringBuilder();
         api.extension().setName("Zota Signer");
         ZotaLogger.init(api);
 
-        this.controller = new ZotaController(api);
-        this.signer = new ZotaSigner(api, controller.profiles());
+        long t = System.nanoTime();
+        this.executors = new ZotaExecutors();
+        api.extension().registerUnloadingHandler(this::unload);
+        this.controller = new ZotaController(api, executors);
+        t = phase(phases, "config+profiles", t);
+        this.signer = new ZotaSigner(api, controller.profiles(), controller::recipes);
+        this.reports = new OrdersReportIngestor(executors);
+        this.orders = new OrderCorrelationIndex();
+        this.poller = new OrderStatusPoller(executors, new MontoyaStatusTransport(api, signer, controller.journal()));
+        this.pacer = new RatePacer(controller.getConfig().pacingInitialRate, controller.getConfig().pacingMaxRate);
+        this.budget = new LatencyBudget(executors, controller.getConfig().latencyBudgetsMillis, controller.getConfig().breakerSampleEvery);
+        t = phase(phases, "signer", t);
 
-        api.userInterface().registerContextMenuItemsProvider(new ZotaRepeaterContextMenu(controller, signer));
+        api.userInterface().registerContextMenuItemsProvider(new ZotaRepeaterContextMenu(api, controller, signer, executors));
 
-        // UI (ensure components created on the EDT)
+        // UI (ensure components created on the EDT); the settings tab itself is built when first shown
         UserInterface ui = api.userInterface();
-        javax.swing.SwingUtilities.invokeLater(() -> {
-            ZotaSettingsTab tab = new ZotaSettingsTab(api, controller, this);
-            ui.registerSuiteTab("Zota", tab.getRoot());
-        });
+        javax.swing.SwingUtilities.invokeLater(() ->
+                ui.registerSuiteTab("Zota", new LazyPanel(() -> new ZotaSettingsTab(api, controller, this).getRoot())));
 
         // HTTP signing
         Http http = api.http();
         http.registerHttpHandler(this);
+        phase(phases, "ui+handlers", t);
+
+        if (controller.getConfig().warmUpOnLoad) {
+            executors.lane(ZotaExecutors.Task.WARMUP).execute(this::warmUp);
+        }
+
+        this.service = new SigningService(controller.profiles(), executors);
+        if (controller.getConfig().signingService) {
+            startService();
+        }
 
         String version = ZotaExtension.class.getPackage() != null
                 ? ZotaExtension.class.getPackage().getImplementationVersion()
@@ -47,22 +96,126 @@ public class ZotaExtension implements BurpExtension, HttpHandler {
         if (version == null || version.isBlank()) {
             version = "dev";
         }
-        ZotaLogger.info("Zota Signer v" + version + " initialized.");
+        ZotaLogger.info("Zota Signer v" + version + " initialized in " + millis(System.nanoTime() - start) + " ms (" + phases + ")");
+    }
+
+    /**
+     * Stops polling and all background work, then flushes the journal; Burp calls this on unload or reload.
+     */
+    private void unload() {
+        if (poller != null) {
+            poller.shutdown();
+        }
+        if (service != null) {
+            service.stop();
+        }
+        executors.close();
+    }
+
+    /**
+     * (Re)starts the localhost signing service on the configured port, generating its token on first use.
+     *
+     * @return whether the service is listening.
+     */
+    public boolean startService() {
+        ZotaConfig config = controller.getConfig();
+        String token = config.signingServiceToken;
+        if (token == null || token.isBlank()) {
+            token = SigningService.newToken();
+            controller.setSigningService(config.signingService, config.signingServicePort, token);
+        }
+        try {
+            service.start(config.signingServicePort, token);
+            return true;
+        } catch (IOException e) {
+            ZotaLogger.error("Signing service could not listen on port " + config.signingServicePort + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void warmUp() {
+        long t = System.nanoTime();
+        try {
+            signer.warmUp(WARM_UP_ROUNDS);
+            ZotaLogger.info("Signing warm-up finished in " + millis(System.nanoTime() - t) + " ms");
+        } catch (Exception e) {
+            ZotaLogger.error("Signing warm-up failed: " + e.getMessage());
+        }
+    }
+
+    private static long phase(StringBuilder phases, String name, long since) {
+        long now = System.nanoTime();
+        if (phases.length() > 0) phases.append(", ");
+        phases.append(name).append(' ').append(millis(now - since)).append(" ms");
+        return now;
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
     }
 
     @Override
     public RequestToBeSentAction handleHttpRequestToBeSent(HttpRequestToBeSent request) {
+        long entered = System.nanoTime();
         ToolType tool = request.toolSource().toolType();
+        String host = request.httpService() != null ? request.httpService().host() : "";
+
+        // Whatever the decision, the manual-profile marker (set on fan-out variants, status polls and report
+        // chunks sent through the extension's own tool source) never leaves Burp
+        SigningScope.Decision decision = controller.scope().decide(tool, host, request.path());
+        if (decision == SigningScope.Decision.IGNORE) {
+            return RequestToBeSentAction.continueWith(signer.stripManualProfile(request));
+        }
+        if (decision == SigningScope.Decision.VERIFY) {
+            LatencyBudget.Outcome<ZotaSigner.Result> guarded = budget.call(tool, false, () -> signer.verify(request));
+            if (!guarded.ran()) {
+                return RequestToBeSentAction.continueWith(signer.stripManualProfile(request), skipped(tool, "not verified", guarded.skipped(), false));
+            }
+            ZotaSigner.Result verified = guarded.value();
+            if (verified.order() != null) {
+                orders.record(verified.order());
+            }
+            return verified.annotations() != null
+                    ? RequestToBeSentAction.continueWith(verified.request(), verified.annotations())
+                    : RequestToBeSentAction.continueWith(verified.request());
+        }
+        boolean should = decision == SigningScope.Decision.SIGN;
 
-        boolean should = controller.shouldSign(tool);
+        // Paced before signing, so time spent waiting for a slot never ages the signed timestamp
+        if (should && controller.getConfig().adaptivePacing && PACED_TOOLS.contains(tool)) {
+            pacer.acquire(request.messageId(), signer.signingProfileName(request, tool == ToolType.SCANNER));
+        }
 
-        // Always analyze for annotations; only apply modifications if signing is enabled
-        ZotaSigner.Result result = signer.signIfZota(request);
+        // Always analyze in-scope traffic for annotations; only apply modifications if signing is enabled
+        long started = System.nanoTime();
+        LatencyBudget.Outcome<ZotaSigner.Result> guarded = budget.call(tool, should, () -> should && tool == ToolType.SCANNER
+                ? signer.signForScanner(request)
+                : signer.signIfZota(request, true));
+        if (!guarded.ran()) {
+            return should
+                    ? RequestToBeSentAction.continueWith(signer.stripManualProfile(request), skipped(tool, "signing skipped", guarded.skipped(), true))
+                    : RequestToBeSentAction.continueWith(signer.stripManualProfile(request), skipped(tool, "not analyzed", guarded.skipped(), false));
+        }
+        ZotaSigner.Result result = guarded.value();
+        long signNanos = System.nanoTime() - started;
+        if (should && result.signing() != null) {
+            controller.trace().record(request.messageId(), tool, result.signing(), signNanos,
+                    result.request() != request);
+            controller.journal().append(tool, result.signing());
+        }
+        if (result.order() != null) {
+            orders.record(result.order());
+        }
+        if (should && result.signing() != null) {
+            controller.latency().sent(request.messageId(), result.signing().endpoint(), result.signing().profileName(),
+                    signNanos, System.nanoTime() - entered);
+        }
         if (!should) {
+            HttpRequest unmarked = signer.stripManualProfile(request);
             if (result.annotations() != null) {
-                return RequestToBeSentAction.continueWith(request, result.annotations());
+                return RequestToBeSentAction.continueWith(unmarked, result.annotations());
             }
-            return RequestToBeSentAction.continueWith(request);
+            return RequestToBeSentAction.continueWith(unmarked);
         }
         if (result.annotations() != null) {
             return RequestToBeSentAction.continueWith(result.request(), result.annotations());
@@ -70,9 +223,30 @@ public class ZotaExtension implements BurpExtension, HttpHandler {
         return RequestToBeSentAction.continueWith(result.request());
     }
 
+    private static Annotations skipped(ToolType tool, String what, String why, boolean unsigned) {
+        String msg = "Zota: " + what + " (" + tool.name() + " latency budget: " + why + ")";
+        return unsigned ? Annotations.annotations(msg, HighlightColor.ORANGE) : Annotations.annotations(msg);
+    }
+
     @Override
     public ResponseReceivedAction handleHttpResponseReceived(HttpResponseReceived responseReceived) {
-        // No response manipulation required; could add callback/redirect signature verification display later.
+        // No response manipulation; orders-report CSV downloads are parsed in the background
+        HttpRequest initiating = responseReceived.initiatingRequest();
+        controller.latency().received(responseReceived.messageId(), responseReceived.statusCode(),
+                responseReceived.body() == null ? 0 : responseReceived.body().length());
+        if (controller.getConfig().adaptivePacing && PACED_TOOLS.contains(responseReceived.toolSource().toolType())) {
+            int status = responseReceived.statusCode();
+            pacer.onResponse(responseReceived.messageId(), status, responseReceived.headerValue("Retry-After"),
+                    status >= 400 ? responseReceived.bodyToString() : null);
+        }
+        if (!reports.maybeIngest(initiating, responseReceived)) {
+            OrderCorrelationIndex.Timeline order = orders.recordResponse(initiating, responseReceived);
+            if (order != null && controller.getConfig().autoPollOrders && order.orderId() != null
+                    && order.profileName() != null && !order.terminal()
+                    && !initiating.path().startsWith("/api/v1/query/")) {
+                poller.track(controller.profiles().byName(order.profileName()), order.merchantOrderId(), order.orderId());
+            }
+        }
         return ResponseReceivedAction.continueWith(responseReceived);
     }
 
@@ -83,4 +257,32 @@ public class ZotaExtension implements BurpExtension, HttpHandler {
     public ZotaSigner getSigner() {
         return signer;
     }
+
+    public OrdersReportIngestor getReports() {
+        return reports;
+    }
+
+    public OrderCorrelationIndex getOrders() {
+        return orders;
+    }
+
+    public OrderStatusPoller getPoller() {
+        return poller;
+    }
+
+    public RatePacer getPacer() {
+        return pacer;
+    }
+
+    public LatencyBudget getBudget() {
+        return budget;
+    }
+
+    public ZotaExecutors getExecutors() {
+        return executors;
+    }
+
+    public SigningService getService() {
+        return service;
+    }
 }
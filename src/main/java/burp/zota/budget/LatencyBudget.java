@@ -0,0 +1,197 @@
+package burp.zota.budget;
+
+import burp.api.montoya.core.ToolType;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.util.ZotaLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounds how long the HTTP handler may spend on one request per tool, with a circuit breaker per tool.
+ *
+ * <p>For a tool with a budget, the work runs on a virtual thread in the handler lane and the handler waits at most the budget;
+ * a request that overruns goes out unchanged and its work is cancelled. {@value #TRIP_AFTER} overruns in a
+ * row open the circuit: for {@value #COOLDOWN_MILLIS} ms requests that would be signed pass through
+ * unsigned, and verification or analysis runs for one request in {@code sampleEvery}. After the cooldown a
+ * single probe is let through; if it finishes in budget the circuit closes again, and if it overruns, fails
+ * or is interrupted the circuit opens for another cooldown. Tools without a budget run inline with no overhead.
+ */
+public class LatencyBudget {
+
+    public static final int TRIP_AFTER = 3;
+    public static final long COOLDOWN_MILLIS = 10_000;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Result of a guarded call: {@code value} when the work ran in budget, otherwise why it was skipped.
+     */
+    public record Outcome<T>(T value, String skipped) {
+        public boolean ran() {
+            return skipped == null;
+        }
+    }
+
+    /**
+     * @param timeouts requests whose work overran the budget.
+     * @param skipped  requests passed through without running, because the circuit was open.
+     */
+    public record Stats(ToolType tool, long budgetMillis, State state, long trips, long recoveries, long timeouts,
+                        long skipped, long sampled) {}
+
+    private static final class Breaker {
+        final ToolType tool;
+        final long budgetNanos;
+        final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+        final AtomicLong openedAt = new AtomicLong();
+        final AtomicLong consecutiveSlow = new AtomicLong();
+        final AtomicLong sampleCounter = new AtomicLong();
+        final LongAdder trips = new LongAdder();
+        final LongAdder recoveries = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder sampled = new LongAdder();
+
+        Breaker(ToolType tool, long budgetMillis) {
+            this.tool = tool;
+            this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        }
+    }
+
+    private final ExecutorService workers;
+    private final long cooldownNanos;
+    private volatile Breaker[] breakers = new Breaker[ToolType.values().length];
+    private volatile int sampleEvery = 10;
+
+    public LatencyBudget(ZotaExecutors executors, Map<String, Integer> budgetsMillis, int sampleEvery) {
+        this(executors, budgetsMillis, sampleEvery, COOLDOWN_MILLIS);
+    }
+
+    LatencyBudget(ZotaExecutors executors, Map<String, Integer> budgetsMillis, int sampleEvery, long cooldownMillis) {
+        this.workers = executors.lane(ZotaExecutors.Task.HANDLER);
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+        configure(budgetsMillis, sampleEvery);
+    }
+
+    /**
+     * Replaces the per-tool budgets ({@code ToolType} name to milliseconds; 0 or less means none). Breaker
+     * state and counters are reset.
+     */
+    public void configure(Map<String, Integer> budgetsMillis, int sampleEvery) {
+        Breaker[] next = new Breaker[ToolType.values().length];
+        if (budgetsMillis != null) {
+            for (Map.Entry<String, Integer> e : budgetsMillis.entrySet()) {
+                if (e.getValue() == null || e.getValue() <= 0) continue;
+                try {
+                    ToolType tool = ToolType.valueOf(e.getKey().trim().toUpperCase(Locale.ROOT));
+                    next[tool.ordinal()] = new Breaker(tool, e.getValue());
+                } catch (IllegalArgumentException ex) {
+                    ZotaLogger.error("Ignoring latency budget for unknown tool " + e.getKey());
+                }
+            }
+        }
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.breakers = next;
+    }
+
+    /**
+     * Runs {@code work} for a request from {@code tool} within the tool's budget.
+     *
+     * @param mutating whether the work would change the request (signing); such work is skipped outright while
+     *                 the circuit is open, other work is sampled.
+     */
+    public <T> Outcome<T> call(ToolType tool, boolean mutating, Supplier<T> work) {
+        Breaker b = tool == null ? null : breakers[tool.ordinal()];
+        if (b == null || workers.isShutdown()) {
+            return new Outcome<>(work.get(), null);
+        }
+        boolean probe = false;
+        State state = b.state.get();
+        if (state != State.CLOSED) {
+            long now = System.nanoTime();
+            if (state == State.OPEN && now - b.openedAt.get() >= cooldownNanos
+                    && b.state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                probe = true;
+            } else if (mutating || b.sampleCounter.incrementAndGet() % sampleEvery != 0) {
+                b.skipped.increment();
+                return new Outcome<>(null, mutating
+                        ? "circuit open after slow requests"
+                        : "circuit open after slow requests, checking 1 in " + sampleEvery);
+            } else {
+                b.sampled.increment();
+            }
+        }
+
+        // A probe must leave HALF_OPEN on every path, or the tool would skip signing until reconfigured
+        boolean resolved = !probe;
+        Future<T> future = null;
+        try {
+            future = workers.submit(work::get);
+            T value = future.get(b.budgetNanos, TimeUnit.NANOSECONDS);
+            b.consecutiveSlow.set(0);
+            if (probe) {
+                b.state.set(State.CLOSED);
+                resolved = true;
+                b.recoveries.increment();
+                ZotaLogger.info("Latency budget: " + b.tool.name() + " circuit closed");
+            }
+            return new Outcome<>(value, null);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            b.timeouts.increment();
+            if ((probe || b.consecutiveSlow.incrementAndGet() >= TRIP_AFTER) && trip(b, probe)) {
+                ZotaLogger.info("Latency budget: " + b.tool.name() + " circuit opened after slow requests");
+            }
+            resolved = true;
+            return new Outcome<>(null, "over " + TimeUnit.NANOSECONDS.toMillis(b.budgetNanos) + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return new Outcome<>(null, "interrupted");
+        } catch (Exception e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        } finally {
+            if (!resolved && trip(b, true)) {
+                ZotaLogger.info("Latency budget: " + b.tool.name() + " probe did not complete, circuit open again");
+            }
+        }
+    }
+
+    private static boolean trip(Breaker b, boolean probe) {
+        State from = probe ? State.HALF_OPEN : State.CLOSED;
+        if (!b.state.compareAndSet(from, State.OPEN)) {
+            return false;
+        }
+        b.openedAt.set(System.nanoTime());
+        b.consecutiveSlow.set(0);
+        b.trips.increment();
+        return true;
+    }
+
+    /**
+     * @return state of every tool with a budget.
+     */
+    public List<Stats> snapshot() {
+        List<Stats> out = new ArrayList<>();
+        for (Breaker b : breakers) {
+            if (b == null) continue;
+            out.add(new Stats(b.tool, TimeUnit.NANOSECONDS.toMillis(b.budgetNanos), b.state.get(), b.trips.sum(),
+                    b.recoveries.sum(), b.timeouts.sum(), b.skipped.sum(), b.sampled.sum()));
+        }
+        return out;
+    }
+}
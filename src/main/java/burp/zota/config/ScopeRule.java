@@ -0,0 +1,25 @@
+package burp.zota.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extra hosts and paths a tool treats as Zota traffic, on top of the built-in detection
+ * (hosts containing {@code zota} and the known Zota API paths).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ScopeRule {
+    /** Host suffixes such as {@code merchant.example.com}; matches the host itself and any subdomain. */
+    public List<String> hostSuffixes = new ArrayList<>();
+    /** Path prefixes such as {@code /zota/callback}. */
+    public List<String> pathPrefixes = new ArrayList<>();
+
+    public ScopeRule() {}
+
+    public ScopeRule(List<String> hostSuffixes, List<String> pathPrefixes) {
+        this.hostSuffixes = hostSuffixes == null ? new ArrayList<>() : new ArrayList<>(hostSuffixes);
+        this.pathPrefixes = pathPrefixes == null ? new ArrayList<>() : new ArrayList<>(pathPrefixes);
+    }
+}
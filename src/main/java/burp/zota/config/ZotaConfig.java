@@ -1,10 +1,49 @@
 package burp.zota.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class ZotaConfig {
+    /** Key in {@link #scopeRules} whose rule applies to every tool. */
+    public static final String ALL_TOOLS = "ALL";
+
     public volatile boolean enabled = true;
     public volatile boolean signRepeater = true;
     public volatile boolean signProxy = false;
     public volatile boolean signIntruder = false;
+    public volatile boolean signScanner = false;
+    public volatile boolean signExtensions = false;
+    public volatile boolean signSequencer = false;
+    /** {@code ToolType} names whose Zota requests are only checked, never re-signed; overrides the sign toggles. */
+    public volatile List<String> verifyOnlyTools = new ArrayList<>();
+    /** Start polling order-status for deposits and payouts as soon as Zota accepts them. */
+    public volatile boolean autoPollOrders = false;
+    /** Sign synthetic requests in the background at load so the first real signature is not slowed by JIT warm-up. */
+    public volatile boolean warmUpOnLoad = true;
+    /** Pace signed Intruder and Scanner requests per profile, adapting the rate to throttling responses. */
+    public volatile boolean adaptivePacing = false;
+    /** Requests per second a profile starts at when adaptive pacing first sees it. */
+    public volatile double pacingInitialRate = 10.0;
+    /** Ceiling for a profile's paced rate, in requests per second. */
+    public volatile double pacingMaxRate = 50.0;
+    /** Per-request latency budget in milliseconds keyed by {@code ToolType} name; tools without one are not bounded. */
+    public volatile Map<String, Integer> latencyBudgetsMillis = new LinkedHashMap<>(Map.of("PROXY", 50));
+    /** While a tool's latency circuit is open, verify or analyze one request in this many. */
+    public volatile int breakerSampleEvery = 10;
+    /** Serve signatures to load tools over HTTP on the loopback interface. */
+    public volatile boolean signingService = false;
+    public volatile int signingServicePort = 8787;
+    /** Value callers must send in the {@code X-Zota-Token} header; generated when the service is first enabled. */
+    public volatile String signingServiceToken = "";
     public volatile String activeProfileName = "";
+    /** Extra scope rules keyed by {@code ToolType} name, or {@link #ALL_TOOLS}. */
+    public volatile Map<String, ScopeRule> scopeRules = new LinkedHashMap<>();
+    /** User-defined signing recipes in {@code SignatureRecipe} text form; they override the built-in formulas. */
+    public volatile List<String> signingRecipes = new ArrayList<>();
 }
 
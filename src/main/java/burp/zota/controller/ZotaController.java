@@ -3,25 +3,45 @@ package burp.zota.controller;
 import burp.api.montoya.MontoyaApi;
 import burp.api.montoya.core.ToolType;
 import burp.api.montoya.persistence.PersistedObject;
+import burp.zota.config.ScopeRule;
 import burp.zota.config.ZotaConfig;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.jfr.PersistenceEvent;
+import burp.zota.journal.SigningJournal;
 import burp.zota.profile.ProfileManager;
 import burp.zota.profile.ZotaProfile;
+import burp.zota.recipe.SignatureRecipe;
+import burp.zota.scope.SigningScope;
+import burp.zota.trace.SigningTrace;
+import burp.zota.trace.UpstreamLatency;
+import burp.zota.util.Json;
 import burp.zota.util.ZotaLogger;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public class ZotaController {
     private final MontoyaApi api;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectReader CONFIG_READER = Json.reader(ZotaConfig.class);
     private final ProfileManager profiles;
+    private final SigningJournal journal;
+    private final SigningTrace trace = new SigningTrace();
+    private final UpstreamLatency latency = new UpstreamLatency();
     private ZotaConfig config;
+    private volatile SigningScope scope;
+    private volatile List<SignatureRecipe> recipes = List.of();
 
-    public ZotaController(MontoyaApi api) {
+    public ZotaController(MontoyaApi api, ZotaExecutors executors) {
         this.api = api;
         this.profiles = new ProfileManager(api);
+        this.journal = new SigningJournal(api, executors);
         loadConfig();
+        recompileScope();
+        compileRecipes(config.signingRecipes);
         // sync active profile both ways
         if (config.activeProfileName != null && !config.activeProfileName.isEmpty()) {
             profiles.setActiveProfile(config.activeProfileName);
@@ -33,19 +53,95 @@ public class ZotaController {
 
     public ProfileManager profiles() { return profiles; }
 
+    public SigningJournal journal() { return journal; }
+
+    public SigningTrace trace() { return trace; }
+
+    public UpstreamLatency latency() { return latency; }
+
     public ZotaConfig getConfig() { return config; }
 
-    public void setEnabled(boolean enabled) { config.enabled = enabled; saveConfig(); }
-    public void setSignRepeater(boolean enabled) { config.signRepeater = enabled; saveConfig(); }
-    public void setSignProxy(boolean enabled) { config.signProxy = enabled; saveConfig(); }
-    public void setSignIntruder(boolean enabled) { config.signIntruder = enabled; saveConfig(); }
+    /** Compiled signing policy; replaced whenever the configuration changes. */
+    public SigningScope scope() { return scope; }
+
+    public void setEnabled(boolean enabled) { config.enabled = enabled; recompileScope(); saveConfig(); }
+    public void setSignRepeater(boolean enabled) { config.signRepeater = enabled; recompileScope(); saveConfig(); }
+    public void setSignProxy(boolean enabled) { config.signProxy = enabled; recompileScope(); saveConfig(); }
+    public void setSignIntruder(boolean enabled) { config.signIntruder = enabled; recompileScope(); saveConfig(); }
+    public void setSignScanner(boolean enabled) { config.signScanner = enabled; recompileScope(); saveConfig(); }
+    public void setSignExtensions(boolean enabled) { config.signExtensions = enabled; recompileScope(); saveConfig(); }
+    public void setSignSequencer(boolean enabled) { config.signSequencer = enabled; recompileScope(); saveConfig(); }
+    public void setAutoPollOrders(boolean enabled) { config.autoPollOrders = enabled; saveConfig(); }
+    public void setWarmUpOnLoad(boolean enabled) { config.warmUpOnLoad = enabled; saveConfig(); }
+    public void setAdaptivePacing(boolean enabled) { config.adaptivePacing = enabled; saveConfig(); }
+
+    /**
+     * Stores the adaptive pacing rates (requests per second); the caller reconfigures the running pacer.
+     */
+    public void setPacingRates(double initialRate, double maxRate) {
+        config.pacingInitialRate = initialRate;
+        config.pacingMaxRate = maxRate;
+        saveConfig();
+    }
+
+    /**
+     * Stores the per-tool latency budgets and circuit-open sampling; the caller reconfigures the running budget.
+     */
+    public void setLatencyBudgets(Map<String, Integer> budgetsMillis, int sampleEvery) {
+        config.latencyBudgetsMillis = new LinkedHashMap<>(budgetsMillis);
+        config.breakerSampleEvery = sampleEvery;
+        saveConfig();
+    }
+
+    /**
+     * Stores the localhost signing service settings; the caller starts or stops the running service.
+     */
+    public void setSigningService(boolean enabled, int port, String token) {
+        config.signingService = enabled;
+        config.signingServicePort = port;
+        config.signingServiceToken = token;
+        saveConfig();
+    }
+
+    /**
+     * Switches a tool between signing and verify-only (check existing signatures, never modify requests).
+     */
+    public void setVerifyOnly(ToolType tool, boolean verifyOnly) {
+        if (tool == null) return;
+        List<String> tools = new ArrayList<>(config.verifyOnlyTools == null ? List.of() : config.verifyOnlyTools);
+        tools.remove(tool.name());
+        if (verifyOnly) {
+            tools.add(tool.name());
+        }
+        config.verifyOnlyTools = tools;
+        recompileScope();
+        saveConfig();
+    }
 
     public boolean shouldSign(ToolType tool) {
-        if (!config.enabled) return false;
-        if (tool == ToolType.REPEATER) return config.signRepeater;
-        if (tool == ToolType.PROXY) return config.signProxy;
-        if (tool == ToolType.INTRUDER) return config.signIntruder;
-        return false;
+        return scope.signs(tool);
+    }
+
+    public ScopeRule scopeRule(String toolKey) {
+        ScopeRule rule = config.scopeRules == null ? null : config.scopeRules.get(toolKey);
+        return rule == null ? new ScopeRule() : rule;
+    }
+
+    /**
+     * Replaces the extra host/path rules for a tool key ({@code ToolType} name or {@link ZotaConfig#ALL_TOOLS}).
+     * Empty lists remove the rule.
+     */
+    public void setScopeRule(String toolKey, List<String> hostSuffixes, List<String> pathPrefixes) {
+        if (toolKey == null || toolKey.isBlank()) return;
+        Map<String, ScopeRule> rules = config.scopeRules == null ? new LinkedHashMap<>() : new LinkedHashMap<>(config.scopeRules);
+        if ((hostSuffixes == null || hostSuffixes.isEmpty()) && (pathPrefixes == null || pathPrefixes.isEmpty())) {
+            rules.remove(toolKey);
+        } else {
+            rules.put(toolKey, new ScopeRule(hostSuffixes, pathPrefixes));
+        }
+        config.scopeRules = rules;
+        recompileScope();
+        saveConfig();
     }
 
     public List<ZotaProfile> allProfiles() { return profiles.all(); }
@@ -82,12 +178,59 @@ public class ZotaController {
         }
     }
 
+    private void recompileScope() {
+        this.scope = SigningScope.compile(config);
+    }
+
+    /** Parsed signing recipes, in configuration order; replaced whenever they change. */
+    public List<SignatureRecipe> recipes() { return recipes; }
+
+    /**
+     * Replaces the signing recipes with the given lines (blank lines ignored).
+     *
+     * @return one message per line that could not be parsed; those lines are dropped.
+     */
+    public List<String> setSigningRecipes(List<String> lines) {
+        List<String> errors = compileRecipes(lines);
+        List<String> kept = new ArrayList<>(recipes.size());
+        for (SignatureRecipe recipe : recipes) {
+            kept.add(recipe.toString());
+        }
+        config.signingRecipes = kept;
+        saveConfig();
+        return errors;
+    }
+
+    public void addSigningRecipe(SignatureRecipe recipe) {
+        List<String> lines = new ArrayList<>(config.signingRecipes == null ? List.of() : config.signingRecipes);
+        lines.add(recipe.toString());
+        setSigningRecipes(lines);
+    }
+
+    private List<String> compileRecipes(List<String> lines) {
+        List<SignatureRecipe> compiled = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        if (lines != null) {
+            for (String line : lines) {
+                if (line == null || line.isBlank()) continue;
+                try {
+                    compiled.add(SignatureRecipe.parse(line));
+                } catch (IllegalArgumentException e) {
+                    errors.add(e.getMessage());
+                    ZotaLogger.error("Ignoring signing recipe: " + e.getMessage());
+                }
+            }
+        }
+        recipes = List.copyOf(compiled);
+        return errors;
+    }
+
     private void loadConfig() {
         try {
             PersistedObject store = api.persistence().extensionData();
             String json = store.getString("zota.config");
             if (json != null && !json.isEmpty()) {
-                this.config = mapper.readValue(json, ZotaConfig.class);
+                this.config = CONFIG_READER.readValue(json);
             } else {
                 this.config = new ZotaConfig();
             }
@@ -98,12 +241,22 @@ public class ZotaController {
     }
 
     private void saveConfig() {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
         try {
             PersistedObject store = api.persistence().extensionData();
-            String json = mapper.writeValueAsString(config);
+            String json = Json.write(config);
             store.setString("zota.config", json);
+            event.bytes = json.length();
+            event.succeeded = true;
         } catch (Exception e) {
             ZotaLogger.error("Failed to save config: " + e.getMessage());
+        } finally {
+            if (event.shouldCommit()) {
+                event.component = "config";
+                event.key = "zota.config";
+                event.commit();
+            }
         }
     }
 }
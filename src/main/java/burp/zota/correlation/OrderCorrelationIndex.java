@@ -0,0 +1,369 @@
+package burp.zota.correlation;
+
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.zota.signer.ZotaSigner;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Links deposits and payouts to the Zota order ID returned for them, and to the order-status replies,
+ * callbacks and final redirects seen later, so each order has one timeline.
+ *
+ * <p>Orders are indexed by both merchantOrderID and orderID. The index is bounded: orders are evicted oldest
+ * first once there are more than {@value #DEFAULT_MAX_ORDERS}, or when first seen more than
+ * {@link #DEFAULT_MAX_AGE_MILLIS} ago. Eviction is amortised over inserts and only walks expired entries.
+ * Requests that carry no order identifiers never reach the index, and response bodies are only parsed for
+ * deposit, payout and order-status calls, so it is cheap to leave on during long Proxy sessions.
+ */
+public class OrderCorrelationIndex {
+
+    public static final int DEFAULT_MAX_ORDERS = 5000;
+    public static final long DEFAULT_MAX_AGE_MILLIS = 6 * 60 * 60 * 1000L;
+    private static final int MAX_EVENTS = 32;
+
+    private static final String DEPOSIT_PATH = "/api/v1/deposit/request/";
+    private static final String PAYOUT_PATH = "/api/v1/payout/request/";
+    private static final String ORDER_STATUS_PATH = "/api/v1/query/order-status/";
+    private static final Set<String> TERMINAL_STATUSES = Set.of("APPROVED", "DECLINED", "FILTERED", "ERROR");
+
+    /**
+     * Point in an order's life at which it was observed.
+     */
+    public enum Stage {
+        DEPOSIT_SENT("deposit sent"),
+        PAYOUT_SENT("payout sent"),
+        ACCEPTED("accepted"),
+        REJECTED("rejected"),
+        STATUS_QUERY("status query"),
+        STATUS_REPLY("status reply"),
+        CALLBACK("callback"),
+        FINAL_REDIRECT("final redirect");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * One observation. {@code status} is the Zota order status when the stage reports one.
+     */
+    public record Event(long timestamp, Stage stage, String status, String detail) {}
+
+    /**
+     * Everything seen for one order. Identifiers may be learned late (the orderID arrives with the deposit
+     * response), so they are mutable; events are capped, keeping the first one as the latency baseline.
+     */
+    public static final class Timeline {
+        private final long firstSeen;
+        private volatile long lastSeen;
+        private volatile String merchantOrderId;
+        private volatile String orderId;
+        private volatile String profileName;
+        private volatile String type = "";
+        private volatile String lastStatus = "";
+        private final List<Event> events = new ArrayList<>();
+
+        Timeline(long now) {
+            this.firstSeen = now;
+            this.lastSeen = now;
+        }
+
+        public long firstSeen() { return firstSeen; }
+        public long lastSeen() { return lastSeen; }
+        public String merchantOrderId() { return merchantOrderId; }
+        public String orderId() { return orderId; }
+        public String profileName() { return profileName; }
+        public String type() { return type; }
+        public String lastStatus() { return lastStatus; }
+
+        public boolean terminal() {
+            return isTerminal(lastStatus);
+        }
+
+        public synchronized List<Event> events() {
+            return List.copyOf(events);
+        }
+
+        /**
+         * @return milliseconds from the first event to the first event of {@code stage}, or -1 if not seen.
+         */
+        public synchronized long millisUntil(Stage stage) {
+            for (Event e : events) {
+                if (e.stage() == stage) {
+                    return e.timestamp() - firstSeen;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return milliseconds from the first event until a terminal status was first reported, or -1.
+         */
+        public synchronized long millisUntilFinal() {
+            for (Event e : events) {
+                if (isTerminal(e.status())) {
+                    return e.timestamp() - firstSeen;
+                }
+            }
+            return -1;
+        }
+
+        synchronized void add(Event event) {
+            if (events.size() >= MAX_EVENTS) {
+                events.remove(1);
+            }
+            events.add(event);
+            lastSeen = event.timestamp();
+            if (event.status() != null && !event.status().isEmpty()) {
+                lastStatus = event.status();
+            }
+        }
+    }
+
+    private final Map<String, Timeline> byMerchantOrderId = new ConcurrentHashMap<>();
+    private final Map<String, Timeline> byOrderId = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Timeline> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+    private final int maxOrders;
+    private final long maxAgeMillis;
+
+    public OrderCorrelationIndex() {
+        this(DEFAULT_MAX_ORDERS, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    public OrderCorrelationIndex(int maxOrders, long maxAgeMillis) {
+        this.maxOrders = Math.max(1, maxOrders);
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public static boolean isTerminal(String status) {
+        return status != null && TERMINAL_STATUSES.contains(status);
+    }
+
+    /**
+     * Records an outgoing request that the signer identified as belonging to an order.
+     */
+    public void record(ZotaSigner.OrderRef ref) {
+        if (ref == null || ref.endpoint() == null) {
+            return;
+        }
+        Stage stage = switch (ref.endpoint()) {
+            case DEPOSIT -> Stage.DEPOSIT_SENT;
+            case PAYOUT -> Stage.PAYOUT_SENT;
+            case ORDER_STATUS -> Stage.STATUS_QUERY;
+            case CALLBACK -> Stage.CALLBACK;
+            case FINAL_REDIRECT -> Stage.FINAL_REDIRECT;
+            default -> null;
+        };
+        if (stage == null) {
+            return;
+        }
+        String status = ref.status() == null ? null : ref.status().toUpperCase(Locale.ROOT);
+        Timeline t = resolve(ref.merchantOrderId(), ref.orderId(), true);
+        if (t == null) {
+            return;
+        }
+        if (ref.profileName() != null && t.profileName == null) {
+            t.profileName = ref.profileName();
+        }
+        if (stage == Stage.DEPOSIT_SENT) {
+            t.type = "DEPOSIT";
+        } else if (stage == Stage.PAYOUT_SENT) {
+            t.type = "PAYOUT";
+        }
+        t.add(new Event(System.currentTimeMillis(), stage, status, null));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Inspects a response to a deposit, payout or order-status request; anything else returns immediately.
+     *
+     * @return the order the response was linked to, or null.
+     */
+    public Timeline recordResponse(HttpRequest request, HttpResponse response) {
+        if (request == null || response == null) {
+            return null;
+        }
+        String path = request.path();
+        if (path == null) {
+            return null;
+        }
+        boolean statusReply = path.startsWith(ORDER_STATUS_PATH);
+        if (!statusReply && !path.startsWith(DEPOSIT_PATH) && !path.startsWith(PAYOUT_PATH)) {
+            return null;
+        }
+        JsonNode json = parse(response.bodyToString());
+        if (json == null) {
+            return null;
+        }
+        JsonNode data = json.path("data");
+        String merchantOrderId = text(data, "merchantOrderID");
+        String orderId = text(data, "orderID");
+        String code = text(json, "code");
+        boolean ok = response.statusCode() == 200 && (code.isEmpty() || "200".equals(code));
+        if (merchantOrderId.isEmpty() && !statusReply) {
+            // Rejections usually omit data; the merchant order ID is still in the request body
+            merchantOrderId = text(parse(request.bodyToString()), "merchantOrderID");
+        }
+        if (statusReply && merchantOrderId.isEmpty() && orderId.isEmpty()) {
+            String query = request.query();
+            merchantOrderId = queryValue(query, "merchantOrderID");
+            orderId = queryValue(query, "orderID");
+        }
+        Timeline t = resolve(merchantOrderId, orderId, false);
+        if (t == null) {
+            return null;
+        }
+        String status = text(data, "status").toUpperCase(Locale.ROOT);
+        Stage stage = statusReply ? Stage.STATUS_REPLY : ok ? Stage.ACCEPTED : Stage.REJECTED;
+        String detail = ok ? null : response.statusCode() + " " + text(json, "message");
+        t.add(new Event(System.currentTimeMillis(), stage, status.isEmpty() ? null : status, detail));
+        version.incrementAndGet();
+        return t;
+    }
+
+    /**
+     * @return the timeline for a merchantOrderID or orderID, if still indexed.
+     */
+    public Timeline find(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        Timeline t = byOrderId.get(id);
+        return t != null ? t : byMerchantOrderId.get(id);
+    }
+
+    /**
+     * @return all indexed orders, most recently active first.
+     */
+    public List<Timeline> timelines() {
+        List<Timeline> all = new ArrayList<>(insertionOrder);
+        all.sort(Comparator.comparingLong(Timeline::lastSeen).reversed());
+        return all;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Increases whenever an event is recorded; lets viewers skip redundant refreshes.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public synchronized void clear() {
+        byMerchantOrderId.clear();
+        byOrderId.clear();
+        insertionOrder.clear();
+        size.set(0);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Finds the order by either identifier, links the other identifier if it is new, and optionally creates it.
+     */
+    private Timeline resolve(String merchantOrderId, String orderId, boolean create) {
+        boolean hasMerchant = merchantOrderId != null && !merchantOrderId.isEmpty();
+        boolean hasOrder = orderId != null && !orderId.isEmpty();
+        if (!hasMerchant && !hasOrder) {
+            return null;
+        }
+        Timeline t = hasOrder ? byOrderId.get(orderId) : null;
+        if (t == null && hasMerchant) {
+            t = byMerchantOrderId.get(merchantOrderId);
+        }
+        if (t == null) {
+            if (!create) {
+                return null;
+            }
+            t = insert(merchantOrderId, orderId, hasMerchant, hasOrder);
+        }
+        if (hasOrder && t.orderId == null) {
+            t.orderId = orderId;
+            byOrderId.putIfAbsent(orderId, t);
+        }
+        if (hasMerchant && t.merchantOrderId == null) {
+            t.merchantOrderId = merchantOrderId;
+            byMerchantOrderId.putIfAbsent(merchantOrderId, t);
+        }
+        return t;
+    }
+
+    private synchronized Timeline insert(String merchantOrderId, String orderId, boolean hasMerchant, boolean hasOrder) {
+        // Re-check under the lock so two threads seeing the same new order share one timeline
+        Timeline existing = hasOrder ? byOrderId.get(orderId) : null;
+        if (existing == null && hasMerchant) {
+            existing = byMerchantOrderId.get(merchantOrderId);
+        }
+        if (existing != null) {
+            return existing;
+        }
+        long now = System.currentTimeMillis();
+        evict(now);
+        Timeline t = new Timeline(now);
+        if (hasMerchant) {
+            t.merchantOrderId = merchantOrderId;
+            byMerchantOrderId.put(merchantOrderId, t);
+        }
+        if (hasOrder) {
+            t.orderId = orderId;
+            byOrderId.put(orderId, t);
+        }
+        insertionOrder.add(t);
+        size.incrementAndGet();
+        return t;
+    }
+
+    private void evict(long now) {
+        Timeline head;
+        while ((head = insertionOrder.peek()) != null
+                && (size.get() >= maxOrders || now - head.firstSeen > maxAgeMillis)) {
+            insertionOrder.poll();
+            size.decrementAndGet();
+            if (head.merchantOrderId != null) {
+                byMerchantOrderId.remove(head.merchantOrderId, head);
+            }
+            if (head.orderId != null) {
+                byOrderId.remove(head.orderId, head);
+            }
+        }
+    }
+
+    private static JsonNode parse(String body) {
+        return Json.treeOrNull(body);
+    }
+
+    private static String text(JsonNode json, String field) {
+        return Json.text(json, field);
+    }
+
+    private static String queryValue(String query, String name) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        String value = QueryString.parse(query).get(name);
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,374 @@
+package burp.zota.exec;
+
+import burp.zota.util.ZotaLogger;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The one place the extension starts background threads, so they all stop when Burp unloads it.
+ *
+ * <p>Work is submitted to a {@link Lane} of a named {@link Task} category. I/O-bound categories run each task
+ * on its own virtual thread; CPU-bound ones share a platform pool with one thread per core. A lane queues its
+ * own tasks and runs at most its parallelism limit at once, which is what the queue-depth metrics count.
+ * Timers go through one shared scheduler thread and should only hand work to a lane. {@link #close()} stops the
+ * scheduler, lets running tasks finish for a short grace period, interrupts what is left, then runs the
+ * registered close hooks (journal flush and the like) on the calling thread.
+ */
+public class ZotaExecutors implements AutoCloseable {
+
+    private static final long GRACE_MILLIS = 2_000;
+
+    public enum Kind { IO, CPU }
+
+    /**
+     * Task categories; {@code parallelism} is the default limit of a lane created without one (0 = unbounded).
+     */
+    public enum Task {
+        HANDLER("handler", Kind.IO, 0),
+        POLL("poll", Kind.IO, 0),
+        JOURNAL("journal", Kind.IO, 1),
+        REPORT_INGEST("report-ingest", Kind.CPU, 1),
+        REPORT_FETCH("report-fetch", Kind.IO, 0),
+        FANOUT("fanout", Kind.IO, 0),
+        REPLAY("replay", Kind.IO, 0),
+        SERVICE("service", Kind.IO, 0),
+        RESIGN("resign", Kind.CPU, 0),
+        DISCOVERY("discovery", Kind.CPU, 0),
+        WARMUP("warmup", Kind.CPU, 1);
+
+        private final String label;
+        private final Kind kind;
+        private final int parallelism;
+
+        Task(String label, Kind kind, int parallelism) {
+            this.label = label;
+            this.kind = kind;
+            this.parallelism = parallelism;
+        }
+
+        public String label() { return label; }
+        public Kind kind() { return kind; }
+    }
+
+    /**
+     * @param queued  tasks waiting in a lane for a free slot.
+     * @param running tasks executing now.
+     * @param failed  tasks that ended with an uncaught exception (tasks from {@code submit} report theirs through the future).
+     */
+    public record Stats(Task task, Kind kind, long submitted, int queued, int running, long completed, long failed,
+                        long rejected) {}
+
+    private static final class Counters {
+        final LongAdder submitted = new LongAdder();
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+    }
+
+    private final int cpuThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private final ThreadPoolExecutor cpu;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<Task, Counters> counters = new EnumMap<>(Task.class);
+    private final Map<Task, ThreadFactory> virtualFactories = new EnumMap<>(Task.class);
+    private final Set<Lane> lanes = ConcurrentHashMap.newKeySet();
+    private final List<Map.Entry<String, Runnable>> closeHooks = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    public ZotaExecutors() {
+        AtomicInteger ids = new AtomicInteger();
+        this.cpu = new ThreadPoolExecutor(cpuThreads, cpuThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> daemon(r, "zota-cpu-" + ids.incrementAndGet()));
+        cpu.allowCoreThreadTimeOut(true);
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> daemon(r, "zota-scheduler"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        scheduler.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        for (Task task : Task.values()) {
+            counters.put(task, new Counters());
+            if (task.kind == Kind.IO) {
+                virtualFactories.put(task, Thread.ofVirtual().name("zota-" + task.label + "-", 0).factory());
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * A lane with the category's default parallelism; long-lived components keep theirs for their lifetime.
+     */
+    public Lane lane(Task task) {
+        return lane(task, task.parallelism);
+    }
+
+    /**
+     * A lane running at most {@code parallelism} tasks at once (0 = no limit; CPU lanes are capped at the pool
+     * size anyway). Per-job lanes should be shut down when the job ends.
+     */
+    public Lane lane(Task task, int parallelism) {
+        Lane lane = new Lane(task, parallelism <= 0 ? Integer.MAX_VALUE : parallelism);
+        lanes.add(lane);
+        if (closed) {
+            lane.shutdownNow();
+        }
+        return lane;
+    }
+
+    /**
+     * Shared timer thread. Scheduled actions must be short; anything slower belongs on a lane.
+     */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Registers an action run once by {@link #close()}, after background tasks have stopped, in registration order.
+     *
+     * @return unregisters the hook, for components that go away before the extension does.
+     */
+    public Runnable onClose(String name, Runnable hook) {
+        Map.Entry<String, Runnable> entry = Map.entry(name, hook);
+        closeHooks.add(entry);
+        return () -> closeHooks.remove(entry);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return per-category counters, in category order.
+     */
+    public List<Stats> snapshot() {
+        List<Stats> out = new ArrayList<>();
+        for (Map.Entry<Task, Counters> e : counters.entrySet()) {
+            Counters c = e.getValue();
+            out.add(new Stats(e.getKey(), e.getKey().kind, c.submitted.sum(), c.queued.get(), c.running.get(),
+                    c.completed.sum(), c.failed.sum(), c.rejected.sum()));
+        }
+        return out;
+    }
+
+    /**
+     * @return timers waiting on the scheduler.
+     */
+    public int scheduledCount() {
+        return scheduler.getQueue().size();
+    }
+
+    /**
+     * Stops all background work and runs the close hooks. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long start = System.nanoTime();
+        scheduler.shutdownNow();
+        for (Lane lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(GRACE_MILLIS);
+        int interrupted = 0;
+        for (Lane lane : lanes) {
+            try {
+                if (!lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    interrupted += lane.shutdownNow().size() + lane.active.size();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lane.shutdownNow();
+            }
+        }
+        cpu.shutdownNow();
+        for (Map.Entry<String, Runnable> hook : closeHooks) {
+            try {
+                hook.getValue().run();
+            } catch (RuntimeException e) {
+                ZotaLogger.error("Close hook " + hook.getKey() + " failed: " + e.getMessage());
+            }
+        }
+        ZotaLogger.info("Background work stopped in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms"
+                + (interrupted > 0 ? " (" + interrupted + " tasks interrupted or dropped)" : ""));
+    }
+
+    /**
+     * Executor for one category with its own queue and parallelism limit. Shutting a lane down only affects
+     * its own tasks.
+     */
+    public final class Lane extends AbstractExecutorService {
+        private final Task task;
+        private final int parallelism;
+        private final Counters stats;
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger running = new AtomicInteger();
+        private final Set<Thread> active = ConcurrentHashMap.newKeySet();
+        private final Object terminated = new Object();
+        private volatile boolean shutdown;
+
+        private Lane(Task task, int parallelism) {
+            this.task = task;
+            this.parallelism = parallelism;
+            this.stats = counters.get(task);
+        }
+
+        public Task task() {
+            return task;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                stats.rejected.increment();
+                throw new RejectedExecutionException("zota-" + task.label + " is shut down");
+            }
+            stats.submitted.increment();
+            stats.queued.incrementAndGet();
+            queue.add(command);
+            drain();
+        }
+
+        private void drain() {
+            while (!queue.isEmpty()) {
+                int r = running.get();
+                if (r >= parallelism) {
+                    return;
+                }
+                if (!running.compareAndSet(r, r + 1)) {
+                    continue;
+                }
+                Runnable next = queue.poll();
+                if (next == null) {
+                    release();
+                    continue;
+                }
+                stats.queued.decrementAndGet();
+                try {
+                    dispatch(() -> run(next));
+                } catch (RejectedExecutionException e) {
+                    stats.rejected.increment();
+                    release();
+                }
+            }
+        }
+
+        private void dispatch(Runnable r) {
+            if (task.kind == Kind.CPU) {
+                cpu.execute(r);
+            } else {
+                virtualFactories.get(task).newThread(r).start();
+            }
+        }
+
+        private void run(Runnable command) {
+            Thread self = Thread.currentThread();
+            active.add(self);
+            stats.running.incrementAndGet();
+            try {
+                command.run();
+            } catch (Throwable t) {
+                stats.failed.increment();
+                ZotaLogger.error("zota-" + task.label + " task failed: " + t);
+            } finally {
+                stats.running.decrementAndGet();
+                stats.completed.increment();
+                active.remove(self);
+                // a pool thread must not carry an interrupt into the next lane's task
+                if (task.kind == Kind.CPU) {
+                    Thread.interrupted();
+                }
+                release();
+                drain();
+            }
+        }
+
+        private void release() {
+            running.decrementAndGet();
+            if (shutdown && isTerminated()) {
+                lanes.remove(this);
+                synchronized (terminated) {
+                    terminated.notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            if (isTerminated()) {
+                lanes.remove(this);
+            }
+        }
+
+        /**
+         * Drops queued tasks and interrupts running ones.
+         */
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> dropped = new ArrayList<>();
+            Runnable r;
+            while ((r = queue.poll()) != null) {
+                stats.queued.decrementAndGet();
+                dropped.add(r);
+            }
+            for (Thread t : active) {
+                t.interrupt();
+            }
+            if (isTerminated()) {
+                lanes.remove(this);
+            }
+            return dropped;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && queue.isEmpty() && running.get() == 0;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized (terminated) {
+                while (!isTerminated()) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(terminated, Math.min(left, TimeUnit.MILLISECONDS.toNanos(50)));
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package burp.zota.fanout;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.ToolType;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.journal.SigningJournal;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.signer.ZotaSigner;
+import burp.zota.util.SignatureUtil;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Re-signs one request for several profiles and sends the variants concurrently. Outcomes are grouped by
+ * status code and response-body fingerprint so cross-merchant or stage-vs-prod differences stand out.
+ */
+public class ProfileFanOut {
+    private static final int MAX_PARALLEL = 8;
+
+    private final MontoyaApi api;
+    private final ZotaSigner signer;
+    private final SigningJournal journal;
+    private final ZotaExecutors executors;
+
+    /**
+     * Result of sending one profile's variant. {@code group} numbers identical (status, fingerprint) pairs.
+     */
+    public record Outcome(String profileName, HttpRequest request, HttpResponse response, int status,
+                          String fingerprint, int bodyLength, long elapsedMillis, String error, int group) {
+        Outcome withGroup(int g) {
+            return new Outcome(profileName, request, response, status, fingerprint, bodyLength, elapsedMillis, error, g);
+        }
+    }
+
+    public ProfileFanOut(MontoyaApi api, ZotaSigner signer, SigningJournal journal, ZotaExecutors executors) {
+        this.api = api;
+        this.signer = signer;
+        this.journal = journal;
+        this.executors = executors;
+    }
+
+    /**
+     * Prepares and sends one variant per profile in parallel.
+     *
+     * @return future completing with outcomes sorted by group, then profile name.
+     */
+    public CompletableFuture<List<Outcome>> send(HttpRequest base, List<ZotaProfile> targets) {
+        ExecutorService pool = executors.lane(ZotaExecutors.Task.FANOUT, Math.max(1, Math.min(targets.size(), MAX_PARALLEL)));
+        List<CompletableFuture<Outcome>> futures = new ArrayList<>(targets.size());
+        for (ZotaProfile profile : targets) {
+            futures.add(CompletableFuture.supplyAsync(() -> sendOne(base, profile), pool));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(v -> group(futures.stream().map(CompletableFuture::join).toList()))
+                .whenComplete((r, t) -> pool.shutdown());
+    }
+
+    private Outcome sendOne(HttpRequest base, ZotaProfile profile) {
+        String name = profile.getName();
+        HttpRequest prepared = base;
+        long start = System.nanoTime();
+        try {
+            // resign() marks the profile so the HTTP handler does not re-sign the variant with the active profile;
+            // the handler removes the marker before the request leaves Burp, whatever its scope decision
+            ZotaSigner.Result result = signer.resign(base, profile);
+            journal.append(ToolType.EXTENSIONS, result.signing());
+            prepared = result.request();
+            start = System.nanoTime();
+            HttpRequestResponse rr = api.http().sendRequest(prepared);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            HttpResponse response = rr == null ? null : rr.response();
+            if (response == null) {
+                return new Outcome(name, prepared, null, 0, "", 0, elapsed, "No response", 0);
+            }
+            byte[] body = response.body() == null ? new byte[0] : response.body().getBytes();
+            return new Outcome(name, prepared, response, response.statusCode(), fingerprint(body), body.length, elapsed, null, 0);
+        } catch (Exception e) {
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            return new Outcome(name, prepared, null, 0, "", 0, elapsed, e.getClass().getSimpleName() + ": " + e.getMessage(), 0);
+        }
+    }
+
+    private static List<Outcome> group(List<Outcome> outcomes) {
+        List<Outcome> sorted = new ArrayList<>(outcomes);
+        sorted.sort(Comparator.comparingInt(Outcome::status)
+                .thenComparing(Outcome::fingerprint)
+                .thenComparing(o -> o.profileName() == null ? "" : o.profileName()));
+        Map<String, Integer> groups = new HashMap<>();
+        List<Outcome> out = new ArrayList<>(sorted.size());
+        for (Outcome o : sorted) {
+            int g = groups.computeIfAbsent(o.status() + "|" + o.fingerprint() + "|" + (o.error() == null ? "" : o.error()),
+                    k -> groups.size() + 1);
+            out.add(o.withGroup(g));
+        }
+        return out;
+    }
+
+    private static String fingerprint(byte[] body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+        return SignatureUtil.toHexLower(digest).substring(0, 16);
+    }
+}
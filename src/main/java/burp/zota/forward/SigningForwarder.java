@@ -0,0 +1,412 @@
+package burp.zota.forward;
+
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.profile.CompiledProfile;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.signer.HeadlessSigner;
+import burp.zota.signer.ZotaEndpoint;
+import burp.zota.trace.UpstreamLatency;
+import burp.zota.util.Json;
+import burp.zota.util.ZotaLogger;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless mode of the shaded jar: a plain-HTTP forwarding proxy that signs Zota requests on the way through,
+ * for load tests where Burp itself would be the bottleneck. Signing follows the HTTP handler's rules
+ * ({@link HeadlessSigner}); everything else is forwarded untouched.
+ *
+ * <p>The load tool sends plain HTTP to the forwarder, either with origin-form paths (forwarded to
+ * {@code --upstream}, or the profile's API base) or as an HTTP proxy with absolute URIs. Upstream requests go
+ * over one pooled {@link HttpClient}, so TLS handshakes are paid once per connection, not per request. The
+ * profile comes from the {@value #PROFILE_HEADER} header, or {@code --profile}, or the first one in the file.
+ *
+ * <p>Every {@code --report} seconds it prints throughput and the latency it adds (time in the forwarder minus
+ * the upstream round trip), followed by upstream latency per endpoint and profile from {@link UpstreamLatency}.
+ *
+ * <pre>
+ * java -jar burp-zota-signer.jar --profiles profiles.json [--listen [host:]port] [--upstream url] [--profile name]
+ *      [--report seconds] [--timeout seconds] [--csv file] [--http2]
+ * </pre>
+ */
+public class SigningForwarder {
+
+    public static final String PROFILE_HEADER = "X-Zota-Profile";
+    private static final int DEFAULT_PORT = 8788;
+    /** Headers the forwarder or {@link HttpClient} owns; never copied from one side to the other. */
+    private static final Set<String> HOP_BY_HOP = Set.of("connection", "keep-alive", "proxy-connection",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "host", "content-length", "expect",
+            PROFILE_HEADER.toLowerCase(Locale.ROOT));
+    private static final ObjectReader PROFILE_READER = Json.reader(ZotaProfile.class);
+
+    private final Map<String, CompiledProfile> profiles;
+    private final CompiledProfile defaultProfile;
+    private final String upstream;
+    private final Duration timeout;
+    private final HttpClient client;
+    private final ZotaExecutors executors;
+    private final UpstreamLatency latency = new UpstreamLatency();
+    private final AtomicInteger ids = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder signed = new LongAdder();
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder signErrors = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder addedNanos = new LongAdder();
+    private final AtomicLong addedMaxNanos = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService lane;
+    private long lastReportNanos;
+    private long lastRequests;
+    private long lastAddedNanos;
+
+    /**
+     * @param defaultProfile profile used when a request names none; the first profile when null.
+     * @param upstream       base URL for origin-form requests, or null to use each profile's API base.
+     */
+    public SigningForwarder(Map<String, CompiledProfile> profiles, String defaultProfile, String upstream,
+                            Duration timeout, boolean http2, ZotaExecutors executors) {
+        if (profiles.isEmpty()) {
+            throw new IllegalArgumentException("no profiles");
+        }
+        this.profiles = profiles;
+        this.defaultProfile = defaultProfile == null ? profiles.values().iterator().next() : profiles.get(defaultProfile);
+        if (this.defaultProfile == null) {
+            throw new IllegalArgumentException("unknown profile '" + defaultProfile + "'");
+        }
+        this.upstream = upstream == null ? null : stripTrail(upstream);
+        this.timeout = timeout;
+        this.executors = executors;
+        this.client = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    public synchronized void start(InetSocketAddress listen) throws IOException {
+        HttpServer s = HttpServer.create(listen, 1024);
+        lane = executors.lane(ZotaExecutors.Task.SERVICE);
+        s.setExecutor(lane);
+        s.createContext("/", this::handle);
+        s.start();
+        server = s;
+        lastReportNanos = System.nanoTime();
+        ZotaLogger.info("Forwarding on " + address() + " to " + (upstream != null ? upstream : "each profile's API base")
+                + ", default profile " + defaultProfile.name());
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            lane.shutdown();
+            server = null;
+        }
+    }
+
+    public synchronized String address() {
+        if (server == null) {
+            return null;
+        }
+        InetSocketAddress a = server.getAddress();
+        return a.getAddress().getHostAddress() + ":" + a.getPort();
+    }
+
+    public UpstreamLatency latency() {
+        return latency;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long entered = System.nanoTime();
+        requests.increment();
+        try (exchange) {
+            try {
+                forward(exchange, entered);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.increment();
+            } catch (Exception e) {
+                failed.increment();
+                if (exchange.getResponseCode() == -1) {
+                    respond(exchange, 502, "upstream failed: " + e.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void forward(HttpExchange exchange, long entered) throws Exception {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        String method = exchange.getRequestMethod();
+        URI uri = exchange.getRequestURI();
+        String named = exchange.getRequestHeaders().getFirst(PROFILE_HEADER);
+        CompiledProfile p = named == null || named.isBlank() ? defaultProfile : profiles.get(named.trim());
+        if (p == null) {
+            failed.increment();
+            respond(exchange, 400, "unknown profile '" + named.trim() + "'");
+            return;
+        }
+
+        String query = uri.getRawQuery();
+        HeadlessSigner.Signed s = null;
+        long signStart = System.nanoTime();
+        try {
+            s = HeadlessSigner.sign(method, uri.getRawPath(), query, new String(body, StandardCharsets.UTF_8), p);
+        } catch (Exception e) {
+            // sent unsigned, as the HTTP handler does when signing fails
+            signErrors.increment();
+        }
+        long signNanos = System.nanoTime() - signStart;
+        if (s != null) {
+            signed.increment();
+            query = s.query();
+            if (s.endpoint() == ZotaEndpoint.DEPOSIT || s.endpoint() == ZotaEndpoint.PAYOUT) {
+                body = s.body().getBytes(StandardCharsets.UTF_8);
+            }
+        } else {
+            passed.increment();
+        }
+
+        String base = uri.isAbsolute() ? uri.getScheme() + "://" + uri.getRawAuthority()
+                : upstream != null ? upstream : p.baseUrl();
+        if (base == null) {
+            failed.increment();
+            respond(exchange, 502, "no upstream for " + uri.getRawPath() + " (profile " + p.name() + " has no API base)");
+            return;
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + uri.getRawPath()
+                        + (query == null || query.isEmpty() ? "" : "?" + query)))
+                .timeout(timeout)
+                .method(method, body.length == 0 ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (Map.Entry<String, List<String>> h : exchange.getRequestHeaders().entrySet()) {
+            if (!HOP_BY_HOP.contains(h.getKey().toLowerCase(Locale.ROOT))) {
+                for (String v : h.getValue()) request.header(h.getKey(), v);
+            }
+        }
+
+        int id = ids.incrementAndGet();
+        if (s != null) {
+            latency.sent(id, s.endpoint(), p.name(), signNanos, System.nanoTime() - entered);
+        }
+        long sent = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        long upstreamNanos = System.nanoTime() - sent;
+        byte[] out = response.body();
+        if (s != null) {
+            latency.received(id, response.statusCode(), out.length);
+        }
+
+        Headers headers = exchange.getResponseHeaders();
+        response.headers().map().forEach((name, values) -> {
+            if (!name.startsWith(":") && !HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, values);
+            }
+        });
+        exchange.sendResponseHeaders(response.statusCode(), out.length == 0 || method.equals("HEAD") ? -1 : out.length);
+        if (out.length > 0 && !method.equals("HEAD")) {
+            exchange.getResponseBody().write(out);
+        }
+        long added = System.nanoTime() - entered - upstreamNanos;
+        addedNanos.add(added);
+        addedMaxNanos.accumulateAndGet(added, Math::max);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] out = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, out.length);
+        exchange.getResponseBody().write(out);
+    }
+
+    /**
+     * Throughput and added latency since the previous report, then upstream latency per endpoint and profile.
+     */
+    public synchronized String report() {
+        long now = System.nanoTime();
+        long total = requests.sum();
+        long added = addedNanos.sum();
+        long window = total - lastRequests;
+        double seconds = Math.max(1e-9, (now - lastReportNanos) / 1e9);
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                "%.0f req/s over %.1f s | total %d (signed %d, passed through %d, sign errors %d, failed %d)"
+                        + " | added latency mean %.3f ms, max %.3f ms",
+                window / seconds, seconds, total, signed.sum(), passed.sum(), signErrors.sum(), failed.sum(),
+                window == 0 ? 0.0 : (added - lastAddedNanos) / 1e6 / window, addedMaxNanos.get() / 1e6));
+        for (UpstreamLatency.Stats st : latency.snapshot()) {
+            sb.append(String.format(Locale.ROOT,
+                    "%n  %-16s %-16s %8d responses, upstream p50 %.1f / p90 %.1f / p99 %.1f / max %.1f ms, sign %d µs, statuses %s",
+                    st.endpoint().label(), st.profile(), st.responses(), st.p50(), st.p90(), st.p99(), st.max(),
+                    st.signMicros(), st.statuses()));
+        }
+        lastReportNanos = now;
+        lastRequests = total;
+        lastAddedNanos = added;
+        return sb.toString();
+    }
+
+    /**
+     * Reads a profile export (a JSON array, or the legacy name-to-profile object) into compiled profiles by name,
+     * in file order.
+     */
+    static Map<String, CompiledProfile> loadProfiles(Path file) throws IOException {
+        Map<String, CompiledProfile> out = new LinkedHashMap<>();
+        try (JsonParser parser = Json.parser(Files.newInputStream(file))) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    add(out, PROFILE_READER.readValue(parser), null);
+                }
+            } else if (first == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    add(out, PROFILE_READER.readValue(parser), name);
+                }
+            } else {
+                throw new IOException("Expected a JSON array or object of profiles in " + file);
+            }
+        }
+        return out;
+    }
+
+    private static void add(Map<String, CompiledProfile> out, ZotaProfile p, String name) {
+        if (p == null) {
+            return;
+        }
+        if (p.getName() == null || p.getName().isBlank()) {
+            p.setName(name);
+        }
+        if (p.getName() == null || p.getName().isBlank()) {
+            return;
+        }
+        p.setName(p.getName().trim());
+        CompiledProfile c = CompiledProfile.of(p);
+        if (c.secret().isEmpty()) {
+            ZotaLogger.error("Profile " + c.name() + " has no secret; export profiles with secrets included");
+        }
+        out.put(c.name(), c);
+    }
+
+    /**
+     * Parses {@code --name value} pairs and bare {@code --flag}s.
+     *
+     * @throws IllegalArgumentException for an unknown option or a missing value.
+     */
+    static Map<String, String> options(String[] args, Set<String> valued, Set<String> flags) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i].startsWith("--") ? args[i].substring(2) : "";
+            if (flags.contains(name)) {
+                out.put(name, "true");
+            } else if (valued.contains(name) && i + 1 < args.length) {
+                out.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("unexpected argument " + args[i]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * {@code port} (loopback) or {@code host:port}.
+     */
+    static InetSocketAddress listenAddress(String value, int defaultPort) {
+        if (value == null) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), defaultPort);
+        }
+        int colon = value.lastIndexOf(':');
+        return colon < 0
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(value))
+                : new InetSocketAddress(value.substring(0, colon), Integer.parseInt(value.substring(colon + 1)));
+    }
+
+    private static String stripTrail(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ZotaLogger.initConsole();
+        // headers and body are separate writes; without TCP_NODELAY each keep-alive response waits on a delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        System.exit(run(args));
+    }
+
+    /**
+     * Parses the command line and forwards until the JVM shuts down.
+     *
+     * @return the exit status: 2 for a usage error, otherwise 0 once the calling thread is interrupted.
+     */
+    static int run(String[] args) throws Exception {
+        Map<String, String> o;
+        try {
+            o = options(args, Set.of("profiles", "profile", "listen", "upstream", "report", "timeout", "csv"), Set.of("http2"));
+            if (!o.containsKey("profiles")) {
+                throw new IllegalArgumentException("--profiles is required");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: java -jar burp-zota-signer.jar --profiles profiles.json [--listen [host:]port] [--upstream url]"
+                    + " [--profile name] [--report seconds] [--timeout seconds] [--csv file] [--http2]");
+            return 2;
+        }
+
+        ZotaExecutors executors = new ZotaExecutors();
+        SigningForwarder forwarder = new SigningForwarder(loadProfiles(Path.of(o.get("profiles"))), o.get("profile"),
+                o.get("upstream"), Duration.ofSeconds(Long.parseLong(o.getOrDefault("timeout", "30"))),
+                o.containsKey("http2"), executors);
+        forwarder.start(listenAddress(o.get("listen"), DEFAULT_PORT));
+        long every = Long.parseLong(o.getOrDefault("report", "10"));
+        executors.scheduler().scheduleAtFixedRate(() -> System.out.println(forwarder.report()), every, every, TimeUnit.SECONDS);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            forwarder.stop();
+            System.out.println(forwarder.report());
+            if (o.containsKey("csv")) {
+                try (Writer out = Files.newBufferedWriter(Path.of(o.get("csv")), StandardCharsets.UTF_8)) {
+                    forwarder.latency().writeCsv(out);
+                } catch (IOException e) {
+                    System.err.println("Latency CSV failed: " + e.getMessage());
+                }
+            }
+            executors.close();
+        }, "zota-forwarder-shutdown"));
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
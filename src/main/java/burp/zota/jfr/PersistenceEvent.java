@@ -0,0 +1,34 @@
+package burp.zota.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A write of extension state into the Burp project file.
+ */
+@Name("burp.zota.Persistence")
+@Label("Zota Persistence Write")
+@Category({"Burp Extensions", "Zota Signer"})
+@Description("Zota Signer state written to Burp project persistence")
+@Enabled(false)
+@StackTrace(false)
+public class PersistenceEvent extends Event {
+    @Label("Component")
+    public String component;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,46 @@
+package burp.zota.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One pass through the signer for a request. The event's duration covers endpoint matching, profile
+ * resolution, signing and request rewriting.
+ */
+@Name("burp.zota.Signing")
+@Label("Zota Signing")
+@Category({"Burp Extensions", "Zota Signer"})
+@Description("A request analysed or signed by the Zota Signer extension")
+@Enabled(false)
+@StackTrace(false)
+public class SigningEvent extends Event {
+    @Label("Tool")
+    public String tool;
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Profile")
+    public String profile;
+
+    @Label("Body In")
+    @DataAmount
+    public long bytesIn;
+
+    @Label("Body Out")
+    @DataAmount
+    public long bytesOut;
+
+    @Label("Cache Hit")
+    @Description("Prefix midstate (or, for Scanner, the per-base-request target) was already cached")
+    public boolean cacheHit;
+
+    @Label("Signed")
+    public boolean signed;
+}
@@ -0,0 +1,29 @@
+package burp.zota.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Outcome of checking a callback or final-redirect signature.
+ */
+@Name("burp.zota.Verification")
+@Label("Zota Verification")
+@Category({"Burp Extensions", "Zota Signer"})
+@Description("A callback or final-redirect signature checked by the Zota Signer extension")
+@Enabled(false)
+@StackTrace(false)
+public class VerificationEvent extends Event {
+    @Label("Kind")
+    public String kind;
+
+    @Label("Profile")
+    public String profile;
+
+    @Label("Valid")
+    public boolean valid;
+}
@@ -0,0 +1,352 @@
+package burp.zota.journal;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.core.ToolType;
+import burp.api.montoya.persistence.PersistedList;
+import burp.api.montoya.persistence.PersistedObject;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.jfr.PersistenceEvent;
+import burp.zota.signer.ZotaEndpoint;
+import burp.zota.signer.ZotaSigner;
+import burp.zota.util.ZotaLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only record of every signature the extension produced, stored in the Burp project.
+ *
+ * <p>Each entry is a fixed 48-byte record: timestamp (8), tool (1), endpoint (1), missing-field bitmask (2),
+ * profile id (4) and the raw 32-byte signature. The secret is never recorded. Records are appended to an
+ * in-memory chunk of {@value #CHUNK_RECORDS} under a short lock and deflated into extension persistence on the
+ * journal lane. The periodic flush rewrites the open chunk in place under its own sequence number, which only
+ * advances once the chunk is full, so the newest {@value #MAX_CHUNKS} chunks hold that many full chunks of
+ * history however often the journal is flushed. Whatever is still buffered is written when the extension unloads.
+ */
+public class SigningJournal {
+
+    static final int RECORD_SIZE = 48;
+    static final int CHUNK_RECORDS = 1024;
+    static final int MAX_CHUNKS = 64;
+    private static final long FLUSH_INTERVAL_SECONDS = 15;
+
+    private static final String KEY_CHUNK = "zota.journal.chunk.";
+    private static final String KEY_FIRST = "zota.journal.first";
+    private static final String KEY_NEXT = "zota.journal.next";
+    private static final String KEY_PROFILES = "zota.journal.profiles";
+
+    private static final ToolType[] TOOLS = ToolType.values();
+    private static final ZotaEndpoint[] ENDPOINTS = ZotaEndpoint.values();
+
+    /**
+     * Decoded journal record.
+     */
+    public record Entry(long timestamp, ToolType tool, ZotaEndpoint endpoint, String profile, String signature,
+                        List<String> missingFields) {}
+
+    private final MontoyaApi api;
+    private final ExecutorService flusher;
+
+    private final Object lock = new Object();
+    // Held for every persistence write so chunk index updates and profile list writes don't interleave; never taken inside lock
+    private final Object writeLock = new Object();
+    private ByteBuffer buffer = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_SIZE);
+    private int count;
+    private long nextSeq;
+    private final Map<String, Integer> profileIds = new HashMap<>();
+    private final List<String> profileNames = new ArrayList<>();
+    private boolean profilesDirty;
+
+    private long firstPersisted;
+    // Newest chunk written and how many bytes of it, so a stale partial copy never overwrites newer data; guarded by writeLock
+    private long writtenSeq = -1;
+    private int writtenLength;
+
+    public SigningJournal(MontoyaApi api, ZotaExecutors executors) {
+        this.api = api;
+        load();
+        this.flusher = executors.lane(ZotaExecutors.Task.JOURNAL);
+        executors.scheduler().scheduleWithFixedDelay(() -> flusher.execute(this::flush),
+                FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        executors.onClose("journal", this::flush);
+    }
+
+    /**
+     * Records a signature. Safe to call from Burp's request threads; does no I/O.
+     */
+    public void append(ToolType tool, ZotaSigner.Signing signing) {
+        if (signing == null || signing.endpoint() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int mask = signing.endpoint().fieldMask(signing.missingFields());
+        ByteBuffer full = null;
+        long seq = 0;
+        synchronized (lock) {
+            int off = count * RECORD_SIZE;
+            buffer.putLong(off, now);
+            buffer.put(off + 8, tool == null ? (byte) -1 : (byte) tool.ordinal());
+            buffer.put(off + 9, (byte) signing.endpoint().ordinal());
+            buffer.putShort(off + 10, (short) mask);
+            buffer.putInt(off + 12, profileId(signing.profileName()));
+            putSignature(buffer, off + 16, signing.signature());
+            if (++count == CHUNK_RECORDS) {
+                full = buffer;
+                seq = nextSeq++;
+                buffer = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_SIZE);
+                count = 0;
+            }
+        }
+        if (full != null) {
+            byte[] data = full.array();
+            long chunkSeq = seq;
+            try {
+                flusher.execute(() -> writeChunk(chunkSeq, data, data.length));
+            } catch (RejectedExecutionException e) {
+                // unloading: the lane is gone, so write it here rather than lose it
+                writeChunk(chunkSeq, data, data.length);
+            }
+        }
+    }
+
+    /**
+     * Writes buffered records to project persistence, rewriting the open chunk; the records stay buffered until
+     * the chunk fills. Runs on the journal lane; may also be called directly.
+     */
+    public void flush() {
+        byte[] data;
+        long seq;
+        synchronized (lock) {
+            if (count == 0) {
+                data = null;
+                seq = -1;
+            } else {
+                data = Arrays.copyOf(buffer.array(), count * RECORD_SIZE);
+                seq = nextSeq;
+            }
+        }
+        if (data != null) {
+            writeChunk(seq, data, data.length);
+            return;
+        }
+        synchronized (writeLock) {
+            try {
+                persistProfilesIfDirty();
+            } catch (Throwable t) {
+                ZotaLogger.error("Failed to write signing journal profiles: " + t.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads all retained records, oldest first, including those not yet flushed.
+     */
+    public List<Entry> entries() {
+        List<String> names;
+        byte[] pending;
+        long first;
+        long next;
+        synchronized (lock) {
+            names = new ArrayList<>(profileNames);
+            pending = Arrays.copyOf(buffer.array(), count * RECORD_SIZE);
+            first = firstPersisted;
+            next = nextSeq;
+        }
+        List<Entry> out = new ArrayList<>();
+        PersistedObject store = api.persistence().extensionData();
+        for (long seq = first; seq < next; seq++) {
+            ByteArray chunk = store.getByteArray(KEY_CHUNK + seq);
+            if (chunk == null) {
+                continue;
+            }
+            try {
+                decode(inflate(chunk.getBytes()), names, out);
+            } catch (DataFormatException e) {
+                ZotaLogger.error("Skipping corrupt journal chunk " + seq + ": " + e.getMessage());
+            }
+        }
+        decode(pending, names, out);
+        return out;
+    }
+
+    private void writeChunk(long seq, byte[] data, int length) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        try {
+            synchronized (writeLock) {
+                if (length < CHUNK_RECORDS * RECORD_SIZE
+                        && (seq < writtenSeq || (seq == writtenSeq && length <= writtenLength))) {
+                    // a partial copy overtaken by a later write of the same or a newer chunk
+                    event.succeeded = true;
+                    return;
+                }
+                PersistedObject store = api.persistence().extensionData();
+                byte[] deflated = deflate(data, length);
+                store.setByteArray(KEY_CHUNK + seq, ByteArray.byteArray(deflated));
+                if (seq >= writtenSeq) {
+                    writtenLength = seq == writtenSeq ? Math.max(writtenLength, length) : length;
+                    writtenSeq = seq;
+                }
+                event.bytes = deflated.length;
+                persistProfilesIfDirty();
+                long first;
+                synchronized (lock) {
+                    first = firstPersisted;
+                }
+                long next = Math.max(seq + 1, Optional.ofNullable(store.getLong(KEY_NEXT)).orElse(0L));
+                store.setLong(KEY_NEXT, next);
+                while (next - first > MAX_CHUNKS) {
+                    store.deleteByteArray(KEY_CHUNK + first);
+                    first++;
+                }
+                store.setLong(KEY_FIRST, first);
+                synchronized (lock) {
+                    firstPersisted = Math.max(firstPersisted, first);
+                }
+            }
+            event.succeeded = true;
+        } catch (Throwable t) {
+            ZotaLogger.error("Failed to write signing journal: " + t.getMessage());
+        } finally {
+            if (event.shouldCommit()) {
+                event.component = "journal";
+                event.key = KEY_CHUNK + seq;
+                event.commit();
+            }
+        }
+    }
+
+    private void load() {
+        try {
+            PersistedObject store = api.persistence().extensionData();
+            Long first = store.getLong(KEY_FIRST);
+            Long next = store.getLong(KEY_NEXT);
+            firstPersisted = first == null ? 0 : first;
+            nextSeq = next == null ? firstPersisted : next;
+            PersistedList<String> names = store.getStringList(KEY_PROFILES);
+            if (names != null) {
+                for (String name : names) {
+                    profileIds.put(name, profileNames.size());
+                    profileNames.add(name);
+                }
+            }
+        } catch (Throwable t) {
+            ZotaLogger.error("Failed to load signing journal index: " + t.getMessage());
+        }
+    }
+
+    // Caller holds lock
+    private int profileId(String name) {
+        String key = name == null ? "" : name;
+        Integer id = profileIds.get(key);
+        if (id == null) {
+            id = profileNames.size();
+            profileIds.put(key, id);
+            profileNames.add(key);
+            profilesDirty = true;
+        }
+        return id;
+    }
+
+    // Caller holds writeLock; copies the names under lock and writes them outside it
+    private void persistProfilesIfDirty() {
+        List<String> names;
+        synchronized (lock) {
+            if (!profilesDirty) {
+                return;
+            }
+            names = new ArrayList<>(profileNames);
+            profilesDirty = false;
+        }
+        try {
+            PersistedList<String> list = PersistedList.persistedStringList();
+            list.addAll(names);
+            api.persistence().extensionData().setStringList(KEY_PROFILES, list);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                profilesDirty = true;
+            }
+            throw e;
+        }
+    }
+
+    private static void decode(byte[] data, List<String> names, List<Entry> out) {
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        for (int off = 0; off + RECORD_SIZE <= data.length; off += RECORD_SIZE) {
+            long ts = buf.getLong(off);
+            int tool = buf.get(off + 8);
+            int endpoint = buf.get(off + 9);
+            int mask = buf.getShort(off + 10) & 0xffff;
+            int profile = buf.getInt(off + 12);
+            ZotaEndpoint ep = endpoint >= 0 && endpoint < ENDPOINTS.length ? ENDPOINTS[endpoint] : null;
+            out.add(new Entry(
+                    ts,
+                    tool >= 0 && tool < TOOLS.length ? TOOLS[tool] : null,
+                    ep,
+                    profile >= 0 && profile < names.size() ? names.get(profile) : "",
+                    signatureHex(data, off + 16),
+                    ep == null ? List.of() : ep.fieldsIn(mask)));
+        }
+    }
+
+    private static void putSignature(ByteBuffer buf, int off, String hex) {
+        for (int i = 0; i < 32; i++) {
+            int hi = hex != null && hex.length() == 64 ? Character.digit(hex.charAt(i * 2), 16) : -1;
+            int lo = hex != null && hex.length() == 64 ? Character.digit(hex.charAt(i * 2 + 1), 16) : -1;
+            buf.put(off + i, hi < 0 || lo < 0 ? 0 : (byte) ((hi << 4) | lo));
+        }
+    }
+
+    private static String signatureHex(byte[] data, int off) {
+        StringBuilder sb = new StringBuilder(64);
+        for (int i = 0; i < 32; i++) {
+            int b = data[off + i] & 0xff;
+            sb.append(Character.forDigit(b >> 4, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] tmp = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(tmp);
+                out.write(tmp, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(CHUNK_RECORDS * RECORD_SIZE);
+            byte[] tmp = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(tmp);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                out.write(tmp, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
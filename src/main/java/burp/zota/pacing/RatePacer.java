@@ -0,0 +1,235 @@
+package burp.zota.pacing;
+
+import burp.zota.util.ZotaLogger;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces signed requests per profile with a token bucket whose rate adapts to what Zota answers.
+ *
+ * <p>A throttling response (HTTP 429, a {@code Retry-After} header, or an error body that mentions a rate
+ * limit) halves the profile's rate and pauses it for the advertised delay. Each 2xx raises the rate by
+ * {@code 1/rate}, so a profile running at full speed gains about one request per second every second, up to
+ * the configured maximum. Decreases are at most one per cooldown, so a burst of throttled responses
+ * already in flight counts once.
+ *
+ * <p>{@link #acquire} blocks the sending thread, which is how the HTTP handler holds Intruder and Scanner
+ * back. Responses are tied to their profile by Burp's message ID; messages that never get a response are
+ * forgotten oldest first once {@value #PENDING_LIMIT} are outstanding.
+ */
+public class RatePacer {
+
+    public static final double MIN_RATE = 0.2;
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long DEFAULT_RETRY_AFTER_MILLIS = 1_000;
+    static final int PENDING_LIMIT = 16_384;
+    private static final int BODY_SCAN_LIMIT = 2_048;
+
+    /**
+     * Current pacing state of one profile. {@code lastDecision} describes the last rate change, e.g.
+     * {@code "429, Retry-After 5s: 8.0 -> 4.0/s"}.
+     */
+    public record Stats(String profile, double rate, long sent, long delayed, long waitedMillis, long throttled,
+                        long pausedMillis, String lastDecision) {}
+
+    private static final class Bucket {
+        final String profile;
+        double rate;
+        long nextFreeAt;
+        long pausedUntil;
+        long lastDecreaseAt;
+        long sent;
+        long delayed;
+        long waitedNanos;
+        long throttled;
+        String lastDecision = "";
+
+        Bucket(String profile, double rate, long now) {
+            this.profile = profile;
+            this.rate = rate;
+            this.nextFreeAt = now;
+            this.lastDecreaseAt = now - DECREASE_COOLDOWN_NANOS;
+        }
+    }
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Integer, String> pending = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > PENDING_LIMIT;
+        }
+    });
+    private volatile double initialRate;
+    private volatile double maxRate;
+
+    public RatePacer(double initialRate, double maxRate) {
+        configure(initialRate, maxRate);
+    }
+
+    /**
+     * Sets the starting rate for profiles seen from now on and the ceiling for all of them (requests/second).
+     */
+    public void configure(double initialRate, double maxRate) {
+        this.maxRate = Math.max(MIN_RATE, maxRate);
+        this.initialRate = Math.min(this.maxRate, Math.max(MIN_RATE, initialRate));
+        for (Bucket b : buckets.values()) {
+            synchronized (b) {
+                b.rate = Math.min(b.rate, this.maxRate);
+            }
+        }
+    }
+
+    /**
+     * Waits for the profile's next send slot, at most a minute, and remembers the message so its response
+     * can adjust the rate.
+     *
+     * @return nanoseconds spent waiting.
+     */
+    public long acquire(int messageId, String profile) {
+        if (profile == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        Bucket b = buckets.computeIfAbsent(profile, p -> new Bucket(p, initialRate, now));
+        long wait;
+        synchronized (b) {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / b.rate);
+            // Idle time earns at most one second of burst
+            long earliest = Math.max(b.nextFreeAt, now - TimeUnit.SECONDS.toNanos(1));
+            long slot = Math.max(earliest, b.pausedUntil);
+            wait = Math.min(Math.max(0, slot - now), MAX_WAIT_NANOS);
+            b.nextFreeAt = slot + interval;
+            b.sent++;
+            if (wait > 0) {
+                b.delayed++;
+                b.waitedNanos += wait;
+            }
+        }
+        if (messageId >= 0) {
+            pending.put(messageId, profile);
+        }
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return wait;
+    }
+
+    /**
+     * Feeds a response back into the pacing of the profile that signed its request. Responses to messages
+     * that were not paced are ignored.
+     *
+     * @param retryAfter the {@code Retry-After} header, or null.
+     * @param body       the response body as text, or null; only its start is inspected.
+     */
+    public void onResponse(int messageId, int status, String retryAfter, String body) {
+        String profile = pending.remove(messageId);
+        if (profile == null) {
+            return;
+        }
+        Bucket b = buckets.get(profile);
+        if (b == null) {
+            return;
+        }
+        String reason = throttleReason(status, retryAfter, body);
+        long now = System.nanoTime();
+        synchronized (b) {
+            if (reason != null) {
+                b.throttled++;
+                long retryMillis = retryAfterMillis(retryAfter);
+                long pause = TimeUnit.MILLISECONDS.toNanos(retryMillis >= 0 ? retryMillis : DEFAULT_RETRY_AFTER_MILLIS);
+                b.pausedUntil = Math.max(b.pausedUntil, now + Math.min(pause, MAX_WAIT_NANOS));
+                if (now - b.lastDecreaseAt >= DECREASE_COOLDOWN_NANOS) {
+                    double before = b.rate;
+                    b.rate = Math.max(MIN_RATE, b.rate / 2);
+                    b.lastDecreaseAt = now;
+                    b.lastDecision = reason + (retryMillis >= 0 ? ", Retry-After " + retryMillis / 1000.0 + "s" : "")
+                            + ": " + format(before) + " -> " + format(b.rate) + "/s";
+                    ZotaLogger.info("Pacing " + profile + ": " + b.lastDecision);
+                }
+            } else if (status >= 200 && status < 300 && b.rate < maxRate) {
+                b.rate = Math.min(maxRate, b.rate + 1.0 / b.rate);
+            }
+        }
+    }
+
+    /**
+     * @return why the response counts as throttling, or null if it does not.
+     */
+    static String throttleReason(int status, String retryAfter, String body) {
+        if (status == 429) {
+            return "429";
+        }
+        if (status >= 400 && retryAfter != null && !retryAfter.isBlank()) {
+            return status + " with Retry-After";
+        }
+        if (status >= 400 && body != null) {
+            String head = body.substring(0, Math.min(body.length(), BODY_SCAN_LIMIT)).toLowerCase(Locale.ROOT);
+            if (head.contains("too many requests") || head.contains("rate limit") || head.contains("throttl")
+                    || head.contains("\"code\":\"429\"") || head.contains("\"code\": \"429\"")) {
+                return status + " rate-limit body";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the delay a {@code Retry-After} value asks for (seconds or an HTTP date), or -1 if absent or unreadable.
+     */
+    static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        String v = retryAfter.trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(v) * 1000));
+        } catch (NumberFormatException e) {
+            // not delta-seconds; try an HTTP date
+        }
+        try {
+            long at = ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - System.currentTimeMillis());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return per-profile state, slowest profile first.
+     */
+    public List<Stats> snapshot() {
+        long now = System.nanoTime();
+        List<Stats> out = new ArrayList<>(buckets.size());
+        for (Bucket b : buckets.values()) {
+            synchronized (b) {
+                out.add(new Stats(b.profile, b.rate, b.sent, b.delayed, TimeUnit.NANOSECONDS.toMillis(b.waitedNanos),
+                        b.throttled, TimeUnit.NANOSECONDS.toMillis(Math.max(0, b.pausedUntil - now)), b.lastDecision));
+            }
+        }
+        out.sort(Comparator.comparingDouble(Stats::rate).thenComparing(Stats::profile));
+        return out;
+    }
+
+    /**
+     * Forgets all learned rates and counters.
+     */
+    public void reset() {
+        buckets.clear();
+        pending.clear();
+    }
+
+    private static String format(double rate) {
+        return String.format(Locale.ROOT, "%.1f", rate);
+    }
+}
@@ -0,0 +1,69 @@
+package burp.zota.poll;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.ToolType;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.zota.journal.SigningJournal;
+import burp.zota.profile.CompiledProfile;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.signer.ZotaSigner;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends order-status queries through Burp. The request is built against the profile's API base and re-signed
+ * with the polled order's profile by {@link ZotaSigner#resign}, exactly as a Repeater re-sign would be; the HTTP
+ * handler removes the profile marker before it is sent. Pointing a profile's API base at a local stub server
+ * exercises the whole path without touching Zota.
+ */
+public class MontoyaStatusTransport implements OrderStatusPoller.Transport {
+    private static final String ORDER_STATUS_PATH = "/api/v1/query/order-status/";
+
+    private final MontoyaApi api;
+    private final ZotaSigner signer;
+    private final SigningJournal journal;
+
+    public MontoyaStatusTransport(MontoyaApi api, ZotaSigner signer, SigningJournal journal) {
+        this.api = api;
+        this.signer = signer;
+        this.journal = journal;
+    }
+
+    @Override
+    public String fetchStatus(ZotaProfile profile, String merchantOrderId, String orderId) throws Exception {
+        CompiledProfile compiled = signer.compiled(profile);
+        String base = compiled.baseUrl();
+        if (base == null) {
+            throw new IllegalStateException("profile " + profile.getName() + " has no valid API base");
+        }
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("merchantID", compiled.merchantId());
+        params.put("merchantOrderID", merchantOrderId == null ? "" : merchantOrderId);
+        params.put("orderID", orderId == null ? "" : orderId);
+        params.put("timestamp", "");
+
+        // resign() marks the profile so the HTTP handler does not re-sign the query with the active profile;
+        // the handler strips the marker whatever its scope decision
+        ZotaSigner.Result result = signer.resign(
+                HttpRequest.httpRequestFromUrl(base + ORDER_STATUS_PATH + "?" + QueryString.build(params)), profile);
+        journal.append(ToolType.EXTENSIONS, result.signing());
+        HttpRequestResponse rr = api.http().sendRequest(result.request());
+        HttpResponse response = rr == null ? null : rr.response();
+        if (response == null) {
+            throw new IllegalStateException("no response");
+        }
+        JsonNode json = Json.tree(response.bodyToString());
+        String code = json.path("code").asText("");
+        if (response.statusCode() != 200 || (!code.isEmpty() && !"200".equals(code))) {
+            throw new IllegalStateException(response.statusCode() + " " + json.path("message").asText(""));
+        }
+        String status = json.path("data").path("status").asText("");
+        return status.isEmpty() ? null : status;
+    }
+}
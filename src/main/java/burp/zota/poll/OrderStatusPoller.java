@@ -0,0 +1,315 @@
+package burp.zota.poll;
+
+import burp.zota.correlation.OrderCorrelationIndex;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.util.ZotaLogger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Polls {@code order-status} for outstanding orders until they reach a terminal status.
+ *
+ * <p>Each tracked order is re-queried on an exponential backoff schedule. The shared scheduler thread only keeps
+ * time; every query runs on its own virtual thread in the poll lane, so many orders can be in flight while each waits on the
+ * network. Queries for one profile are spaced by a per-profile rate cap, so a large batch cannot flood the
+ * merchant's API quota. Finished polls stay listed until {@value #MAX_FINISHED} newer ones have finished. How
+ * a query is sent is delegated to a {@link Transport}, which lets the poller be driven against a local stub
+ * instead of Burp.
+ */
+public class OrderStatusPoller {
+
+    /**
+     * Issues one signed order-status query.
+     */
+    @FunctionalInterface
+    public interface Transport {
+        /**
+         * @return the order status reported by the server (e.g. {@code PROCESSING}), or null if none was returned.
+         */
+        String fetchStatus(ZotaProfile profile, String merchantOrderId, String orderId) throws Exception;
+    }
+
+    /**
+     * Backoff schedule: first query after {@code initialDelayMillis}, each later delay multiplied by
+     * {@code factor} up to {@code maxDelayMillis}, giving up after {@code maxAttempts} queries.
+     */
+    public record Schedule(long initialDelayMillis, double factor, long maxDelayMillis, int maxAttempts) {
+        public static final Schedule DEFAULT = new Schedule(5_000, 2.0, 300_000, 20);
+
+        long delayAfter(int attempts) {
+            double delay = initialDelayMillis * Math.pow(factor, Math.max(0, attempts));
+            return (long) Math.min(delay, maxDelayMillis);
+        }
+    }
+
+    public enum State { WAITING, QUERYING, FINAL, GAVE_UP, STOPPED }
+
+    /**
+     * Polling state for one order.
+     */
+    public static final class Poll {
+        private final String key;
+        private final ZotaProfile profile;
+        private final String merchantOrderId;
+        private final String orderId;
+        private volatile State state = State.WAITING;
+        private volatile int attempts;
+        private volatile String lastStatus = "";
+        private volatile String lastError;
+        private volatile long nextAt;
+
+        Poll(String key, ZotaProfile profile, String merchantOrderId, String orderId) {
+            this.key = key;
+            this.profile = profile;
+            this.merchantOrderId = merchantOrderId;
+            this.orderId = orderId;
+        }
+
+        public String profileName() { return profile.getName(); }
+        public String merchantOrderId() { return merchantOrderId; }
+        public String orderId() { return orderId; }
+        public State state() { return state; }
+        public int attempts() { return attempts; }
+        public String lastStatus() { return lastStatus; }
+        public String lastError() { return lastError; }
+        public long nextAt() { return nextAt; }
+
+        boolean active() {
+            return state == State.WAITING || state == State.QUERYING;
+        }
+    }
+
+    static final int MAX_FINISHED = 1_000;
+
+    private final Transport transport;
+    private final Schedule schedule;
+    private final long minSpacingNanos;
+    private final Map<String, Poll> polls = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Poll> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final Map<String, AtomicLong> nextSlotByProfile = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService queries;
+
+    public OrderStatusPoller(ZotaExecutors executors, Transport transport) {
+        this(executors, transport, Schedule.DEFAULT, 2.0);
+    }
+
+    /**
+     * @param maxPerSecondPerProfile upper bound on queries per second issued for any one profile.
+     */
+    public OrderStatusPoller(ZotaExecutors executors, Transport transport, Schedule schedule, double maxPerSecondPerProfile) {
+        this.timer = executors.scheduler();
+        this.queries = executors.lane(ZotaExecutors.Task.POLL);
+        this.transport = transport;
+        this.schedule = schedule;
+        this.minSpacingNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(0.01, maxPerSecondPerProfile));
+    }
+
+    /**
+     * Starts polling an order unless it is already being polled. At least one identifier must be set.
+     *
+     * @return whether a new poll was started.
+     */
+    public boolean track(ZotaProfile profile, String merchantOrderId, String orderId) {
+        if (profile == null || (isEmpty(merchantOrderId) && isEmpty(orderId))) {
+            return false;
+        }
+        String key = key(profile, merchantOrderId, orderId);
+        Poll fresh = new Poll(key, profile, emptyToNull(merchantOrderId), emptyToNull(orderId));
+        Poll existing = polls.putIfAbsent(key, fresh);
+        if (existing != null) {
+            if (existing.active()) {
+                return false;
+            }
+            polls.put(key, fresh);
+        }
+        schedule(fresh, schedule.initialDelayMillis());
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Tracks every indexed order that has a Zota order ID but no terminal status yet.
+     *
+     * @param profiles resolves the profile name recorded on the timeline.
+     * @return number of polls started.
+     */
+    public int trackOutstanding(OrderCorrelationIndex index, Function<String, ZotaProfile> profiles) {
+        int started = 0;
+        for (OrderCorrelationIndex.Timeline t : index.timelines()) {
+            if (t.terminal() || t.orderId() == null || t.profileName() == null) {
+                continue;
+            }
+            if (track(profiles.apply(t.profileName()), t.merchantOrderId(), t.orderId())) {
+                started++;
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Stops polling every order; queries already in flight finish but are not rescheduled.
+     */
+    public void stopAll() {
+        for (Poll p : polls.values()) {
+            if (p.active()) {
+                p.state = State.STOPPED;
+                retire(p);
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Drops finished, stopped and abandoned polls from the list.
+     */
+    public void clearInactive() {
+        finished.clear();
+        finishedCount.set(0);
+        polls.values().removeIf(p -> !p.active());
+        version.incrementAndGet();
+    }
+
+    public List<Poll> polls() {
+        List<Poll> all = new ArrayList<>(polls.values());
+        all.sort(Comparator.comparingLong(Poll::nextAt));
+        return all;
+    }
+
+    public long activeCount() {
+        return polls.values().stream().filter(Poll::active).count();
+    }
+
+    /**
+     * Increases on every state change; lets viewers skip redundant refreshes.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Stops every poll and this poller's queries; the shared scheduler keeps running.
+     */
+    public void shutdown() {
+        stopAll();
+        queries.shutdownNow();
+    }
+
+    private void schedule(Poll poll, long delayMillis) {
+        if (queries.isShutdown()) {
+            return;
+        }
+        poll.nextAt = System.currentTimeMillis() + delayMillis;
+        timer.schedule(() -> {
+            if (!queries.isShutdown()) queries.execute(() -> query(poll));
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void query(Poll poll) {
+        if (poll.state != State.WAITING) {
+            return;
+        }
+        awaitSlot(poll.profile);
+        if (poll.state != State.WAITING) {
+            return;
+        }
+        poll.state = State.QUERYING;
+        version.incrementAndGet();
+        try {
+            String status = transport.fetchStatus(poll.profile, poll.merchantOrderId, poll.orderId);
+            poll.lastError = null;
+            if (status != null && !status.isEmpty()) {
+                poll.lastStatus = status.toUpperCase(Locale.ROOT);
+            }
+        } catch (Exception e) {
+            poll.lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            ZotaLogger.error("Order-status poll failed for " + describe(poll) + ": " + poll.lastError);
+        } finally {
+            poll.attempts++;
+        }
+        if (poll.state == State.STOPPED) {
+            version.incrementAndGet();
+            return;
+        }
+        if (OrderCorrelationIndex.isTerminal(poll.lastStatus)) {
+            poll.state = State.FINAL;
+            retire(poll);
+            ZotaLogger.info("Order " + describe(poll) + " reached " + poll.lastStatus + " after " + poll.attempts + " poll(s)");
+        } else if (poll.attempts >= schedule.maxAttempts()) {
+            poll.state = State.GAVE_UP;
+            retire(poll);
+        } else {
+            poll.state = State.WAITING;
+            schedule(poll, schedule.delayAfter(poll.attempts));
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Queues a poll that just finished and drops the oldest finished poll from the list once more than
+     * {@link #MAX_FINISHED} are kept. A poll re-tracked under the same key is a new entry and stays.
+     */
+    private void retire(Poll poll) {
+        finished.add(poll);
+        if (finishedCount.incrementAndGet() > MAX_FINISHED) {
+            Poll oldest = finished.poll();
+            if (oldest != null) {
+                finishedCount.decrementAndGet();
+                polls.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    /**
+     * Reserves the profile's next free slot and parks the (virtual) thread until it arrives.
+     */
+    private void awaitSlot(ZotaProfile profile) {
+        AtomicLong next = nextSlotByProfile.computeIfAbsent(profile.getName() == null ? "" : profile.getName(),
+                k -> new AtomicLong(System.nanoTime()));
+        long now = System.nanoTime();
+        long slot;
+        while (true) {
+            long current = next.get();
+            slot = Math.max(current, now);
+            if (next.compareAndSet(current, slot + minSpacingNanos)) {
+                break;
+            }
+        }
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static String key(ZotaProfile profile, String merchantOrderId, String orderId) {
+        return profile.getName() + '|' + (isEmpty(orderId) ? "m:" + merchantOrderId : "o:" + orderId);
+    }
+
+    private static String describe(Poll poll) {
+        return poll.orderId != null ? poll.orderId : poll.merchantOrderId;
+    }
+
+    private static boolean isEmpty(String s) {
+        return s == null || s.isEmpty();
+    }
+
+    private static String emptyToNull(String s) {
+        return isEmpty(s) ? null : s;
+    }
+}
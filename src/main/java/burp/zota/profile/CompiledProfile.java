@@ -0,0 +1,231 @@
+package burp.zota.profile;
+
+import burp.api.montoya.http.HttpService;
+import burp.zota.util.ZotaLogger;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable runtime form of a {@link ZotaProfile}, built once when the profile is stored: trimmed merchant and
+ * endpoint IDs, the secret pre-encoded as UTF-8, the API base parsed into a {@code Host} header and base URL,
+ * and SHA-256 midstates for the constant prefixes several formulas start with (merchant
+ * ID, and merchant ID + secret) when the prefix fills at least one 64-byte block. Shorter prefixes are hashed
+ * with the rest of the message, since cloning a digest costs as much as creating one and a partial block
+ * saves no compression. Signing and profile defaults read only this form.
+ *
+ * <p>Every compilation gets a new {@link #version()}, so caches keyed by profile can tell when it changed.
+ * The Burp {@link HttpService} is only built when first asked for, so the headless forwarder can compile
+ * profiles without the Montoya API on the class path.
+ */
+public final class CompiledProfile {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private static final int BLOCK_BYTES = 64;
+
+    private final ZotaProfile source;
+    private final String sourceMerchantId;
+    private final String sourceSecret;
+    private final String sourceEndpointId;
+    private final String sourceApiBase;
+
+    private final long version;
+    private final String name;
+    private final String merchantId;
+    private final String endpointId;
+    private final String secret;
+    private final byte[] secretBytes;
+    private final byte[] merchantBytes;
+    private final String serviceHost;
+    private final int servicePort;
+    private final boolean serviceTls;
+    private volatile HttpService service;
+    private final String hostHeader;
+    private final String baseUrl;
+    private final MessageDigest merchantPrefix;
+    private final MessageDigest merchantSecretPrefix;
+
+    private CompiledProfile(ZotaProfile p) {
+        this.source = p;
+        this.sourceMerchantId = p.getMerchantId();
+        this.sourceSecret = p.getMerchantSecretKey();
+        this.sourceEndpointId = p.getDefaultEndpointId();
+        this.sourceApiBase = p.getApiBase();
+
+        this.version = VERSIONS.incrementAndGet();
+        this.name = p.getName();
+        this.merchantId = trimmed(sourceMerchantId);
+        this.endpointId = trimmed(sourceEndpointId);
+        this.secret = sourceSecret == null ? "" : sourceSecret;
+        this.secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        this.merchantBytes = merchantId.getBytes(StandardCharsets.UTF_8);
+
+        String host = null;
+        int port = -1;
+        boolean tls = false;
+        String parsedHost = null;
+        String parsedBase = null;
+        if (sourceApiBase != null && !sourceApiBase.isBlank()) {
+            try {
+                URI uri = normalizeApiBase(sourceApiBase.trim());
+                tls = "https".equalsIgnoreCase(uri.getScheme());
+                port = uri.getPort() == -1 ? (tls ? 443 : 80) : uri.getPort();
+                host = uri.getHost();
+                parsedHost = isDefaultPort(tls, port) ? host : host + ":" + port;
+                parsedBase = (tls ? "https://" : "http://") + parsedHost;
+            } catch (Exception e) {
+                ZotaLogger.error("Invalid API base for profile " + name + ": " + e.getMessage());
+            }
+        }
+        this.serviceHost = parsedBase == null ? null : host;
+        this.servicePort = port;
+        this.serviceTls = tls;
+        this.hostHeader = parsedHost;
+        this.baseUrl = parsedBase;
+
+        MessageDigest merchant = digest();
+        merchant.update(merchantBytes);
+        MessageDigest merchantSecret = digest();
+        merchantSecret.update(merchantBytes);
+        merchantSecret.update(secretBytes);
+        boolean cloneable = cloneable(merchant);
+        this.merchantPrefix = cloneable && merchantBytes.length >= BLOCK_BYTES ? merchant : null;
+        this.merchantSecretPrefix = cloneable && merchantBytes.length + secretBytes.length >= BLOCK_BYTES ? merchantSecret : null;
+    }
+
+    public static CompiledProfile of(ZotaProfile p) {
+        return new CompiledProfile(p);
+    }
+
+    /**
+     * @return whether this was compiled from {@code p} as it is now. Setters replace field references, so
+     * identity comparison notices any edit made without going through {@link ProfileManager#addOrUpdate}.
+     */
+    public boolean isCurrentFor(ZotaProfile p) {
+        return p == source
+                && p.getName() == name
+                && p.getMerchantId() == sourceMerchantId
+                && p.getMerchantSecretKey() == sourceSecret
+                && p.getDefaultEndpointId() == sourceEndpointId
+                && p.getApiBase() == sourceApiBase;
+    }
+
+    public long version() { return version; }
+
+    public String name() { return name; }
+
+    /** Trimmed merchant ID; empty when unset. */
+    public String merchantId() { return merchantId; }
+
+    /** Trimmed default endpoint ID; empty when unset. */
+    public String endpointId() { return endpointId; }
+
+    /** The secret as entered; empty when unset. */
+    public String secret() { return secret; }
+
+    /** Service for the API base, or null when the profile has none or it does not parse. */
+    public HttpService service() {
+        HttpService s = service;
+        if (s == null && serviceHost != null) {
+            s = HttpService.httpService(serviceHost, servicePort, serviceTls);
+            service = s;
+        }
+        return s;
+    }
+
+    /** {@code Host} header for the API base (with the port when not the scheme's default), or null. */
+    public String hostHeader() { return hostHeader; }
+
+    /** {@code scheme://host[:port]} of the API base, or null. */
+    public String baseUrl() { return baseUrl; }
+
+    /**
+     * Raw {@code SHA-256(parts... + secret)}; null parts count as empty. Starts from the merchant midstate when the first part is this
+     * profile's merchant ID and it has one.
+     */
+    public byte[] digestSecretLast(String... parts) {
+        if (merchantPrefix != null && parts.length > 0 && merchantId.equals(parts[0])) {
+            return copy(merchantPrefix).digest(joined(null, parts, 1, secret));
+        }
+        return digest().digest(joined(null, parts, 0, secret));
+    }
+
+    /**
+     * Raw {@code SHA-256(merchant + secret + parts...)} for a merchant ID taken from the request; uses the
+     * merchant+secret midstate when it is this profile's and there is one.
+     */
+    public byte[] digestSecretSecond(String merchant, String... parts) {
+        String m = merchant == null ? "" : merchant;
+        if (merchantSecretPrefix != null && merchantId.equals(m)) {
+            return copy(merchantSecretPrefix).digest(joined(null, parts, 0, null));
+        }
+        return digest().digest(joined(m + secret, parts, 0, null));
+    }
+
+    private static MessageDigest copy(MessageDigest prefix) {
+        try {
+            return (MessageDigest) prefix.clone();
+        } catch (CloneNotSupportedException e) {
+            // prefixes are only kept when cloneable
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * UTF-8 bytes of {@code head}, {@code parts[from..]} and {@code tail}, so the message goes into the digest
+     * in one update; each separate update costs about as much as hashing a short part. Nulls count as empty.
+     */
+    private static byte[] joined(String head, String[] parts, int from, String tail) {
+        StringBuilder sb = new StringBuilder(128);
+        if (head != null) {
+            sb.append(head);
+        }
+        for (int i = from; i < parts.length; i++) {
+            if (parts[i] != null) {
+                sb.append(parts[i]);
+            }
+        }
+        if (tail != null) {
+            sb.append(tail);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean cloneable(MessageDigest md) {
+        try {
+            md.clone();
+            return true;
+        } catch (CloneNotSupportedException e) {
+            return false;
+        }
+    }
+
+    private static String trimmed(String s) {
+        return s == null ? "" : s.trim();
+    }
+
+    private static boolean isDefaultPort(boolean tls, int port) {
+        return (tls && port == 443) || (!tls && port == 80);
+    }
+
+    private static URI normalizeApiBase(String apiBase) throws Exception {
+        URI uri = new URI(apiBase);
+        if (uri.getScheme() == null) {
+            uri = new URI("https://" + apiBase);
+        }
+        if (uri.getHost() == null || uri.getHost().isEmpty()) {
+            throw new IllegalArgumentException("API base is missing a host");
+        }
+        return uri;
+    }
+}
@@ -0,0 +1,116 @@
+package burp.zota.profile;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Token-prefix index over profile names, merchant IDs, endpoint IDs and API hosts. Each field is lowercased
+ * and split on non-alphanumerics; a query term matches every profile with a token starting with it, and
+ * multi-term queries intersect. Not thread-safe: {@link ProfileManager} guards it with its own lock.
+ */
+final class ProfileIndex {
+
+    private final NavigableMap<String, Set<String>> namesByToken = new TreeMap<>();
+    private final Map<String, Set<String>> tokensByName = new HashMap<>();
+
+    void put(ZotaProfile p) {
+        remove(p.getName());
+        Set<String> tokens = tokens(p);
+        tokensByName.put(p.getName(), tokens);
+        for (String token : tokens) {
+            namesByToken.computeIfAbsent(token, k -> new HashSet<>()).add(p.getName());
+        }
+    }
+
+    void remove(String name) {
+        Set<String> tokens = tokensByName.remove(name);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Set<String> names = namesByToken.get(token);
+            if (names != null && names.remove(name) && names.isEmpty()) {
+                namesByToken.remove(token);
+            }
+        }
+    }
+
+    void clear() {
+        namesByToken.clear();
+        tokensByName.clear();
+    }
+
+    /**
+     * @return names of profiles matching every term of {@code query}, or null for an empty query (everything matches).
+     */
+    Set<String> match(String query) {
+        List<String> terms = split(query);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        Set<String> result = null;
+        for (String term : terms) {
+            Set<String> hits = new HashSet<>();
+            for (Set<String> names : namesByToken.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                hits.addAll(names);
+            }
+            if (result == null) {
+                result = hits;
+            } else {
+                result.retainAll(hits);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> tokens(ZotaProfile p) {
+        Set<String> tokens = new HashSet<>();
+        addField(tokens, p.getName());
+        addField(tokens, p.getMerchantId());
+        addField(tokens, p.getDefaultEndpointId());
+        addField(tokens, host(p.getApiBase()));
+        return tokens;
+    }
+
+    private static void addField(Set<String> tokens, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String whole = value.trim().toLowerCase(Locale.ROOT);
+        tokens.add(whole);
+        tokens.addAll(split(whole));
+    }
+
+    private static List<String> split(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) {
+            return out;
+        }
+        for (String part : text.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+            if (!part.isEmpty()) out.add(part);
+        }
+        return out;
+    }
+
+    private static String host(String apiBase) {
+        if (apiBase == null || apiBase.isBlank()) {
+            return null;
+        }
+        try {
+            return URI.create(apiBase.trim()).getHost();
+        } catch (IllegalArgumentException e) {
+            return apiBase;
+        }
+    }
+}
@@ -1,18 +1,55 @@
 package burp.zota.profile;
 
 import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.persistence.PersistedList;
+import burp.api.montoya.persistence.PersistedObject;
+import burp.zota.jfr.PersistenceEvent;
+import burp.zota.util.Json;
 import burp.zota.util.ZotaLogger;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
 
+/**
+ * Profile store. Each profile is persisted under its own key ({@code zota.profile.<name>}), so saving one
+ * profile rewrites only that profile; the ordered name list is rewritten only when a profile is added or
+ * removed. Projects saved with the old single-map layout are migrated on load. Lookups go through a
+ * {@link ProfileIndex} so search stays fast with thousands of merchant/endpoint profiles, and a short
+ * most-recently-used list backs the context-menu submenu. Every stored profile is also kept as a
+ * {@link CompiledProfile}, rebuilt whenever the profile is saved, for the signing path.
+ */
 public class ProfileManager {
 
+    /**
+     * One page of search results; {@code total} counts every match, not just this page.
+     */
+    public record Page(List<ZotaProfile> profiles, int total) {}
+
+    public static final int RECENT_LIMIT = 10;
+
+    private static final String KEY_PREFIX = "zota.profile.";
+    private static final String KEY_NAMES = "zota.profile.names";
+    private static final String KEY_RECENT = "zota.profile.recent";
+    private static final String KEY_ACTIVE = "zota.active";
+    private static final String LEGACY_KEY = "zota.profiles";
+    private static final int IMPORT_BATCH = 256;
+
     private final MontoyaApi api;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectReader PROFILE_READER = Json.reader(ZotaProfile.class);
+    private static final ObjectReader PROFILES_READER = Json.reader(new TypeReference<Map<String, ZotaProfile>>() {});
 
     private final Map<String, ZotaProfile> profiles = new LinkedHashMap<>();
+    private final Map<String, CompiledProfile> compiled = new HashMap<>();
+    private final ProfileIndex index = new ProfileIndex();
+    private final Deque<String> recent = new ArrayDeque<>();
     private String active;
+    private volatile long version;
 
     public ProfileManager(MontoyaApi api) {
         this.api = api;
@@ -20,25 +57,48 @@ public class ProfileManager {
         if (profiles.isEmpty()) {
             // insert an empty default profile
             ZotaProfile p = new ZotaProfile("default", "", "", "https://api.zotapay-stage.com");
-            profiles.put(p.getName(), p);
+            put(p);
             active = p.getName();
-        } else if (active == null) {
+        } else if (active == null || !profiles.containsKey(active)) {
             active = profiles.keySet().iterator().next();
         }
     }
 
     public synchronized void addOrUpdate(ZotaProfile p) {
-        profiles.put(p.getName(), p);
+        boolean added = put(p);
         if (active == null) active = p.getName();
-        save();
+        version++;
+        writeProfile(p);
+        if (added) writeNames();
     }
 
     public synchronized void remove(String name) {
-        profiles.remove(name);
+        if (profiles.remove(name) == null) {
+            return;
+        }
+        compiled.remove(name);
+        index.remove(name);
+        if (recent.remove(name)) {
+            writeRecent();
+        }
         if (Objects.equals(active, name)) {
             active = profiles.isEmpty() ? null : profiles.keySet().iterator().next();
+            writeActive();
         }
-        save();
+        version++;
+        store().deleteString(KEY_PREFIX + name);
+        writeNames();
+    }
+
+    /**
+     * Monotonic counter bumped on every profile or active-profile change, so callers can cache lookups.
+     */
+    public long version() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return profiles.size();
     }
 
     public synchronized List<ZotaProfile> all() {
@@ -49,14 +109,83 @@ public class ProfileManager {
         return profiles.get(name);
     }
 
+    /**
+     * Profiles matching every whitespace-separated term of {@code query} as a prefix of a name, merchant ID,
+     * endpoint ID or API host token, in insertion order. An empty query matches everything.
+     */
+    public synchronized Page search(String query, int offset, int limit) {
+        Set<String> names = index.match(query);
+        int total = names == null ? profiles.size() : names.size();
+        List<ZotaProfile> page = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+        int seen = 0;
+        for (ZotaProfile p : profiles.values()) {
+            if (page.size() >= limit) break;
+            if (names != null && !names.contains(p.getName())) continue;
+            if (seen++ >= offset) page.add(p);
+        }
+        return new Page(page, total);
+    }
+
+    /**
+     * Most recently used profiles, newest first; entries whose profile was since removed are skipped.
+     */
+    public synchronized List<ZotaProfile> recent() {
+        List<ZotaProfile> out = new ArrayList<>(recent.size());
+        for (String name : recent) {
+            ZotaProfile p = profiles.get(name);
+            if (p != null) out.add(p);
+        }
+        return out;
+    }
+
+    /**
+     * Moves a profile to the front of the recent list. Does not bump {@link #version()}.
+     */
+    public synchronized void markUsed(String name) {
+        if (name == null || !profiles.containsKey(name) || name.equals(recent.peekFirst())) {
+            return;
+        }
+        recent.remove(name);
+        recent.addFirst(name);
+        while (recent.size() > RECENT_LIMIT) {
+            recent.removeLast();
+        }
+        writeRecent();
+    }
+
     public synchronized ZotaProfile getActiveProfile() {
         return profiles.get(active);
     }
 
+    /**
+     * Compiled form of {@code p}: the stored one when {@code p} is the managed profile and unchanged since it
+     * was saved, otherwise a fresh compilation that is not cached (ad-hoc or edited-but-unsaved profiles).
+     */
+    public CompiledProfile compiled(ZotaProfile p) {
+        if (p == null) {
+            return null;
+        }
+        CompiledProfile c;
+        synchronized (this) {
+            c = compiled.get(p.getName());
+        }
+        return c != null && c.isCurrentFor(p) ? c : CompiledProfile.of(p);
+    }
+
+    /**
+     * @return whether {@link #compiled} would return the stored form for {@code p}.
+     */
+    public synchronized boolean isCompiled(ZotaProfile p) {
+        CompiledProfile c = p == null ? null : compiled.get(p.getName());
+        return c != null && c.isCurrentFor(p);
+    }
+
     public synchronized void setActiveProfile(String name) {
         if (profiles.containsKey(name)) {
             active = name;
-            save();
+            version++;
+            writeActive();
+            markUsed(name);
         }
     }
 
@@ -68,35 +197,214 @@ public class ProfileManager {
         return p;
     }
 
+    public CompiledProfile getActiveCompiledOrWarn() {
+        return compiled(getActiveProfileOrWarn());
+    }
+
+    /**
+     * Streams profiles from either a JSON array of profiles (the export format) or the legacy
+     * name-to-profile object, adding or replacing by name. Profiles are parsed and stored in batches, so the
+     * file is never held in memory whole; the name list is written once at the end.
+     *
+     * @return number of profiles imported.
+     */
+    public int importProfiles(InputStream in) throws IOException {
+        int imported = 0;
+        List<ZotaProfile> batch = new ArrayList<>(IMPORT_BATCH);
+        try (JsonParser parser = Json.parser(in)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    imported += collect(batch, PROFILE_READER.readValue(parser), null);
+                }
+            } else if (first == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    imported += collect(batch, PROFILE_READER.readValue(parser), name);
+                }
+            } else if (first != null) {
+                throw new IOException("Expected a JSON array or object of profiles");
+            }
+        } finally {
+            flushImport(batch);
+            synchronized (this) {
+                if (imported > 0) {
+                    version++;
+                    writeNames();
+                }
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * Streams every profile as a JSON array. Secrets are blanked unless {@code includeSecrets} is set.
+     *
+     * @return number of profiles exported.
+     */
+    public int exportProfiles(OutputStream out, boolean includeSecrets) throws IOException {
+        List<ZotaProfile> snapshot = all();
+        try (JsonGenerator generator = Json.generator(out)) {
+            generator.writeStartArray();
+            for (ZotaProfile p : snapshot) {
+                generator.writeStartObject();
+                generator.writeStringField("name", p.getName());
+                generator.writeStringField("merchantId", p.getMerchantId());
+                generator.writeStringField("merchantSecretKey", includeSecrets ? p.getMerchantSecretKey() : "");
+                generator.writeStringField("defaultEndpointId", p.getDefaultEndpointId());
+                generator.writeStringField("apiBase", p.getApiBase());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        return snapshot.size();
+    }
+
+    private int collect(List<ZotaProfile> batch, ZotaProfile p, String name) {
+        if (p == null) {
+            return 0;
+        }
+        if (p.getName() == null || p.getName().isBlank()) {
+            if (name == null || name.isBlank()) {
+                return 0;
+            }
+            p.setName(name);
+        }
+        p.setName(p.getName().trim());
+        batch.add(p);
+        if (batch.size() >= IMPORT_BATCH) {
+            flushImport(batch);
+        }
+        return 1;
+    }
+
+    private synchronized void flushImport(List<ZotaProfile> batch) {
+        for (ZotaProfile p : batch) {
+            put(p);
+            if (active == null) active = p.getName();
+            writeProfile(p);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Adds or replaces a profile in memory, in the index and in compiled form.
+     *
+     * @return whether the name is new.
+     */
+    private boolean put(ZotaProfile p) {
+        boolean added = profiles.put(p.getName(), p) == null;
+        compiled.put(p.getName(), CompiledProfile.of(p));
+        index.put(p);
+        return added;
+    }
+
     private void load() {
         try {
-            String json = api.persistence().extensionData().getString("zota.profiles");
-            if (json != null && !json.isEmpty()) {
-                readJson(json);
+            PersistedObject data = store();
+            PersistedList<String> names = data.getStringList(KEY_NAMES);
+            if (names != null) {
+                for (String name : names) {
+                    String json = data.getString(KEY_PREFIX + name);
+                    if (json != null && !json.isEmpty()) {
+                        put(PROFILE_READER.readValue(json));
+                    }
+                }
+            } else {
+                migrateLegacy(data);
             }
-            String act = api.persistence().extensionData().getString("zota.active");
+            String act = data.getString(KEY_ACTIVE);
             if (act != null && !act.isEmpty()) {
                 active = act;
             }
+            PersistedList<String> mru = data.getStringList(KEY_RECENT);
+            if (mru != null) {
+                for (String name : mru) {
+                    if (profiles.containsKey(name) && recent.size() < RECENT_LIMIT) recent.add(name);
+                }
+            }
         } catch (Throwable t) {
             ZotaLogger.error("Failed to load profiles from project: " + t.getMessage());
         }
     }
 
-    private void save() {
+    /**
+     * Converts the single {@code zota.profiles} map written by earlier versions into per-profile keys.
+     */
+    private void migrateLegacy(PersistedObject data) throws Exception {
+        String json = data.getString(LEGACY_KEY);
+        if (json == null || json.isEmpty()) {
+            return;
+        }
+        Map<String, ZotaProfile> loaded = PROFILES_READER.readValue(json);
+        for (ZotaProfile p : loaded.values()) {
+            put(p);
+            writeProfile(p);
+        }
+        writeNames();
+        data.deleteString(LEGACY_KEY);
+        ZotaLogger.info("Migrated " + loaded.size() + " profile(s) to per-profile storage");
+    }
+
+    private void writeProfile(ZotaProfile p) {
+        String key = KEY_PREFIX + p.getName();
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
         try {
-            String json = mapper.writeValueAsString(profiles);
-            api.persistence().extensionData().setString("zota.profiles", json);
-            api.persistence().extensionData().setString("zota.active", active == null ? "" : active);
+            String json = Json.write(p);
+            store().setString(key, json);
+            event.bytes = json.length();
+            event.succeeded = true;
         } catch (Throwable t) {
-            ZotaLogger.error("Failed to save profiles to project: " + t.getMessage());
+            ZotaLogger.error("Failed to save profile " + p.getName() + " to project: " + t.getMessage());
+        } finally {
+            commit(event, key);
+        }
+    }
+
+    private void writeNames() {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        try {
+            PersistedList<String> list = PersistedList.persistedStringList();
+            list.addAll(profiles.keySet());
+            store().setStringList(KEY_NAMES, list);
+            event.succeeded = true;
+        } catch (Throwable t) {
+            ZotaLogger.error("Failed to save profile list to project: " + t.getMessage());
+        } finally {
+            commit(event, KEY_NAMES);
+        }
+    }
+
+    private void writeActive() {
+        try {
+            store().setString(KEY_ACTIVE, active == null ? "" : active);
+        } catch (Throwable t) {
+            ZotaLogger.error("Failed to save active profile to project: " + t.getMessage());
+        }
+    }
+
+    private void writeRecent() {
+        try {
+            PersistedList<String> list = PersistedList.persistedStringList();
+            list.addAll(recent);
+            store().setStringList(KEY_RECENT, list);
+        } catch (Throwable t) {
+            ZotaLogger.error("Failed to save recent profiles to project: " + t.getMessage());
+        }
+    }
+
+    private static void commit(PersistenceEvent event, String key) {
+        if (event.shouldCommit()) {
+            event.component = "profiles";
+            event.key = key;
+            event.commit();
         }
     }
 
-    private void readJson(String json) throws Exception {
-        Map<String, ZotaProfile> loaded = mapper.readValue(json, new TypeReference<>() {
-        });
-        profiles.clear();
-        profiles.putAll(loaded);
+    private PersistedObject store() {
+        return api.persistence().extensionData();
     }
 }
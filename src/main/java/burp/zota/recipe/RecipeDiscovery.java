@@ -0,0 +1,243 @@
+package burp.zota.recipe;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds which ordered subsets of a request's values hash to a known-valid signature.
+ *
+ * <p>The search is a depth-first walk over field orderings. Every node keeps the SHA-256 midstate of its
+ * prefix, so a child costs one clone and one update for its own value, and all candidates sharing a
+ * prefix share that work. Each node is also checked as a complete formula. The top levels of the tree are
+ * expanded on the calling thread and each subtree below them is submitted as one task, so on the extension's
+ * CPU lane the search uses every core and nothing else.
+ *
+ * <p>Empty values cannot change a plain concatenation, so they are left out of the search and reported
+ * separately; duplicate values are searched once under the first source that holds them. At most
+ * {@link #MAX_FIELDS} fields are tried and searches above {@link #MAX_SEARCH_SIZE} orderings are refused. One
+ * instance runs one search; {@link #cancel()}, or interrupting a worker, stops it from another thread.
+ */
+public final class RecipeDiscovery {
+
+    public static final int DEFAULT_MAX_FIELDS = 6;
+    public static final int MAX_FIELDS = 8;
+    /** About a minute on eight cores. */
+    public static final long MAX_SEARCH_SIZE = 1_000_000_000L;
+    public static final int MAX_MATCHES = 32;
+    /** Splitting below this depth only adds scheduling overhead. */
+    private static final int SPLIT_DEPTH = 2;
+
+    /**
+     * A value the formula may include.
+     */
+    public record Candidate(SignatureRecipe.Source source, String value) {}
+
+    /**
+     * @param matches    every matching ordering, each as the list of sources in hashing order.
+     * @param empty      sources whose value was empty; they may sit anywhere in a real formula.
+     * @param aliases    sources skipped because an earlier source has the same value, keyed by that source.
+     * @param tried      number of orderings hashed.
+     * @param complete   false when the search was cancelled or stopped at {@link #MAX_MATCHES}.
+     */
+    public record Report(List<List<SignatureRecipe.Source>> matches, List<SignatureRecipe.Source> empty,
+                         Map<SignatureRecipe.Source, List<SignatureRecipe.Source>> aliases,
+                         long tried, long elapsedMillis, boolean complete) {}
+
+    private final SignatureRecipe.Source[] sources;
+    private final byte[][] values;
+    private final byte[] target;
+    private final int maxFields;
+    private final List<SignatureRecipe.Source> empty = new ArrayList<>();
+    private final Map<SignatureRecipe.Source, List<SignatureRecipe.Source>> aliases = new LinkedHashMap<>();
+    private final List<int[]> found = new ArrayList<>();
+    private final LongAdder tried = new LongAdder();
+    private volatile boolean stopped;
+
+    /**
+     * @param signatureHex the known-valid signature, hex in either case.
+     * @param maxFields    longest formula tried; capped at {@link #MAX_FIELDS} and at the number of distinct
+     *                     non-empty values.
+     * @throws IllegalArgumentException if the signature is not a hex SHA-256 digest or there are 64 or more
+     *                                  distinct values.
+     */
+    public RecipeDiscovery(List<Candidate> candidates, String signatureHex, int maxFields) {
+        String hex = signatureHex == null ? "" : signatureHex.trim();
+        if (hex.length() != 64) {
+            throw new IllegalArgumentException("Signature is not a hex SHA-256 digest");
+        }
+        this.target = HexFormat.of().parseHex(hex);
+        Map<String, SignatureRecipe.Source> byValue = new LinkedHashMap<>();
+        for (Candidate c : candidates) {
+            if (c.value() == null || c.value().isEmpty()) {
+                empty.add(c.source());
+                continue;
+            }
+            SignatureRecipe.Source first = byValue.putIfAbsent(c.value(), c.source());
+            if (first != null) {
+                aliases.computeIfAbsent(first, k -> new ArrayList<>()).add(c.source());
+            }
+        }
+        if (byValue.size() >= Long.SIZE) {
+            throw new IllegalArgumentException("Too many distinct values to search (" + byValue.size() + ")");
+        }
+        this.sources = byValue.values().toArray(SignatureRecipe.Source[]::new);
+        this.values = byValue.keySet().stream().map(v -> v.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        this.maxFields = Math.min(Math.min(Math.max(1, maxFields), MAX_FIELDS), sources.length);
+    }
+
+    /**
+     * Number of orderings the search will hash: the sum of n!/(n-k)! for k = 1..maxFields.
+     */
+    public long searchSize() {
+        long total = 0;
+        long perms = 1;
+        for (int k = 1; k <= maxFields; k++) {
+            perms *= sources.length - k + 1;
+            total += perms;
+            if (total < 0) return Long.MAX_VALUE;
+        }
+        return total;
+    }
+
+    public void cancel() {
+        stopped = true;
+    }
+
+    /**
+     * Runs the whole search on the calling thread.
+     *
+     * @throws IllegalArgumentException if {@link #searchSize()} is above {@link #MAX_SEARCH_SIZE}.
+     */
+    public Report run() {
+        return start(Runnable::run).join();
+    }
+
+    /**
+     * Starts the search with its subtrees as tasks on {@code executor}.
+     *
+     * @return completes with the report once every subtree has finished or given up after {@link #cancel()}.
+     * @throws IllegalArgumentException if {@link #searchSize()} is above {@link #MAX_SEARCH_SIZE}.
+     */
+    public CompletableFuture<Report> start(Executor executor) {
+        long size = searchSize();
+        if (size > MAX_SEARCH_SIZE) {
+            throw new IllegalArgumentException(String.format("%,d orderings is too many to search; use fewer fields", size));
+        }
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> subtrees = new ArrayList<>();
+        if (sources.length > 0) {
+            split(sha256(), new int[0], 0L, executor, subtrees);
+        }
+        return CompletableFuture.allOf(subtrees.toArray(CompletableFuture[]::new)).thenApply(v -> report(started));
+    }
+
+    private Report report(long started) {
+        List<List<SignatureRecipe.Source>> matches = new ArrayList<>();
+        synchronized (found) {
+            for (int[] order : found) {
+                List<SignatureRecipe.Source> parts = new ArrayList<>(order.length);
+                for (int i : order) parts.add(sources[i]);
+                matches.add(parts);
+            }
+        }
+        matches.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        return new Report(matches, List.copyOf(empty), aliases, tried.sum(),
+                (System.nanoTime() - started) / 1_000_000, !stopped);
+    }
+
+    /**
+     * Hashes the orderings above {@link #SPLIT_DEPTH} here and submits one {@link #walk} per subtree below.
+     */
+    private void split(MessageDigest prefix, int[] order, long used, Executor executor,
+                       List<CompletableFuture<Void>> subtrees) {
+        if (order.length >= SPLIT_DEPTH || order.length + 1 >= maxFields) {
+            subtrees.add(CompletableFuture.runAsync(() -> {
+                if (!stopped) {
+                    tried.add(walk(prefix, Arrays.copyOf(order, maxFields), order.length, used));
+                }
+            }, executor));
+            return;
+        }
+        for (int i = 0; i < sources.length; i++) {
+            if ((used & (1L << i)) != 0) continue;
+            MessageDigest next = extend(prefix, i);
+            int[] childOrder = Arrays.copyOf(order, order.length + 1);
+            childOrder[order.length] = i;
+            check(next, childOrder, childOrder.length);
+            tried.increment();
+            split(next, childOrder, used | (1L << i), executor, subtrees);
+        }
+    }
+
+    /**
+     * Sequential depth-first search below {@code path[0..depth)}.
+     *
+     * @return orderings hashed.
+     */
+    private long walk(MessageDigest prefix, int[] path, int depth, long used) {
+        if (Thread.currentThread().isInterrupted()) {
+            stopped = true;
+        }
+        long count = 0;
+        for (int i = 0; i < sources.length && !stopped; i++) {
+            if ((used & (1L << i)) != 0) continue;
+            MessageDigest next = extend(prefix, i);
+            path[depth] = i;
+            count++;
+            if (depth + 1 < maxFields) {
+                check(next, path, depth + 1);
+                count += walk(next, path, depth + 1, used | (1L << i));
+            } else if (MessageDigest.isEqual(next.digest(), target)) {
+                record(path, depth + 1);
+            }
+        }
+        return count;
+    }
+
+    private void check(MessageDigest digest, int[] path, int length) {
+        if (MessageDigest.isEqual(clone(digest).digest(), target)) {
+            record(path, length);
+        }
+    }
+
+    private void record(int[] path, int length) {
+        synchronized (found) {
+            found.add(Arrays.copyOf(path, length));
+            if (found.size() >= MAX_MATCHES) {
+                stopped = true;
+            }
+        }
+    }
+
+    private MessageDigest extend(MessageDigest prefix, int index) {
+        MessageDigest next = clone(prefix);
+        next.update(values[index]);
+        return next;
+    }
+
+    private static MessageDigest clone(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 provider does not support cloning", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
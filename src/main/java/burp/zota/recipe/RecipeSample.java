@@ -0,0 +1,139 @@
+package burp.zota.recipe;
+
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A captured request with a known-valid signature, broken down into the values a formula could use: query
+ * parameters, top-level JSON body fields, ID-like path segments, then the profile's merchant ID, endpoint ID
+ * and secret. Request values come first so that, where a request value equals a profile value,
+ * {@link RecipeDiscovery} names the request field.
+ */
+public final class RecipeSample {
+
+    private static final String SIGNATURE = "signature";
+
+    private final String method;
+    private final List<String> segments;
+    private final List<RecipeDiscovery.Candidate> candidates;
+    private final String signature;
+    private final SignatureRecipe.Source target;
+
+    private RecipeSample(String method, List<String> segments, List<RecipeDiscovery.Candidate> candidates,
+                         String signature, SignatureRecipe.Source target) {
+        this.method = method;
+        this.segments = segments;
+        this.candidates = candidates;
+        this.signature = signature;
+        this.target = target;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request carries no {@code signature} in its query or JSON body.
+     */
+    public static RecipeSample from(HttpRequest request, ZotaProfile profile) {
+        List<RecipeDiscovery.Candidate> candidates = new ArrayList<>();
+        String signature = null;
+        SignatureRecipe.Source target = null;
+
+        for (Map.Entry<String, String> e : QueryString.parse(request.query()).entrySet()) {
+            if (e.getKey().equals(SIGNATURE)) {
+                signature = e.getValue();
+                target = new SignatureRecipe.Source(SignatureRecipe.Location.QUERY, SIGNATURE);
+            } else {
+                candidates.add(candidate(SignatureRecipe.Location.QUERY, e.getKey(), e.getValue()));
+            }
+        }
+
+        JsonNode body = Json.treeOrNull(request.bodyToString());
+        if (body != null) {
+            for (Map.Entry<String, JsonNode> e : body.properties()) {
+                if (!e.getValue().isValueNode()) continue;
+                if (e.getKey().equals(SIGNATURE)) {
+                    signature = e.getValue().asText("");
+                    target = new SignatureRecipe.Source(SignatureRecipe.Location.BODY, SIGNATURE);
+                } else {
+                    candidates.add(candidate(SignatureRecipe.Location.BODY, e.getKey(), Json.text(body, e.getKey())));
+                }
+            }
+        }
+
+        List<String> segments = segments(request.pathWithoutQuery());
+        for (int i = 0; i < segments.size(); i++) {
+            if (isIdLike(segments.get(i))) {
+                candidates.add(candidate(SignatureRecipe.Location.PATH, String.valueOf(i), segments.get(i)));
+            }
+        }
+
+        if (profile != null) {
+            candidates.add(candidate(SignatureRecipe.Location.PROFILE, SignatureRecipe.MERCHANT_ID, trimmed(profile.getMerchantId())));
+            candidates.add(candidate(SignatureRecipe.Location.PROFILE, SignatureRecipe.ENDPOINT_ID, trimmed(profile.getDefaultEndpointId())));
+            candidates.add(candidate(SignatureRecipe.Location.PROFILE, SignatureRecipe.SECRET, profile.getMerchantSecretKey()));
+        }
+
+        if (signature == null || signature.isEmpty()) {
+            throw new IllegalArgumentException("Request has no signature in its query or JSON body");
+        }
+        return new RecipeSample(request.method(), segments, candidates, signature, target);
+    }
+
+    public List<RecipeDiscovery.Candidate> candidates() {
+        return candidates;
+    }
+
+    public String signature() {
+        return signature;
+    }
+
+    /**
+     * Turns a discovered ordering into a recipe for this request's method and path. If the formula reads a
+     * path segment, the recipe's path prefix stops just before the first such segment, so the recipe also
+     * covers other endpoint IDs.
+     */
+    public SignatureRecipe toRecipe(List<SignatureRecipe.Source> parts) {
+        int cut = segments.size();
+        for (SignatureRecipe.Source s : parts) {
+            if (s.location() == SignatureRecipe.Location.PATH) {
+                cut = Math.min(cut, Integer.parseInt(s.name()));
+            }
+        }
+        StringBuilder prefix = new StringBuilder("/");
+        for (int i = 0; i < cut; i++) {
+            prefix.append(segments.get(i)).append('/');
+        }
+        return new SignatureRecipe(method, prefix.toString(), parts, target);
+    }
+
+    /**
+     * Non-empty segments of a path, in order.
+     */
+    public static List<String> segments(String path) {
+        List<String> out = new ArrayList<>();
+        if (path == null) return out;
+        for (String s : path.split("/")) {
+            if (!s.isEmpty()) out.add(s);
+        }
+        return out;
+    }
+
+    /** Segments with a digit are IDs worth trying; {@code v1} and plain words are route names. */
+    private static boolean isIdLike(String segment) {
+        return segment.chars().anyMatch(Character::isDigit) && !segment.toLowerCase(Locale.ROOT).matches("v\\d+");
+    }
+
+    private static RecipeDiscovery.Candidate candidate(SignatureRecipe.Location location, String name, String value) {
+        return new RecipeDiscovery.Candidate(new SignatureRecipe.Source(location, name), value);
+    }
+
+    private static String trimmed(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
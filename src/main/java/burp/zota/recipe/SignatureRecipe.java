@@ -0,0 +1,121 @@
+package burp.zota.recipe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A user-defined signing formula: for requests with {@code method} whose path starts with {@code pathPrefix},
+ * the signature is SHA-256 over the concatenated {@code parts}, written to {@code target}. Recipes take
+ * precedence over the built-in formulas, so a formula change on Zota's side can be followed without a new
+ * release. The text form, one recipe per line in the settings, is
+ * <pre>
+ * GET /api/v1/query/exchange-rates/ = query.merchantID + profile.MerchantSecretKey + query.requestID -> query.signature
+ * </pre>
+ */
+public record SignatureRecipe(String method, String pathPrefix, List<Source> parts, Source target) {
+
+    public static final String MERCHANT_ID = "merchantID";
+    public static final String SECRET = "MerchantSecretKey";
+    public static final String ENDPOINT_ID = "EndpointID";
+
+    /**
+     * Where a value is read from or the signature is written to.
+     */
+    public enum Location {
+        QUERY("query"), BODY("body"), PATH("path"), PROFILE("profile");
+
+        private final String key;
+
+        Location(String key) {
+            this.key = key;
+        }
+
+        public String key() { return key; }
+
+        static Location of(String key) {
+            for (Location l : values()) {
+                if (l.key.equals(key)) return l;
+            }
+            throw new IllegalArgumentException("Unknown location: " + key);
+        }
+    }
+
+    /**
+     * One value: a query parameter, a top-level JSON body field, a path segment (by index, counting
+     * non-empty segments from 0) or a profile field ({@link #MERCHANT_ID}, {@link #SECRET}, {@link #ENDPOINT_ID}).
+     */
+    public record Source(Location location, String name) {
+        public static Source parse(String text) {
+            String t = text.trim();
+            int dot = t.indexOf('.');
+            if (dot <= 0 || dot == t.length() - 1) {
+                throw new IllegalArgumentException("Expected <location>.<name>: " + t);
+            }
+            Source s = new Source(Location.of(t.substring(0, dot)), t.substring(dot + 1));
+            if (s.location == Location.PATH) {
+                Integer.parseInt(s.name);
+            } else if (s.location == Location.PROFILE && !List.of(MERCHANT_ID, SECRET, ENDPOINT_ID).contains(s.name)) {
+                throw new IllegalArgumentException("Unknown profile field: " + s.name);
+            }
+            return s;
+        }
+
+        @Override
+        public String toString() {
+            return location.key + '.' + name;
+        }
+    }
+
+    public SignatureRecipe {
+        method = method.toUpperCase(Locale.ROOT);
+        parts = List.copyOf(parts);
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("A recipe needs at least one part");
+        }
+        if (target.location() != Location.QUERY && target.location() != Location.BODY) {
+            throw new IllegalArgumentException("The signature can only be written to the query or the JSON body");
+        }
+    }
+
+    public boolean matches(String actualMethod, String path) {
+        return path != null && method.equalsIgnoreCase(actualMethod) && path.startsWith(pathPrefix);
+    }
+
+    public boolean uses(Location location) {
+        return target.location() == location || parts.stream().anyMatch(s -> s.location() == location);
+    }
+
+    /**
+     * Parses the text form shown in the class comment.
+     *
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    public static SignatureRecipe parse(String line) {
+        String text = line.trim();
+        int eq = text.indexOf(" = ");
+        int arrow = text.lastIndexOf(" -> ");
+        if (eq < 0 || arrow < eq) {
+            throw new IllegalArgumentException("Expected 'METHOD /path/ = part + part -> location.signature': " + text);
+        }
+        String[] head = text.substring(0, eq).trim().split("\\s+");
+        if (head.length != 2 || !head[1].startsWith("/")) {
+            throw new IllegalArgumentException("Expected 'METHOD /path/' before '=': " + text);
+        }
+        List<Source> parts = new ArrayList<>();
+        for (String part : text.substring(eq + 3, arrow).split("\\+")) {
+            parts.add(Source.parse(part));
+        }
+        return new SignatureRecipe(head[0], head[1], parts, Source.parse(text.substring(arrow + 4)));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(method).append(' ').append(pathPrefix).append(" = ");
+        for (int i = 0; i < parts.size(); i++) {
+            if (i > 0) sb.append(" + ");
+            sb.append(parts.get(i));
+        }
+        return sb.append(" -> ").append(target).toString();
+    }
+}
@@ -0,0 +1,227 @@
+package burp.zota.replay;
+
+import burp.zota.exec.ZotaExecutors;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fires pre-signed callbacks and final redirects at a merchant endpoint at a fixed rate, with at most
+ * {@code maxConcurrency} in flight, and reports latency percentiles and an error breakdown.
+ *
+ * <p>One pacing task releases a message every {@code 1/rate} seconds; each send runs on its own virtual
+ * thread in the run's replay lane once a concurrency permit is free. Latency is measured from the message's scheduled time, so time
+ * spent waiting for a permit counts when the merchant cannot keep up; service time counts only the exchange
+ * itself. Sending is delegated to a {@link Transport}, which lets the replayer run against a local stub.
+ */
+public class CallbackReplayer {
+
+    public enum Kind { CALLBACK, FINAL_REDIRECT }
+
+    /**
+     * One ready-to-send message. {@code body} is null for GET redirects.
+     */
+    public record Message(Kind kind, String method, String url, String body, String merchantOrderId, String orderId,
+                          String status) {}
+
+    @FunctionalInterface
+    public interface Transport {
+        /**
+         * @return the HTTP status code of the merchant's response.
+         */
+        int send(Message message) throws Exception;
+    }
+
+    public record Settings(double ratePerSecond, int maxConcurrency) {
+        public Settings {
+            ratePerSecond = Math.max(0.01, ratePerSecond);
+            maxConcurrency = Math.max(1, maxConcurrency);
+        }
+    }
+
+    /**
+     * Percentiles in milliseconds; all zero when nothing completed.
+     */
+    public record Percentiles(double p50, double p90, double p99, double max) {
+        static Percentiles of(long[] nanos, int count) {
+            if (count == 0) {
+                return new Percentiles(0, 0, 0, 0);
+            }
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new Percentiles(millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99), sorted[count - 1] / 1e6);
+        }
+
+        private static double millis(long[] sorted, double q) {
+            int i = (int) Math.ceil(q * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e6;
+        }
+    }
+
+    /**
+     * @param ok           responses with a 2xx status.
+     * @param statusCounts responses by HTTP status.
+     * @param errors       failed sends by exception type and message.
+     * @param achievedRate completed messages per second over the run.
+     */
+    public record Report(int total, int completed, int ok, Map<Integer, Integer> statusCounts, Map<String, Integer> errors,
+                         Percentiles latency, Percentiles service, long elapsedMillis, double achievedRate, boolean cancelled) {}
+
+    private final ZotaExecutors executors;
+    private final Transport transport;
+
+    public CallbackReplayer(ZotaExecutors executors, Transport transport) {
+        this.executors = executors;
+        this.transport = transport;
+    }
+
+    /**
+     * Starts a run in the background.
+     */
+    public Run start(List<Message> messages, Settings settings) {
+        Run run = new Run(List.copyOf(messages), settings);
+        run.sends.execute(run::pace);
+        return run;
+    }
+
+    /**
+     * A replay in progress. Counters can be read at any time; {@link #await()} returns the final report.
+     */
+    public final class Run {
+        private final List<Message> messages;
+        private final Settings settings;
+        private final long[] latencyNanos;
+        private final long[] serviceNanos;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger ok = new AtomicInteger();
+        private final LongAdder sent = new LongAdder();
+        private final Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+        private final CountDownLatch done;
+        private final Semaphore permits;
+        private final ExecutorService sends = executors.lane(ZotaExecutors.Task.REPLAY);
+        private volatile boolean cancelled;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+
+        private Run(List<Message> messages, Settings settings) {
+            this.messages = messages;
+            this.settings = settings;
+            this.latencyNanos = new long[messages.size()];
+            this.serviceNanos = new long[messages.size()];
+            this.done = new CountDownLatch(messages.size());
+            this.permits = new Semaphore(settings.maxConcurrency());
+        }
+
+        public int total() { return messages.size(); }
+        public int completed() { return completed.get(); }
+        public long sent() { return sent.sum(); }
+        public int ok() { return ok.get(); }
+        public boolean finished() { return done.getCount() == 0; }
+
+        /**
+         * Stops releasing messages; sends already in flight complete.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public Report await() throws InterruptedException {
+            done.await();
+            return report();
+        }
+
+        public Report await(long timeout, TimeUnit unit) throws InterruptedException {
+            done.await(timeout, unit);
+            return report();
+        }
+
+        private void pace() {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / settings.ratePerSecond());
+            startedNanos = System.nanoTime();
+            try {
+                for (int i = 0; i < messages.size(); i++) {
+                    long scheduled = startedNanos + i * interval;
+                    long wait;
+                    while ((wait = scheduled - System.nanoTime()) > 0 && !cancelled) {
+                        LockSupport.parkNanos(wait);
+                        // interrupted when the extension unloads
+                        if (Thread.currentThread().isInterrupted()) cancelled = true;
+                    }
+                    if (cancelled) {
+                        for (int j = i; j < messages.size(); j++) countDown();
+                        break;
+                    }
+                    permits.acquireUninterruptibly();
+                    int index = i;
+                    try {
+                        sends.execute(() -> sendOne(index, scheduled));
+                    } catch (RejectedExecutionException e) {
+                        permits.release();
+                        cancelled = true;
+                        for (int j = i; j < messages.size(); j++) countDown();
+                        break;
+                    }
+                }
+            } finally {
+                sends.shutdown();
+            }
+        }
+
+        private void sendOne(int index, long scheduled) {
+            long begin = System.nanoTime();
+            try {
+                sent.increment();
+                int status = transport.send(messages.get(index));
+                statuses.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+                if (status >= 200 && status < 300) {
+                    ok.incrementAndGet();
+                }
+            } catch (Exception e) {
+                String key = e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+                errors.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            } finally {
+                long end = System.nanoTime();
+                int slot = completed.getAndIncrement();
+                latencyNanos[slot] = end - scheduled;
+                serviceNanos[slot] = end - begin;
+                permits.release();
+                countDown();
+            }
+        }
+
+        private void countDown() {
+            done.countDown();
+            if (done.getCount() == 0) {
+                finishedNanos = System.nanoTime();
+            }
+        }
+
+        /**
+         * Final report; only complete once every message finished or was skipped by {@link #cancel()}.
+         */
+        private Report report() {
+            int count = completed.get();
+            long end = finishedNanos == 0 ? System.nanoTime() : finishedNanos;
+            long elapsed = Math.max(1, end - startedNanos);
+            Map<Integer, Integer> byStatus = new TreeMap<>();
+            statuses.forEach((k, v) -> byStatus.put(k, v.get()));
+            Map<String, Integer> byError = new TreeMap<>();
+            errors.forEach((k, v) -> byError.put(k, v.get()));
+            return new Report(messages.size(), count, ok.get(), byStatus, byError,
+                    Percentiles.of(latencyNanos, count), Percentiles.of(serviceNanos, count),
+                    elapsed / 1_000_000, count / (elapsed / 1e9), cancelled);
+        }
+    }
+}
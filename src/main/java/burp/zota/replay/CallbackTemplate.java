@@ -0,0 +1,138 @@
+package burp.zota.replay;
+
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.zota.profile.CompiledProfile;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.signer.CallbackSignatures;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A captured (or hand-written) Zota callback or final redirect, expanded into many re-signed variants for
+ * {@link CallbackReplayer}. Fields the formulas do not cover are carried over unchanged.
+ */
+public final class CallbackTemplate {
+
+    /**
+     * How to vary the template.
+     *
+     * @param statuses  statuses sent for every order, in order (e.g. PROCESSING then APPROVED); empty keeps the captured one.
+     * @param amounts   amounts assigned round-robin to orders; empty keeps the captured one.
+     * @param orders    distinct orders to generate; 0 reuses the captured order IDs, which is what idempotency tests want.
+     * @param repeats   times each (order, status) message is sent.
+     */
+    public record Plan(List<String> statuses, List<String> amounts, int orders, int repeats) {
+        public int size() {
+            return Math.max(1, orders) * Math.max(1, statuses.size()) * Math.max(1, repeats);
+        }
+    }
+
+    private final CallbackReplayer.Kind kind;
+    private final String url;
+    private final Map<String, String> fields;
+
+    public CallbackTemplate(CallbackReplayer.Kind kind, String url, Map<String, String> fields) {
+        this.kind = kind;
+        this.url = url;
+        this.fields = new LinkedHashMap<>(fields);
+    }
+
+    /**
+     * Reads a captured request: a GET with {@code status}, {@code orderID} and {@code merchantOrderID} in the
+     * query is a final redirect, a POST with a JSON object body is a callback.
+     *
+     * @throws IllegalArgumentException for anything else.
+     */
+    public static CallbackTemplate from(HttpRequest request) {
+        String base = request.url();
+        int q = base.indexOf('?');
+        if (q >= 0) base = base.substring(0, q);
+        if ("GET".equalsIgnoreCase(request.method())) {
+            Map<String, String> params = QueryString.parse(request.query());
+            if (params.containsKey("status") && params.containsKey("orderID") && params.containsKey("merchantOrderID")) {
+                params.remove("signature");
+                return new CallbackTemplate(CallbackReplayer.Kind.FINAL_REDIRECT, base, params);
+            }
+        } else if ("POST".equalsIgnoreCase(request.method())) {
+            JsonNode json = Json.treeOrNull(request.bodyToString());
+            if (json != null) {
+                Map<String, String> fields = new LinkedHashMap<>();
+                for (Map.Entry<String, JsonNode> e : json.properties()) {
+                    if (e.getValue().isValueNode() && !e.getKey().equals("signature")) {
+                        fields.put(e.getKey(), Json.text(json, e.getKey()));
+                    }
+                }
+                return new CallbackTemplate(CallbackReplayer.Kind.CALLBACK, request.url(), fields);
+            }
+        }
+        throw new IllegalArgumentException("Not a Zota callback (JSON POST) or final redirect (GET with status, orderID and merchantOrderID)");
+    }
+
+    public CallbackReplayer.Kind kind() { return kind; }
+
+    public String url() { return url; }
+
+    public String field(String name) {
+        return fields.getOrDefault(name, "");
+    }
+
+    /**
+     * Expands the plan into signed messages for {@code targetUrl}. Generated orders get a run-unique
+     * {@code merchantOrderID} suffix and consecutive numeric {@code orderID}s. Callbacks use the template's
+     * {@code EndpointID}, or the profile's default when the template has none.
+     */
+    public List<CallbackReplayer.Message> expand(Plan plan, ZotaProfile profile, String targetUrl) throws Exception {
+        CompiledProfile signing = CompiledProfile.of(profile);
+        String run = Long.toString(ThreadLocalRandom.current().nextLong(36L * 36 * 36 * 36 * 36), 36);
+        long firstOrderId = System.currentTimeMillis() % 1_000_000_000L * 1_000;
+        List<String> statuses = plan.statuses().isEmpty() ? List.of(field("status")) : plan.statuses();
+        List<CallbackReplayer.Message> out = new ArrayList<>(plan.size());
+        for (int n = 0; n < Math.max(1, plan.orders()); n++) {
+            Map<String, String> order = new LinkedHashMap<>(fields);
+            if (plan.orders() > 0) {
+                order.put("merchantOrderID", field("merchantOrderID") + "-" + run + "-" + n);
+                order.put("orderID", String.valueOf(firstOrderId + n));
+            }
+            if (!plan.amounts().isEmpty()) {
+                order.put("amount", plan.amounts().get(n % plan.amounts().size()));
+            }
+            if (kind == CallbackReplayer.Kind.CALLBACK && order.getOrDefault("EndpointID", "").isEmpty()
+                    && profile.getDefaultEndpointId() != null) {
+                order.put("EndpointID", profile.getDefaultEndpointId().trim());
+            }
+            for (String status : statuses) {
+                order.put("status", status.toUpperCase(Locale.ROOT));
+                CallbackReplayer.Message message = render(order, signing, targetUrl);
+                for (int r = 0; r < Math.max(1, plan.repeats()); r++) {
+                    out.add(message);
+                }
+            }
+        }
+        return out;
+    }
+
+    private CallbackReplayer.Message render(Map<String, String> values, CompiledProfile signing, String targetUrl) throws Exception {
+        String mOid = values.getOrDefault("merchantOrderID", "");
+        String oid = values.getOrDefault("orderID", "");
+        String status = values.getOrDefault("status", "");
+        if (kind == CallbackReplayer.Kind.FINAL_REDIRECT) {
+            Map<String, String> params = new LinkedHashMap<>(values);
+            params.put("signature", CallbackSignatures.finalRedirect(status, oid, mOid, signing));
+            return new CallbackReplayer.Message(kind, "GET", targetUrl + "?" + QueryString.build(params), null, mOid, oid, status);
+        }
+        ObjectNode body = Json.object();
+        values.forEach(body::put);
+        body.put("signature", CallbackSignatures.callback(values.get("EndpointID"), oid, mOid, status,
+                values.get("amount"), values.get("customerEmail"), signing));
+        return new CallbackReplayer.Message(kind, "POST", targetUrl, Json.write(body), mOid, oid, status);
+    }
+}
@@ -0,0 +1,32 @@
+package burp.zota.replay;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
+
+/**
+ * Sends replayed callbacks and redirects through Burp, so they show up in Logger and honour the project's
+ * upstream proxy and TLS settings.
+ */
+public class MontoyaReplayTransport implements CallbackReplayer.Transport {
+    private final MontoyaApi api;
+
+    public MontoyaReplayTransport(MontoyaApi api) {
+        this.api = api;
+    }
+
+    @Override
+    public int send(CallbackReplayer.Message message) throws Exception {
+        HttpRequest request = HttpRequest.httpRequestFromUrl(message.url());
+        if (message.body() != null) {
+            request = request.withMethod(message.method())
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(message.body());
+        }
+        HttpRequestResponse rr = api.http().sendRequest(request);
+        if (rr == null || rr.response() == null) {
+            throw new IllegalStateException("no response");
+        }
+        return rr.response().statusCode();
+    }
+}
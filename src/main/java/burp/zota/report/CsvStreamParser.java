@@ -0,0 +1,103 @@
+package burp.zota.report;
+
+import java.util.Arrays;
+
+/**
+ * Minimal RFC 4180 CSV tokenizer working directly on bytes. Fields are handed to the sink as a reused byte
+ * buffer (quotes removed, doubled quotes unescaped), so callers decide per column whether to build a String
+ * or parse a number in place. No per-row objects are allocated by the parser.
+ */
+final class CsvStreamParser {
+
+    interface Sink {
+        /**
+         * @param column zero-based column index within the current row.
+         * @param buf    buffer holding the field bytes; only valid for the duration of the call.
+         * @param len    number of valid bytes in {@code buf}.
+         */
+        void field(int row, int column, byte[] buf, int len);
+
+        void endRow(int row);
+    }
+
+    private byte[] scratch = new byte[256];
+
+    void parse(byte[] data, int offset, int length, Sink sink) {
+        int end = offset + length;
+        int i = offset;
+        // Skip UTF-8 BOM
+        if (end - i >= 3 && (data[i] & 0xff) == 0xEF && (data[i + 1] & 0xff) == 0xBB && (data[i + 2] & 0xff) == 0xBF) {
+            i += 3;
+        }
+        int row = 0;
+        int column = 0;
+        int len = 0;
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        while (i < end) {
+            byte b = data[i++];
+            if (quoted) {
+                if (b == '"') {
+                    if (i < end && data[i] == '"') {
+                        len = put(len, b);
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    len = put(len, b);
+                }
+                continue;
+            }
+            switch (b) {
+                case '"' -> {
+                    quoted = true;
+                    fieldStarted = true;
+                }
+                case ',' -> {
+                    sink.field(row, column++, scratch, len);
+                    len = 0;
+                    fieldStarted = true;
+                }
+                case '\r' -> {
+                    // handled with the following '\n'; a lone '\r' also ends the row
+                    if (i < end && data[i] == '\n') {
+                        i++;
+                    }
+                    if (fieldStarted || len > 0 || column > 0) {
+                        sink.field(row, column, scratch, len);
+                        sink.endRow(row++);
+                    }
+                    column = 0;
+                    len = 0;
+                    fieldStarted = false;
+                }
+                case '\n' -> {
+                    if (fieldStarted || len > 0 || column > 0) {
+                        sink.field(row, column, scratch, len);
+                        sink.endRow(row++);
+                    }
+                    column = 0;
+                    len = 0;
+                    fieldStarted = false;
+                }
+                default -> {
+                    len = put(len, b);
+                    fieldStarted = true;
+                }
+            }
+        }
+        if (fieldStarted || len > 0 || column > 0) {
+            sink.field(row, column, scratch, len);
+            sink.endRow(row);
+        }
+    }
+
+    private int put(int len, byte b) {
+        if (len == scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratch.length * 2);
+        }
+        scratch[len] = b;
+        return len + 1;
+    }
+}
@@ -0,0 +1,80 @@
+package burp.zota.report;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.ToolType;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.zota.journal.SigningJournal;
+import burp.zota.profile.CompiledProfile;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.signer.ZotaSigner;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fetches orders-report chunks through Burp. Each chunk is built against the profile's API base and signed by
+ * {@link ZotaSigner#resign}, which gives it a fresh {@code requestID} and {@code timestamp}. Because the
+ * requests pass through the HTTP handler, the profile marker is removed before they leave Burp and every
+ * chunk's response is also ingested into the Orders view.
+ */
+public class MontoyaReportTransport implements OrdersReportFetcher.Transport {
+    private static final String REPORT_PATH = "/api/v1/query/orders-report/csv/";
+
+    private final MontoyaApi api;
+    private final ZotaSigner signer;
+    private final SigningJournal journal;
+    private final ZotaProfile profile;
+    private final Map<String, String> filters;
+
+    /**
+     * @param filters the report's other parameters ({@code dateType}, {@code endpointIds}, {@code statuses},
+     *                {@code types}, ...); empty values are sent empty.
+     */
+    public MontoyaReportTransport(MontoyaApi api, ZotaSigner signer, SigningJournal journal, ZotaProfile profile,
+                                  Map<String, String> filters) {
+        this.api = api;
+        this.signer = signer;
+        this.journal = journal;
+        this.profile = profile;
+        this.filters = new LinkedHashMap<>(filters);
+    }
+
+    @Override
+    public byte[] fetch(OrdersReportFetcher.Chunk chunk) throws Exception {
+        CompiledProfile compiled = signer.compiled(profile);
+        String base = compiled.baseUrl();
+        if (base == null) {
+            throw new IllegalStateException("profile " + profile.getName() + " has no valid API base");
+        }
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("merchantID", compiled.merchantId());
+        params.putAll(filters);
+        params.put("fromDate", chunk.from().toString());
+        params.put("toDate", chunk.to().toString());
+        params.put("requestID", "");
+        params.put("timestamp", "");
+
+        // resign() marks the profile so the HTTP handler does not re-sign the chunk with the active profile;
+        // the handler strips the marker whatever its scope decision
+        ZotaSigner.Result result = signer.resign(
+                HttpRequest.httpRequestFromUrl(base + REPORT_PATH + "?" + QueryString.build(params)), profile);
+        journal.append(ToolType.EXTENSIONS, result.signing());
+        HttpRequestResponse rr = api.http().sendRequest(result.request());
+        HttpResponse response = rr == null ? null : rr.response();
+        if (response == null) {
+            throw new IllegalStateException("no response");
+        }
+        byte[] body = response.body() == null ? new byte[0] : response.body().getBytes();
+        if (response.statusCode() != 200 || (body.length > 0 && body[0] == '{')) {
+            JsonNode json = Json.treeOrNull(response.bodyToString());
+            String message = json == null ? "" : json.path("message").asText("");
+            throw new IllegalStateException("HTTP " + response.statusCode() + (message.isEmpty() ? "" : " " + message));
+        }
+        return body;
+    }
+}
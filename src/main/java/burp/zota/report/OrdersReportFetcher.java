@@ -0,0 +1,296 @@
+package burp.zota.report;
+
+import burp.zota.exec.ZotaExecutors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads an orders report for a long date range as many small {@code orders-report/csv} requests.
+ *
+ * <p>The range is split into chunks of whole days (the API's {@code fromDate}/{@code toDate} are dates). Each
+ * chunk is a separately signed request with its own {@code requestID}, run on its own virtual thread with at
+ * most {@code maxConcurrency} in flight. A failed chunk is retried alone with exponential backoff. Parts are
+ * written to the output in date order as soon as each one and all earlier ones have arrived, so only
+ * out-of-order parts are held in memory. The first part's header row is kept; rows whose order ID (or, without
+ * an ID column, whose full text) was already written are dropped. How a chunk is fetched is delegated to a
+ * {@link Transport}, which lets the fetcher run against a local stub.
+ */
+public class OrdersReportFetcher {
+
+    /**
+     * One inclusive date range; {@code index} is its position in the merged output.
+     */
+    public record Chunk(int index, LocalDate from, LocalDate to) {}
+
+    @FunctionalInterface
+    public interface Transport {
+        /**
+         * @return the CSV body for the chunk.
+         * @throws Exception when the request fails or Zota answers with an error instead of CSV.
+         */
+        byte[] fetch(Chunk chunk) throws Exception;
+    }
+
+    /**
+     * Called from fetch threads as chunks finish; {@code error} is null on success.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void chunkDone(Chunk chunk, int attempts, Exception error);
+    }
+
+    public record Settings(int daysPerChunk, int maxConcurrency, int maxAttempts) {
+        public Settings {
+            daysPerChunk = Math.max(1, daysPerChunk);
+            maxConcurrency = Math.max(1, maxConcurrency);
+            maxAttempts = Math.max(1, maxAttempts);
+        }
+    }
+
+    /**
+     * @param retries    extra attempts made across all chunks.
+     * @param duplicates rows dropped because an earlier part already had them.
+     * @param failed     chunks that still failed after the last attempt, with the error; their rows are missing.
+     */
+    public record Report(int chunks, int retries, long rows, long duplicates, long bytes, long elapsedMillis,
+                         List<String> failed) {}
+
+    private static final long RETRY_BASE_MILLIS = 500;
+
+    private final ZotaExecutors executors;
+    private final Transport transport;
+
+    public OrdersReportFetcher(ZotaExecutors executors, Transport transport) {
+        this.executors = executors;
+        this.transport = transport;
+    }
+
+    /**
+     * Splits {@code from..to} (inclusive) into consecutive chunks of {@code daysPerChunk} days.
+     */
+    public static List<Chunk> split(LocalDate from, LocalDate to, int daysPerChunk) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("toDate " + to + " is before fromDate " + from);
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        LocalDate start = from;
+        while (!start.isAfter(to)) {
+            LocalDate end = start.plusDays(Math.max(1, daysPerChunk) - 1L);
+            if (end.isAfter(to)) end = to;
+            chunks.add(new Chunk(chunks.size(), start, end));
+            start = end.plusDays(1);
+        }
+        return chunks;
+    }
+
+    /**
+     * Fetches the range and writes the merged CSV to {@code out}. Blocks until every chunk has succeeded or
+     * used up its attempts.
+     */
+    public Report fetch(LocalDate from, LocalDate to, Settings settings, OutputStream out, Listener listener)
+            throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        List<Chunk> chunks = split(from, to, settings.daysPerChunk());
+        Semaphore permits = new Semaphore(settings.maxConcurrency());
+        AtomicInteger retries = new AtomicInteger();
+        List<CompletableFuture<byte[]>> parts = new ArrayList<>(chunks.size());
+        ExecutorService threads = executors.lane(ZotaExecutors.Task.REPORT_FETCH);
+        try {
+            for (Chunk chunk : chunks) {
+                CompletableFuture<byte[]> part = new CompletableFuture<>();
+                parts.add(part);
+                threads.execute(() -> fetchChunk(chunk, settings.maxAttempts(), permits, retries, listener, part));
+            }
+            Merger merger = new Merger(out);
+            List<String> failed = new ArrayList<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                Chunk chunk = chunks.get(i);
+                try {
+                    merger.append(parts.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    failed.add(chunk.from() + ".." + chunk.to() + ": " + cause.getMessage());
+                } catch (IllegalStateException e) {
+                    failed.add(chunk.from() + ".." + chunk.to() + ": " + e.getMessage());
+                }
+                parts.set(i, null);
+            }
+            out.flush();
+            return new Report(chunks.size(), retries.get(), merger.rows, merger.duplicates, merger.bytes,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), failed);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private void fetchChunk(Chunk chunk, int maxAttempts, Semaphore permits, AtomicInteger retries, Listener listener,
+                            CompletableFuture<byte[]> part) {
+        Exception last = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                retries.incrementAndGet();
+                try {
+                    Thread.sleep(RETRY_BASE_MILLIS << Math.min(attempt - 2, 6));
+                } catch (InterruptedException e) {
+                    part.completeExceptionally(e);
+                    return;
+                }
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                part.completeExceptionally(e);
+                return;
+            }
+            try {
+                byte[] csv = transport.fetch(chunk);
+                if (listener != null) listener.chunkDone(chunk, attempt, null);
+                part.complete(csv == null ? new byte[0] : csv);
+                return;
+            } catch (Exception e) {
+                last = e;
+            } finally {
+                permits.release();
+            }
+        }
+        if (listener != null) listener.chunkDone(chunk, maxAttempts, last);
+        part.completeExceptionally(last);
+    }
+
+    /**
+     * Appends parts row by row: the first header is written once, later headers are skipped, and rows
+     * already written are dropped. Rows are split on line breaks outside quotes.
+     */
+    static final class Merger {
+        private final OutputStream out;
+        private final Set<String> seen = new HashSet<>();
+        private byte[] header;
+        private int idColumn = -1;
+        long rows;
+        long duplicates;
+        long bytes;
+
+        Merger(OutputStream out) {
+            this.out = out;
+        }
+
+        void append(byte[] csv) throws IOException {
+            int i = 0;
+            if (csv.length >= 3 && (csv[0] & 0xff) == 0xEF && (csv[1] & 0xff) == 0xBB && (csv[2] & 0xff) == 0xBF) {
+                i = 3;
+            }
+            boolean first = true;
+            while (i < csv.length) {
+                int end = rowEnd(csv, i);
+                int next = end;
+                if (next < csv.length && csv[next] == '\r') next++;
+                if (next < csv.length && csv[next] == '\n') next++;
+                if (end > i) {
+                    if (first) {
+                        header(Arrays.copyOfRange(csv, i, end));
+                    } else {
+                        row(csv, i, end);
+                    }
+                    first = false;
+                }
+                i = next;
+            }
+        }
+
+        /**
+         * @throws IllegalStateException if the header differs from the first part's; nothing of the part is written.
+         */
+        private void header(byte[] row) throws IOException {
+            if (header == null) {
+                header = row;
+                idColumn = idColumn(new String(row, StandardCharsets.UTF_8));
+                write(row, 0, row.length);
+            } else if (!Arrays.equals(header, row)) {
+                throw new IllegalStateException("columns differ from the first part: " + new String(row, StandardCharsets.UTF_8));
+            }
+        }
+
+        private void row(byte[] csv, int start, int end) throws IOException {
+            String key = idColumn >= 0 ? field(csv, start, end, idColumn) : null;
+            if (key == null || key.isEmpty()) {
+                key = new String(csv, start, end - start, StandardCharsets.UTF_8);
+            }
+            if (!seen.add(key)) {
+                duplicates++;
+                return;
+            }
+            write(csv, start, end);
+            rows++;
+        }
+
+        private void write(byte[] buf, int start, int end) throws IOException {
+            out.write(buf, start, end - start);
+            out.write('\r');
+            out.write('\n');
+            bytes += end - start + 2;
+        }
+
+        /**
+         * @return index of the first line break at or after {@code i} that is outside quotes, or the length.
+         */
+        private static int rowEnd(byte[] csv, int i) {
+            boolean quoted = false;
+            for (; i < csv.length; i++) {
+                byte b = csv[i];
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && (b == '\n' || b == '\r')) {
+                    return i;
+                }
+            }
+            return i;
+        }
+
+        private static int idColumn(String header) {
+            String[] names = header.split(",", -1);
+            for (int c = 0; c < names.length; c++) {
+                String h = names[c].toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+                if (h.equals("id") || h.equals("orderid") || h.equals("zotaorderid")) {
+                    return c;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Text of column {@code column} in one row, quotes removed, or null if the row is shorter.
+         */
+        private static String field(byte[] csv, int start, int end, int column) {
+            int c = 0;
+            int fieldStart = start;
+            boolean quoted = false;
+            for (int i = start; i <= end; i++) {
+                if (i < end && csv[i] == '"') {
+                    quoted = !quoted;
+                } else if (i == end || (!quoted && csv[i] == ',')) {
+                    if (c == column) {
+                        return new String(csv, fieldStart, i - fieldStart, StandardCharsets.UTF_8).replace("\"", "").trim();
+                    }
+                    c++;
+                    fieldStart = i + 1;
+                }
+            }
+            return null;
+        }
+    }
+}
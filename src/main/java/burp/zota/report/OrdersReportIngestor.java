@@ -0,0 +1,211 @@
+package burp.zota.report;
+
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.util.ZotaLogger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Picks orders-report CSV responses out of the HTTP handler and parses them into an {@link OrdersReportStore}
+ * on the report-ingest lane, one report at a time. Parsing works on the response bytes; only the ID, status,
+ * currency and type columns are turned into Strings, amounts and timestamps are parsed in place.
+ */
+public class OrdersReportIngestor {
+    private static final String REPORT_PATH = "/api/v1/query/orders-report/csv/";
+
+    private final OrdersReportStore store = new OrdersReportStore();
+    private final ExecutorService worker;
+
+    public OrdersReportIngestor(ZotaExecutors executors) {
+        this.worker = executors.lane(ZotaExecutors.Task.REPORT_INGEST);
+    }
+
+    public OrdersReportStore store() {
+        return store;
+    }
+
+    /**
+     * Queues the response for ingestion if it is a successful orders-report CSV download.
+     *
+     * @return whether the response was accepted.
+     */
+    public boolean maybeIngest(HttpRequest request, HttpResponse response) {
+        if (request == null || response == null || response.statusCode() != 200 || worker.isShutdown()) {
+            return false;
+        }
+        String path = request.path();
+        if (path == null || !path.startsWith(REPORT_PATH)) {
+            return false;
+        }
+        byte[] body = response.body() == null ? null : response.body().getBytes();
+        if (body == null || body.length == 0 || body[0] == '{') {
+            return false;
+        }
+        worker.execute(() -> ingest(body));
+        return true;
+    }
+
+    /**
+     * Parses a CSV report synchronously on the calling thread.
+     */
+    public int ingest(byte[] csv) {
+        int before = store.size();
+        RowBuilder rows = new RowBuilder(store);
+        try {
+            new CsvStreamParser().parse(csv, 0, csv.length, rows);
+        } catch (RuntimeException e) {
+            ZotaLogger.error("Failed to parse orders report: " + e.getMessage());
+        }
+        store.publish();
+        int added = store.size() - before;
+        ZotaLogger.info("Ingested orders report: " + rows.rows + " rows (" + added + " new), " + store.size() + " orders in store");
+        return rows.rows;
+    }
+
+    /**
+     * Maps header names to roles on row 0 and writes each subsequent row to the store.
+     */
+    private static final class RowBuilder implements CsvStreamParser.Sink {
+        private static final int ORDER_ID = 0, MERCHANT_ORDER_ID = 1, AMOUNT = 2, CURRENCY = 3, STATUS = 4, CREATED = 5, TYPE = 6;
+
+        private final OrdersReportStore store;
+        private int[] roles = new int[0];
+        private String orderId, merchantOrderId, currency, status, type;
+        private long amount, created;
+        int rows;
+
+        RowBuilder(OrdersReportStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public void field(int row, int column, byte[] buf, int len) {
+            if (row == 0) {
+                if (column >= roles.length) {
+                    roles = Arrays.copyOf(roles, column + 1);
+                }
+                roles[column] = roleOf(new String(buf, 0, len, StandardCharsets.UTF_8));
+                return;
+            }
+            if (column >= roles.length) {
+                return;
+            }
+            switch (roles[column]) {
+                case ORDER_ID -> orderId = text(buf, len);
+                case MERCHANT_ORDER_ID -> merchantOrderId = text(buf, len);
+                case AMOUNT -> amount = parseHundredths(buf, len);
+                case CURRENCY -> currency = text(buf, len);
+                case STATUS -> status = text(buf, len);
+                case CREATED -> created = parseEpochSeconds(buf, len);
+                case TYPE -> type = text(buf, len);
+                default -> { }
+            }
+        }
+
+        @Override
+        public void endRow(int row) {
+            if (row == 0) {
+                return;
+            }
+            store.put(orderId, merchantOrderId, amount, created, status, currency, type);
+            rows++;
+            orderId = merchantOrderId = currency = status = type = null;
+            amount = created = 0;
+        }
+
+        private static int roleOf(String header) {
+            String h = header.toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            return switch (h) {
+                case "id", "orderid", "zotaorderid" -> ORDER_ID;
+                case "merchantorderid" -> MERCHANT_ORDER_ID;
+                case "amount", "orderamount" -> AMOUNT;
+                case "currency", "ordercurrency" -> CURRENCY;
+                case "status", "orderstatus" -> STATUS;
+                case "createdat", "created", "createdate", "date" -> CREATED;
+                case "type", "ordertype" -> TYPE;
+                default -> -1;
+            };
+        }
+
+        private static String text(byte[] buf, int len) {
+            return new String(buf, 0, len, StandardCharsets.UTF_8).trim();
+        }
+
+        /**
+         * Parses a decimal such as {@code -1,234.5} into hundredths without creating a String.
+         */
+        static long parseHundredths(byte[] buf, int len) {
+            long value = 0;
+            int decimals = -1;
+            boolean negative = false;
+            for (int i = 0; i < len; i++) {
+                byte b = buf[i];
+                if (b >= '0' && b <= '9') {
+                    if (decimals >= 2) continue;
+                    value = value * 10 + (b - '0');
+                    if (decimals >= 0) decimals++;
+                } else if (b == '.') {
+                    decimals = 0;
+                } else if (b == '-') {
+                    negative = true;
+                }
+            }
+            if (decimals < 0) decimals = 0;
+            for (int d = decimals; d < 2; d++) value *= 10;
+            return negative ? -value : value;
+        }
+
+        /**
+         * Parses {@code yyyy-MM-dd[ T]HH:mm[:ss]} (UTC) into epoch seconds; returns 0 when unrecognised.
+         */
+        static long parseEpochSeconds(byte[] buf, int len) {
+            int start = 0;
+            while (start < len && (buf[start] == ' ' || buf[start] == '"')) start++;
+            if (len - start < 10 || buf[start + 4] != '-' || buf[start + 7] != '-') {
+                return 0;
+            }
+            try {
+                int year = digits(buf, start, 4);
+                int month = digits(buf, start + 5, 2);
+                int day = digits(buf, start + 8, 2);
+                if (len - start >= 16 && buf[start + 13] == ':') {
+                    int hour = digits(buf, start + 11, 2);
+                    int minute = digits(buf, start + 14, 2);
+                    int second = len - start >= 19 && buf[start + 16] == ':' ? digits(buf, start + 17, 2) : 0;
+                    return epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+                }
+                return epochDay(year, month, day) * 86_400L;
+            } catch (RuntimeException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Days since 1970-01-01 for a proleptic Gregorian date (civil-from-days inverse), without allocating.
+         */
+        private static long epochDay(int year, int month, int day) {
+            if (month < 1 || month > 12 || day < 1 || day > 31) throw new NumberFormatException();
+            int y = month <= 2 ? year - 1 : year;
+            int era = Math.floorDiv(y, 400);
+            int yoe = y - era * 400;
+            int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+            int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+            return era * 146_097L + doe - 719_468L;
+        }
+
+        private static int digits(byte[] buf, int off, int count) {
+            int v = 0;
+            for (int i = off; i < off + count; i++) {
+                int d = buf[i] - '0';
+                if (d < 0 || d > 9) throw new NumberFormatException();
+                v = v * 10 + d;
+            }
+            return v;
+        }
+    }
+}
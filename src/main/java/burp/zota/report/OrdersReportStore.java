@@ -0,0 +1,184 @@
+package burp.zota.report;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Columnar in-memory store for orders-report rows. Amounts (in hundredths) and creation times (epoch seconds)
+ * live in primitive arrays; status, currency and type are dictionary-encoded to small ints. Rows are keyed by
+ * Zota order ID so re-ingesting a report updates rows instead of duplicating them.
+ *
+ * <p>Single writer (the ingest thread), many readers: readers work on a {@link Snapshot}, which is consistent
+ * because arrays only ever grow by copy and the row count is published last.
+ */
+public class OrdersReportStore {
+
+    /**
+     * String dictionary mapping values to dense int codes.
+     */
+    public static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private volatile String[] values = new String[0];
+
+        int code(String value) {
+            Integer c = codes.get(value);
+            if (c == null) {
+                c = values.length;
+                codes.put(value, c);
+                String[] grown = Arrays.copyOf(values, c + 1);
+                grown[c] = value;
+                values = grown;
+            }
+            return c;
+        }
+
+        public String value(int code) {
+            String[] v = values;
+            return code >= 0 && code < v.length ? v[code] : "";
+        }
+
+        public List<String> values() {
+            return List.of(values);
+        }
+    }
+
+    /**
+     * Read-only view of the first {@code size} rows.
+     */
+    public record Snapshot(int size, String[] orderIds, String[] merchantOrderIds, long[] amounts, long[] created,
+                           int[] statuses, int[] currencies, int[] types) {}
+
+    /**
+     * Filter result: matching row indexes plus per-currency totals (in hundredths).
+     */
+    public record Query(int[] rows, int count, Map<String, Long> totalsByCurrency, Map<String, Integer> countsByStatus) {}
+
+    private final Dictionary statusDict = new Dictionary();
+    private final Dictionary currencyDict = new Dictionary();
+    private final Dictionary typeDict = new Dictionary();
+    private final Map<String, Integer> rowsByOrderId = new HashMap<>();
+
+    private String[] orderIds = new String[1024];
+    private String[] merchantOrderIds = new String[1024];
+    private long[] amounts = new long[1024];
+    private long[] created = new long[1024];
+    private int[] statuses = new int[1024];
+    private int[] currencies = new int[1024];
+    private int[] types = new int[1024];
+    private volatile int size;
+    private volatile Snapshot snapshot = buildSnapshot(0);
+
+    public Dictionary statuses() { return statusDict; }
+    public Dictionary currencies() { return currencyDict; }
+    public Dictionary types() { return typeDict; }
+
+    public int size() { return size; }
+
+    /**
+     * Appends or replaces a row. Writer thread only.
+     */
+    synchronized void put(String orderId, String merchantOrderId, long amountHundredths, long createdEpochSeconds,
+                          String status, String currency, String type) {
+        Integer existing = orderId == null || orderId.isEmpty() ? null : rowsByOrderId.get(orderId);
+        int row = existing != null ? existing : size;
+        if (existing == null) {
+            ensureCapacity(row + 1);
+        }
+        orderIds[row] = orderId;
+        merchantOrderIds[row] = merchantOrderId;
+        amounts[row] = amountHundredths;
+        created[row] = createdEpochSeconds;
+        statuses[row] = statusDict.code(status == null ? "" : status.toUpperCase(Locale.ROOT));
+        currencies[row] = currencyDict.code(currency == null ? "" : currency.toUpperCase(Locale.ROOT));
+        types[row] = typeDict.code(type == null ? "" : type.toUpperCase(Locale.ROOT));
+        if (existing == null) {
+            if (orderId != null && !orderId.isEmpty()) {
+                rowsByOrderId.put(orderId, row);
+            }
+            size = row + 1;
+        }
+    }
+
+    /**
+     * Publishes rows written since the last call to readers.
+     */
+    synchronized void publish() {
+        snapshot = buildSnapshot(size);
+    }
+
+    public synchronized void clear() {
+        rowsByOrderId.clear();
+        size = 0;
+        snapshot = buildSnapshot(0);
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Filters the current snapshot. Any criterion may be negative/empty to match all rows.
+     */
+    public Query query(Snapshot s, int statusCode, int currencyCode, int typeCode, String idContains) {
+        String needle = idContains == null ? "" : idContains.trim();
+        int[] rows = new int[s.size()];
+        int n = 0;
+        long[] totals = new long[currencyDict.values().size() + 1];
+        int[] statusCounts = new int[statusDict.values().size() + 1];
+        for (int i = 0; i < s.size(); i++) {
+            if (statusCode >= 0 && s.statuses()[i] != statusCode) continue;
+            if (currencyCode >= 0 && s.currencies()[i] != currencyCode) continue;
+            if (typeCode >= 0 && s.types()[i] != typeCode) continue;
+            if (!needle.isEmpty() && !contains(s.orderIds()[i], needle) && !contains(s.merchantOrderIds()[i], needle)) continue;
+            rows[n++] = i;
+            int c = s.currencies()[i];
+            if (c < totals.length) totals[c] += s.amounts()[i];
+            int st = s.statuses()[i];
+            if (st < statusCounts.length) statusCounts[st]++;
+        }
+        Map<String, Long> totalsByCurrency = new LinkedHashMap<>();
+        for (int c = 0; c < totals.length; c++) {
+            if (totals[c] != 0) totalsByCurrency.put(currencyDict.value(c), totals[c]);
+        }
+        Map<String, Integer> countsByStatus = new LinkedHashMap<>();
+        for (int st = 0; st < statusCounts.length; st++) {
+            if (statusCounts[st] != 0) countsByStatus.put(statusDict.value(st), statusCounts[st]);
+        }
+        return new Query(rows, n, totalsByCurrency, countsByStatus);
+    }
+
+    /**
+     * Formats an amount stored in hundredths, e.g. {@code 12345 -> "123.45"}.
+     */
+    public static String formatAmount(long hundredths) {
+        String sign = hundredths < 0 ? "-" : "";
+        long abs = Math.abs(hundredths);
+        return sign + (abs / 100) + "." + (abs % 100 < 10 ? "0" : "") + (abs % 100);
+    }
+
+    private static boolean contains(String s, String needle) {
+        return s != null && s.contains(needle);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= amounts.length) {
+            return;
+        }
+        int cap = Math.max(needed, amounts.length * 2);
+        orderIds = Arrays.copyOf(orderIds, cap);
+        merchantOrderIds = Arrays.copyOf(merchantOrderIds, cap);
+        amounts = Arrays.copyOf(amounts, cap);
+        created = Arrays.copyOf(created, cap);
+        statuses = Arrays.copyOf(statuses, cap);
+        currencies = Arrays.copyOf(currencies, cap);
+        types = Arrays.copyOf(types, cap);
+    }
+
+    private Snapshot buildSnapshot(int rows) {
+        return new Snapshot(rows, orderIds, merchantOrderIds, amounts, created, statuses, currencies, types);
+    }
+}
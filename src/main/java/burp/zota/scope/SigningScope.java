@@ -0,0 +1,225 @@
+package burp.zota.scope;
+
+import burp.api.montoya.core.ToolType;
+import burp.zota.config.ScopeRule;
+import burp.zota.config.ZotaConfig;
+import burp.zota.signer.SigningRules;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, pre-compiled form of the signing policy. Decides per request whether traffic from a tool is
+ * ignored, analysed (annotated only), verified without changes or signed. Host suffixes are held in a hash map walked label by label
+ * and path prefixes are bucketed by their first path segment, so a decision is a handful of hash lookups
+ * regardless of how many tools or rules are configured. Host results are memoised in a bounded cache.
+ */
+public final class SigningScope {
+
+    public enum Decision { IGNORE, ANALYZE, VERIFY, SIGN }
+
+    /** Paths recognised as Zota API endpoints for every tool: the signer's own rule prefixes. */
+    public static final List<String> ZOTA_PATH_PREFIXES = SigningRules.rules().stream()
+            .flatMap(rule -> rule.pathPrefixes().stream())
+            .distinct()
+            .toList();
+
+    private static final int BUILTIN = 1 << 30;
+    private static final int HOST_CACHE_LIMIT = 4096;
+
+    private final boolean enabled;
+    private final boolean[] signTools = new boolean[ToolType.values().length];
+    private final boolean[] verifyTools = new boolean[ToolType.values().length];
+    private final Map<String, Integer> hostSuffixes;
+    private final Map<String, List<PathRule>> pathBuckets;
+    private final List<PathRule> unbucketedPaths;
+    private final ConcurrentHashMap<String, Integer> hostCache = new ConcurrentHashMap<>();
+
+    private record PathRule(String prefix, int toolMask) {}
+
+    private SigningScope(ZotaConfig config) {
+        this.enabled = config.enabled;
+        signTools[ToolType.REPEATER.ordinal()] = config.signRepeater;
+        signTools[ToolType.PROXY.ordinal()] = config.signProxy;
+        signTools[ToolType.INTRUDER.ordinal()] = config.signIntruder;
+        signTools[ToolType.SCANNER.ordinal()] = config.signScanner;
+        signTools[ToolType.EXTENSIONS.ordinal()] = config.signExtensions;
+        signTools[ToolType.SEQUENCER.ordinal()] = config.signSequencer;
+        if (config.verifyOnlyTools != null) {
+            for (String tool : config.verifyOnlyTools) {
+                int mask = toolMask(tool);
+                for (ToolType t : ToolType.values()) {
+                    if ((mask & (1 << t.ordinal())) != 0) verifyTools[t.ordinal()] = true;
+                }
+            }
+        }
+
+        Map<String, Integer> hosts = new HashMap<>();
+        Map<String, List<PathRule>> buckets = new HashMap<>();
+        List<PathRule> unbucketed = new ArrayList<>();
+        for (String prefix : ZOTA_PATH_PREFIXES) {
+            addPath(buckets, unbucketed, prefix, BUILTIN);
+        }
+        Map<String, ScopeRule> rules = config.scopeRules == null ? Map.of() : config.scopeRules;
+        for (Map.Entry<String, ScopeRule> e : rules.entrySet()) {
+            int mask = toolMask(e.getKey());
+            ScopeRule rule = e.getValue();
+            if (mask == 0 || rule == null) {
+                continue;
+            }
+            if (rule.hostSuffixes != null) {
+                for (String suffix : rule.hostSuffixes) {
+                    String normalized = normalizeHost(suffix);
+                    if (!normalized.isEmpty()) {
+                        hosts.merge(normalized, mask, (a, b) -> a | b);
+                    }
+                }
+            }
+            if (rule.pathPrefixes != null) {
+                for (String prefix : rule.pathPrefixes) {
+                    if (prefix != null && !prefix.isBlank()) {
+                        addPath(buckets, unbucketed, prefix.trim(), mask);
+                    }
+                }
+            }
+        }
+        this.hostSuffixes = hosts;
+        this.pathBuckets = buckets;
+        this.unbucketedPaths = unbucketed;
+    }
+
+    public static SigningScope compile(ZotaConfig config) {
+        return new SigningScope(config);
+    }
+
+    /**
+     * @return whether signing is enabled for the tool (ignores host and path rules).
+     */
+    public boolean signs(ToolType tool) {
+        return enabled && tool != null && signTools[tool.ordinal()];
+    }
+
+    /**
+     * @return whether the tool only verifies existing signatures; this takes precedence over signing.
+     */
+    public boolean verifies(ToolType tool) {
+        return tool != null && verifyTools[tool.ordinal()];
+    }
+
+    /**
+     * Classifies a request: {@link Decision#IGNORE} when it is not Zota traffic for this tool,
+     * {@link Decision#VERIFY} when the tool is verify-only, {@link Decision#SIGN} when the tool signs,
+     * {@link Decision#ANALYZE} otherwise.
+     */
+    public Decision decide(ToolType tool, String host, String path) {
+        if (tool == null) {
+            return Decision.IGNORE;
+        }
+        int wanted = BUILTIN | (1 << tool.ordinal());
+        boolean inScope = (hostMask(host) & wanted) != 0 || (pathMask(path) & wanted) != 0;
+        if (!inScope) {
+            return Decision.IGNORE;
+        }
+        if (verifies(tool)) {
+            return Decision.VERIFY;
+        }
+        return signs(tool) ? Decision.SIGN : Decision.ANALYZE;
+    }
+
+    private int hostMask(String host) {
+        if (host == null || host.isEmpty()) {
+            return 0;
+        }
+        Integer cached = hostCache.get(host);
+        if (cached != null) {
+            return cached;
+        }
+        String lower = host.toLowerCase(Locale.ROOT);
+        int mask = lower.contains("zota") ? BUILTIN : 0;
+        if (!hostSuffixes.isEmpty()) {
+            int from = 0;
+            while (from >= 0) {
+                Integer m = hostSuffixes.get(from == 0 ? lower : lower.substring(from));
+                if (m != null) {
+                    mask |= m;
+                }
+                int dot = lower.indexOf('.', from);
+                from = dot < 0 ? -1 : dot + 1;
+            }
+        }
+        if (hostCache.size() >= HOST_CACHE_LIMIT) {
+            hostCache.clear();
+        }
+        hostCache.put(host, mask);
+        return mask;
+    }
+
+    private int pathMask(String path) {
+        if (path == null || path.isEmpty()) {
+            return 0;
+        }
+        int mask = 0;
+        List<PathRule> bucket = pathBuckets.get(firstSegment(path));
+        if (bucket != null) {
+            for (PathRule rule : bucket) {
+                if (path.startsWith(rule.prefix())) {
+                    mask |= rule.toolMask();
+                }
+            }
+        }
+        for (PathRule rule : unbucketedPaths) {
+            if (path.startsWith(rule.prefix())) {
+                mask |= rule.toolMask();
+            }
+        }
+        return mask;
+    }
+
+    private static void addPath(Map<String, List<PathRule>> buckets, List<PathRule> unbucketed, String prefix, int mask) {
+        String normalized = prefix.startsWith("/") ? prefix : "/" + prefix;
+        // Only prefixes containing a complete first segment can be bucketed; "/cb" must also match "/cbx".
+        if (normalized.indexOf('/', 1) > 0) {
+            buckets.computeIfAbsent(firstSegment(normalized), k -> new ArrayList<>()).add(new PathRule(normalized, mask));
+        } else {
+            unbucketed.add(new PathRule(normalized, mask));
+        }
+    }
+
+    private static String firstSegment(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.indexOf('?', start);
+        }
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private static int toolMask(String key) {
+        if (key == null) {
+            return 0;
+        }
+        if (ZotaConfig.ALL_TOOLS.equalsIgnoreCase(key)) {
+            int all = 0;
+            for (ToolType t : ToolType.values()) {
+                all |= 1 << t.ordinal();
+            }
+            return all;
+        }
+        try {
+            return 1 << ToolType.valueOf(key.trim().toUpperCase(Locale.ROOT)).ordinal();
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private static String normalizeHost(String suffix) {
+        if (suffix == null) {
+            return "";
+        }
+        String s = suffix.trim().toLowerCase(Locale.ROOT);
+        while (s.startsWith(".") || s.startsWith("*")) {
+            s = s.substring(1);
+        }
+        return s;
+    }
+}
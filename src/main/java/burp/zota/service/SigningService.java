@@ -0,0 +1,405 @@
+package burp.zota.service;
+
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.profile.CompiledProfile;
+import burp.zota.profile.ProfileManager;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.signer.SignatureFormula;
+import burp.zota.signer.ZotaEndpoint;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import burp.zota.util.ZotaLogger;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Signing for tools outside Burp (k6, wrk, Gatling): an HTTP endpoint on the loopback interface that signs
+ * with the extension's formulas and stored profiles, so load scripts never reimplement them.
+ *
+ * <p>Every call needs the {@value #TOKEN_HEADER} header. {@code POST /v1/sign} takes one request object or an
+ * array of them and answers with the signature plus the completed fields, body or query string.
+ * {@code POST /v1/digest} is the bulk form: rows of values in formula order in, signatures out, so thousands
+ * of rows cost one round trip. Requests are parsed as they stream in; each answer is built in memory and sent
+ * with a fixed length. {@code GET /v1/formulas} lists each endpoint's fields and
+ * {@code GET /v1/profiles} the profiles (never their secrets). Connections are kept alive; each exchange runs on
+ * its own virtual thread in the service lane.
+ */
+public class SigningService {
+
+    public static final String TOKEN_HEADER = "X-Zota-Token";
+
+    /** Endpoints signed over query parameters, where the merchant ID always comes from the profile. */
+    private static final Set<ZotaEndpoint> QUERY = EnumSet.of(ZotaEndpoint.ORDER_STATUS, ZotaEndpoint.ORDERS_REPORT,
+            ZotaEndpoint.CURRENT_BALANCE, ZotaEndpoint.EXCHANGE_RATES, ZotaEndpoint.FINAL_REDIRECT);
+    private static final Set<ZotaEndpoint> REQUEST_ID = EnumSet.of(ZotaEndpoint.ORDERS_REPORT,
+            ZotaEndpoint.CURRENT_BALANCE, ZotaEndpoint.EXCHANGE_RATES);
+
+    /**
+     * @param signatures signatures computed across all requests.
+     * @param errors     requests answered with a 4xx or 5xx status.
+     */
+    public record Stats(long requests, long signatures, long errors) {}
+
+    private static final class BadRequest extends RuntimeException {
+        final int status;
+
+        BadRequest(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final ProfileManager profiles;
+    private final ZotaExecutors executors;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder signatures = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private HttpServer server;
+    private ExecutorService lane;
+    private volatile byte[] token = new byte[0];
+
+    public SigningService(ProfileManager profiles, ZotaExecutors executors) {
+        this.profiles = profiles;
+        this.executors = executors;
+    }
+
+    /**
+     * Binds to {@code 127.0.0.1:port}, replacing a running instance.
+     *
+     * @throws IOException if the port cannot be bound.
+     */
+    public synchronized void start(int port, String token) throws IOException {
+        stop();
+        this.token = token == null ? new byte[0] : token.getBytes(StandardCharsets.UTF_8);
+        HttpServer s = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        lane = executors.lane(ZotaExecutors.Task.SERVICE);
+        s.setExecutor(lane);
+        s.createContext("/", this::handle);
+        s.start();
+        server = s;
+        ZotaLogger.info("Signing service listening on " + address());
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            lane.shutdown();
+            server = null;
+            lane = null;
+            ZotaLogger.info("Signing service stopped");
+        }
+    }
+
+    public synchronized boolean running() {
+        return server != null;
+    }
+
+    /**
+     * @return {@code host:port} the service listens on, or null when stopped.
+     */
+    public synchronized String address() {
+        if (server == null) {
+            return null;
+        }
+        InetSocketAddress a = server.getAddress();
+        return a.getAddress().getHostAddress() + ":" + a.getPort();
+    }
+
+    /**
+     * @return a random URL-safe token for {@value #TOKEN_HEADER}.
+     */
+    public static String newToken() {
+        byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public Stats stats() {
+        return new Stats(requests.sum(), signatures.sum(), errors.sum());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            byte[] body;
+            int status = 200;
+            try {
+                body = route(exchange);
+            } catch (BadRequest e) {
+                status = e.status;
+                body = error(e.getMessage());
+            } catch (IllegalArgumentException | IOException e) {
+                status = 400;
+                body = error(e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                body = error(e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            if (status != 200) {
+                errors.increment();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private byte[] route(HttpExchange exchange) throws IOException {
+        String supplied = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        if (token.length == 0 || supplied == null
+                || !MessageDigest.isEqual(token, supplied.getBytes(StandardCharsets.UTF_8))) {
+            throw new BadRequest(401, "missing or wrong " + TOKEN_HEADER);
+        }
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        try (InputStream in = exchange.getRequestBody(); JsonGenerator g = Json.generator(out)) {
+            switch (method + " " + path) {
+                case "POST /v1/sign" -> sign(in, g);
+                case "POST /v1/digest" -> digest(in, g);
+                case "GET /v1/formulas" -> formulas(g);
+                case "GET /v1/profiles" -> profiles(g);
+                default -> throw new BadRequest(404, "no route for " + method + " " + path);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] error(String message) {
+        try {
+            return Json.write(Map.of("error", message == null ? "" : message)).getBytes(StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            return "{\"error\":\"\"}".getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * One request object, or an array of them answered in order. A failed item, including an array element
+     * that is not an object, gets {@code {"error": ...}} in its place instead of failing the batch.
+     */
+    private void sign(InputStream in, JsonGenerator g) throws IOException {
+        Map<String, CompiledProfile> cache = new HashMap<>();
+        try (JsonParser parser = Json.parser(in)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_OBJECT) {
+                signOne(parser.readValueAsTree(), cache, g);
+            } else if (first == JsonToken.START_ARRAY) {
+                g.writeStartArray();
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new IllegalArgumentException("unterminated array");
+                    }
+                    if (token == JsonToken.START_OBJECT) {
+                        signOne(parser.readValueAsTree(), cache, g);
+                    } else {
+                        parser.skipChildren();
+                        g.writeStartObject();
+                        g.writeStringField("error", "expected a JSON object");
+                        g.writeEndObject();
+                    }
+                }
+                g.writeEndArray();
+            } else {
+                throw new IllegalArgumentException("expected a JSON object or array");
+            }
+        }
+    }
+
+    /**
+     * Fills what the signer would (profile merchant ID and endpoint ID, timestamp, requestID), signs, and
+     * writes the signature with the completed fields and the ready-to-send body or query string.
+     */
+    private void signOne(JsonNode item, Map<String, CompiledProfile> cache, JsonGenerator g) throws IOException {
+        try {
+            ZotaEndpoint endpoint = endpoint(item.path("endpoint").asText(""));
+            CompiledProfile p = profile(item.path("profile").asText(""), cache);
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonNode> f : item.path("fields").properties()) {
+                fields.put(f.getKey(), f.getValue().isNull() ? "" : f.getValue().asText(""));
+            }
+            if (QUERY.contains(endpoint) && endpoint != ZotaEndpoint.FINAL_REDIRECT) {
+                fields.put("merchantID", p.merchantId());
+                fields.putIfAbsent("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
+            }
+            if (REQUEST_ID.contains(endpoint)) {
+                fields.putIfAbsent("requestID", UUID.randomUUID().toString());
+            }
+            if ((endpoint == ZotaEndpoint.DEPOSIT || endpoint == ZotaEndpoint.PAYOUT) && !p.endpointId().isEmpty()) {
+                fields.putIfAbsent("EndpointID", p.endpointId());
+            }
+            List<String> names = SignatureFormula.fields(endpoint);
+            String[] values = new String[names.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = fields.getOrDefault(names.get(i), "");
+            }
+            String signature = SignatureFormula.sign(endpoint, p, values);
+            signatures.increment();
+            fields.put("signature", signature);
+
+            g.writeStartObject();
+            g.writeStringField("endpoint", endpoint.label());
+            g.writeStringField("profile", p.name());
+            g.writeStringField("signature", signature);
+            g.writeObjectFieldStart("fields");
+            for (Map.Entry<String, String> f : fields.entrySet()) {
+                g.writeStringField(f.getKey(), f.getValue());
+            }
+            g.writeEndObject();
+            if (QUERY.contains(endpoint)) {
+                g.writeStringField("query", QueryString.build(fields));
+            } else if (endpoint == ZotaEndpoint.DEPOSIT || endpoint == ZotaEndpoint.PAYOUT) {
+                // EndpointID is a path segment for these, not a body field
+                g.writeStringField("path", "/api/v1/" + endpoint.label() + "/request/" + fields.getOrDefault("EndpointID", "") + "/");
+                g.writeObjectFieldStart("body");
+                for (Map.Entry<String, String> f : fields.entrySet()) {
+                    if (!f.getKey().equals("EndpointID")) g.writeStringField(f.getKey(), f.getValue());
+                }
+                g.writeEndObject();
+            }
+            g.writeEndObject();
+        } catch (IllegalArgumentException e) {
+            g.writeStartObject();
+            g.writeStringField("error", e.getMessage());
+            g.writeEndObject();
+        }
+    }
+
+    /**
+     * {@code {"profile": ..., "endpoint": ..., "rows": [[v1, v2, ...], ...]}} with profile and endpoint before
+     * rows; answers {@code {"signatures": [...]}} in row order. Values may be strings, numbers or null.
+     */
+    private void digest(InputStream in, JsonGenerator g) throws IOException {
+        String profileName = "";
+        ZotaEndpoint endpoint = null;
+        try (JsonParser parser = Json.parser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            boolean wrote = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "profile" -> profileName = parser.getValueAsString("");
+                    case "endpoint" -> endpoint = endpoint(parser.getValueAsString(""));
+                    case "rows" -> {
+                        if (endpoint == null) {
+                            throw new IllegalArgumentException("endpoint must come before rows");
+                        }
+                        writeDigests(parser, endpoint, profile(profileName, new HashMap<>()), g);
+                        wrote = true;
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (!wrote) {
+                throw new IllegalArgumentException("no rows");
+            }
+        }
+    }
+
+    private void writeDigests(JsonParser parser, ZotaEndpoint endpoint, CompiledProfile p, JsonGenerator g) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("rows must be an array of arrays");
+        }
+        int width = SignatureFormula.fields(endpoint).size();
+        String[] values = new String[width];
+        long count = 0;
+        g.writeStartObject();
+        g.writeArrayFieldStart("signatures");
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            int i = 0;
+            JsonToken t;
+            while ((t = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (t == null || t.isStructStart()) {
+                    throw new IllegalArgumentException("row " + count + " is not a flat array");
+                }
+                if (i < width) values[i] = t == JsonToken.VALUE_NULL ? "" : parser.getValueAsString("");
+                i++;
+            }
+            if (i != width) {
+                throw new IllegalArgumentException("row " + count + " has " + i + " values, " + endpoint.label() + " takes " + width);
+            }
+            g.writeString(SignatureFormula.sign(endpoint, p, values));
+            count++;
+        }
+        g.writeEndArray();
+        g.writeEndObject();
+        signatures.add(count);
+    }
+
+    private static void formulas(JsonGenerator g) throws IOException {
+        g.writeStartObject();
+        for (ZotaEndpoint e : ZotaEndpoint.values()) {
+            g.writeObjectFieldStart(e.label());
+            g.writeArrayFieldStart("fields");
+            for (String f : SignatureFormula.fields(e)) g.writeString(f);
+            g.writeEndArray();
+            g.writeStringField("secret", SignatureFormula.secretSecond(e) ? "after first field" : "last");
+            g.writeEndObject();
+        }
+        g.writeEndObject();
+    }
+
+    private void profiles(JsonGenerator g) throws IOException {
+        ZotaProfile active = profiles.getActiveProfile();
+        g.writeStartArray();
+        for (ZotaProfile p : profiles.all()) {
+            CompiledProfile c = profiles.compiled(p);
+            g.writeStartObject();
+            g.writeStringField("name", c.name());
+            g.writeStringField("merchantID", c.merchantId());
+            g.writeStringField("endpointID", c.endpointId());
+            g.writeStringField("apiBase", c.baseUrl());
+            g.writeBooleanField("active", p == active);
+            g.writeEndObject();
+        }
+        g.writeEndArray();
+    }
+
+    private static ZotaEndpoint endpoint(String label) {
+        ZotaEndpoint e = SignatureFormula.byLabel(label);
+        if (e == null) {
+            throw new IllegalArgumentException("unknown endpoint '" + label + "'; see GET /v1/formulas");
+        }
+        return e;
+    }
+
+    /**
+     * @param name profile name; empty means the active profile.
+     */
+    private CompiledProfile profile(String name, Map<String, CompiledProfile> cache) {
+        return cache.computeIfAbsent(name, n -> {
+            ZotaProfile p = n.isEmpty() ? profiles.getActiveProfile() : profiles.byName(n);
+            if (p == null) {
+                throw new IllegalArgumentException(n.isEmpty() ? "no active profile" : "unknown profile '" + n + "'");
+            }
+            return profiles.compiled(p);
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package burp.zota.signer;
+
+import burp.zota.profile.CompiledProfile;
+
+/**
+ * Signatures Zota puts on the messages it sends to merchants. Used both to verify captured callbacks and final
+ * redirects and to forge test ones for the replayer; computed by {@link SignatureFormula}, like every other
+ * signature. Null values count as empty.
+ */
+public final class CallbackSignatures {
+    private CallbackSignatures() {}
+
+    /**
+     * {@code SHA-256(EndpointID + orderID + merchantOrderID + status + amount + customerEmail + secret)}.
+     */
+    public static String callback(String endpointId, String orderId, String merchantOrderId, String status,
+                                  String amount, String customerEmail, CompiledProfile p) {
+        return SignatureFormula.sign(ZotaEndpoint.CALLBACK, p,
+                new String[]{endpointId, orderId, merchantOrderId, status, amount, customerEmail});
+    }
+
+    /**
+     * {@code SHA-256(status + orderID + merchantOrderID + secret)}.
+     */
+    public static String finalRedirect(String status, String orderId, String merchantOrderId, CompiledProfile p) {
+        return SignatureFormula.sign(ZotaEndpoint.FINAL_REDIRECT, p, new String[]{status, orderId, merchantOrderId});
+    }
+}
@@ -0,0 +1,53 @@
+package burp.zota.signer;
+
+import burp.zota.profile.CompiledProfile;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import burp.zota.util.SignatureUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * The HTTP handler's signing ({@link ZotaSigner#signIfZota}) for raw request parts, without Burp: the same
+ * {@link SigningRules} pick the endpoint, fill the missing merchant ID, timestamp and request ID, and give the
+ * values hashed. Used by the headless forwarder, which has no Montoya API to build requests with. Signature
+ * recipes are not applied.
+ */
+public final class HeadlessSigner {
+
+    private HeadlessSigner() {}
+
+    /**
+     * A signed request; {@code query} and {@code body} are what should be sent.
+     *
+     * @param query raw query string without {@code ?}; unchanged for deposits and payouts.
+     * @param body  request body; unchanged for the query endpoints.
+     */
+    public record Signed(ZotaEndpoint endpoint, String query, String body, String signature) {}
+
+    /**
+     * Signs a request to one of the signed endpoints with {@code p}.
+     *
+     * @param query raw query string without {@code ?}, or null.
+     * @return the signed parts, or null when no signing rule matches.
+     * @throws Exception if a deposit or payout body is not JSON.
+     */
+    public static Signed sign(String method, String path, String query, String body, CompiledProfile p) throws Exception {
+        ZotaEndpoint endpoint = SigningRules.match(method, path);
+        if (endpoint == null) {
+            return null;
+        }
+        if (endpoint == ZotaEndpoint.DEPOSIT || endpoint == ZotaEndpoint.PAYOUT) {
+            JsonNode json = Json.tree(body);
+            String signature = SignatureFormula.sign(endpoint, p, SigningRules.bodyValues(endpoint, path, json));
+            return new Signed(endpoint, query, Json.write(SignatureUtil.withField(json, "signature", signature)), signature);
+        }
+
+        Map<String, String> params = QueryString.parse(query == null ? "" : query);
+        SigningRules.fillQuery(endpoint, params, p, false);
+        String signature = SignatureFormula.sign(endpoint, p, SigningRules.queryValues(endpoint, params, p));
+        params.put("signature", signature);
+        return new Signed(endpoint, QueryString.build(params), body, signature);
+    }
+}
@@ -0,0 +1,231 @@
+package burp.zota.signer;
+
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.http.HttpService;
+import burp.api.montoya.http.message.HttpHeader;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Editable form of a request for one pass through {@link ZotaSigner}. The query and JSON body are parsed at
+ * most once, on first use; profile defaults, signing and header edits all work on the parsed form; and
+ * {@link #build()} produces the final request in a single rebuild, or returns the original when nothing
+ * changed. The rebuild works on bytes: an unchanged body is copied as it came, and an edited JSON body is
+ * written as UTF-8 with a matching {@code Content-Length}.
+ */
+final class RequestModel {
+
+    private record HeaderEdit(String name, String value) {}
+
+    private final HttpRequest source;
+    private final String method;
+    private final String originalBasePath;
+    private final String originalQuery;
+    private String basePath;
+    private Map<String, String> params;
+    private Map<String, String> parsedParams;
+    private JsonNode json;
+    private boolean bodyChanged;
+    private HttpService service;
+    private final Map<String, HeaderEdit> headerEdits = new LinkedHashMap<>(4);
+
+    RequestModel(HttpRequest source) {
+        this.source = source;
+        this.method = source.method();
+        this.originalBasePath = source.pathWithoutQuery();
+        this.originalQuery = source.query() == null ? "" : source.query();
+        this.basePath = originalBasePath;
+        this.service = source.httpService();
+    }
+
+    HttpRequest source() {
+        return source;
+    }
+
+    String method() {
+        return method;
+    }
+
+    String basePath() {
+        return basePath;
+    }
+
+    void setBasePath(String basePath) {
+        this.basePath = basePath;
+    }
+
+    boolean hasQuery() {
+        return params != null ? !params.isEmpty() : !originalQuery.isEmpty();
+    }
+
+    /**
+     * Query parameters in order, parsed on first call. Edits to the returned map are kept; the query is
+     * only re-encoded if they leave it different from what was parsed.
+     */
+    Map<String, String> query() {
+        if (params == null) {
+            parsedParams = QueryString.parse(originalQuery);
+            params = new LinkedHashMap<>(parsedParams);
+        }
+        return params;
+    }
+
+    /**
+     * Body parsed as JSON on first call (an empty body is an empty object). Edit it in place and call
+     * {@link #bodyChanged()}, or replace it with {@link #setJson}.
+     *
+     * @throws Exception if the body is not JSON.
+     */
+    JsonNode json() throws Exception {
+        if (json == null) {
+            json = Json.tree(source.bodyToString());
+        }
+        return json;
+    }
+
+    /**
+     * Like {@link #json()} but null when the body is empty or not JSON.
+     */
+    JsonNode jsonOrNull() {
+        if (json == null) {
+            String body = source.bodyToString();
+            if (body == null || body.isEmpty()) {
+                return null;
+            }
+            try {
+                json = Json.tree(body);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+        return json;
+    }
+
+    void setJson(JsonNode json) {
+        this.json = json;
+        this.bodyChanged = true;
+    }
+
+    void bodyChanged() {
+        this.bodyChanged = true;
+    }
+
+    void setService(HttpService service) {
+        this.service = service;
+    }
+
+    /**
+     * Current value of a header, including edits made on this model.
+     */
+    String header(String name) {
+        HeaderEdit edit = headerEdits.get(name.toLowerCase(Locale.ROOT));
+        return edit != null ? edit.value() : source.headerValue(name);
+    }
+
+    /**
+     * Replaces the header in place, or appends it when absent.
+     */
+    void setHeader(String name, String value) {
+        headerEdits.put(name.toLowerCase(Locale.ROOT), new HeaderEdit(name, value));
+    }
+
+    void removeHeader(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        if (headerEdits.containsKey(key) || source.headerValue(name) != null) {
+            headerEdits.put(key, new HeaderEdit(name, null));
+        }
+    }
+
+    /**
+     * Drops every edit, e.g. when signing failed half-way and the request should go out as it came in.
+     */
+    void discardEdits() {
+        basePath = originalBasePath;
+        params = null;
+        parsedParams = null;
+        json = null;
+        bodyChanged = false;
+        service = source.httpService();
+        headerEdits.clear();
+    }
+
+    /**
+     * The edited request. Returns the original instance when no edit changed anything.
+     */
+    HttpRequest build() {
+        boolean queryChanged = params != null && !sameEntries(params, parsedParams);
+        String query = queryChanged ? QueryString.build(params) : originalQuery;
+        boolean serviceChanged = service != source.httpService();
+        if (!queryChanged && basePath.equals(originalBasePath) && !bodyChanged && !serviceChanged && headerEdits.isEmpty()) {
+            return source;
+        }
+        byte[] body;
+        try {
+            body = bodyChanged ? Json.write(json).getBytes(StandardCharsets.UTF_8) : source.body().getBytes();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot serialise JSON body: " + e.getMessage(), e);
+        }
+
+        StringBuilder head = new StringBuilder(256);
+        head.append(method).append(' ').append(basePath);
+        if (!query.isEmpty()) {
+            head.append('?').append(query);
+        }
+        head.append(' ').append(source.httpVersion()).append("\r\n");
+        Map<String, HeaderEdit> pending = new LinkedHashMap<>(headerEdits);
+        if (bodyChanged) {
+            pending.put("content-length", new HeaderEdit("Content-Length", String.valueOf(body.length)));
+        }
+        for (HttpHeader h : source.headers()) {
+            String key = h.name().toLowerCase(Locale.ROOT);
+            if (!headerEdits.containsKey(key) && !(bodyChanged && key.equals("content-length"))) {
+                appendHeader(head, h.name(), h.value());
+                continue;
+            }
+            // First occurrence takes the edited value; repeats of an edited header are dropped
+            HeaderEdit edit = pending.remove(key);
+            if (edit != null && edit.value() != null) {
+                appendHeader(head, h.name(), edit.value());
+            }
+        }
+        for (HeaderEdit edit : pending.values()) {
+            if (edit.value() != null) {
+                appendHeader(head, edit.name(), edit.value());
+            }
+        }
+        head.append("\r\n");
+        // Burp exposes header text one char per byte, so ISO-8859-1 gives back the bytes it read
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        byte[] raw = new byte[headBytes.length + body.length];
+        System.arraycopy(headBytes, 0, raw, 0, headBytes.length);
+        System.arraycopy(body, 0, raw, headBytes.length, body.length);
+        return HttpRequest.httpRequest(service, ByteArray.byteArray(raw));
+    }
+
+    private static boolean sameEntries(Map<String, String> a, Map<String, String> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        Iterator<Map.Entry<String, String>> ib = b.entrySet().iterator();
+        for (Map.Entry<String, String> ea : a.entrySet()) {
+            Map.Entry<String, String> eb = ib.next();
+            if (!ea.getKey().equals(eb.getKey()) || !Objects.equals(ea.getValue(), eb.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendHeader(StringBuilder head, String name, String value) {
+        head.append(name).append(": ").append(value).append("\r\n");
+    }
+}
@@ -0,0 +1,94 @@
+package burp.zota.signer;
+
+import burp.zota.profile.CompiledProfile;
+import burp.zota.util.SignatureUtil;
+
+import java.util.List;
+
+/**
+ * The signature formulas as data: for each endpoint, the fields hashed, in order, and where the secret goes.
+ * Needs nothing from Burp, so callers outside the HTTP handler (the verifier, the localhost signing service)
+ * can compute a signature from plain field values. Null values count as empty.
+ */
+public final class SignatureFormula {
+
+    private SignatureFormula() {}
+
+    /**
+     * Fields hashed for {@code endpoint}, in formula order; the secret is not listed. {@code EndpointID} is the
+     * path segment for deposits and payouts and the body field for callbacks.
+     */
+    public static List<String> fields(ZotaEndpoint endpoint) {
+        return switch (endpoint) {
+            case DEPOSIT -> List.of("EndpointID", "merchantOrderID", "orderAmount", "customerEmail");
+            case PAYOUT -> List.of("EndpointID", "merchantOrderID", "orderAmount", "customerEmail", "customerBankAccountNumber");
+            case ORDER_STATUS -> List.of("merchantID", "merchantOrderID", "orderID", "timestamp");
+            case ORDERS_REPORT -> List.of("merchantID", "dateType", "endpointIds", "fromDate", "requestID", "statuses",
+                    "timestamp", "toDate", "types");
+            case CURRENT_BALANCE -> List.of("merchantID", "requestID", "timestamp");
+            case EXCHANGE_RATES -> List.of("merchantID", "requestID", "date", "timestamp", "orderID");
+            case FINAL_REDIRECT -> List.of("status", "orderID", "merchantOrderID");
+            case CALLBACK -> List.of("EndpointID", "orderID", "merchantOrderID", "status", "amount", "customerEmail");
+        };
+    }
+
+    /**
+     * @return whether the secret follows the first field (merchant ID) instead of coming last.
+     */
+    public static boolean secretSecond(ZotaEndpoint endpoint) {
+        return endpoint == ZotaEndpoint.EXCHANGE_RATES;
+    }
+
+    /**
+     * Raw SHA-256 over {@code values}, given in {@link #fields} order.
+     *
+     * @throws IllegalArgumentException if the number of values does not match the formula.
+     */
+    public static byte[] digest(ZotaEndpoint endpoint, CompiledProfile p, String[] values) {
+        int expected = fields(endpoint).size();
+        if (values.length != expected) {
+            throw new IllegalArgumentException(endpoint.label() + " takes " + expected + " values, got " + values.length);
+        }
+        if (secretSecond(endpoint)) {
+            String[] rest = new String[values.length - 1];
+            System.arraycopy(values, 1, rest, 0, rest.length);
+            return p.digestSecretSecond(values[0], rest);
+        }
+        return p.digestSecretLast(values);
+    }
+
+    /**
+     * Lower-case hex form of {@link #digest}.
+     */
+    public static String sign(ZotaEndpoint endpoint, CompiledProfile p, String[] values) {
+        return SignatureUtil.toHexLower(digest(endpoint, p, values));
+    }
+
+    /**
+     * The endpoint (or group) ID segment after {@code prefix} in a deposit or payout path, as it goes into
+     * the signature: {@code group/} and the trailing slash are dropped.
+     */
+    public static String pathId(String path, String prefix) {
+        String s = path.substring(prefix.length());
+        int q = s.indexOf('?');
+        if (q >= 0) s = s.substring(0, q);
+        s = s.trim();
+        if (s.startsWith("group/")) {
+            s = s.substring("group/".length());
+        }
+        if (s.endsWith("/")) s = s.substring(0, s.length() - 1);
+        return s;
+    }
+
+    /**
+     * @return the endpoint whose {@link ZotaEndpoint#label()} is {@code label}, or null.
+     */
+    public static ZotaEndpoint byLabel(String label) {
+        for (ZotaEndpoint e : ZotaEndpoint.values()) {
+            if (e.label().equals(label)) {
+                return e;
+            }
+        }
+        return null;
+    }
+}
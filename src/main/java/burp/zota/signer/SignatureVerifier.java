@@ -0,0 +1,138 @@
+package burp.zota.signer;
+
+import burp.zota.profile.CompiledProfile;
+import burp.zota.util.Json;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the signature a client already put on a request to one of the six signed endpoints, without
+ * touching the request. The expected digest is compared with the decoded hex signature in constant time,
+ * so a valid request costs one hash. Only when they differ are single-field variations tried (a field left
+ * out, surrounding whitespace, the profile's merchant or endpoint ID) to name the field that differs.
+ */
+final class SignatureVerifier {
+
+    private SignatureVerifier() {}
+
+    /**
+     * Signature inputs as they appear in the request, in formula order. With {@code secretSecond} the secret
+     * follows the first value (merchant ID); otherwise it comes last.
+     */
+    record Inputs(ZotaEndpoint endpoint, boolean secretSecond, List<String> names, String[] values, String provided,
+                  String merchantOrderId, String orderId) {}
+
+    /**
+     * @param valid  whether the provided signature matches.
+     * @param detail for invalid signatures, what differs; empty when valid.
+     */
+    record Verdict(boolean valid, String detail) {}
+
+    /**
+     * Reads the signature inputs of {@code endpoint} from the request.
+     *
+     * @throws Exception if a JSON body does not parse.
+     */
+    static Inputs inputs(ZotaEndpoint endpoint, RequestModel m) throws Exception {
+        return switch (endpoint) {
+            case DEPOSIT, PAYOUT -> {
+                JsonNode json = m.json();
+                String[] values = SigningRules.bodyValues(endpoint, m.basePath(), json);
+                yield new Inputs(endpoint, false, SignatureFormula.fields(endpoint), values, Json.text(json, "signature"),
+                        values[1], null);
+            }
+            case ORDER_STATUS, ORDERS_REPORT, CURRENT_BALANCE, EXCHANGE_RATES -> query(endpoint, m);
+            default -> throw new IllegalArgumentException(endpoint.label() + " is not a signed request");
+        };
+    }
+
+    private static Inputs query(ZotaEndpoint endpoint, RequestModel m) {
+        Map<String, String> params = m.query();
+        List<String> names = SignatureFormula.fields(endpoint);
+        String[] values = new String[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = params.getOrDefault(names.get(i), "");
+        }
+        return new Inputs(endpoint, SignatureFormula.secretSecond(endpoint), names, values, params.get("signature"),
+                params.getOrDefault("merchantOrderID", ""), params.getOrDefault("orderID", ""));
+    }
+
+    static Verdict verify(Inputs in, CompiledProfile p) {
+        if (in.provided() == null || in.provided().isEmpty()) {
+            return new Verdict(false, "no signature");
+        }
+        byte[] provided = fromHex(in.provided().trim());
+        if (provided == null) {
+            return new Verdict(false, "signature is not a SHA-256 hex digest");
+        }
+        if (MessageDigest.isEqual(digest(in, in.values(), p), provided)) {
+            return new Verdict(true, "");
+        }
+        return new Verdict(false, diagnose(in, p, provided));
+    }
+
+    /**
+     * Tries one change at a time and reports the first that reproduces the provided signature.
+     */
+    private static String diagnose(Inputs in, CompiledProfile p, byte[] provided) {
+        String[] values = in.values().clone();
+        List<String> names = in.names();
+        int merchant = names.indexOf("merchantID");
+        if (merchant >= 0 && !p.merchantId().equals(values[merchant])
+                && matches(in, values, merchant, p.merchantId(), p, provided)) {
+            return "merchantID in the request differs from the profile's (" + p.merchantId() + ")";
+        }
+        int endpoint = names.indexOf("EndpointID");
+        if (endpoint >= 0 && !p.endpointId().isEmpty() && !p.endpointId().equals(values[endpoint])
+                && matches(in, values, endpoint, p.endpointId(), p, provided)) {
+            return "EndpointID in the path differs from the profile's (" + p.endpointId() + ")";
+        }
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i] == null ? "" : values[i];
+            if (!value.isEmpty() && matches(in, values, i, "", p, provided)) {
+                return names.get(i) + " was left out of the signature";
+            }
+            String trimmed = value.trim();
+            if (!trimmed.equals(value) && matches(in, values, i, trimmed, p, provided)) {
+                return names.get(i) + " was signed without its surrounding whitespace";
+            }
+        }
+        return "secret or a field differs (signed: " + String.join(", ", names) + ", MerchantSecretKey)";
+    }
+
+    private static boolean matches(Inputs in, String[] values, int index, String replacement, CompiledProfile p, byte[] provided) {
+        String original = values[index];
+        values[index] = replacement;
+        try {
+            return MessageDigest.isEqual(digest(in, values, p), provided);
+        } finally {
+            values[index] = original;
+        }
+    }
+
+    private static byte[] digest(Inputs in, String[] values, CompiledProfile p) {
+        return SignatureFormula.digest(in.endpoint(), p, values);
+    }
+
+    /**
+     * Decodes a 64-character hex digest in either case, or returns null.
+     */
+    static byte[] fromHex(String hex) {
+        if (hex.length() != 64) {
+            return null;
+        }
+        byte[] out = new byte[32];
+        for (int i = 0; i < 32; i++) {
+            int hi = Character.digit(hex.charAt(i * 2), 16);
+            int lo = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (hi < 0 || lo < 0) {
+                return null;
+            }
+            out[i] = (byte) ((hi << 4) | lo);
+        }
+        return out;
+    }
+}
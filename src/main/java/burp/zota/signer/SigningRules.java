@@ -0,0 +1,135 @@
+package burp.zota.signer;
+
+import burp.zota.profile.CompiledProfile;
+import burp.zota.util.Json;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The built-in signing rules, without Burp: the method and path prefixes that select each of the six signed
+ * endpoints, the query defaults filled in before signing, and the values hashed, in {@link SignatureFormula}
+ * order. The HTTP handler ({@link ZotaSigner}) and the headless forwarder ({@link HeadlessSigner}) both sign
+ * through these.
+ */
+public final class SigningRules {
+
+    public static final String DEPOSIT_PATH = "/api/v1/deposit/request/";
+    public static final String DEPOSIT_DIRECT_PATH = "/api/v1/deposit/request/direct/";
+    public static final String PAYOUT_PATH = "/api/v1/payout/request/";
+
+    /**
+     * An endpoint family: HTTP method and the path prefixes it is served under.
+     */
+    public record Rule(ZotaEndpoint endpoint, String method, List<String> pathPrefixes) {
+        public boolean matches(String actualMethod, String path) {
+            if (path == null || !method.equalsIgnoreCase(actualMethod)) {
+                return false;
+            }
+            return pathPrefixes.stream().anyMatch(path::startsWith);
+        }
+    }
+
+    private static final List<Rule> RULES = List.of(
+            new Rule(ZotaEndpoint.DEPOSIT, "POST", List.of(DEPOSIT_PATH, DEPOSIT_DIRECT_PATH)),
+            new Rule(ZotaEndpoint.PAYOUT, "POST", List.of(PAYOUT_PATH)),
+            new Rule(ZotaEndpoint.ORDER_STATUS, "GET", List.of("/api/v1/query/order-status/")),
+            new Rule(ZotaEndpoint.ORDERS_REPORT, "GET", List.of("/api/v1/query/orders-report/csv/")),
+            new Rule(ZotaEndpoint.CURRENT_BALANCE, "GET", List.of("/api/v1/query/current-balance/")),
+            new Rule(ZotaEndpoint.EXCHANGE_RATES, "GET", List.of("/api/v1/query/exchange-rates/"))
+    );
+
+    private SigningRules() {}
+
+    /**
+     * @return the six rules, deposit and payout first.
+     */
+    public static List<Rule> rules() {
+        return RULES;
+    }
+
+    /**
+     * @return the endpoint whose rule matches the method and path, or null.
+     */
+    public static ZotaEndpoint match(String method, String path) {
+        for (Rule rule : RULES) {
+            if (rule.matches(method, path)) {
+                return rule.endpoint();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether {@code path} is one of the query endpoints, whatever the method.
+     */
+    public static boolean queryPath(String path) {
+        if (path == null) {
+            return false;
+        }
+        for (Rule rule : RULES) {
+            if (rule.method().equals("GET") && rule.pathPrefixes().stream().anyMatch(path::startsWith)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills the profile's merchant ID, a timestamp and, except for order-status, a request ID into the query
+     * parameters of a query endpoint: when absent, or always when {@code refresh} is set.
+     */
+    public static void fillQuery(ZotaEndpoint endpoint, Map<String, String> params, CompiledProfile p, boolean refresh) {
+        put(params, "merchantID", p.merchantId(), refresh);
+        put(params, "timestamp", String.valueOf(System.currentTimeMillis() / 1000), refresh);
+        if (endpoint != ZotaEndpoint.ORDER_STATUS) {
+            put(params, "requestID", UUID.randomUUID().toString(), refresh);
+        }
+    }
+
+    private static void put(Map<String, String> params, String name, String value, boolean replace) {
+        if (replace) {
+            params.put(name, value);
+        } else {
+            params.putIfAbsent(name, value);
+        }
+    }
+
+    /**
+     * Values hashed for a deposit or payout: the endpoint (or group) ID from the path, the rest from the body.
+     */
+    public static String[] bodyValues(ZotaEndpoint endpoint, String path, JsonNode json) {
+        List<String> names = SignatureFormula.fields(endpoint);
+        String[] values = new String[names.size()];
+        values[0] = SignatureFormula.pathId(path, endpoint == ZotaEndpoint.DEPOSIT ? DEPOSIT_PATH : PAYOUT_PATH);
+        for (int i = 1; i < values.length; i++) {
+            values[i] = Json.text(json, names.get(i));
+        }
+        return values;
+    }
+
+    /**
+     * Values hashed for a query endpoint, read from {@code params} after {@link #fillQuery}. The profile's
+     * merchant ID is hashed whatever the query says, except for current-balance, which hashes the query's and
+     * takes a camel-case {@code requestId} when {@code requestID} is empty (copying it into {@code params}).
+     */
+    public static String[] queryValues(ZotaEndpoint endpoint, Map<String, String> params, CompiledProfile p) {
+        List<String> names = SignatureFormula.fields(endpoint);
+        String[] values = new String[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = params.getOrDefault(names.get(i), "");
+        }
+        if (endpoint == ZotaEndpoint.CURRENT_BALANCE) {
+            String camel = params.getOrDefault("requestId", "");
+            if (values[1].isEmpty() && !camel.isEmpty()) {
+                values[1] = camel;
+                params.put("requestID", camel);
+            }
+        } else {
+            values[0] = p.merchantId();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,56 @@
+package burp.zota.signer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zota endpoints the extension signs or verifies, with the fields checked for emptiness (in warning order).
+ */
+public enum ZotaEndpoint {
+    DEPOSIT("deposit", List.of("merchantOrderID", "orderAmount", "customerEmail", "MerchantSecretKey")),
+    PAYOUT("payout", List.of("merchantOrderID", "orderAmount", "customerEmail", "customerBankAccountNumber", "MerchantSecretKey")),
+    ORDER_STATUS("order-status", List.of("merchantID", "merchantOrderID", "orderID", "timestamp", "MerchantSecretKey")),
+    ORDERS_REPORT("orders-report", List.of("merchantID", "dateType", "endpointIds", "fromDate", "requestID", "statuses",
+            "timestamp", "toDate", "types", "MerchantSecretKey")),
+    CURRENT_BALANCE("current-balance", List.of("merchantID", "requestID", "timestamp", "MerchantSecretKey")),
+    EXCHANGE_RATES("exchange-rates", List.of("merchantID", "requestID", "date", "timestamp", "orderType", "orderID", "MerchantSecretKey")),
+    FINAL_REDIRECT("final-redirect", List.of("status", "orderID", "merchantOrderID", "MerchantSecretKey")),
+    CALLBACK("callback", List.of("EndpointID", "orderID", "merchantOrderID", "status", "amount", "customerEmail", "MerchantSecretKey"));
+
+    private final String label;
+    private final List<String> fields;
+
+    ZotaEndpoint(String label, List<String> fields) {
+        this.label = label;
+        this.fields = fields;
+    }
+
+    /** Short name used in annotations, e.g. {@code order-status}. */
+    public String label() { return label; }
+
+    public List<String> fields() { return fields; }
+
+    /**
+     * Encodes a list of field names as a bitmask of their positions in {@link #fields()}.
+     */
+    public int fieldMask(List<String> names) {
+        int mask = 0;
+        if (names == null) return mask;
+        for (String name : names) {
+            int i = fields.indexOf(name);
+            if (i >= 0) mask |= 1 << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Inverse of {@link #fieldMask(List)}.
+     */
+    public List<String> fieldsIn(int mask) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if ((mask & (1 << i)) != 0) out.add(fields.get(i));
+        }
+        return out;
+    }
+}
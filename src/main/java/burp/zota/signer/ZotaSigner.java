@@ -6,79 +6,137 @@ import burp.api.montoya.core.HighlightColor;
 import burp.api.montoya.http.HttpService;
 import burp.api.montoya.http.handler.HttpRequestToBeSent;
 import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.zota.jfr.SigningEvent;
+import burp.zota.jfr.VerificationEvent;
+import burp.zota.profile.CompiledProfile;
 import burp.zota.profile.ProfileManager;
 import burp.zota.profile.ZotaProfile;
-import burp.zota.util.QueryString;
+import burp.zota.recipe.RecipeSample;
+import burp.zota.recipe.SignatureRecipe;
+import burp.zota.util.Json;
 import burp.zota.util.SignatureUtil;
 import burp.zota.util.ZotaLogger;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * Central signing engine for Zota API requests. Handles auto-detection of endpoint types, profile
  * selection (including manual overrides), signature generation, and helper transformations such as
  * applying default headers for Repeater previews.
+ *
+ * <p>Each call parses the request once into a {@link RequestModel}; profile defaults, signing and header
+ * edits are applied to it and the outgoing request is rebuilt once at the end.
  */
 public class ZotaSigner {
 
     private final MontoyaApi api;
     private final ProfileManager profiles;
-    private final ObjectMapper mapper = new ObjectMapper();
     private final List<EndpointRule> endpointRules;
+    private final Supplier<List<SignatureRecipe>> recipes;
+
+    private static final int SCAN_TARGET_LIMIT = 1024;
+    private final Map<String, ScanTarget> scanTargets = new ConcurrentHashMap<>();
+    private final LongAdder scannerResigned = new LongAdder();
 
     public ZotaSigner(MontoyaApi api, ProfileManager profiles) {
+        this(api, profiles, List::of);
+    }
+
+    /**
+     * @param recipes current user-defined signing recipes; consulted on every request, ahead of the built-in formulas.
+     */
+    public ZotaSigner(MontoyaApi api, ProfileManager profiles, Supplier<List<SignatureRecipe>> recipes) {
         this.api = api;
         this.profiles = profiles;
-        this.endpointRules = List.of(
-                new EndpointRule("POST", List.of("/api/v1/deposit/request/", "/api/v1/deposit/request/direct/"), this::signDeposit),
-                new EndpointRule("POST", List.of("/api/v1/payout/request/"), this::signPayout),
-                new EndpointRule("GET", List.of("/api/v1/query/order-status/"), this::signOrderStatus),
-                new EndpointRule("GET", List.of("/api/v1/query/orders-report/csv/"), this::signOrdersReport),
-                new EndpointRule("GET", List.of("/api/v1/query/current-balance/"), this::signCurrentBalance),
-                new EndpointRule("GET", List.of("/api/v1/query/exchange-rates/"), this::signExchangeRates)
-        );
+        this.recipes = recipes;
+        Map<ZotaEndpoint, SignFunction> handlers = new EnumMap<>(ZotaEndpoint.class);
+        handlers.put(ZotaEndpoint.DEPOSIT, this::signDeposit);
+        handlers.put(ZotaEndpoint.PAYOUT, this::signPayout);
+        handlers.put(ZotaEndpoint.ORDER_STATUS, this::signOrderStatus);
+        handlers.put(ZotaEndpoint.ORDERS_REPORT, this::signOrdersReport);
+        handlers.put(ZotaEndpoint.CURRENT_BALANCE, this::signCurrentBalance);
+        handlers.put(ZotaEndpoint.EXCHANGE_RATES, this::signExchangeRates);
+        this.endpointRules = SigningRules.rules().stream()
+                .map(rule -> new EndpointRule(rule, handlers.get(rule.endpoint())))
+                .toList();
     }
 
     /**
      * Wrapper around a (possibly modified) request and optional annotations used to explain signing actions.
+     * {@code signing} is set only when a signature was computed; {@code order} when the request identifies an order.
+     */
+    public record Result(HttpRequest request, Annotations annotations, Signing signing, OrderRef order) {
+        public Result(HttpRequest request, Annotations annotations) {
+            this(request, annotations, null, null);
+        }
+
+        public Result(HttpRequest request, Annotations annotations, Signing signing) {
+            this(request, annotations, signing, null);
+        }
+    }
+
+    /**
+     * What was signed: endpoint, profile name, signature and the fields that were empty. Never carries the secret.
+     */
+    public record Signing(ZotaEndpoint endpoint, String profileName, String signature, List<String> missingFields) {}
+
+    /**
+     * Order identifiers carried by a deposit, payout, order-status, callback or final-redirect request.
+     * {@code status} is only known for callbacks and redirects; {@code profileName} is the signing or verifying profile.
      */
-    public record Result(HttpRequest request, Annotations annotations) {}
+    public record OrderRef(ZotaEndpoint endpoint, String merchantOrderId, String orderId, String status, String profileName) {}
+
+    /**
+     * What routing decided for a request; the request itself is edited on the {@link RequestModel}.
+     */
+    private record Outcome(Annotations annotations, Signing signing, OrderRef order) {
+        static final Outcome NONE = new Outcome(null, null, null);
+    }
 
     private static final String MANUAL_PROFILE_HEADER = "X-Zota-Profile";
+    private static final String WARM_UP_PROFILE = "\u0000warm-up";
 
     public Result sign(HttpRequest request, ZotaProfile profileOverride) {
-        return signInternal(request, profileOverride, true, true);
+        return signInternal(request, profileOverride, false, true, true, true);
     }
 
-    public HttpRequest applyProfileDefaults(HttpRequest request, ZotaProfile profile) {
-        if (profile == null) {
-            return request;
-        }
-        HttpRequest updated = request;
-        updated = updateServiceForProfile(updated, profile);
-        updated = updateEndpointInPath(updated, profile);
-        updated = updateQueryForProfile(updated, profile);
-        updated = updateJsonBodyForProfile(updated, profile);
-        return updated;
+    /**
+     * Applies the profile's defaults, signs with it and marks the request with the profile name, as the
+     * context-menu re-sign, fan-out and status poller do. The request is parsed once and rebuilt once.
+     */
+    public Result resign(HttpRequest request, ZotaProfile profile) {
+        return signInternal(request, profile, true, true, true, true);
     }
 
     /**
-     * Adds a transient header that signals which profile was used for manual re-sign actions in the UI.
-     * The header is automatically stripped before a request is sent by {@link #signInternal}.
+     * Compiled form of {@code profile}, reused from the profile store when the profile is saved and unchanged.
      */
-    public HttpRequest markManualProfile(HttpRequest request, ZotaProfile profile) {
-        if (request == null) {
-            return null;
-        }
-        HttpRequest cleared = request.withRemovedHeader(MANUAL_PROFILE_HEADER);
+    public CompiledProfile compiled(ZotaProfile profile) {
+        return profiles.compiled(profile);
+    }
+
+    private void applyProfileDefaults(RequestModel m, CompiledProfile profile) {
+        updateServiceForProfile(m, profile);
+        updateEndpointInPath(m, profile);
+        updateQueryForProfile(m, profile);
+        updateJsonBodyForProfile(m, profile);
+    }
+
+    /**
+     * Sets the transient header that signals which profile was used for manual re-sign actions in the UI.
+     * The header is automatically stripped before a request is sent by {@link #route}.
+     */
+    private static void markManualProfile(RequestModel m, ZotaProfile profile) {
         if (profile == null || profile.getName() == null || profile.getName().isBlank()) {
-            return cleared;
+            m.removeHeader(MANUAL_PROFILE_HEADER);
+        } else {
+            m.setHeader(MANUAL_PROFILE_HEADER, profile.getName());
         }
-        return cleared.withAddedHeader(MANUAL_PROFILE_HEADER, profile.getName());
     }
 
     private static Annotations note(String kind, String signature, List<String> warnings) {
@@ -86,48 +144,304 @@ public class ZotaSigner {
         return (warnings == null || warnings.isEmpty()) ? Annotations.annotations(msg) : Annotations.annotations(msg, HighlightColor.YELLOW);
     }
 
-    private boolean isKnownZotaPath(String path) {
-        if (path == null) {
-            return false;
-        }
-        return endpointRules.stream().anyMatch(rule -> rule.matchesPath(path));
+    private static Outcome signed(ZotaEndpoint endpoint, CompiledProfile p, String signature, List<String> warnings) {
+        return signed(endpoint, p, signature, warnings, null, null);
     }
 
-    public Result signIfZota(HttpRequestToBeSent req) {
-        return signInternal(req, null, false, false);
+    private static Outcome signed(ZotaEndpoint endpoint, CompiledProfile p, String signature, List<String> warnings,
+                                  String merchantOrderId, String orderId) {
+        OrderRef order = valueOrEmpty(merchantOrderId).isEmpty() && valueOrEmpty(orderId).isEmpty()
+                ? null
+                : new OrderRef(endpoint, merchantOrderId, orderId, null, p.name());
+        return new Outcome(note(endpoint.label(), signature, warnings), new Signing(endpoint, p.name(), signature, warnings), order);
     }
 
-    private Result signInternal(HttpRequest req, ZotaProfile profileOverride, boolean allowUnknownHost, boolean refreshDynamicValues) {
+    /**
+     * Signs or verifies a request seen by the HTTP handler.
+     *
+     * @param inScope whether the compiled scope classifies the request as Zota traffic for its tool.
+     */
+    public Result signIfZota(HttpRequestToBeSent req, boolean inScope) {
+        return signInternal(req, null, false, false, false, inScope);
+    }
+
+    /**
+     * Re-signs a Scanner-mutated request. Insertion-point payloads are kept as sent (no dynamic value
+     * refresh) and a manual-profile header left on the base request selects the profile instead of
+     * suppressing the signature. The endpoint rule and profile are resolved once per base request
+     * (method, host, path and profile header) and reused across all of its variants until a profile changes.
+     * Each variant's own values are still parsed, since those are what Scanner mutates.
+     */
+    public Result signForScanner(HttpRequestToBeSent req) {
+        long profilesVersion = profiles.version();
         String host = req.httpService() != null ? req.httpService().host() : "";
-        String path = req.path();
+        String manualHeader = req.headerValue(MANUAL_PROFILE_HEADER);
+        String key = req.method() + ' ' + host + req.pathWithoutQuery() + '|' + (manualHeader == null ? "" : manualHeader.trim());
+        ScanTarget target = scanTargets.get(key);
+        if (target != null && target.profilesVersion() != profilesVersion) {
+            target = null;
+        }
+        SigningEvent event = new SigningEvent();
+        event.begin();
+        event.cacheHit = target != null;
+        if (target == null) {
+            target = resolveScanTarget(req, manualHeader, profilesVersion);
+            if (scanTargets.size() >= SCAN_TARGET_LIMIT) {
+                scanTargets.clear();
+            }
+            scanTargets.put(key, target);
+        }
+        if (target.rule() == null) {
+            return signIfZota(req, true);
+        }
+        RequestModel m = new RequestModel(req);
+        Outcome outcome;
+        if (target.profile() == null) {
+            outcome = noProfile();
+        } else {
+            try {
+                outcome = target.rule().handler().apply(m, target.profile(), false);
+                scannerResigned.increment();
+            } catch (Exception e) {
+                ZotaLogger.error("Scanner signing error: " + e.getMessage());
+                m.discardEdits();
+                outcome = new Outcome(Annotations.annotations("Zota signing error: " + e.getClass().getSimpleName() + ": " + e.getMessage(), HighlightColor.RED), null, null);
+            }
+        }
+        m.removeHeader(MANUAL_PROFILE_HEADER);
+        Result result = result(m, outcome);
+        commit(event, req, result);
+        return result;
+    }
+
+    /**
+     * Name of the profile the HTTP handler would sign {@code req} with, found without parsing or signing it;
+     * null when it would not be signed: no endpoint rule or recipe matches, or the request carries a
+     * manual-profile header outside Scanner mode.
+     */
+    public String signingProfileName(HttpRequest req, boolean scanner) {
+        String method = req.method().toUpperCase(Locale.ROOT);
+        String path = req.pathWithoutQuery();
+        if (recipeFor(method, path) == null && endpointRules.stream().noneMatch(r -> r.matches(method, path))) {
+            return null;
+        }
+        String manualHeader = req.headerValue(MANUAL_PROFILE_HEADER);
+        if (manualHeader != null && !manualHeader.trim().isEmpty()) {
+            if (!scanner) {
+                return null;
+            }
+            ZotaProfile manual = profiles.byName(manualHeader.trim());
+            if (manual != null) {
+                return manual.getName();
+            }
+        }
+        ZotaProfile active = profiles.getActiveProfile();
+        return active == null ? null : active.getName();
+    }
+
+    /**
+     * @return number of Scanner requests re-signed since the extension was loaded.
+     */
+    public long scannerResignedCount() {
+        return scannerResigned.sum();
+    }
+
+    /**
+     * @param profilesVersion profile store version read before resolving, so a concurrent edit leaves the target stale.
+     */
+    private ScanTarget resolveScanTarget(HttpRequest req, String manualHeader, long profilesVersion) {
         String method = req.method().toUpperCase(Locale.ROOT);
+        String path = req.pathWithoutQuery();
+        // A recipe overrides the built-in rule; leaving the rule unset sends variants through signIfZota
+        EndpointRule rule = recipeFor(method, path) != null ? null : endpointRules.stream()
+                .filter(r -> r.matches(method, path))
+                .findFirst()
+                .orElse(null);
+        ZotaProfile profile = null;
+        if (manualHeader != null && !manualHeader.trim().isEmpty()) {
+            profile = profiles.byName(manualHeader.trim());
+        }
+        if (profile == null) {
+            profile = profiles.getActiveProfileOrWarn();
+        }
+        return new ScanTarget(rule, profiles.compiled(profile), profilesVersion);
+    }
 
-        boolean looksZotaHost = host != null && (host.contains("zota") || host.contains("zotapay"));
+    /**
+     * Per-base-request state shared by Scanner insertion-point variants, valid while the profile store is at
+     * {@code profilesVersion}.
+     */
+    private record ScanTarget(EndpointRule rule, CompiledProfile profile, long profilesVersion) {}
 
-        boolean stripManualHeader = !allowUnknownHost;
+    /**
+     * Checks the signature already on a request without re-signing it. Requests to the six signed endpoints
+     * are verified against the profile named in the manual-profile header, or the active profile; callbacks
+     * and final redirects as in {@link #signIfZota}. The result carries the original request, minus the
+     * manual-profile header if it had one.
+     */
+    public Result verify(HttpRequest req) {
+        RequestModel m = new RequestModel(req);
+        String method = m.method().toUpperCase(Locale.ROOT);
+        String path = m.basePath();
+        EndpointRule rule = endpointRules.stream()
+                .filter(r -> r.matches(method, path))
+                .findFirst()
+                .orElse(null);
+        Outcome outcome;
+        try {
+            if (rule != null) {
+                outcome = verifySigned(m, rule.endpoint());
+            } else if (method.equals("GET")) {
+                outcome = verifyFinalRedirect(m);
+            } else if (method.equals("POST")) {
+                outcome = verifyCallback(m);
+            } else {
+                outcome = Outcome.NONE;
+            }
+        } catch (Exception e) {
+            outcome = new Outcome(Annotations.annotations("Zota verify error: " + e.getClass().getSimpleName() + ": " + e.getMessage(), HighlightColor.RED), null, null);
+        }
+        m.removeHeader(MANUAL_PROFILE_HEADER);
+        return result(m, outcome);
+    }
 
-        String manualHeader = req.headerValue(MANUAL_PROFILE_HEADER);
+    private Outcome verifySigned(RequestModel m, ZotaEndpoint endpoint) throws Exception {
+        String manualHeader = m.header(MANUAL_PROFILE_HEADER);
+        CompiledProfile p = null;
+        if (manualHeader != null && !manualHeader.trim().isEmpty()) {
+            p = profiles.compiled(profiles.byName(manualHeader.trim()));
+        }
+        if (p == null) {
+            p = profiles.getActiveCompiledOrWarn();
+        }
+        if (p == null) {
+            return noProfile();
+        }
+        SignatureVerifier.Inputs inputs = SignatureVerifier.inputs(endpoint, m);
+        SignatureVerifier.Verdict verdict = SignatureVerifier.verify(inputs, p);
+        verified(endpoint, p, verdict.valid());
+        String label = "Zota " + endpoint.label() + " signature (" + p.name() + "): ";
+        Annotations ann = verdict.valid()
+                ? Annotations.annotations(label + "VALID", HighlightColor.GREEN)
+                : Annotations.annotations(label + "INVALID, " + verdict.detail(), HighlightColor.RED);
+        OrderRef order = valueOrEmpty(inputs.merchantOrderId()).isEmpty() && valueOrEmpty(inputs.orderId()).isEmpty()
+                ? null
+                : new OrderRef(endpoint, inputs.merchantOrderId(), inputs.orderId(), null, p.name());
+        return new Outcome(ann, null, order);
+    }
+
+    /**
+     * Removes the transient manual-profile header without analysing the request; requests without it are
+     * returned as they are.
+     */
+    public HttpRequest stripManualProfile(HttpRequest request) {
+        if (!request.hasHeader(MANUAL_PROFILE_HEADER)) {
+            return request;
+        }
+        RequestModel m = new RequestModel(request);
+        m.removeHeader(MANUAL_PROFILE_HEADER);
+        return m.build();
+    }
+
+    /**
+     * @param resign apply the override profile's defaults first and mark the request with it afterwards.
+     */
+    private Result signInternal(HttpRequest req, ZotaProfile profileOverride, boolean resign, boolean allowUnknownHost,
+                                boolean refreshDynamicValues, boolean inScope) {
+        SigningEvent event = new SigningEvent();
+        boolean timed = event.isEnabled();
+        if (timed) {
+            event.begin();
+            event.cacheHit = profiles.isCompiled(profileOverride != null ? profileOverride : profiles.getActiveProfile());
+        }
+        RequestModel m = new RequestModel(req);
+        CompiledProfile override = profiles.compiled(profileOverride);
+        if (resign && override != null) {
+            applyProfileDefaults(m, override);
+        }
+        Outcome outcome = route(m, override, allowUnknownHost, refreshDynamicValues, inScope);
+        if (resign) {
+            markManualProfile(m, profileOverride);
+        }
+        Result result = result(m, outcome);
+        if (timed) {
+            commit(event, req, result);
+        }
+        return result;
+    }
+
+    private static Result result(RequestModel m, Outcome outcome) {
+        return new Result(m.build(), outcome.annotations(), outcome.signing(), outcome.order());
+    }
+
+    /**
+     * Fills and commits a signing event if it is enabled and passes its threshold.
+     */
+    private static void commit(SigningEvent event, HttpRequest in, Result result) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.tool = in instanceof HttpRequestToBeSent sent && sent.toolSource() != null
+                ? sent.toolSource().toolType().name()
+                : "MANUAL";
+        if (result.signing() != null) {
+            event.endpoint = result.signing().endpoint() == null ? "custom" : result.signing().endpoint().label();
+            event.profile = result.signing().profileName();
+        } else if (result.order() != null) {
+            event.endpoint = result.order().endpoint().label();
+            event.profile = result.order().profileName();
+        }
+        event.bytesIn = in.body() == null ? 0 : in.body().length();
+        event.bytesOut = result.request().body() == null ? 0 : result.request().body().length();
+        event.signed = result.signing() != null;
+        event.commit();
+    }
+
+    private static void verified(ZotaEndpoint kind, CompiledProfile p, boolean valid) {
+        VerificationEvent event = new VerificationEvent();
+        if (event.isEnabled()) {
+            event.kind = kind.label();
+            event.profile = p.name();
+            event.valid = valid;
+            event.commit();
+        }
+    }
+
+    /**
+     * Signs or verifies the request on the model. Requests from the HTTP handler ({@code !allowUnknownHost})
+     * always leave with the manual-profile header removed.
+     */
+    private Outcome route(RequestModel m, CompiledProfile override, boolean allowUnknownHost, boolean refreshDynamicValues, boolean inScope) {
+        Outcome outcome = routeUnstripped(m, override, allowUnknownHost, refreshDynamicValues, inScope);
+        if (!allowUnknownHost) {
+            m.removeHeader(MANUAL_PROFILE_HEADER);
+        }
+        return outcome;
+    }
+
+    private Outcome routeUnstripped(RequestModel m, CompiledProfile override, boolean allowUnknownHost, boolean refreshDynamicValues, boolean inScope) {
+        String path = m.basePath();
+        String method = m.method().toUpperCase(Locale.ROOT);
+
+        String manualHeader = m.header(MANUAL_PROFILE_HEADER);
         boolean hasManualHeader = manualHeader != null && !manualHeader.trim().isEmpty();
 
         if (!refreshDynamicValues && hasManualHeader) {
-            return finalizeResult(new Result(req, null), stripManualHeader);
+            return Outcome.NONE;
         }
 
-        ZotaProfile manualProfile = null;
-        if (hasManualHeader) {
+        if (override == null && hasManualHeader) {
             String name = manualHeader.trim();
-            manualProfile = profiles.byName(name);
+            ZotaProfile manualProfile = profiles.byName(name);
             if (manualProfile == null) {
                 ZotaLogger.error("Zota profile referenced in request not found: " + name);
             }
+            override = profiles.compiled(manualProfile);
         }
 
-        if (profileOverride == null && manualProfile != null) {
-            profileOverride = manualProfile;
-        }
-
-        if (!allowUnknownHost && !looksZotaHost && !isKnownZotaPath(path)) {
-            return finalizeResult(new Result(req, null), stripManualHeader);
+        if (!allowUnknownHost && !inScope) {
+            return Outcome.NONE;
         }
 
         try {
@@ -135,38 +449,28 @@ public class ZotaSigner {
                     .filter(rule -> rule.matches(method, path))
                     .findFirst()
                     .orElse(null);
+            SignatureRecipe recipe = recipeFor(method, path);
+            if (recipe != null) {
+                return signWithRecipe(m, recipe, matched == null ? null : matched.endpoint(), override, refreshDynamicValues);
+            }
             if (matched != null) {
-                Result signed = matched.handler().apply(req, profileOverride, refreshDynamicValues);
-                return finalizeResult(signed, stripManualHeader);
+                return matched.handler().apply(m, override, refreshDynamicValues);
             }
 
             if (!allowUnknownHost && method.equals("GET")) {
-                Result ver = verifyFinalRedirect(req);
-                if (ver.annotations() != null) return finalizeResult(ver, stripManualHeader);
+                Outcome ver = verifyFinalRedirect(m);
+                if (ver.annotations() != null) return ver;
             } else if (!allowUnknownHost && method.equals("POST")) {
-                Result ver = verifyCallback(req);
-                if (ver.annotations() != null) return finalizeResult(ver, stripManualHeader);
+                Outcome ver = verifyCallback(m);
+                if (ver.annotations() != null) return ver;
             }
         } catch (Exception e) {
             ZotaLogger.error("Signing error: " + e.getMessage());
-            Annotations notes = Annotations.annotations("Zota signing error: " + e.getClass().getSimpleName() + ": " + e.getMessage(), HighlightColor.RED);
-            return finalizeResult(new Result(req, notes), stripManualHeader);
+            m.discardEdits();
+            return new Outcome(Annotations.annotations("Zota signing error: " + e.getClass().getSimpleName() + ": " + e.getMessage(), HighlightColor.RED), null, null);
         }
 
-        return finalizeResult(new Result(req, null), stripManualHeader);
-    }
-
-    private Result finalizeResult(Result result, boolean stripManualHeader) {
-        if (!stripManualHeader) {
-            return result;
-        }
-        HttpRequest req = result.request();
-        String header = req.headerValue(MANUAL_PROFILE_HEADER);
-        if (header == null || header.isEmpty()) {
-            return result;
-        }
-        HttpRequest stripped = req.withRemovedHeader(MANUAL_PROFILE_HEADER);
-        return new Result(stripped, result.annotations());
+        return Outcome.NONE;
     }
 
     /**
@@ -174,106 +478,156 @@ public class ZotaSigner {
      */
     @FunctionalInterface
     private interface SignFunction {
-        Result apply(HttpRequest req, ZotaProfile profileOverride, boolean refreshDynamicValues) throws Exception;
+        Outcome apply(RequestModel m, CompiledProfile profileOverride, boolean refreshDynamicValues) throws Exception;
     }
 
     /**
-     * Declarative description of an endpoint family (HTTP method + path prefixes) and the associated signer.
+     * A shared {@link SigningRules.Rule} (HTTP method + path prefixes) and the associated signer.
      */
-    private record EndpointRule(String method, List<String> pathPrefixes, SignFunction handler) {
+    private record EndpointRule(SigningRules.Rule rule, SignFunction handler) {
+        ZotaEndpoint endpoint() {
+            return rule.endpoint();
+        }
+
         boolean matches(String actualMethod, String path) {
-            return method.equalsIgnoreCase(actualMethod) && matchesPath(path);
+            return rule.matches(actualMethod, path);
         }
+    }
 
-        boolean matchesPath(String path) {
-            if (path == null) {
-                return false;
+    private SignatureRecipe recipeFor(String method, String path) {
+        for (SignatureRecipe recipe : recipes.get()) {
+            if (recipe.matches(method, path)) {
+                return recipe;
             }
-            return pathPrefixes.stream().anyMatch(path::startsWith);
         }
+        return null;
     }
 
-    private ZotaProfile resolveProfile(ZotaProfile override) {
+    /**
+     * Signs with a user-defined recipe. When refreshing dynamic values, query {@code merchantID},
+     * {@code timestamp} and {@code requestID} parameters the recipe reads are refreshed like the built-in
+     * signers do. {@code endpoint} is the built-in endpoint the path belongs to, if any.
+     */
+    private Outcome signWithRecipe(RequestModel m, SignatureRecipe recipe, ZotaEndpoint endpoint, CompiledProfile profileOverride,
+                                   boolean refreshDynamicValues) throws Exception {
+        CompiledProfile p = resolveProfile(profileOverride);
+        if (p == null) {
+            return noProfile();
+        }
+        Map<String, String> params = m.query();
+        JsonNode json = recipe.uses(SignatureRecipe.Location.BODY) ? m.json() : null;
+        List<String> segments = recipe.uses(SignatureRecipe.Location.PATH) ? RecipeSample.segments(m.basePath()) : List.of();
+        if (refreshDynamicValues) {
+            for (SignatureRecipe.Source s : recipe.parts()) {
+                if (s.location() != SignatureRecipe.Location.QUERY) continue;
+                switch (s.name()) {
+                    case "merchantID" -> params.put("merchantID", p.merchantId());
+                    case "timestamp" -> params.put("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
+                    case "requestID" -> params.put("requestID", UUID.randomUUID().toString());
+                    default -> { }
+                }
+            }
+        }
+
+        StringBuilder sigSource = new StringBuilder();
+        List<Map.Entry<String, String>> fields = new ArrayList<>(recipe.parts().size());
+        for (SignatureRecipe.Source s : recipe.parts()) {
+            String value = switch (s.location()) {
+                case QUERY -> params.getOrDefault(s.name(), "");
+                case BODY -> getJsonText(json, s.name());
+                case PATH -> {
+                    int i = Integer.parseInt(s.name());
+                    yield i < segments.size() ? segments.get(i) : "";
+                }
+                case PROFILE -> switch (s.name()) {
+                    case SignatureRecipe.MERCHANT_ID -> p.merchantId();
+                    case SignatureRecipe.ENDPOINT_ID -> p.endpointId();
+                    default -> p.secret();
+                };
+            };
+            sigSource.append(valueOrEmpty(value));
+            fields.add(field(s.location() == SignatureRecipe.Location.PROFILE ? s.name() : s.toString(), value));
+        }
+        String signature = SignatureUtil.sha256HexLower(sigSource.toString());
+
+        if (recipe.target().location() == SignatureRecipe.Location.BODY) {
+            m.setJson(SignatureUtil.withField(m.json(), recipe.target().name(), signature));
+        } else {
+            params.put(recipe.target().name(), signature);
+        }
+
+        List<String> warnings = missingFields(fields);
+        String kind = (endpoint == null ? "custom" : endpoint.label()) + " (recipe)";
+        Annotations notes = note(kind, signature, warnings);
+        OrderRef order = null;
+        if (endpoint == ZotaEndpoint.DEPOSIT || endpoint == ZotaEndpoint.PAYOUT || endpoint == ZotaEndpoint.ORDER_STATUS) {
+            String merchantOrderId = json != null ? getJsonText(json, "merchantOrderID") : params.getOrDefault("merchantOrderID", "");
+            String orderId = params.getOrDefault("orderID", "");
+            if (!merchantOrderId.isEmpty() || !orderId.isEmpty()) {
+                order = new OrderRef(endpoint, merchantOrderId, orderId, null, p.name());
+            }
+        }
+        return new Outcome(notes, new Signing(endpoint, p.name(), signature, warnings), order);
+    }
+
+    private CompiledProfile resolveProfile(CompiledProfile override) {
         if (override != null) {
             return override;
         }
-        return profiles.getActiveProfileOrWarn();
+        return profiles.getActiveCompiledOrWarn();
     }
 
-    private Result noProfile(HttpRequest req) {
-        return new Result(req, Annotations.annotations("Zota: no active profile", HighlightColor.RED));
+    private static Outcome noProfile() {
+        return new Outcome(Annotations.annotations("Zota: no active profile", HighlightColor.RED), null, null);
     }
 
-    private Result signCurrentBalance(HttpRequest req, ZotaProfile profileOverride, boolean refreshDynamicValues) {
-        ZotaProfile p = resolveProfile(profileOverride);
-        if (p == null) { return noProfile(req); }
-
-        String basePath = req.pathWithoutQuery();
-        Map<String, String> params = QueryString.parse(req.query());
-        if (refreshDynamicValues) {
-            params.put("merchantID", valueOrEmpty(p.getMerchantId()));
-            params.put("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
-            params.put("requestID", UUID.randomUUID().toString());
-        } else {
-            params.putIfAbsent("merchantID", valueOrEmpty(p.getMerchantId()));
-            params.putIfAbsent("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
-            params.putIfAbsent("requestID", UUID.randomUUID().toString());
-        }
-
-        String merchantId = params.getOrDefault("merchantID", "");
-        String requestID = params.getOrDefault("requestID", "");
-        if (requestID == null || requestID.isEmpty()) {
-            String camel = params.getOrDefault("requestId", "");
-            if (camel != null && !camel.isEmpty()) {
-                requestID = camel;
-                params.put("requestID", camel);
-            }
-        }
-        String timestamp = params.getOrDefault("timestamp", "");
+    private Outcome signCurrentBalance(RequestModel m, CompiledProfile profileOverride, boolean refreshDynamicValues) {
+        CompiledProfile p = resolveProfile(profileOverride);
+        if (p == null) { return noProfile(); }
 
-        String sigSource = valueOrEmpty(merchantId)
-                + valueOrEmpty(requestID)
-                + valueOrEmpty(timestamp)
-                + valueOrEmpty(p.getMerchantSecretKey());
+        Map<String, String> params = m.query();
+        SigningRules.fillQuery(ZotaEndpoint.CURRENT_BALANCE, params, p, refreshDynamicValues);
+        // current-balance hashes the merchant ID in the query and accepts a camel-case requestId
+        String[] values = SigningRules.queryValues(ZotaEndpoint.CURRENT_BALANCE, params, p);
+        String merchantId = values[0];
+        String requestID = values[1];
+        String timestamp = values[2];
 
-        String signature = SignatureUtil.sha256HexLower(sigSource);
+        String signature = SignatureFormula.sign(ZotaEndpoint.CURRENT_BALANCE, p, values);
         params.put("signature", signature);
 
-        String newQuery = QueryString.build(params);
-        HttpRequest out = req.withPath(basePath + "?" + newQuery);
-
         List<String> warnings = missingFields(Arrays.asList(
                 field("merchantID", merchantId),
                 field("requestID", requestID),
                 field("timestamp", timestamp),
-                field("MerchantSecretKey", p.getMerchantSecretKey())
+                field("MerchantSecretKey", p.secret())
         ));
-        return new Result(out, note("current-balance", signature, warnings));
+        return signed(ZotaEndpoint.CURRENT_BALANCE, p, signature, warnings);
     }
 
-    private Result verifyFinalRedirect(HttpRequest req) {
-        Map<String, String> params = QueryString.parse(req.query());
+    private Outcome verifyFinalRedirect(RequestModel m) {
+        Map<String, String> params = m.query();
         String status = params.get("status");
         String orderID = params.get("orderID");
         String merchantOrderID = params.get("merchantOrderID");
         String sig = params.get("signature");
         if (status == null || orderID == null || merchantOrderID == null || sig == null) {
-            return new Result(req, null);
+            return Outcome.NONE;
         }
-        ZotaProfile p = profiles.getActiveProfileOrWarn();
-        if (p == null) return new Result(req, Annotations.annotations("Zota: no active profile", HighlightColor.RED));
-        String source = valueOrEmpty(status) + valueOrEmpty(orderID) + valueOrEmpty(merchantOrderID) + valueOrEmpty(p.getMerchantSecretKey());
-        String expected = SignatureUtil.sha256HexLower(source);
+        CompiledProfile p = profiles.getActiveCompiledOrWarn();
+        if (p == null) return noProfile();
+        String expected = CallbackSignatures.finalRedirect(status, orderID, merchantOrderID, p);
         boolean ok = expected.equalsIgnoreCase(sig);
+        verified(ZotaEndpoint.FINAL_REDIRECT, p, ok);
         Annotations ann = ok
                 ? Annotations.annotations("Zota final-redirect signature: VALID", HighlightColor.GREEN)
                 : Annotations.annotations("Zota final-redirect signature: INVALID", HighlightColor.RED);
-        return new Result(req, ann);
+        return new Outcome(ann, null, new OrderRef(ZotaEndpoint.FINAL_REDIRECT, merchantOrderID, orderID, status, p.name()));
     }
 
-    private Result verifyCallback(HttpRequest req) {
+    private Outcome verifyCallback(RequestModel m) {
         try {
-            JsonNode json = safeJson(req.bodyToString());
+            JsonNode json = m.json();
             String endpointId = getJsonText(json, "EndpointID");
             String orderID = getJsonText(json, "orderID");
             String merchantOrderID = getJsonText(json, "merchantOrderID");
@@ -281,197 +635,165 @@ public class ZotaSigner {
             String amount = getJsonText(json, "amount");
             String customerEmail = getJsonText(json, "customerEmail");
             String sig = getJsonText(json, "signature");
-            if (sig == null || sig.isEmpty()) return new Result(req, null);
-            ZotaProfile p = profiles.getActiveProfileOrWarn();
-            if (p == null) return new Result(req, Annotations.annotations("Zota: no active profile", HighlightColor.RED));
-            String source = valueOrEmpty(endpointId) + valueOrEmpty(orderID) + valueOrEmpty(merchantOrderID)
-                    + valueOrEmpty(status) + valueOrEmpty(amount) + valueOrEmpty(customerEmail) + valueOrEmpty(p.getMerchantSecretKey());
-            String expected = SignatureUtil.sha256HexLower(source);
+            if (sig == null || sig.isEmpty()) return Outcome.NONE;
+            CompiledProfile p = profiles.getActiveCompiledOrWarn();
+            if (p == null) return noProfile();
+            String expected = CallbackSignatures.callback(endpointId, orderID, merchantOrderID, status, amount, customerEmail, p);
             boolean ok = expected.equalsIgnoreCase(sig);
+            verified(ZotaEndpoint.CALLBACK, p, ok);
             Annotations ann = ok
                     ? Annotations.annotations("Zota callback signature: VALID", HighlightColor.GREEN)
                     : Annotations.annotations("Zota callback signature: INVALID", HighlightColor.RED);
-            return new Result(req, ann);
+            return new Outcome(ann, null, new OrderRef(ZotaEndpoint.CALLBACK, merchantOrderID, orderID, status, p.name()));
         } catch (Exception e) {
-            return new Result(req, Annotations.annotations("Zota callback verify error: " + e.getMessage(), HighlightColor.RED));
+            return new Outcome(Annotations.annotations("Zota callback verify error: " + e.getMessage(), HighlightColor.RED), null, null);
+        }
+    }
+
+    /**
+     * Signs synthetic requests for every endpoint with a throw-away profile so class loading and JIT
+     * compilation of the JSON, query-string and digest paths happen before the first real request.
+     * Nothing is sent, journaled or cached under a real profile.
+     */
+    public void warmUp(int rounds) {
+        CompiledProfile p = CompiledProfile.of(
+                new ZotaProfile(WARM_UP_PROFILE, "WARMUP-MERCHANT", "warmup-secret", "https://api.zotapay-stage.com"));
+        HttpService service = HttpService.httpService("api.zotapay-stage.com", 443, true);
+        String jsonHeaders = "Host: api.zotapay-stage.com\r\nContent-Type: application/json\r\n\r\n";
+        List<HttpRequest> samples = List.of(
+                HttpRequest.httpRequest(service, "POST /api/v1/deposit/request/1000/ HTTP/1.1\r\n" + jsonHeaders
+                        + "{\"merchantOrderID\":\"warmup-1\",\"orderAmount\":\"10.00\",\"customerEmail\":\"warmup@example.invalid\"}"),
+                HttpRequest.httpRequest(service, "POST /api/v1/payout/request/1000/ HTTP/1.1\r\n" + jsonHeaders
+                        + "{\"merchantOrderID\":\"warmup-2\",\"orderAmount\":\"10.00\",\"customerEmail\":\"warmup@example.invalid\",\"customerBankAccountNumber\":\"1\"}"),
+                HttpRequest.httpRequest(service, "GET /api/v1/query/order-status/?merchantOrderID=warmup-1&orderID=1 HTTP/1.1\r\nHost: api.zotapay-stage.com\r\n\r\n"),
+                HttpRequest.httpRequest(service, "GET /api/v1/query/current-balance/ HTTP/1.1\r\nHost: api.zotapay-stage.com\r\n\r\n"),
+                HttpRequest.httpRequest(service, "GET /api/v1/query/exchange-rates/?orderType=DEPOSIT HTTP/1.1\r\nHost: api.zotapay-stage.com\r\n\r\n"));
+        for (int i = 0; i < rounds; i++) {
+            for (HttpRequest sample : samples) {
+                RequestModel m = new RequestModel(sample);
+                applyProfileDefaults(m, p);
+                endpointRules.stream()
+                        .filter(r -> r.matches(m.method(), m.basePath()))
+                        .findFirst()
+                        .ifPresent(r -> warmUpSign(r, m, p));
+            }
+        }
+    }
+
+    private static void warmUpSign(EndpointRule rule, RequestModel m, CompiledProfile p) {
+        try {
+            rule.handler().apply(m, p, true);
+            m.build();
+        } catch (Exception e) {
+            ZotaLogger.error("Warm-up signing failed: " + e.getMessage());
         }
     }
 
     // For previewing in UI (e.g., Repeater tab creation) so users see modifications
     public HttpRequest signForPreview(HttpRequest req) {
-        Result result = signInternal(req, null, true, true);
-        return result.request();
+        return signInternal(req, null, false, true, true, true).request();
     }
 
-    private Result signDeposit(HttpRequest req, ZotaProfile profileOverride, boolean refreshDynamicValues) throws Exception {
-        ZotaProfile p = resolveProfile(profileOverride);
+    private Outcome signDeposit(RequestModel m, CompiledProfile profileOverride, boolean refreshDynamicValues) throws Exception {
+        CompiledProfile p = resolveProfile(profileOverride);
         if (p == null) {
-            return noProfile(req);
+            return noProfile();
         }
 
-        String path = req.path();
-        String endpointIdOrGroup = extractIdFromPath(path, "/api/v1/deposit/request/");
-        String body = req.bodyToString();
-        JsonNode json = safeJson(body);
-
-        // Collect required fields (missing become empty strings)
-        String merchantOrderID = getJsonText(json, "merchantOrderID");
-        String orderAmount = getJsonText(json, "orderAmount");
-        String customerEmail = getJsonText(json, "customerEmail");
-
-        String sigSource = (endpointIdOrGroup == null ? "" : endpointIdOrGroup)
-                + valueOrEmpty(merchantOrderID)
-                + valueOrEmpty(orderAmount)
-                + valueOrEmpty(customerEmail)
-                + valueOrEmpty(p.getMerchantSecretKey());
-
-        String signature = SignatureUtil.sha256HexLower(sigSource);
+        JsonNode json = m.json();
+        // Endpoint or group ID from the path, then the body fields (missing become empty strings)
+        String[] values = SigningRules.bodyValues(ZotaEndpoint.DEPOSIT, m.basePath(), json);
+        String merchantOrderID = values[1];
+        String orderAmount = values[2];
+        String customerEmail = values[3];
 
-        JsonNode updated = SignatureUtil.withField(json, "signature", signature);
-        String updatedBody = mapper.writeValueAsString(updated);
+        String signature = SignatureFormula.sign(ZotaEndpoint.DEPOSIT, p, values);
+        m.setJson(SignatureUtil.withField(json, "signature", signature));
 
         List<String> warnings = missingFields(Arrays.asList(
                 field("merchantOrderID", merchantOrderID),
                 field("orderAmount", orderAmount),
                 field("customerEmail", customerEmail),
-                field("MerchantSecretKey", p.getMerchantSecretKey())
+                field("MerchantSecretKey", p.secret())
         ));
-
-        HttpRequest out = req.withBody(updatedBody);
-        return new Result(out, note("deposit", signature, warnings));
+        return signed(ZotaEndpoint.DEPOSIT, p, signature, warnings, merchantOrderID, null);
     }
 
-    private Result signPayout(HttpRequest req, ZotaProfile profileOverride, boolean refreshDynamicValues) throws Exception {
-        ZotaProfile p = resolveProfile(profileOverride);
+    private Outcome signPayout(RequestModel m, CompiledProfile profileOverride, boolean refreshDynamicValues) throws Exception {
+        CompiledProfile p = resolveProfile(profileOverride);
         if (p == null) {
-            return noProfile(req);
+            return noProfile();
         }
 
-        String path = req.path();
-        String endpointId = extractIdFromPath(path, "/api/v1/payout/request/");
-        String body = req.bodyToString();
-        JsonNode json = safeJson(body);
-
-        String merchantOrderID = getJsonText(json, "merchantOrderID");
-        String orderAmount = getJsonText(json, "orderAmount");
-        String customerEmail = getJsonText(json, "customerEmail");
-        String customerBankAccountNumber = getJsonText(json, "customerBankAccountNumber");
-
-        String sigSource = valueOrEmpty(endpointId)
-                + valueOrEmpty(merchantOrderID)
-                + valueOrEmpty(orderAmount)
-                + valueOrEmpty(customerEmail)
-                + valueOrEmpty(customerBankAccountNumber)
-                + valueOrEmpty(p.getMerchantSecretKey());
+        JsonNode json = m.json();
+        String[] values = SigningRules.bodyValues(ZotaEndpoint.PAYOUT, m.basePath(), json);
+        String merchantOrderID = values[1];
+        String orderAmount = values[2];
+        String customerEmail = values[3];
+        String customerBankAccountNumber = values[4];
 
-        String signature = SignatureUtil.sha256HexLower(sigSource);
-
-        JsonNode updated = SignatureUtil.withField(json, "signature", signature);
-        String updatedBody = mapper.writeValueAsString(updated);
+        String signature = SignatureFormula.sign(ZotaEndpoint.PAYOUT, p, values);
+        m.setJson(SignatureUtil.withField(json, "signature", signature));
 
         List<String> warnings = missingFields(Arrays.asList(
                 field("merchantOrderID", merchantOrderID),
                 field("orderAmount", orderAmount),
                 field("customerEmail", customerEmail),
                 field("customerBankAccountNumber", customerBankAccountNumber),
-                field("MerchantSecretKey", p.getMerchantSecretKey())
+                field("MerchantSecretKey", p.secret())
         ));
-
-        HttpRequest out = req.withBody(updatedBody);
-        return new Result(out, note("payout", signature, warnings));
+        return signed(ZotaEndpoint.PAYOUT, p, signature, warnings, merchantOrderID, null);
     }
 
-    private Result signOrderStatus(HttpRequest req, ZotaProfile profileOverride, boolean refreshDynamicValues) {
-        ZotaProfile p = resolveProfile(profileOverride);
+    private Outcome signOrderStatus(RequestModel m, CompiledProfile profileOverride, boolean refreshDynamicValues) {
+        CompiledProfile p = resolveProfile(profileOverride);
         if (p == null) {
-            return noProfile(req);
-        }
-
-        String path = req.path();
-        String basePath = req.pathWithoutQuery();
-        String query = req.query();
-
-        Map<String, String> params = QueryString.parse(query);
-        if (refreshDynamicValues) {
-            params.put("merchantID", valueOrEmpty(p.getMerchantId()));
-            params.put("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
-        } else {
-            params.putIfAbsent("merchantID", valueOrEmpty(p.getMerchantId()));
-            params.putIfAbsent("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
+            return noProfile();
         }
 
-        String merchantOrderID = params.getOrDefault("merchantOrderID", "");
-        String orderID = params.getOrDefault("orderID", "");
-        String timestamp = params.getOrDefault("timestamp", "");
+        Map<String, String> params = m.query();
+        SigningRules.fillQuery(ZotaEndpoint.ORDER_STATUS, params, p, refreshDynamicValues);
+        String[] values = SigningRules.queryValues(ZotaEndpoint.ORDER_STATUS, params, p);
+        String merchantOrderID = values[1];
+        String orderID = values[2];
+        String timestamp = values[3];
 
-        String sigSource = valueOrEmpty(p.getMerchantId())
-                + valueOrEmpty(merchantOrderID)
-                + valueOrEmpty(orderID)
-                + valueOrEmpty(timestamp)
-                + valueOrEmpty(p.getMerchantSecretKey());
-
-        String signature = SignatureUtil.sha256HexLower(sigSource);
+        String signature = SignatureFormula.sign(ZotaEndpoint.ORDER_STATUS, p, values);
         params.put("signature", signature);
 
-        String newQuery = QueryString.build(params);
-        HttpRequest out = req.withPath(basePath + "?" + newQuery);
-
         List<String> warnings = missingFields(Arrays.asList(
-                field("merchantID", p.getMerchantId()),
+                field("merchantID", p.merchantId()),
                 field("merchantOrderID", merchantOrderID),
                 field("orderID", orderID),
                 field("timestamp", timestamp),
-                field("MerchantSecretKey", p.getMerchantSecretKey())
+                field("MerchantSecretKey", p.secret())
         ));
-        return new Result(out, note("order-status", signature, warnings));
+        return signed(ZotaEndpoint.ORDER_STATUS, p, signature, warnings, merchantOrderID, orderID);
     }
 
-    private Result signOrdersReport(HttpRequest req, ZotaProfile profileOverride, boolean refreshDynamicValues) {
-        ZotaProfile p = resolveProfile(profileOverride);
+    private Outcome signOrdersReport(RequestModel m, CompiledProfile profileOverride, boolean refreshDynamicValues) {
+        CompiledProfile p = resolveProfile(profileOverride);
         if (p == null) {
-            return noProfile(req);
-        }
-
-        String basePath = req.pathWithoutQuery();
-        Map<String, String> params = QueryString.parse(req.query());
-        if (refreshDynamicValues) {
-            params.put("merchantID", valueOrEmpty(p.getMerchantId()));
-            params.put("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
-            params.put("requestID", UUID.randomUUID().toString());
-        } else {
-            params.putIfAbsent("merchantID", valueOrEmpty(p.getMerchantId()));
-            params.putIfAbsent("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
-            params.putIfAbsent("requestID", UUID.randomUUID().toString());
-        }
-
-        String dateType = params.getOrDefault("dateType", "");
-        String endpointIds = params.getOrDefault("endpointIds", "");
-        String fromDate = params.getOrDefault("fromDate", "");
-        String requestID = params.getOrDefault("requestID", "");
-        String statuses = params.getOrDefault("statuses", "");
-        String timestamp = params.getOrDefault("timestamp", "");
-        String toDate = params.getOrDefault("toDate", "");
-        String types = params.getOrDefault("types", "");
-
-        String sigSource = valueOrEmpty(p.getMerchantId())
-                + valueOrEmpty(dateType)
-                + valueOrEmpty(endpointIds)
-                + valueOrEmpty(fromDate)
-                + valueOrEmpty(requestID)
-                + valueOrEmpty(statuses)
-                + valueOrEmpty(timestamp)
-                + valueOrEmpty(toDate)
-                + valueOrEmpty(types)
-                + valueOrEmpty(p.getMerchantSecretKey());
-
-        String signature = SignatureUtil.sha256HexLower(sigSource);
+            return noProfile();
+        }
+
+        Map<String, String> params = m.query();
+        SigningRules.fillQuery(ZotaEndpoint.ORDERS_REPORT, params, p, refreshDynamicValues);
+        String[] values = SigningRules.queryValues(ZotaEndpoint.ORDERS_REPORT, params, p);
+        String dateType = values[1];
+        String endpointIds = values[2];
+        String fromDate = values[3];
+        String requestID = values[4];
+        String statuses = values[5];
+        String timestamp = values[6];
+        String toDate = values[7];
+        String types = values[8];
+
+        String signature = SignatureFormula.sign(ZotaEndpoint.ORDERS_REPORT, p, values);
         params.put("signature", signature);
 
-        String newQuery = QueryString.build(params);
-        HttpRequest out = req.withPath(basePath + "?" + newQuery);
-
         List<String> warnings = missingFields(Arrays.asList(
-                field("merchantID", p.getMerchantId()),
+                field("merchantID", p.merchantId()),
                 field("dateType", dateType),
                 field("endpointIds", endpointIds),
                 field("fromDate", fromDate),
@@ -480,100 +802,64 @@ public class ZotaSigner {
                 field("timestamp", timestamp),
                 field("toDate", toDate),
                 field("types", types),
-                field("MerchantSecretKey", p.getMerchantSecretKey())
+                field("MerchantSecretKey", p.secret())
         ));
-        return new Result(out, note("orders-report", signature, warnings));
+        return signed(ZotaEndpoint.ORDERS_REPORT, p, signature, warnings);
     }
 
-    private Result signExchangeRates(HttpRequest req, ZotaProfile profileOverride, boolean refreshDynamicValues) {
-        ZotaProfile p = resolveProfile(profileOverride);
+    private Outcome signExchangeRates(RequestModel m, CompiledProfile profileOverride, boolean refreshDynamicValues) {
+        CompiledProfile p = resolveProfile(profileOverride);
         if (p == null) {
-            return noProfile(req);
+            return noProfile();
         }
 
-        String basePath = req.pathWithoutQuery();
-        Map<String, String> params = QueryString.parse(req.query());
-        if (refreshDynamicValues) {
-            params.put("merchantID", valueOrEmpty(p.getMerchantId()));
-            params.put("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
-            params.put("requestID", UUID.randomUUID().toString());
-        } else {
-            params.putIfAbsent("merchantID", valueOrEmpty(p.getMerchantId()));
-            params.putIfAbsent("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
-            params.putIfAbsent("requestID", UUID.randomUUID().toString());
-        }
-
-        String requestID = params.getOrDefault("requestID", "");
-        String date = params.getOrDefault("date", "");
-        String timestamp = params.getOrDefault("timestamp", "");
+        Map<String, String> params = m.query();
+        SigningRules.fillQuery(ZotaEndpoint.EXCHANGE_RATES, params, p, refreshDynamicValues);
+        String[] values = SigningRules.queryValues(ZotaEndpoint.EXCHANGE_RATES, params, p);
+        String requestID = values[1];
+        String date = values[2];
+        String timestamp = values[3];
+        String orderID = values[4];
         String orderType = params.getOrDefault("orderType", "");
-        String orderID = params.getOrDefault("orderID", "");
-
-        String sigSource = valueOrEmpty(p.getMerchantId())
-                + valueOrEmpty(p.getMerchantSecretKey())
-                + valueOrEmpty(requestID)
-                + valueOrEmpty(date)
-                + valueOrEmpty(timestamp)
-                + valueOrEmpty(orderID);
 
-        String signature = SignatureUtil.sha256HexLower(sigSource);
+        String signature = SignatureFormula.sign(ZotaEndpoint.EXCHANGE_RATES, p, values);
         params.put("signature", signature);
 
-        String newQuery = QueryString.build(params);
-        HttpRequest out = req.withPath(basePath + "?" + newQuery);
-
         List<String> warnings = missingFields(Arrays.asList(
-                field("merchantID", p.getMerchantId()),
+                field("merchantID", p.merchantId()),
                 field("requestID", requestID),
                 field("date", date),
                 field("timestamp", timestamp),
                 field("orderType", orderType),
                 field("orderID", orderID),
-                field("MerchantSecretKey", p.getMerchantSecretKey())
+                field("MerchantSecretKey", p.secret())
         ));
-        return new Result(out, note("exchange-rates", signature, warnings));
+        return signed(ZotaEndpoint.EXCHANGE_RATES, p, signature, warnings);
     }
 
-    private HttpRequest updateServiceForProfile(HttpRequest request, ZotaProfile profile) {
-        String apiBase = profile.getApiBase();
-        if (apiBase == null || apiBase.isBlank()) {
-            return request;
-        }
-        try {
-            URI uri = normalizeApiBase(apiBase.trim());
-            String host = uri.getHost();
-            boolean tls = "https".equalsIgnoreCase(uri.getScheme());
-            int port = uri.getPort();
-            if (port == -1) {
-                port = tls ? 443 : 80;
-            }
-            HttpService service = HttpService.httpService(host, port, tls);
-            HttpRequest updated = request.withService(service);
-            String hostHeader = isDefaultPort(tls, port) ? host : host + ":" + port;
-            return updated.withUpdatedHeader("Host", hostHeader);
-        } catch (Exception e) {
-            ZotaLogger.error("Invalid API base for profile " + profile.getName() + ": " + e.getMessage());
-            return request;
+    private static void updateServiceForProfile(RequestModel m, CompiledProfile profile) {
+        if (profile.service() != null) {
+            m.setService(profile.service());
+            m.setHeader("Host", profile.hostHeader());
         }
     }
 
-    private HttpRequest updateEndpointInPath(HttpRequest request, ZotaProfile profile) {
-        String endpointId = profile.getDefaultEndpointId();
-        if (endpointId == null || endpointId.isBlank()) {
-            return request;
+    private static void updateEndpointInPath(RequestModel m, CompiledProfile profile) {
+        String endpointId = profile.endpointId();
+        if (endpointId.isEmpty()) {
+            return;
+        }
+        // Only the first matching prefix applies; "direct/" is checked before its parent
+        if (!replaceEndpointSegment(m, SigningRules.DEPOSIT_DIRECT_PATH, endpointId)
+                && !replaceEndpointSegment(m, SigningRules.DEPOSIT_PATH, endpointId)) {
+            replaceEndpointSegment(m, SigningRules.PAYOUT_PATH, endpointId);
         }
-        String trimmed = endpointId.trim();
-        HttpRequest updated = request;
-        updated = replaceEndpointSegment(updated, "/api/v1/deposit/request/direct/", trimmed);
-        updated = replaceEndpointSegment(updated, "/api/v1/deposit/request/", trimmed);
-        updated = replaceEndpointSegment(updated, "/api/v1/payout/request/", trimmed);
-        return updated;
     }
 
-    private HttpRequest replaceEndpointSegment(HttpRequest request, String prefix, String endpointId) {
-        String basePath = request.pathWithoutQuery();
+    private static boolean replaceEndpointSegment(RequestModel m, String prefix, String endpointId) {
+        String basePath = m.basePath();
         if (basePath == null || !basePath.startsWith(prefix)) {
-            return request;
+            return false;
         }
         String remainder = basePath.substring(prefix.length());
         String trailing;
@@ -583,140 +869,64 @@ public class ZotaSigner {
         } else {
             trailing = basePath.endsWith("/") ? "/" : "";
         }
-        String newBase = prefix + endpointId + trailing;
-        String query = request.query();
-        String newPath = (query == null || query.isEmpty()) ? newBase : newBase + "?" + query;
-        if (newPath.equals(request.path())) {
-            return request;
-        }
-        return request.withPath(newPath);
+        m.setBasePath(prefix + endpointId + trailing);
+        return true;
     }
 
-    private HttpRequest updateQueryForProfile(HttpRequest request, ZotaProfile profile) {
-        String query = request.query();
-        String basePath = request.pathWithoutQuery();
-        if ((query == null || query.isEmpty()) && !shouldForceMerchantId(basePath)) {
-            return request;
+    private static void updateQueryForProfile(RequestModel m, CompiledProfile profile) {
+        String basePath = m.basePath();
+        boolean force = SigningRules.queryPath(basePath);
+        if (!m.hasQuery() && !force) {
+            return;
         }
 
-        Map<String, String> params = new LinkedHashMap<>(QueryString.parse(query));
-        boolean changed = false;
-
-        String merchantId = profile.getMerchantId();
-        if (merchantId != null && !merchantId.isBlank() && (shouldForceMerchantId(basePath) || params.containsKey("merchantID"))) {
-            params.put("merchantID", merchantId.trim());
-            changed = true;
+        String merchantId = profile.merchantId();
+        String endpointId = profile.endpointId();
+        if (merchantId.isEmpty() && endpointId.isEmpty()) {
+            return;
         }
-
-        String endpointId = profile.getDefaultEndpointId();
-        if (endpointId != null && !endpointId.isBlank() && params.containsKey("endpointIds")) {
-            params.put("endpointIds", endpointId.trim());
-            changed = true;
+        Map<String, String> params = m.query();
+        if (!merchantId.isEmpty() && (force || params.containsKey("merchantID"))) {
+            params.put("merchantID", merchantId);
         }
-
-        if (!changed) {
-            return request;
+        if (!endpointId.isEmpty() && params.containsKey("endpointIds")) {
+            params.put("endpointIds", endpointId);
         }
-
-        String newQuery = QueryString.build(params);
-        String newPath = (newQuery == null || newQuery.isEmpty()) ? basePath : basePath + "?" + newQuery;
-        return request.withPath(newPath);
     }
 
-    private HttpRequest updateJsonBodyForProfile(HttpRequest request, ZotaProfile profile) {
-        if (!"POST".equalsIgnoreCase(request.method())) {
-            return request;
+    private static void updateJsonBodyForProfile(RequestModel m, CompiledProfile profile) {
+        if (!"POST".equalsIgnoreCase(m.method())) {
+            return;
         }
-        String body = request.bodyToString();
-        if (body == null || body.isEmpty()) {
-            return request;
+        String merchantId = profile.merchantId();
+        String endpoint = profile.endpointId();
+        if (merchantId.isEmpty() && endpoint.isEmpty()) {
+            return;
         }
-        try {
-            JsonNode json = safeJson(body);
-            if (!(json instanceof ObjectNode obj)) {
-                return request;
-            }
-            boolean changed = false;
-            String merchantId = profile.getMerchantId();
-            if (merchantId != null && !merchantId.isBlank()) {
-                if (obj.has("merchantID")) {
-                    obj.put("merchantID", merchantId.trim());
-                    changed = true;
-                }
-                if (obj.has("MerchantID")) {
-                    obj.put("MerchantID", merchantId.trim());
-                    changed = true;
-                }
-            }
-            String endpoint = profile.getDefaultEndpointId();
-            if (endpoint != null && !endpoint.isBlank()) {
-                if (obj.has("endpointID")) {
-                    obj.put("endpointID", endpoint.trim());
-                    changed = true;
-                }
-                if (obj.has("EndpointID")) {
-                    obj.put("EndpointID", endpoint.trim());
-                    changed = true;
-                }
-            }
-            if (!changed) {
-                return request;
-            }
-            return request.withBody(mapper.writeValueAsString(obj));
-        } catch (Exception e) {
-            // Ignore invalid JSON bodies when applying profile defaults
-            return request;
-        }
-    }
-
-    private static boolean shouldForceMerchantId(String basePath) {
-        if (basePath == null) {
-            return false;
-        }
-        return basePath.startsWith("/api/v1/query/order-status/")
-                || basePath.startsWith("/api/v1/query/orders-report/csv/")
-                || basePath.startsWith("/api/v1/query/current-balance/")
-                || basePath.startsWith("/api/v1/query/exchange-rates/");
-    }
-
-    private static boolean isDefaultPort(boolean tls, int port) {
-        return (tls && port == 443) || (!tls && port == 80);
-    }
-
-    private static URI normalizeApiBase(String apiBase) throws Exception {
-        URI uri = new URI(apiBase);
-        if (uri.getScheme() == null) {
-            uri = new URI("https://" + apiBase);
+        // Invalid JSON bodies are left alone when applying profile defaults
+        if (!(m.jsonOrNull() instanceof ObjectNode obj)) {
+            return;
         }
-        if (uri.getHost() == null || uri.getHost().isEmpty()) {
-            throw new IllegalArgumentException("API base is missing a host");
+        boolean changed = false;
+        if (!merchantId.isEmpty()) {
+            changed |= putIfPresent(obj, "merchantID", merchantId);
+            changed |= putIfPresent(obj, "MerchantID", merchantId);
         }
-        String scheme = uri.getScheme();
-        if (scheme == null || scheme.isBlank()) {
-            uri = new URI("https", uri.getUserInfo(), uri.getHost(), uri.getPort(), uri.getPath(), uri.getQuery(), uri.getFragment());
+        if (!endpoint.isEmpty()) {
+            changed |= putIfPresent(obj, "endpointID", endpoint);
+            changed |= putIfPresent(obj, "EndpointID", endpoint);
         }
-        return uri;
-    }
-
-    private String extractIdFromPath(String path, String prefix) {
-        String rest = path.substring(prefix.length());
-        // accept "group/<id>/" or "<id>/"
-        String s = rest;
-        int q = s.indexOf('?');
-        if (q >= 0) s = s.substring(0, q);
-        s = s.trim();
-        if (s.startsWith("group/")) {
-            s = s.substring("group/".length());
+        if (changed) {
+            m.bodyChanged();
         }
-        if (s.endsWith("/")) s = s.substring(0, s.length() - 1);
-        return s;
     }
 
-    private JsonNode safeJson(String body) throws Exception {
-        if (body == null || body.isEmpty()) {
-            return mapper.createObjectNode();
+    private static boolean putIfPresent(ObjectNode obj, String field, String value) {
+        if (!obj.has(field)) {
+            return false;
         }
-        return mapper.readTree(body);
+        obj.put(field, value);
+        return true;
     }
 
     private static String valueOrEmpty(String s) {
@@ -724,10 +934,7 @@ public class ZotaSigner {
     }
 
     private static String getJsonText(JsonNode json, String field) {
-        if (json == null) return "";
-        JsonNode n = json.get(field);
-        if (n == null || n.isNull()) return "";
-        return n.asText("");
+        return Json.text(json, field);
     }
 
     private static Map.Entry<String, String> field(String name, String value) {
@@ -0,0 +1,98 @@
+package burp.zota.trace;
+
+import burp.api.montoya.core.ToolType;
+import burp.zota.signer.ZotaEndpoint;
+import burp.zota.signer.ZotaSigner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity ring of the most recent signing events, for diagnosing signatures a merchant reports as bad.
+ *
+ * <p>Recording claims a slot with one atomic increment and publishes an immutable {@link Event} into it with
+ * a release store: no locks, no copying, and only the event itself is allocated. Included and empty field
+ * names are not stored; they are derived from the endpoint's field list and the missing-field bitmask when
+ * the ring is read. Readers take a {@link #snapshot()} and skip slots already overwritten by a newer event.
+ */
+public class SigningTrace {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * One signing event. {@code messageId} is Burp's message ID, or -1 for context-menu re-signs;
+     * {@code modified} is whether the signer rewrote the request.
+     */
+    public record Event(long seq, long timestamp, int messageId, ToolType tool, ZotaEndpoint endpoint, String profile,
+                        String signature, int missingMask, long elapsedNanos, boolean modified) {
+
+        public List<String> emptyFields() {
+            return endpoint == null ? List.of() : endpoint.fieldsIn(missingMask);
+        }
+
+        public List<String> includedFields() {
+            return endpoint == null ? List.of() : endpoint.fieldsIn(~missingMask & ((1 << endpoint.fields().size()) - 1));
+        }
+    }
+
+    private final AtomicReferenceArray<Event> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    public SigningTrace() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity rounded up to a power of two.
+     */
+    public SigningTrace(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Records a signing result. Does nothing when nothing was signed.
+     */
+    public void record(int messageId, ToolType tool, ZotaSigner.Signing signing, long elapsedNanos, boolean modified) {
+        if (signing == null) {
+            return;
+        }
+        long seq = next.getAndIncrement();
+        ZotaEndpoint endpoint = signing.endpoint();
+        int missing = endpoint == null ? 0 : endpoint.fieldMask(signing.missingFields());
+        slots.lazySet((int) (seq & mask), new Event(seq, System.currentTimeMillis(), messageId, tool, endpoint,
+                signing.profileName(), signing.signature(), missing, elapsedNanos, modified));
+    }
+
+    /**
+     * @return total events recorded since load, including those already overwritten.
+     */
+    public long recorded() {
+        return next.get();
+    }
+
+    /**
+     * Copies the retained events, newest first.
+     */
+    public List<Event> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - capacity());
+        List<Event> out = new ArrayList<>((int) (end - start));
+        for (long seq = end - 1; seq >= start; seq--) {
+            Event e = slots.get((int) (seq & mask));
+            // Null: claimed but not yet published; other seq: already overwritten by a newer event
+            if (e != null && e.seq() == seq) {
+                out.add(e);
+            }
+        }
+        return out;
+    }
+}
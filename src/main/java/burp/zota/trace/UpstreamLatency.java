@@ -0,0 +1,245 @@
+package burp.zota.trace;
+
+import burp.zota.signer.ZotaEndpoint;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Upstream Zota API latency per endpoint and profile, measured from the moment a signed request leaves the
+ * HTTP handler until its response comes back through it, matched by Burp's message ID.
+ *
+ * <p>Latencies go into log-linear histograms (four buckets per power of two of microseconds, so a bucket is
+ * at most 25% wide) and response sizes into power-of-two buckets, both plain atomic arrays: recording only
+ * takes the short lock on the pending map and allocates nothing beyond the pending entry. Time spent in the extension itself (signing, and the whole
+ * handler including any pacing wait) is kept alongside, so a slow exchange can be put on Zota or on Burp.
+ * Requests whose response never arrives are counted as unanswered and dropped, oldest first: once
+ * {@value #MAX_PENDING} are waiting, or when one has waited {@value #PENDING_TIMEOUT_SECONDS} s by the time
+ * the next request is sent.
+ */
+public class UpstreamLatency {
+
+    private static final int LATENCY_BUCKETS = 112;
+    private static final int SIZE_BUCKETS = 48;
+    static final int MAX_PENDING = 4096;
+    private static final long PENDING_TIMEOUT_SECONDS = 300;
+
+    private record Pending(Series series, long sentNanos) {}
+
+    /**
+     * Latencies in milliseconds; percentiles are bucket upper bounds, capped at the maximum seen.
+     *
+     * @param statuses      responses by HTTP status.
+     * @param signMicros    mean time spent computing the signature.
+     * @param handlerMillis worst time a request spent in the extension's handler, pacing included.
+     * @param unanswered    signed requests whose response never came back.
+     */
+    public record Stats(ZotaEndpoint endpoint, String profile, long responses, double p50, double p90, double p99,
+                        double max, Map<Integer, Long> statuses, long bytes, long sizeP50, long sizeMax,
+                        long signMicros, double handlerMillis, long unanswered) {
+
+        public double meanBytes() {
+            return responses == 0 ? 0 : (double) bytes / responses;
+        }
+    }
+
+    private static final class Series {
+        final ZotaEndpoint endpoint;
+        final String profile;
+        final AtomicLongArray latency = new AtomicLongArray(LATENCY_BUCKETS);
+        final AtomicLongArray sizes = new AtomicLongArray(SIZE_BUCKETS);
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder signed = new LongAdder();
+        final LongAdder signNanos = new LongAdder();
+        final LongAdder unanswered = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLong maxHandlerNanos = new AtomicLong();
+        final AtomicLong maxBytes = new AtomicLong();
+
+        Series(ZotaEndpoint endpoint, String profile) {
+            this.endpoint = endpoint;
+            this.profile = profile;
+        }
+    }
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private final Map<Integer, Pending> pending = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Pending> eldest) {
+            if (size() <= MAX_PENDING
+                    && System.nanoTime() - eldest.getValue().sentNanos() < TimeUnit.SECONDS.toNanos(PENDING_TIMEOUT_SECONDS)) {
+                return false;
+            }
+            eldest.getValue().series().unanswered.increment();
+            return true;
+        }
+    });
+
+    /**
+     * Notes that a signed request is about to be sent.
+     *
+     * @param signNanos    time the signer took.
+     * @param handlerNanos time the request spent in the HTTP handler so far.
+     */
+    public void sent(int messageId, ZotaEndpoint endpoint, String profile, long signNanos, long handlerNanos) {
+        if (endpoint == null) {
+            return;
+        }
+        String name = profile == null ? "" : profile;
+        Series s = series.computeIfAbsent(endpoint.name() + '\u0000' + name, k -> new Series(endpoint, name));
+        s.signed.increment();
+        s.signNanos.add(signNanos);
+        s.maxHandlerNanos.accumulateAndGet(handlerNanos, Math::max);
+        pending.put(messageId, new Pending(s, System.nanoTime()));
+    }
+
+    /**
+     * Matches a response to its signed request and records it.
+     *
+     * @return whether the response belonged to a signed request.
+     */
+    public boolean received(int messageId, int status, long bodyBytes) {
+        Pending p = pending.remove(messageId);
+        if (p == null) {
+            return false;
+        }
+        long nanos = System.nanoTime() - p.sentNanos();
+        Series s = p.series();
+        s.latency.incrementAndGet(latencyBucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+        s.maxNanos.accumulateAndGet(nanos, Math::max);
+        s.sizes.incrementAndGet(sizeBucket(bodyBytes));
+        s.maxBytes.accumulateAndGet(bodyBytes, Math::max);
+        s.bytes.add(bodyBytes);
+        s.statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+        return true;
+    }
+
+    public void reset() {
+        series.clear();
+        pending.clear();
+    }
+
+    /**
+     * @return one entry per endpoint and profile with at least one signed request, by endpoint then profile.
+     */
+    public List<Stats> snapshot() {
+        List<Stats> out = new ArrayList<>();
+        for (Series s : series.values()) {
+            long[] latency = copy(s.latency);
+            long[] sizes = copy(s.sizes);
+            long n = 0;
+            for (long c : latency) n += c;
+            Map<Integer, Long> statuses = new TreeMap<>();
+            s.statuses.forEach((k, v) -> statuses.put(k, v.sum()));
+            long signed = s.signed.sum();
+            double max = s.maxNanos.get() / 1e6;
+            out.add(new Stats(s.endpoint, s.profile, n,
+                    Math.min(max, percentileMillis(latency, n, 0.50)), Math.min(max, percentileMillis(latency, n, 0.90)),
+                    Math.min(max, percentileMillis(latency, n, 0.99)), max, statuses, s.bytes.sum(),
+                    n == 0 ? 0 : Math.min(s.maxBytes.get(), sizeUpper(percentileIndex(sizes, n, 0.50))), s.maxBytes.get(),
+                    signed == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(s.signNanos.sum() / signed),
+                    s.maxHandlerNanos.get() / 1e6, s.unanswered.sum()));
+        }
+        out.sort(Comparator.comparing((Stats st) -> st.endpoint().ordinal()).thenComparing(Stats::profile));
+        return out;
+    }
+
+    /**
+     * Writes the summary as CSV, one row per endpoint and profile. The last column holds the non-empty latency
+     * buckets as {@code upperBoundMs=count} pairs, so the full histogram survives the export.
+     */
+    public void writeCsv(Writer out) throws IOException {
+        out.write("endpoint,profile,responses,p50_ms,p90_ms,p99_ms,max_ms,statuses,bytes,size_p50,size_max,"
+                + "sign_us_mean,handler_ms_max,unanswered,latency_buckets\r\n");
+        for (Stats st : snapshot()) {
+            Series s = series.get(st.endpoint().name() + '\u0000' + st.profile());
+            StringBuilder statuses = new StringBuilder();
+            st.statuses().forEach((k, v) -> statuses.append(statuses.length() > 0 ? " " : "").append(k).append(':').append(v));
+            StringBuilder buckets = new StringBuilder();
+            if (s != null) {
+                for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                    long c = s.latency.get(i);
+                    if (c == 0) continue;
+                    if (buckets.length() > 0) buckets.append(' ');
+                    buckets.append(String.format(Locale.ROOT, "%.3f", latencyUpperMicros(i) / 1e3)).append('=').append(c);
+                }
+            }
+            out.write(String.join(",", st.endpoint().label(), csv(st.profile()), Long.toString(st.responses()),
+                    String.format(Locale.ROOT, "%.3f", st.p50()), String.format(Locale.ROOT, "%.3f", st.p90()), String.format(Locale.ROOT, "%.3f", st.p99()),
+                    String.format(Locale.ROOT, "%.3f", st.max()), statuses.toString(), Long.toString(st.bytes()),
+                    Long.toString(st.sizeP50()), Long.toString(st.sizeMax()), Long.toString(st.signMicros()),
+                    String.format(Locale.ROOT, "%.3f", st.handlerMillis()), Long.toString(st.unanswered()), buckets.toString()));
+            out.write("\r\n");
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static long[] copy(AtomicLongArray a) {
+        long[] out = new long[a.length()];
+        for (int i = 0; i < out.length; i++) out[i] = a.get(i);
+        return out;
+    }
+
+    private static int percentileIndex(long[] buckets, long n, double q) {
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) return i;
+        }
+        return buckets.length - 1;
+    }
+
+    private static double percentileMillis(long[] buckets, long n, double q) {
+        return n == 0 ? 0 : latencyUpperMicros(percentileIndex(buckets, n, q)) / 1e3;
+    }
+
+    /**
+     * Values below 4 µs get their own bucket; above that, four buckets per power of two.
+     */
+    static int latencyBucket(long micros) {
+        if (micros < 4) {
+            return (int) Math.max(0, micros);
+        }
+        int log = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (log - 2)) & 3;
+        return Math.min(LATENCY_BUCKETS - 1, log * 4 + sub - 4);
+    }
+
+    static long latencyUpperMicros(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int log = bucket / 4 + 1;
+        int sub = bucket % 4;
+        return ((5L + sub) << (log - 2)) - 1;
+    }
+
+    static int sizeBucket(long bytes) {
+        return bytes <= 0 ? 0 : Math.min(SIZE_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(bytes));
+    }
+
+    static long sizeUpper(int bucket) {
+        return bucket == 0 ? 0 : (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,87 @@
+package burp.zota.ui;
+
+import burp.zota.fanout.ProfileFanOut;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Shows multi-profile fan-out outcomes grouped by status and body fingerprint. Selecting one or two rows puts
+ * their responses side by side.
+ */
+public class FanOutResultsDialog {
+    private static final String[] COLUMNS = {"Group", "Profile", "Status", "Length", "Fingerprint", "Time (ms)", "Error"};
+
+    private FanOutResultsDialog() {}
+
+    public static void show(Frame owner, String title, List<ProfileFanOut.Outcome> outcomes) {
+        JDialog dialog = new JDialog(owner, title, false);
+        JTable table = new JTable(new AbstractTableModel() {
+            @Override public int getRowCount() { return outcomes.size(); }
+            @Override public int getColumnCount() { return COLUMNS.length; }
+            @Override public String getColumnName(int c) { return COLUMNS[c]; }
+            @Override
+            public Object getValueAt(int row, int col) {
+                ProfileFanOut.Outcome o = outcomes.get(row);
+                return switch (col) {
+                    case 0 -> o.group();
+                    case 1 -> o.profileName();
+                    case 2 -> o.status() == 0 ? "" : o.status();
+                    case 3 -> o.bodyLength();
+                    case 4 -> o.fingerprint();
+                    case 5 -> o.elapsedMillis();
+                    default -> o.error() == null ? "" : o.error();
+                };
+            }
+        });
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+
+        JTextArea left = responseArea();
+        JTextArea right = responseArea();
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting()) return;
+            int[] rows = table.getSelectedRows();
+            left.setText(rows.length > 0 ? describe(outcomes.get(rows[0])) : "");
+            right.setText(rows.length > 1 ? describe(outcomes.get(rows[1])) : "");
+            left.setCaretPosition(0);
+            right.setCaretPosition(0);
+        });
+
+        JSplitPane responses = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JScrollPane(left), new JScrollPane(right));
+        responses.setResizeWeight(0.5);
+        JSplitPane main = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(table), responses);
+        main.setResizeWeight(0.35);
+
+        long groups = outcomes.stream().mapToInt(ProfileFanOut.Outcome::group).distinct().count();
+        JLabel summary = new JLabel(outcomes.size() + " profiles, " + groups + " distinct response group(s). Select two rows to compare.");
+        summary.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+
+        dialog.getContentPane().setLayout(new BorderLayout());
+        dialog.getContentPane().add(summary, BorderLayout.NORTH);
+        dialog.getContentPane().add(main, BorderLayout.CENTER);
+        dialog.setSize(1100, 700);
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+    }
+
+    private static JTextArea responseArea() {
+        JTextArea area = new JTextArea();
+        area.setEditable(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        return area;
+    }
+
+    private static String describe(ProfileFanOut.Outcome o) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# ").append(o.profileName()).append(" (group ").append(o.group()).append(")\n");
+        if (o.error() != null) {
+            sb.append("Error: ").append(o.error()).append('\n');
+        }
+        if (o.response() != null) {
+            sb.append(o.response().toString());
+        }
+        return sb.toString();
+    }
+}
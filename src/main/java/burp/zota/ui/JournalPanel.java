@@ -0,0 +1,178 @@
+package burp.zota.ui;
+
+import burp.api.montoya.core.ToolType;
+import burp.zota.journal.SigningJournal;
+import burp.zota.signer.ZotaEndpoint;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Viewer for the {@link SigningJournal}. Rows are loaded on demand; filtering scans pre-lowercased row text,
+ * so narrowing tens of thousands of records does not re-read persistence.
+ */
+public class JournalPanel {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final String ANY = "(any)";
+
+    private final JPanel root = new JPanel(new BorderLayout());
+    private final SigningJournal journal;
+    private final JournalModel model = new JournalModel();
+    private final JTextField filterField = new JTextField(24);
+    private final JComboBox<Object> toolCombo = new JComboBox<>();
+    private final JComboBox<Object> endpointCombo = new JComboBox<>();
+    private final JLabel countLabel = new JLabel();
+
+    public JournalPanel(SigningJournal journal) {
+        this.journal = journal;
+        buildUI();
+    }
+
+    public JComponent getRoot() {
+        return root;
+    }
+
+    private void buildUI() {
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        toolCombo.addItem(ANY);
+        for (ToolType t : ToolType.values()) toolCombo.addItem(t);
+        endpointCombo.addItem(ANY);
+        for (ZotaEndpoint e : ZotaEndpoint.values()) endpointCombo.addItem(e);
+        JButton btnRefresh = new JButton("Refresh");
+        JButton btnFlush = new JButton("Flush now");
+
+        bar.add(new JLabel("Filter:"));
+        bar.add(filterField);
+        bar.add(new JLabel("Tool:"));
+        bar.add(toolCombo);
+        bar.add(new JLabel("Endpoint:"));
+        bar.add(endpointCombo);
+        bar.add(btnRefresh);
+        bar.add(btnFlush);
+        bar.add(countLabel);
+
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void removeUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void changedUpdate(DocumentEvent e) { applyFilter(); }
+        });
+        toolCombo.addActionListener(e -> applyFilter());
+        endpointCombo.addActionListener(e -> applyFilter());
+        btnRefresh.addActionListener(e -> reload());
+        btnFlush.addActionListener(e -> {
+            journal.flush();
+            reload();
+        });
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(false);
+        table.getColumnModel().getColumn(4).setPreferredWidth(420);
+        root.add(bar, BorderLayout.NORTH);
+        root.add(new JScrollPane(table), BorderLayout.CENTER);
+    }
+
+    /**
+     * Loads the journal off the EDT and swaps the result into the table.
+     */
+    private void reload() {
+        countLabel.setText("Loading…");
+        new SwingWorker<List<SigningJournal.Entry>, Void>() {
+            @Override
+            protected List<SigningJournal.Entry> doInBackground() {
+                return journal.entries();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    model.setEntries(get());
+                } catch (Exception ex) {
+                    model.setEntries(List.of());
+                }
+                applyFilter();
+            }
+        }.execute();
+    }
+
+    private void applyFilter() {
+        Object tool = toolCombo.getSelectedItem();
+        Object endpoint = endpointCombo.getSelectedItem();
+        model.filter(filterField.getText().trim().toLowerCase(Locale.ROOT),
+                tool instanceof ToolType t ? t : null,
+                endpoint instanceof ZotaEndpoint ep ? ep : null);
+        countLabel.setText(model.getRowCount() + " / " + model.total() + " entries");
+    }
+
+    private static final class JournalModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Time", "Tool", "Endpoint", "Profile", "Signature", "Empty fields"};
+
+        private List<SigningJournal.Entry> entries = List.of();
+        private String[] haystacks = new String[0];
+        private int[] view = new int[0];
+        private int viewSize;
+
+        void setEntries(List<SigningJournal.Entry> loaded) {
+            entries = loaded;
+            haystacks = new String[loaded.size()];
+            for (int i = 0; i < loaded.size(); i++) {
+                SigningJournal.Entry e = loaded.get(i);
+                haystacks[i] = (e.profile() + ' ' + e.signature() + ' ' + String.join(",", e.missingFields())).toLowerCase(Locale.ROOT);
+            }
+            view = new int[loaded.size()];
+        }
+
+        void filter(String text, ToolType tool, ZotaEndpoint endpoint) {
+            int n = 0;
+            // Newest first
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                SigningJournal.Entry e = entries.get(i);
+                if (tool != null && e.tool() != tool) continue;
+                if (endpoint != null && e.endpoint() != endpoint) continue;
+                if (!text.isEmpty() && !haystacks[i].contains(text)) continue;
+                view[n++] = i;
+            }
+            viewSize = n;
+            fireTableDataChanged();
+        }
+
+        int total() {
+            return entries.size();
+        }
+
+        @Override
+        public int getRowCount() {
+            return viewSize;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            SigningJournal.Entry e = entries.get(view[rowIndex]);
+            return switch (columnIndex) {
+                case 0 -> TIME.format(Instant.ofEpochMilli(e.timestamp()));
+                case 1 -> e.tool() == null ? "" : e.tool().name();
+                case 2 -> e.endpoint() == null ? "" : e.endpoint().label();
+                case 3 -> e.profile();
+                case 4 -> e.signature();
+                default -> String.join(", ", e.missingFields());
+            };
+        }
+    }
+}
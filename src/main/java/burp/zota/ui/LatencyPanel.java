@@ -0,0 +1,136 @@
+package burp.zota.ui;
+
+import burp.zota.trace.UpstreamLatency;
+import burp.zota.util.ZotaLogger;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upstream Zota API latency, status codes and response sizes per endpoint and profile, from
+ * {@link UpstreamLatency}, next to the extension's own signing and handler time. Refreshed while visible.
+ */
+public class LatencyPanel {
+    private static final int REFRESH_MILLIS = 2000;
+    private static final String[] COLUMNS = {"Endpoint", "Profile", "Responses", "p50 (ms)", "p90 (ms)", "p99 (ms)",
+            "Max (ms)", "Statuses", "Avg size", "Max size", "Sign avg (µs)", "Handler max (ms)", "No response"};
+
+    private final JPanel root = new JPanel(new BorderLayout());
+    private final UpstreamLatency latency;
+    private final LatencyModel model = new LatencyModel();
+    private final JLabel summary = new JLabel();
+
+    public LatencyPanel(UpstreamLatency latency) {
+        this.latency = latency;
+        buildUI();
+    }
+
+    public JComponent getRoot() {
+        return root;
+    }
+
+    private void buildUI() {
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton btnExport = new JButton("Export CSV…");
+        JButton btnReset = new JButton("Reset");
+        bar.add(btnExport);
+        bar.add(btnReset);
+        bar.add(summary);
+        btnExport.addActionListener(e -> export());
+        btnReset.addActionListener(e -> {
+            latency.reset();
+            refresh();
+        });
+
+        JTable table = new JTable(model);
+        table.getColumnModel().getColumn(7).setPreferredWidth(160);
+        root.add(bar, BorderLayout.NORTH);
+        root.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        new Timer(REFRESH_MILLIS, e -> {
+            if (root.isShowing()) refresh();
+        }).start();
+        refresh();
+    }
+
+    private void refresh() {
+        List<UpstreamLatency.Stats> stats = latency.snapshot();
+        model.setStats(stats);
+        long responses = stats.stream().mapToLong(UpstreamLatency.Stats::responses).sum();
+        summary.setText(responses + " responses to signed requests across " + stats.size() + " endpoint/profile pairs");
+    }
+
+    private void export() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("zota-latency.csv"));
+        if (chooser.showSaveDialog(root) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                    latency.writeCsv(out);
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    ZotaLogger.info("Exported upstream latency to " + file.getName());
+                } catch (Exception ex) {
+                    ZotaLogger.error("Latency export failed: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private static final class LatencyModel extends AbstractTableModel {
+        private List<UpstreamLatency.Stats> stats = List.of();
+
+        void setStats(List<UpstreamLatency.Stats> snapshot) {
+            stats = snapshot;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return stats.size(); }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            UpstreamLatency.Stats s = stats.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> s.endpoint().label();
+                case 1 -> s.profile();
+                case 2 -> s.responses();
+                case 3 -> String.format("%.1f", s.p50());
+                case 4 -> String.format("%.1f", s.p90());
+                case 5 -> String.format("%.1f", s.p99());
+                case 6 -> String.format("%.1f", s.max());
+                case 7 -> statuses(s.statuses());
+                case 8 -> Math.round(s.meanBytes());
+                case 9 -> s.sizeMax();
+                case 10 -> s.signMicros();
+                case 11 -> String.format("%.1f", s.handlerMillis());
+                default -> s.unanswered();
+            };
+        }
+
+        private static String statuses(Map<Integer, Long> statuses) {
+            StringBuilder sb = new StringBuilder();
+            statuses.forEach((k, v) -> sb.append(sb.length() > 0 ? ", " : "").append(k).append(" ×").append(v));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package burp.zota.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.function.Supplier;
+
+/**
+ * Placeholder that builds its real content the first time it becomes visible, so tabs the user never opens
+ * cost nothing at extension load.
+ */
+public class LazyPanel extends JPanel {
+    private Supplier<? extends JComponent> factory;
+
+    public LazyPanel(Supplier<? extends JComponent> factory) {
+        super(new BorderLayout());
+        this.factory = factory;
+        addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+                    removeHierarchyListener(this);
+                    build();
+                }
+            }
+        });
+    }
+
+    private void build() {
+        Supplier<? extends JComponent> f = factory;
+        if (f == null) {
+            return;
+        }
+        factory = null;
+        add(f.get(), BorderLayout.CENTER);
+        revalidate();
+        repaint();
+    }
+}
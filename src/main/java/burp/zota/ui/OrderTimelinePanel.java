@@ -0,0 +1,196 @@
+package burp.zota.ui;
+
+import burp.zota.controller.ZotaController;
+import burp.zota.correlation.OrderCorrelationIndex;
+import burp.zota.poll.OrderStatusPoller;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Live view of the {@link OrderCorrelationIndex}: one row per order with time-to-accept and time-to-final,
+ * and the selected order's full timeline with the delay between consecutive stages. A timer polls the index
+ * version and only rebuilds the table when something was recorded. The bar also drives the
+ * {@link OrderStatusPoller}, whose replies show up here through the HTTP handler.
+ */
+public class OrderTimelinePanel {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final int REFRESH_MILLIS = 2000;
+
+    private final JPanel root = new JPanel(new BorderLayout());
+    private final OrderCorrelationIndex index;
+    private final OrderStatusPoller poller;
+    private final ZotaController controller;
+    private final TimelineModel model = new TimelineModel();
+    private final JTable table = new JTable(model);
+    private final JTextArea detail = new JTextArea();
+    private final JLabel countLabel = new JLabel();
+    private final JLabel pollLabel = new JLabel();
+    private long shownVersion = -1;
+    private long shownPollVersion = -1;
+
+    public OrderTimelinePanel(OrderCorrelationIndex index, OrderStatusPoller poller, ZotaController controller) {
+        this.index = index;
+        this.poller = poller;
+        this.controller = controller;
+        buildUI();
+    }
+
+    public JComponent getRoot() {
+        return root;
+    }
+
+    private void buildUI() {
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton btnRefresh = new JButton("Refresh");
+        JButton btnClear = new JButton("Clear");
+        JButton btnPoll = new JButton("Poll outstanding");
+        JButton btnStop = new JButton("Stop polling");
+        JCheckBox autoPoll = new JCheckBox("Auto-poll accepted orders", controller.getConfig().autoPollOrders);
+        bar.add(btnRefresh);
+        bar.add(btnClear);
+        bar.add(countLabel);
+        bar.add(Box.createHorizontalStrut(16));
+        bar.add(btnPoll);
+        bar.add(btnStop);
+        bar.add(autoPoll);
+        bar.add(pollLabel);
+        btnRefresh.addActionListener(e -> refresh(true));
+        btnClear.addActionListener(e -> {
+            index.clear();
+            poller.clearInactive();
+            refresh(true);
+        });
+        btnPoll.addActionListener(e -> {
+            int started = poller.trackOutstanding(index, name -> controller.profiles().byName(name));
+            pollLabel.setText("Started " + started + " poll(s)");
+        });
+        btnStop.addActionListener(e -> poller.stopAll());
+        autoPoll.addActionListener(e -> controller.setAutoPollOrders(autoPoll.isSelected()));
+
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) showSelected();
+        });
+        detail.setEditable(false);
+        detail.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(table), new JScrollPane(detail));
+        split.setResizeWeight(0.65);
+        root.add(bar, BorderLayout.NORTH);
+        root.add(split, BorderLayout.CENTER);
+
+        Timer timer = new Timer(REFRESH_MILLIS, e -> {
+            if (root.isShowing()) {
+                refresh(false);
+                refreshPolls();
+            }
+        });
+        timer.start();
+        refresh(true);
+    }
+
+    private void refresh(boolean force) {
+        long version = index.version();
+        if (!force && version == shownVersion) {
+            return;
+        }
+        shownVersion = version;
+        OrderCorrelationIndex.Timeline selected = selected();
+        model.set(index.timelines());
+        countLabel.setText(model.rows.size() + " order(s)");
+        if (selected != null) {
+            int row = model.rows.indexOf(selected);
+            if (row >= 0) table.getSelectionModel().setSelectionInterval(row, row);
+        }
+        showSelected();
+    }
+
+    private void refreshPolls() {
+        long version = poller.version();
+        if (version == shownPollVersion) {
+            return;
+        }
+        shownPollVersion = version;
+        int fin = 0, gaveUp = 0;
+        for (OrderStatusPoller.Poll p : poller.polls()) {
+            if (p.state() == OrderStatusPoller.State.FINAL) fin++;
+            else if (p.state() == OrderStatusPoller.State.GAVE_UP) gaveUp++;
+        }
+        pollLabel.setText("Polling " + poller.activeCount() + ", final " + fin + ", gave up " + gaveUp);
+    }
+
+    private OrderCorrelationIndex.Timeline selected() {
+        int row = table.getSelectedRow();
+        return row >= 0 && row < model.rows.size() ? model.rows.get(row) : null;
+    }
+
+    private void showSelected() {
+        OrderCorrelationIndex.Timeline t = selected();
+        if (t == null) {
+            detail.setText("");
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("merchantOrderID: ").append(orEmpty(t.merchantOrderId()))
+                .append("\norderID:         ").append(orEmpty(t.orderId()))
+                .append("\nprofile:         ").append(orEmpty(t.profileName()))
+                .append("\n\n");
+        long previous = t.firstSeen();
+        for (OrderCorrelationIndex.Event e : t.events()) {
+            sb.append(TIME.format(Instant.ofEpochMilli(e.timestamp())))
+                    .append(String.format("  +%7d ms  (%8d ms)  ", e.timestamp() - previous, e.timestamp() - t.firstSeen()))
+                    .append(e.stage().label());
+            if (e.status() != null) sb.append(' ').append(e.status());
+            if (e.detail() != null) sb.append(" - ").append(e.detail());
+            sb.append('\n');
+            previous = e.timestamp();
+        }
+        detail.setText(sb.toString());
+        detail.setCaretPosition(0);
+    }
+
+    private static String orEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    private static Object millis(long value) {
+        return value < 0 ? "" : value;
+    }
+
+    private static final class TimelineModel extends AbstractTableModel {
+        private final String[] columns = {"Merchant Order ID", "Order ID", "Type", "Profile", "Status", "Events",
+                "Last seen", "To accept (ms)", "To final (ms)"};
+        private List<OrderCorrelationIndex.Timeline> rows = List.of();
+
+        void set(List<OrderCorrelationIndex.Timeline> timelines) {
+            rows = timelines;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return rows.size(); }
+        @Override public int getColumnCount() { return columns.length; }
+        @Override public String getColumnName(int c) { return columns[c]; }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            OrderCorrelationIndex.Timeline t = rows.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> orEmpty(t.merchantOrderId());
+                case 1 -> orEmpty(t.orderId());
+                case 2 -> t.type();
+                case 3 -> orEmpty(t.profileName());
+                case 4 -> t.lastStatus();
+                case 5 -> t.events().size();
+                case 6 -> TIME.format(Instant.ofEpochMilli(t.lastSeen()));
+                case 7 -> millis(t.millisUntil(OrderCorrelationIndex.Stage.ACCEPTED));
+                default -> millis(t.millisUntilFinal());
+            };
+        }
+    }
+}
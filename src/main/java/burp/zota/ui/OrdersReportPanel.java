@@ -0,0 +1,178 @@
+package burp.zota.ui;
+
+import burp.zota.report.OrdersReportStore;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter and aggregate view over the ingested orders-report rows. Filtering runs over the columnar arrays,
+ * and the table reads cells straight from them, so it stays responsive with hundreds of thousands of orders.
+ */
+public class OrdersReportPanel {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+    private static final String ANY = "(any)";
+
+    private final JPanel root = new JPanel(new BorderLayout());
+    private final OrdersReportStore store;
+    private final Runnable fetchRange;
+    private final ReportModel model = new ReportModel();
+    private final JComboBox<String> statusCombo = new JComboBox<>();
+    private final JComboBox<String> currencyCombo = new JComboBox<>();
+    private final JComboBox<String> typeCombo = new JComboBox<>();
+    private final JTextField idField = new JTextField(18);
+    private final JLabel summary = new JLabel();
+
+    public OrdersReportPanel(OrdersReportStore store) {
+        this(store, null);
+    }
+
+    /**
+     * @param fetchRange opens the chunked range download; no button is shown when null.
+     */
+    public OrdersReportPanel(OrdersReportStore store, Runnable fetchRange) {
+        this.store = store;
+        this.fetchRange = fetchRange;
+        buildUI();
+    }
+
+    public JComponent getRoot() {
+        return root;
+    }
+
+    private void buildUI() {
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton btnRefresh = new JButton("Refresh");
+        JButton btnClear = new JButton("Clear");
+        bar.add(new JLabel("Status:"));
+        bar.add(statusCombo);
+        bar.add(new JLabel("Currency:"));
+        bar.add(currencyCombo);
+        bar.add(new JLabel("Type:"));
+        bar.add(typeCombo);
+        bar.add(new JLabel("Order ID:"));
+        bar.add(idField);
+        bar.add(btnRefresh);
+        bar.add(btnClear);
+        if (fetchRange != null) {
+            JButton btnFetch = new JButton("Fetch range…");
+            btnFetch.addActionListener(e -> fetchRange.run());
+            bar.add(btnFetch);
+        }
+
+        statusCombo.addActionListener(e -> applyFilter());
+        currencyCombo.addActionListener(e -> applyFilter());
+        typeCombo.addActionListener(e -> applyFilter());
+        idField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void removeUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void changedUpdate(DocumentEvent e) { applyFilter(); }
+        });
+        btnRefresh.addActionListener(e -> refresh());
+        btnClear.addActionListener(e -> {
+            store.clear();
+            refresh();
+        });
+
+        summary.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        JPanel top = new JPanel(new BorderLayout());
+        top.add(bar, BorderLayout.NORTH);
+        top.add(summary, BorderLayout.SOUTH);
+
+        root.add(top, BorderLayout.NORTH);
+        root.add(new JScrollPane(new JTable(model)), BorderLayout.CENTER);
+        refresh();
+    }
+
+    /**
+     * Reloads dictionary choices (keeping selections) and re-applies the filter to the latest snapshot.
+     */
+    private void refresh() {
+        reloadCombo(statusCombo, store.statuses().values());
+        reloadCombo(currencyCombo, store.currencies().values());
+        reloadCombo(typeCombo, store.types().values());
+        applyFilter();
+    }
+
+    private void applyFilter() {
+        OrdersReportStore.Snapshot snapshot = store.snapshot();
+        OrdersReportStore.Query q = store.query(snapshot,
+                codeOf(statusCombo, store.statuses()),
+                codeOf(currencyCombo, store.currencies()),
+                codeOf(typeCombo, store.types()),
+                idField.getText());
+        model.set(snapshot, q);
+        StringBuilder sb = new StringBuilder();
+        sb.append(q.count()).append(" of ").append(snapshot.size()).append(" orders");
+        if (!q.totalsByCurrency().isEmpty()) {
+            sb.append(" | totals: ");
+            boolean first = true;
+            for (Map.Entry<String, Long> e : q.totalsByCurrency().entrySet()) {
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append(e.getKey().isEmpty() ? "?" : e.getKey()).append(' ').append(OrdersReportStore.formatAmount(e.getValue()));
+            }
+        }
+        if (!q.countsByStatus().isEmpty()) {
+            sb.append(" | by status: ").append(q.countsByStatus());
+        }
+        summary.setText(sb.toString());
+    }
+
+    private static void reloadCombo(JComboBox<String> combo, List<String> values) {
+        Object selected = combo.getSelectedItem();
+        DefaultComboBoxModel<String> m = new DefaultComboBoxModel<>();
+        m.addElement(ANY);
+        for (String v : values) {
+            m.addElement(v);
+        }
+        m.setSelectedItem(selected != null && values.contains(selected) ? selected : ANY);
+        combo.setModel(m);
+    }
+
+    private static int codeOf(JComboBox<String> combo, OrdersReportStore.Dictionary dict) {
+        Object selected = combo.getSelectedItem();
+        if (selected == null || ANY.equals(selected)) {
+            return -1;
+        }
+        return dict.values().indexOf(selected);
+    }
+
+    private final class ReportModel extends AbstractTableModel {
+        private final String[] columns = {"Order ID", "Merchant Order ID", "Type", "Status", "Amount", "Currency", "Created (UTC)"};
+        private OrdersReportStore.Snapshot snapshot;
+        private OrdersReportStore.Query query;
+
+        void set(OrdersReportStore.Snapshot s, OrdersReportStore.Query q) {
+            snapshot = s;
+            query = q;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return query == null ? 0 : query.count(); }
+        @Override public int getColumnCount() { return columns.length; }
+        @Override public String getColumnName(int c) { return columns[c]; }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            int i = query.rows()[rowIndex];
+            return switch (columnIndex) {
+                case 0 -> snapshot.orderIds()[i];
+                case 1 -> snapshot.merchantOrderIds()[i];
+                case 2 -> store.types().value(snapshot.types()[i]);
+                case 3 -> store.statuses().value(snapshot.statuses()[i]);
+                case 4 -> OrdersReportStore.formatAmount(snapshot.amounts()[i]);
+                case 5 -> store.currencies().value(snapshot.currencies()[i]);
+                default -> snapshot.created()[i] == 0 ? "" : TIME.format(Instant.ofEpochSecond(snapshot.created()[i]));
+            };
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package burp.zota.ui;
+
+import burp.zota.profile.ProfileManager;
+import burp.zota.profile.ZotaProfile;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Searchable profile list. The search box goes through {@link ProfileManager#search}, and the {@link JList}
+ * has a fixed cell height so it only lays out and paints the visible rows, however many profiles match.
+ */
+public class ProfileListView {
+    private static final int MAX_ROWS = 10_000;
+
+    private final JPanel root = new JPanel(new BorderLayout(0, 4));
+    private final ProfileManager profiles;
+    private final ProfileModel model = new ProfileModel();
+    private final JList<ZotaProfile> list = new JList<>(model);
+    private final JTextField searchField = new JTextField(24);
+    private final JLabel countLabel = new JLabel();
+
+    public ProfileListView(ProfileManager profiles, int selectionMode) {
+        this.profiles = profiles;
+        buildUI(selectionMode);
+    }
+
+    public JComponent getRoot() {
+        return root;
+    }
+
+    public JList<ZotaProfile> list() {
+        return list;
+    }
+
+    public List<ZotaProfile> selected() {
+        return list.getSelectedValuesList();
+    }
+
+    private void buildUI(int selectionMode) {
+        JPanel bar = new JPanel(new BorderLayout(4, 0));
+        bar.add(new JLabel("Search:"), BorderLayout.WEST);
+        bar.add(searchField, BorderLayout.CENTER);
+        bar.add(countLabel, BorderLayout.EAST);
+        searchField.setToolTipText("Name, MerchantID, EndpointID or API host; every word must match a prefix");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { refresh(); }
+            @Override public void removeUpdate(DocumentEvent e) { refresh(); }
+            @Override public void changedUpdate(DocumentEvent e) { refresh(); }
+        });
+
+        ZotaProfile prototype = new ZotaProfile("prototype-profile-name", "0000000000", "", "https://api.zotapay-stage.com");
+        prototype.setDefaultEndpointId("000000");
+        list.setSelectionMode(selectionMode);
+        list.setCellRenderer(new ProfileRenderer());
+        list.setPrototypeCellValue(prototype);
+        list.setVisibleRowCount(8);
+
+        root.add(bar, BorderLayout.NORTH);
+        root.add(new JScrollPane(list), BorderLayout.CENTER);
+        refresh();
+    }
+
+    /**
+     * Re-runs the current search, keeping the selection where the selected profiles still match.
+     */
+    public void refresh() {
+        List<ZotaProfile> previous = list.getSelectedValuesList();
+        ProfileManager.Page page = profiles.search(searchField.getText(), 0, MAX_ROWS);
+        model.set(page.profiles());
+        countLabel.setText(page.total() > page.profiles().size()
+                ? page.profiles().size() + " of " + page.total()
+                : page.total() + " profile(s)");
+        for (ZotaProfile p : previous) {
+            select(p.getName(), true);
+        }
+    }
+
+    /**
+     * Selects the named profile if it is in the current results and scrolls to it.
+     */
+    public void select(String name, boolean add) {
+        for (int i = 0; i < model.getSize(); i++) {
+            if (model.getElementAt(i).getName().equals(name)) {
+                if (add) list.addSelectionInterval(i, i); else list.setSelectedIndex(i);
+                list.ensureIndexIsVisible(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Shows a modal search-and-pick dialog.
+     *
+     * @return the chosen profiles, or an empty list when cancelled.
+     */
+    public static List<ZotaProfile> pick(Component parent, ProfileManager profiles, String title, boolean multiple) {
+        ProfileListView view = new ProfileListView(profiles, multiple
+                ? ListSelectionModel.MULTIPLE_INTERVAL_SELECTION : ListSelectionModel.SINGLE_SELECTION);
+        view.getRoot().setPreferredSize(new Dimension(460, 320));
+        int choice = JOptionPane.showConfirmDialog(parent, view.getRoot(), title,
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        return choice == JOptionPane.OK_OPTION ? view.selected() : List.of();
+    }
+
+    static String describe(ZotaProfile p) {
+        StringBuilder sb = new StringBuilder(p.getName() == null ? "(unnamed)" : p.getName());
+        if (p.getMerchantId() != null && !p.getMerchantId().isEmpty()) {
+            sb.append("  ·  ").append(p.getMerchantId());
+        }
+        if (p.getDefaultEndpointId() != null && !p.getDefaultEndpointId().isEmpty()) {
+            sb.append(" / ").append(p.getDefaultEndpointId());
+        }
+        return sb.toString();
+    }
+
+    private final class ProfileRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+            ZotaProfile p = (ZotaProfile) value;
+            String text = describe(p);
+            ZotaProfile active = profiles.getActiveProfile();
+            if (active != null && active.getName().equals(p.getName())) {
+                text += "  (active)";
+            }
+            return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+        }
+    }
+
+    private static final class ProfileModel extends AbstractListModel<ZotaProfile> {
+        private List<ZotaProfile> rows = List.of();
+
+        void set(List<ZotaProfile> profiles) {
+            int old = rows.size();
+            rows = profiles;
+            if (old > 0) fireIntervalRemoved(this, 0, old - 1);
+            if (!rows.isEmpty()) fireIntervalAdded(this, 0, rows.size() - 1);
+        }
+
+        @Override public int getSize() { return rows.size(); }
+        @Override public ZotaProfile getElementAt(int index) { return rows.get(index); }
+    }
+}
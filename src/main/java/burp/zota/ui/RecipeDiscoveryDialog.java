@@ -0,0 +1,165 @@
+package burp.zota.ui;
+
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.zota.controller.ZotaController;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.recipe.RecipeDiscovery;
+import burp.zota.recipe.RecipeSample;
+import burp.zota.recipe.SignatureRecipe;
+import burp.zota.util.ZotaLogger;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs {@link RecipeDiscovery} on a request with a known-valid signature and offers each matching formula
+ * as a signing recipe. Each search runs on its own {@link ZotaExecutors.Task#DISCOVERY} lane and is cancelled
+ * when the dialog closes or the extension unloads.
+ */
+public class RecipeDiscoveryDialog {
+
+    private RecipeDiscoveryDialog() {}
+
+    public static void show(Frame owner, ZotaController controller, ZotaExecutors executors, HttpRequest request,
+                            ZotaProfile profile) {
+        RecipeSample sample;
+        try {
+            sample = RecipeSample.from(request, profile);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(owner, e.getMessage(), "Discover signature recipe", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        JDialog dialog = new JDialog(owner, "Discover signature recipe (" + profile.getName() + ")", false);
+        JSpinner maxFields = new JSpinner(new SpinnerNumberModel(RecipeDiscovery.DEFAULT_MAX_FIELDS, 1, RecipeDiscovery.MAX_FIELDS, 1));
+        JButton btnSearch = new JButton("Search");
+        JButton btnCancel = new JButton("Cancel");
+        JLabel status = new JLabel(sample.candidates().size() + " value(s) in request and profile");
+        DefaultListModel<SignatureRecipe> results = new DefaultListModel<>();
+        JList<SignatureRecipe> list = new JList<>(results);
+        JTextArea detail = new JTextArea(6, 80);
+        detail.setEditable(false);
+        detail.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JButton btnAdd = new JButton("Add as signing recipe");
+        JButton btnCopy = new JButton("Copy");
+        btnCancel.setEnabled(false);
+
+        RecipeDiscovery[] running = new RecipeDiscovery[1];
+        Runnable cancel = () -> {
+            if (running[0] != null) running[0].cancel();
+        };
+        Runnable unregister = executors.onClose("recipe discovery", cancel);
+        btnSearch.addActionListener(e -> {
+            RecipeDiscovery discovery = new RecipeDiscovery(sample.candidates(), sample.signature(), (Integer) maxFields.getValue());
+            ZotaExecutors.Lane lane = executors.lane(ZotaExecutors.Task.DISCOVERY);
+            CompletableFuture<RecipeDiscovery.Report> search;
+            try {
+                search = discovery.start(lane);
+            } catch (IllegalArgumentException | RejectedExecutionException ex) {
+                lane.shutdown();
+                status.setText(ex.getMessage());
+                return;
+            }
+            running[0] = discovery;
+            results.clear();
+            btnSearch.setEnabled(false);
+            btnCancel.setEnabled(true);
+            status.setText(String.format("Searching %,d orderings…", discovery.searchSize()));
+            search.whenComplete((report, error) -> {
+                lane.shutdown();
+                SwingUtilities.invokeLater(() -> {
+                    btnSearch.setEnabled(true);
+                    btnCancel.setEnabled(false);
+                    if (error != null) {
+                        status.setText("Search failed: " + error.getMessage());
+                        return;
+                    }
+                    for (List<SignatureRecipe.Source> parts : report.matches()) {
+                        results.addElement(sample.toRecipe(parts));
+                    }
+                    status.setText(String.format("%d match(es), %,d orderings in %d ms%s", report.matches().size(),
+                            report.tried(), report.elapsedMillis(), report.complete() ? "" : " (stopped early)"));
+                    detail.setText(describe(report));
+                    if (!results.isEmpty()) list.setSelectedIndex(0);
+                });
+            });
+        });
+        btnCancel.addActionListener(e -> cancel.run());
+        btnAdd.addActionListener(e -> {
+            SignatureRecipe recipe = list.getSelectedValue();
+            if (recipe != null) {
+                controller.addSigningRecipe(recipe);
+                ZotaLogger.info("Added signing recipe: " + recipe);
+            }
+        });
+        btnCopy.addActionListener(e -> {
+            StringBuilder sb = new StringBuilder();
+            for (SignatureRecipe recipe : list.getSelectedValuesList()) {
+                sb.append(recipe).append('\n');
+            }
+            Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(sb.toString()), null);
+        });
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(new JLabel("Max fields:"));
+        top.add(maxFields);
+        top.add(btnSearch);
+        top.add(btnCancel);
+        top.add(status);
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(new JScrollPane(detail), BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(btnCopy);
+        buttons.add(btnAdd);
+        bottom.add(buttons, BorderLayout.SOUTH);
+
+        dialog.getContentPane().setLayout(new BorderLayout());
+        dialog.getContentPane().add(top, BorderLayout.NORTH);
+        dialog.getContentPane().add(new JScrollPane(list), BorderLayout.CENTER);
+        dialog.getContentPane().add(bottom, BorderLayout.SOUTH);
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancel.run();
+                unregister.run();
+            }
+        });
+        dialog.setSize(1000, 480);
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+    }
+
+    private static String describe(RecipeDiscovery.Report report) {
+        StringBuilder sb = new StringBuilder();
+        if (!report.empty().isEmpty()) {
+            sb.append("Empty (may appear anywhere in the formula): ");
+            appendSources(sb, report.empty());
+            sb.append('\n');
+        }
+        for (Map.Entry<SignatureRecipe.Source, List<SignatureRecipe.Source>> e : report.aliases().entrySet()) {
+            sb.append("Same value as ").append(e.getKey()).append(": ");
+            appendSources(sb, e.getValue());
+            sb.append('\n');
+        }
+        if (report.matches().isEmpty()) {
+            sb.append("No ordering matched. Try more fields, or check that the signature is valid for this profile.\n");
+        }
+        return sb.toString();
+    }
+
+    private static void appendSources(StringBuilder sb, List<SignatureRecipe.Source> sources) {
+        for (int i = 0; i < sources.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(sources.get(i));
+        }
+    }
+}
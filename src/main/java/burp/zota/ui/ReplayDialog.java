@@ -0,0 +1,160 @@
+package burp.zota.ui;
+
+import burp.zota.profile.ZotaProfile;
+import burp.zota.replay.CallbackReplayer;
+import burp.zota.replay.CallbackTemplate;
+import burp.zota.util.ZotaLogger;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configures and runs a {@link CallbackReplayer} from a captured callback or final redirect, showing live
+ * progress and the final latency and error report.
+ */
+public class ReplayDialog {
+
+    private ReplayDialog() {}
+
+    public static void show(Frame owner, CallbackTemplate template, ZotaProfile profile, CallbackReplayer replayer) {
+        boolean callback = template.kind() == CallbackReplayer.Kind.CALLBACK;
+        JDialog dialog = new JDialog(owner, "Replay " + (callback ? "callbacks" : "final redirects") + " (" + profile.getName() + ")", false);
+        JTextField urlField = new JTextField(template.url(), 48);
+        JTextField statusesField = new JTextField("PROCESSING, APPROVED", 24);
+        JTextField amountsField = new JTextField(callback ? template.field("amount") : "", 24);
+        amountsField.setEnabled(callback);
+        JSpinner orders = new JSpinner(new SpinnerNumberModel(100, 0, 1_000_000, 10));
+        JSpinner repeats = new JSpinner(new SpinnerNumberModel(1, 1, 1000, 1));
+        JSpinner rate = new JSpinner(new SpinnerNumberModel(20.0, 0.1, 10_000.0, 5.0));
+        JSpinner concurrency = new JSpinner(new SpinnerNumberModel(8, 1, 1024, 1));
+        JButton btnStart = new JButton("Start");
+        JButton btnStop = new JButton("Stop");
+        JLabel progress = new JLabel(" ");
+        JTextArea report = new JTextArea(14, 70);
+        report.setEditable(false);
+        report.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        btnStop.setEnabled(false);
+
+        JPanel form = new JPanel(new GridBagLayout());
+        GridBagConstraints gc = new GridBagConstraints();
+        gc.insets = new Insets(2, 4, 2, 4);
+        gc.anchor = GridBagConstraints.WEST;
+        int row = 0;
+        row = addRow(form, gc, row, "Target URL:", urlField);
+        row = addRow(form, gc, row, "Statuses (in order):", statusesField);
+        row = addRow(form, gc, row, "Amounts (round-robin):", amountsField);
+        row = addRow(form, gc, row, "Orders (0 = captured IDs):", orders);
+        row = addRow(form, gc, row, "Sends per message:", repeats);
+        row = addRow(form, gc, row, "Rate (msg/s):", rate);
+        addRow(form, gc, row, "Max concurrency:", concurrency);
+
+        CallbackReplayer.Run[] running = new CallbackReplayer.Run[1];
+        Timer ticker = new Timer(500, e -> {
+            CallbackReplayer.Run run = running[0];
+            if (run != null) {
+                progress.setText("Sent " + run.sent() + " / " + run.total() + ", completed " + run.completed() + ", 2xx " + run.ok());
+            }
+        });
+
+        btnStart.addActionListener(e -> {
+            List<CallbackReplayer.Message> messages;
+            try {
+                CallbackTemplate.Plan plan = new CallbackTemplate.Plan(split(statusesField.getText()), split(amountsField.getText()),
+                        (Integer) orders.getValue(), (Integer) repeats.getValue());
+                messages = template.expand(plan, profile, urlField.getText().trim());
+            } catch (Exception ex) {
+                report.setText("Could not build messages: " + ex.getMessage());
+                return;
+            }
+            CallbackReplayer.Settings settings = new CallbackReplayer.Settings((Double) rate.getValue(), (Integer) concurrency.getValue());
+            CallbackReplayer.Run run = replayer.start(messages, settings);
+            running[0] = run;
+            btnStart.setEnabled(false);
+            btnStop.setEnabled(true);
+            report.setText("");
+            ticker.start();
+            new SwingWorker<CallbackReplayer.Report, Void>() {
+                @Override
+                protected CallbackReplayer.Report doInBackground() throws Exception {
+                    return run.await();
+                }
+
+                @Override
+                protected void done() {
+                    ticker.stop();
+                    btnStart.setEnabled(true);
+                    btnStop.setEnabled(false);
+                    try {
+                        CallbackReplayer.Report r = get();
+                        report.setText(describe(r));
+                        report.setCaretPosition(0);
+                        ZotaLogger.info("Replay finished: " + r.completed() + " sent, " + r.ok() + " 2xx, p99 "
+                                + String.format("%.1f", r.latency().p99()) + " ms");
+                    } catch (Exception ex) {
+                        report.setText("Replay failed: " + ex.getMessage());
+                    }
+                }
+            }.execute();
+        });
+        btnStop.addActionListener(e -> {
+            if (running[0] != null) running[0].cancel();
+        });
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.add(btnStart);
+        buttons.add(btnStop);
+        buttons.add(progress);
+        JPanel north = new JPanel(new BorderLayout());
+        north.add(form, BorderLayout.CENTER);
+        north.add(buttons, BorderLayout.SOUTH);
+
+        dialog.getContentPane().setLayout(new BorderLayout());
+        dialog.getContentPane().add(north, BorderLayout.NORTH);
+        dialog.getContentPane().add(new JScrollPane(report), BorderLayout.CENTER);
+        dialog.pack();
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+    }
+
+    private static int addRow(JPanel panel, GridBagConstraints gc, int row, String label, JComponent field) {
+        gc.gridx = 0; gc.gridy = row; panel.add(new JLabel(label), gc);
+        gc.gridx = 1; panel.add(field, gc);
+        return row + 1;
+    }
+
+    private static List<String> split(String text) {
+        List<String> out = new ArrayList<>();
+        for (String part : text.split("[,\\s]+")) {
+            if (!part.isBlank()) out.add(part.trim());
+        }
+        return out;
+    }
+
+    private static String describe(CallbackReplayer.Report r) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Messages:   %d of %d completed%s in %d ms (%.1f msg/s)%n", r.completed(), r.total(),
+                r.cancelled() ? " (stopped)" : "", r.elapsedMillis(), r.achievedRate()));
+        sb.append(String.format("2xx:        %d%n%n", r.ok()));
+        sb.append("                p50       p90       p99       max   (ms)\n");
+        appendPercentiles(sb, "Latency", r.latency());
+        appendPercentiles(sb, "Service", r.service());
+        sb.append("\nLatency counts from each message's scheduled time; service time from the moment it was sent.\n\nStatuses:\n");
+        for (Map.Entry<Integer, Integer> e : r.statusCounts().entrySet()) {
+            sb.append(String.format("  HTTP %d: %d%n", e.getKey(), e.getValue()));
+        }
+        if (!r.errors().isEmpty()) {
+            sb.append("Errors:\n");
+            for (Map.Entry<String, Integer> e : r.errors().entrySet()) {
+                sb.append(String.format("  %s: %d%n", e.getKey(), e.getValue()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendPercentiles(StringBuilder sb, String label, CallbackReplayer.Percentiles p) {
+        sb.append(String.format("%-10s %9.1f %9.1f %9.1f %9.1f%n", label, p.p50(), p.p90(), p.p99(), p.max()));
+    }
+}
@@ -0,0 +1,157 @@
+package burp.zota.ui;
+
+import burp.zota.profile.ZotaProfile;
+import burp.zota.report.OrdersReportFetcher;
+import burp.zota.util.ZotaLogger;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fetches an orders report for a date range in day chunks with an {@link OrdersReportFetcher} and saves the
+ * merged CSV, showing chunk progress and the final summary.
+ */
+public class ReportFetchDialog {
+
+    private ReportFetchDialog() {}
+
+    /**
+     * @param fetchers builds a fetcher for the profile and the report filters entered in the dialog.
+     */
+    public static void show(Frame owner, ZotaProfile profile, Function<Map<String, String>, OrdersReportFetcher> fetchers) {
+        JDialog dialog = new JDialog(owner, "Fetch orders report (" + profile.getName() + ")", false);
+        LocalDate today = LocalDate.now();
+        JTextField fromField = new JTextField(today.minusDays(30).toString(), 10);
+        JTextField toField = new JTextField(today.toString(), 10);
+        JTextField dateTypeField = new JTextField("created", 10);
+        JTextField statusesField = new JTextField("", 24);
+        JTextField typesField = new JTextField("", 24);
+        JTextField endpointIdsField = new JTextField("", 24);
+        JSpinner days = new JSpinner(new SpinnerNumberModel(1, 1, 366, 1));
+        JSpinner concurrency = new JSpinner(new SpinnerNumberModel(4, 1, 64, 1));
+        JSpinner attempts = new JSpinner(new SpinnerNumberModel(3, 1, 10, 1));
+        JButton btnStart = new JButton("Fetch and save…");
+        JLabel progress = new JLabel(" ");
+        JTextArea report = new JTextArea(8, 70);
+        report.setEditable(false);
+        report.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JPanel form = new JPanel(new GridBagLayout());
+        GridBagConstraints gc = new GridBagConstraints();
+        gc.insets = new Insets(2, 4, 2, 4);
+        gc.anchor = GridBagConstraints.WEST;
+        int row = 0;
+        row = addRow(form, gc, row, "From date (yyyy-MM-dd):", fromField);
+        row = addRow(form, gc, row, "To date (inclusive):", toField);
+        row = addRow(form, gc, row, "Date type:", dateTypeField);
+        row = addRow(form, gc, row, "Statuses:", statusesField);
+        row = addRow(form, gc, row, "Types:", typesField);
+        row = addRow(form, gc, row, "Endpoint IDs:", endpointIdsField);
+        row = addRow(form, gc, row, "Days per chunk:", days);
+        row = addRow(form, gc, row, "Max concurrency:", concurrency);
+        addRow(form, gc, row, "Attempts per chunk:", attempts);
+
+        btnStart.addActionListener(e -> {
+            LocalDate from;
+            LocalDate to;
+            int chunks;
+            try {
+                from = LocalDate.parse(fromField.getText().trim());
+                to = LocalDate.parse(toField.getText().trim());
+                chunks = OrdersReportFetcher.split(from, to, (Integer) days.getValue()).size();
+            } catch (Exception ex) {
+                report.setText("Invalid date range: " + ex.getMessage());
+                return;
+            }
+            JFileChooser chooser = new JFileChooser();
+            chooser.setSelectedFile(new File("orders-report-" + from + "-" + to + ".csv"));
+            if (chooser.showSaveDialog(dialog) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            File file = chooser.getSelectedFile();
+            Map<String, String> filters = new LinkedHashMap<>();
+            filters.put("dateType", dateTypeField.getText().trim());
+            filters.put("endpointIds", endpointIdsField.getText().trim());
+            filters.put("statuses", statusesField.getText().trim());
+            filters.put("types", typesField.getText().trim());
+            OrdersReportFetcher fetcher = fetchers.apply(filters);
+            OrdersReportFetcher.Settings settings = new OrdersReportFetcher.Settings((Integer) days.getValue(),
+                    (Integer) concurrency.getValue(), (Integer) attempts.getValue());
+            AtomicInteger done = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            btnStart.setEnabled(false);
+            report.setText("");
+            progress.setText("0 / " + chunks + " chunks");
+            new SwingWorker<OrdersReportFetcher.Report, Void>() {
+                @Override
+                protected OrdersReportFetcher.Report doInBackground() throws Exception {
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+                        return fetcher.fetch(from, to, settings, out, (chunk, tries, error) -> {
+                            done.incrementAndGet();
+                            if (error != null) failed.incrementAndGet();
+                            SwingUtilities.invokeLater(() -> progress.setText(done.get() + " / " + chunks + " chunks"
+                                    + (failed.get() > 0 ? ", " + failed.get() + " failed" : "")));
+                        });
+                    }
+                }
+
+                @Override
+                protected void done() {
+                    btnStart.setEnabled(true);
+                    try {
+                        OrdersReportFetcher.Report r = get();
+                        report.setText(describe(r, file));
+                        report.setCaretPosition(0);
+                        ZotaLogger.info("Orders report fetched: " + r.rows() + " rows in " + r.chunks() + " chunks to "
+                                + file.getName() + (r.failed().isEmpty() ? "" : " (" + r.failed().size() + " chunks failed)"));
+                    } catch (Exception ex) {
+                        report.setText("Fetch failed: " + ex.getMessage());
+                    }
+                }
+            }.execute();
+        });
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.add(btnStart);
+        buttons.add(progress);
+        JPanel north = new JPanel(new BorderLayout());
+        north.add(form, BorderLayout.CENTER);
+        north.add(buttons, BorderLayout.SOUTH);
+
+        dialog.getContentPane().setLayout(new BorderLayout());
+        dialog.getContentPane().add(north, BorderLayout.NORTH);
+        dialog.getContentPane().add(new JScrollPane(report), BorderLayout.CENTER);
+        dialog.pack();
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+    }
+
+    private static int addRow(JPanel panel, GridBagConstraints gc, int row, String label, JComponent field) {
+        gc.gridx = 0; gc.gridy = row; panel.add(new JLabel(label), gc);
+        gc.gridx = 1; panel.add(field, gc);
+        return row + 1;
+    }
+
+    private static String describe(OrdersReportFetcher.Report r, File file) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Saved to:    %s%n", file.getAbsolutePath()));
+        sb.append(String.format("Chunks:      %d (%d retries) in %d ms%n", r.chunks(), r.retries(), r.elapsedMillis()));
+        sb.append(String.format("Rows:        %d (%d duplicates dropped), %d bytes%n", r.rows(), r.duplicates(), r.bytes()));
+        if (!r.failed().isEmpty()) {
+            sb.append("\nMissing (failed after all attempts):\n");
+            for (String f : r.failed()) {
+                sb.append("  ").append(f).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package burp.zota.ui;
+
+import burp.zota.trace.SigningTrace;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Inspector for the {@link SigningTrace} ring. The ring is only read when the user takes a snapshot; filtering
+ * and copying then work on that frozen copy while signing carries on.
+ */
+public class TracePanel {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final String[] COLUMNS = {"Time", "Msg", "Tool", "Endpoint", "Profile", "Signature", "Included fields",
+            "Empty fields", "Sign (µs)", "Changed"};
+
+    private final JPanel root = new JPanel(new BorderLayout());
+    private final SigningTrace trace;
+    private final TraceModel model = new TraceModel();
+    private final JTable table = new JTable(model);
+    private final JTextField filterField = new JTextField(24);
+    private final JLabel countLabel = new JLabel();
+
+    public TracePanel(SigningTrace trace) {
+        this.trace = trace;
+        buildUI();
+    }
+
+    public JComponent getRoot() {
+        return root;
+    }
+
+    private void buildUI() {
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton btnSnapshot = new JButton("Snapshot");
+        JButton btnCopy = new JButton("Copy selected");
+        bar.add(btnSnapshot);
+        bar.add(new JLabel("Filter:"));
+        bar.add(filterField);
+        bar.add(btnCopy);
+        bar.add(countLabel);
+
+        btnSnapshot.addActionListener(e -> snapshot());
+        btnCopy.addActionListener(e -> copySelected());
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void removeUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void changedUpdate(DocumentEvent e) { applyFilter(); }
+        });
+
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        table.getColumnModel().getColumn(5).setPreferredWidth(420);
+        root.add(bar, BorderLayout.NORTH);
+        root.add(new JScrollPane(table), BorderLayout.CENTER);
+        snapshot();
+    }
+
+    private void snapshot() {
+        model.setEvents(trace.snapshot());
+        applyFilter();
+    }
+
+    private void applyFilter() {
+        model.filter(filterField.getText().trim().toLowerCase(Locale.ROOT));
+        countLabel.setText(model.getRowCount() + " / " + model.events.size() + " events (" + trace.recorded()
+                + " recorded, ring holds " + trace.capacity() + ")");
+    }
+
+    /**
+     * Copies the selected rows, or all visible rows if none are selected, as tab-separated text with a header.
+     */
+    private void copySelected() {
+        int[] rows = table.getSelectedRows();
+        if (rows.length == 0) {
+            rows = new int[model.getRowCount()];
+            for (int i = 0; i < rows.length; i++) rows[i] = i;
+        }
+        StringBuilder sb = new StringBuilder(String.join("\t", COLUMNS)).append('\n');
+        for (int row : rows) {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (c > 0) sb.append('\t');
+                sb.append(model.getValueAt(row, c));
+            }
+            sb.append('\n');
+        }
+        Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(sb.toString()), null);
+        countLabel.setText("Copied " + rows.length + " event(s)");
+    }
+
+    private static final class TraceModel extends AbstractTableModel {
+        private List<SigningTrace.Event> events = List.of();
+        private String[] haystacks = new String[0];
+        private int[] view = new int[0];
+        private int viewSize;
+
+        void setEvents(List<SigningTrace.Event> snapshot) {
+            events = snapshot;
+            haystacks = new String[snapshot.size()];
+            for (int i = 0; i < snapshot.size(); i++) {
+                SigningTrace.Event e = snapshot.get(i);
+                haystacks[i] = (e.messageId() + " " + e.tool() + ' ' + (e.endpoint() == null ? "" : e.endpoint().label()) + ' '
+                        + e.profile() + ' ' + e.signature() + ' ' + String.join(",", e.emptyFields())).toLowerCase(Locale.ROOT);
+            }
+            view = new int[snapshot.size()];
+        }
+
+        void filter(String text) {
+            int n = 0;
+            for (int i = 0; i < events.size(); i++) {
+                if (!text.isEmpty() && !haystacks[i].contains(text)) continue;
+                view[n++] = i;
+            }
+            viewSize = n;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return viewSize; }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            SigningTrace.Event e = events.get(view[rowIndex]);
+            return switch (columnIndex) {
+                case 0 -> TIME.format(Instant.ofEpochMilli(e.timestamp()));
+                case 1 -> e.messageId() < 0 ? "" : e.messageId();
+                case 2 -> e.tool() == null ? "" : e.tool().name();
+                case 3 -> e.endpoint() == null ? "" : e.endpoint().label();
+                case 4 -> e.profile();
+                case 5 -> e.signature();
+                case 6 -> String.join(", ", e.includedFields());
+                case 7 -> String.join(", ", e.emptyFields());
+                case 8 -> e.elapsedNanos() / 1_000;
+                default -> e.modified() ? "yes" : "no";
+            };
+        }
+    }
+}
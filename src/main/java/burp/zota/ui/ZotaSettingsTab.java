@@ -1,18 +1,35 @@
 package burp.zota.ui;
 
 import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.ToolType;
 import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.zota.budget.LatencyBudget;
+import burp.zota.config.ScopeRule;
+import burp.zota.config.ZotaConfig;
 import burp.zota.controller.ZotaController;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.pacing.RatePacer;
 import burp.zota.profile.ZotaProfile;
+import burp.zota.report.MontoyaReportTransport;
+import burp.zota.report.OrdersReportFetcher;
 import burp.zota.sample.SampleFactory;
+import burp.zota.service.SigningService;
 import burp.zota.util.ZotaLogger;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import javax.swing.border.EmptyBorder;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Extension settings panel used to manage profiles, configure auto-signing behaviour, and generate sample requests.
@@ -23,8 +40,7 @@ public class ZotaSettingsTab {
     private final MontoyaApi api;
     private final burp.zota.ZotaExtension ext;
 
-    private final DefaultComboBoxModel<String> profileModel = new DefaultComboBoxModel<>();
-    private JComboBox<String> profileCombo;
+    private ProfileListView profileList;
     private JTextField nameField;
     private JTextField merchantIdField;
     private JPasswordField secretField;
@@ -40,6 +56,15 @@ public class ZotaSettingsTab {
         refreshProfiles();
     }
 
+    /**
+     * Runs {@code refresh} every two seconds on the EDT until the extension unloads.
+     */
+    private void refreshEvery2s(Runnable refresh) {
+        Timer timer = new Timer(2000, e -> refresh.run());
+        timer.start();
+        ext.getExecutors().onClose("settings refresh timer", timer::stop);
+    }
+
     private JPanel createProfilesPanel() {
         JPanel panel = new JPanel(new GridBagLayout());
         panel.setBorder(new TitledBorder("Profiles"));
@@ -48,20 +73,29 @@ public class ZotaSettingsTab {
         gc.anchor = GridBagConstraints.WEST;
         gc.fill = GridBagConstraints.NONE;
 
-        profileCombo = new JComboBox<>(profileModel);
-        profileCombo.addActionListener(e -> {
-            String sel = (String) profileCombo.getSelectedItem();
-            if (sel != null) {
-                controller.selectActiveProfile(sel);
+        profileList = new ProfileListView(controller.profiles(), ListSelectionModel.SINGLE_SELECTION);
+        profileList.list().addListSelectionListener(e -> {
+            ZotaProfile sel = profileList.list().getSelectedValue();
+            ZotaProfile act = controller.activeProfile();
+            if (!e.getValueIsAdjusting() && sel != null && (act == null || !act.getName().equals(sel.getName()))) {
+                controller.selectActiveProfile(sel.getName());
                 populateFromActive();
+                profileList.list().repaint();
             }
         });
         JButton btnRemove = new JButton("Remove");
+        JButton btnImport = new JButton("Import…");
+        JButton btnExport = new JButton("Export…");
+        JPanel listButtons = new JPanel(new GridLayout(0, 1, 0, 4));
+        listButtons.add(btnRemove);
+        listButtons.add(btnImport);
+        listButtons.add(btnExport);
 
         int row = 0;
-        gc.gridx = 0; gc.gridy = row; panel.add(new JLabel("Active:"), gc);
-        gc.gridx = 1; panel.add(profileCombo, gc);
-        gc.gridx = 2; panel.add(btnRemove, gc);
+        gc.gridx = 0; gc.gridy = row; gc.anchor = GridBagConstraints.NORTHWEST; panel.add(new JLabel("Active:"), gc);
+        gc.gridx = 1; panel.add(profileList.getRoot(), gc);
+        gc.gridx = 2; panel.add(listButtons, gc);
+        gc.anchor = GridBagConstraints.WEST;
         row++;
 
         nameField = new JTextField(16);
@@ -74,7 +108,7 @@ public class ZotaSettingsTab {
         }
 
         Dimension fieldDim = new Dimension(420, nameField.getPreferredSize().height);
-        profileCombo.setPreferredSize(fieldDim);
+        profileList.getRoot().setPreferredSize(new Dimension(420, 200));
         nameField.setPreferredSize(fieldDim);
         merchantIdField.setPreferredSize(fieldDim);
         secretField.setPreferredSize(fieldDim);
@@ -97,6 +131,8 @@ public class ZotaSettingsTab {
 
         btnAdd.addActionListener((ActionEvent e) -> saveProfile());
         btnRemove.addActionListener((ActionEvent e) -> removeSelectedProfile());
+        btnImport.addActionListener((ActionEvent e) -> importProfiles());
+        btnExport.addActionListener((ActionEvent e) -> exportProfiles());
 
         return panel;
     }
@@ -108,18 +144,406 @@ public class ZotaSettingsTab {
         JCheckBox cbRepeater = new JCheckBox("Repeater", controller.getConfig().signRepeater);
         JCheckBox cbProxy = new JCheckBox("Proxy", controller.getConfig().signProxy);
         JCheckBox cbIntruder = new JCheckBox("Intruder", controller.getConfig().signIntruder);
+        JCheckBox cbScanner = new JCheckBox("Scanner", controller.getConfig().signScanner);
+        JCheckBox cbExtensions = new JCheckBox("Extensions", controller.getConfig().signExtensions);
+        JCheckBox cbSequencer = new JCheckBox("Sequencer", controller.getConfig().signSequencer);
         cbEnabled.addActionListener(e -> controller.setEnabled(cbEnabled.isSelected()));
         cbRepeater.addActionListener(e -> controller.setSignRepeater(cbRepeater.isSelected()));
         cbProxy.addActionListener(e -> controller.setSignProxy(cbProxy.isSelected()));
         cbIntruder.addActionListener(e -> controller.setSignIntruder(cbIntruder.isSelected()));
+        cbScanner.addActionListener(e -> controller.setSignScanner(cbScanner.isSelected()));
+        cbExtensions.addActionListener(e -> controller.setSignExtensions(cbExtensions.isSelected()));
+        cbSequencer.addActionListener(e -> controller.setSignSequencer(cbSequencer.isSelected()));
         panel.add(new JLabel("Auto-sign:"));
         panel.add(cbEnabled);
         panel.add(cbRepeater);
         panel.add(cbProxy);
         panel.add(cbIntruder);
+        panel.add(cbScanner);
+        panel.add(cbExtensions);
+        panel.add(cbSequencer);
+
+        JPanel verifyRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        verifyRow.add(new JLabel("Verify only (never modify):"));
+        for (ToolType tool : List.of(ToolType.REPEATER, ToolType.PROXY, ToolType.INTRUDER, ToolType.SCANNER,
+                ToolType.EXTENSIONS, ToolType.SEQUENCER)) {
+            JCheckBox cb = new JCheckBox(tool.toolName(), controller.scope().verifies(tool));
+            cb.addActionListener(e -> controller.setVerifyOnly(tool, cb.isSelected()));
+            verifyRow.add(cb);
+        }
+        panel.add(verifyRow);
+
+        JLabel scannerCount = new JLabel();
+        Runnable updateCount = () -> scannerCount.setText("Scanner re-signed: " + ext.getSigner().scannerResignedCount());
+        updateCount.run();
+        refreshEvery2s(updateCount);
+        panel.add(Box.createHorizontalStrut(12));
+        panel.add(scannerCount);
+        JCheckBox cbWarmUp = new JCheckBox("Warm up on load", controller.getConfig().warmUpOnLoad);
+        cbWarmUp.addActionListener(e -> controller.setWarmUpOnLoad(cbWarmUp.isSelected()));
+        panel.add(Box.createHorizontalStrut(12));
+        panel.add(cbWarmUp);
+        return panel;
+    }
+
+    /**
+     * Adaptive pacing switch and rates, with each profile's current rate, waits and throttled responses.
+     */
+    private JPanel createPacingPanel() {
+        JPanel panel = new JPanel(new BorderLayout(4, 4));
+        panel.setBorder(new TitledBorder("Adaptive pacing (Intruder, Scanner)"));
+        JCheckBox cbPacing = new JCheckBox("Enable", controller.getConfig().adaptivePacing);
+        JSpinner initialRate = new JSpinner(new SpinnerNumberModel(controller.getConfig().pacingInitialRate, RatePacer.MIN_RATE, 10_000.0, 1.0));
+        JSpinner maxRate = new JSpinner(new SpinnerNumberModel(controller.getConfig().pacingMaxRate, RatePacer.MIN_RATE, 10_000.0, 5.0));
+        JButton btnApply = new JButton("Apply");
+        JButton btnReset = new JButton("Reset learned rates");
+        cbPacing.addActionListener(e -> controller.setAdaptivePacing(cbPacing.isSelected()));
+        btnApply.addActionListener(e -> {
+            double initial = (Double) initialRate.getValue();
+            double max = (Double) maxRate.getValue();
+            controller.setPacingRates(initial, max);
+            ext.getPacer().configure(initial, max);
+            ZotaLogger.info("Pacing: start " + initial + "/s, max " + max + "/s");
+        });
+        btnReset.addActionListener(e -> ext.getPacer().reset());
+
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bar.add(cbPacing);
+        bar.add(new JLabel("Start (req/s):"));
+        bar.add(initialRate);
+        bar.add(new JLabel("Max (req/s):"));
+        bar.add(maxRate);
+        bar.add(btnApply);
+        bar.add(btnReset);
+
+        PacingModel model = new PacingModel();
+        JTable table = new JTable(model);
+        table.getColumnModel().getColumn(7).setPreferredWidth(260);
+        table.setPreferredScrollableViewportSize(new Dimension(760, 64));
+        Runnable refresh = () -> model.setStats(ext.getPacer().snapshot());
+        refresh.run();
+        refreshEvery2s(refresh);
+        panel.add(bar, BorderLayout.NORTH);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        return panel;
+    }
+
+    private static final class PacingModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Profile", "Rate (req/s)", "Sent", "Delayed", "Waited (ms)", "Throttled",
+                "Paused (ms)", "Last decision"};
+        private List<RatePacer.Stats> stats = List.of();
+
+        void setStats(List<RatePacer.Stats> snapshot) {
+            stats = snapshot;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return stats.size(); }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            RatePacer.Stats s = stats.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> s.profile();
+                case 1 -> String.format("%.1f", s.rate());
+                case 2 -> s.sent();
+                case 3 -> s.delayed();
+                case 4 -> s.waitedMillis();
+                case 5 -> s.throttled();
+                case 6 -> s.pausedMillis();
+                default -> s.lastDecision();
+            };
+        }
+    }
+
+    /**
+     * Per-tool latency budgets ({@code TOOL=ms}) and circuit-open sampling, with each tool's breaker state.
+     */
+    private JPanel createBudgetPanel() {
+        JPanel panel = new JPanel(new BorderLayout(4, 4));
+        panel.setBorder(new TitledBorder("Latency budget"));
+        JTextField budgetsField = new JTextField(formatBudgets(controller.getConfig().latencyBudgetsMillis), 28);
+        budgetsField.setToolTipText("Milliseconds per tool, e.g. PROXY=50, INTRUDER=200; tools not listed are not bounded");
+        JSpinner sampleEvery = new JSpinner(new SpinnerNumberModel(Math.max(1, controller.getConfig().breakerSampleEvery), 1, 10_000, 1));
+        JButton btnApply = new JButton("Apply");
+        btnApply.addActionListener(e -> {
+            Map<String, Integer> budgets;
+            try {
+                budgets = parseBudgets(budgetsField.getText());
+            } catch (IllegalArgumentException ex) {
+                ZotaLogger.error("Latency budget: " + ex.getMessage());
+                return;
+            }
+            int every = (Integer) sampleEvery.getValue();
+            controller.setLatencyBudgets(budgets, every);
+            ext.getBudget().configure(budgets, every);
+            budgetsField.setText(formatBudgets(budgets));
+            ZotaLogger.info("Latency budget: " + (budgets.isEmpty() ? "off" : formatBudgets(budgets)) + ", sampling 1 in " + every + " while open");
+        });
+
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bar.add(new JLabel("Budgets (ms):"));
+        bar.add(budgetsField);
+        bar.add(new JLabel("While open, verify 1 in:"));
+        bar.add(sampleEvery);
+        bar.add(btnApply);
+
+        BudgetModel model = new BudgetModel();
+        JTable table = new JTable(model);
+        table.setPreferredScrollableViewportSize(new Dimension(760, 48));
+        Runnable refresh = () -> model.setStats(ext.getBudget().snapshot());
+        refresh.run();
+        refreshEvery2s(refresh);
+        panel.add(bar, BorderLayout.NORTH);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        return panel;
+    }
+
+    private JPanel createServicePanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        panel.setBorder(new TitledBorder("Localhost signing service"));
+        ZotaConfig config = controller.getConfig();
+        JCheckBox cbEnabled = new JCheckBox("Serve signatures on 127.0.0.1", config.signingService);
+        JSpinner port = new JSpinner(new SpinnerNumberModel(config.signingServicePort, 1, 65_535, 1));
+        port.setEditor(new JSpinner.NumberEditor(port, "#"));
+        JTextField tokenField = new JTextField(config.signingServiceToken, 24);
+        tokenField.setEditable(false);
+        tokenField.setToolTipText("Send as the " + SigningService.TOKEN_HEADER + " header");
+        JButton btnRegenerate = new JButton("New token");
+        JButton btnApply = new JButton("Apply");
+        JLabel status = new JLabel();
+
+        Runnable apply = () -> {
+            controller.setSigningService(cbEnabled.isSelected(), (Integer) port.getValue(), tokenField.getText());
+            if (cbEnabled.isSelected()) {
+                ext.startService();
+            } else {
+                ext.getService().stop();
+            }
+            tokenField.setText(controller.getConfig().signingServiceToken);
+        };
+        btnApply.addActionListener(e -> apply.run());
+        btnRegenerate.addActionListener(e -> {
+            tokenField.setText(SigningService.newToken());
+            apply.run();
+        });
+
+        Runnable refresh = () -> {
+            SigningService service = ext.getService();
+            SigningService.Stats st = service.stats();
+            String address = service.address();
+            status.setText((address == null ? "Stopped" : "Listening on " + address) + " · " + st.requests()
+                    + " requests, " + st.signatures() + " signatures, " + st.errors() + " errors");
+        };
+        refresh.run();
+        refreshEvery2s(refresh);
+
+        panel.add(cbEnabled);
+        panel.add(new JLabel("Port:"));
+        panel.add(port);
+        panel.add(new JLabel("Token:"));
+        panel.add(tokenField);
+        panel.add(btnRegenerate);
+        panel.add(btnApply);
+        panel.add(status);
+        return panel;
+    }
+
+    private static String formatBudgets(Map<String, Integer> budgets) {
+        StringBuilder sb = new StringBuilder();
+        if (budgets != null) {
+            for (Map.Entry<String, Integer> e : budgets.entrySet()) {
+                if (sb.length() > 0) sb.append(", ");
+                sb.append(e.getKey()).append('=').append(e.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException for an entry that is not {@code TOOL=ms} with a known tool.
+     */
+    private static Map<String, Integer> parseBudgets(String text) {
+        Map<String, Integer> budgets = new LinkedHashMap<>();
+        for (String entry : text.split(",")) {
+            if (entry.isBlank()) continue;
+            int eq = entry.indexOf('=');
+            try {
+                String tool = ToolType.valueOf(entry.substring(0, Math.max(eq, 0)).trim().toUpperCase(Locale.ROOT)).name();
+                budgets.put(tool, Integer.parseInt(entry.substring(eq + 1).trim()));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("expected TOOL=ms, got '" + entry.trim() + "'");
+            }
+        }
+        return budgets;
+    }
+
+    private static final class BudgetModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Tool", "Budget (ms)", "Circuit", "Trips", "Recoveries", "Over budget",
+                "Skipped", "Sampled"};
+        private List<LatencyBudget.Stats> stats = List.of();
+
+        void setStats(List<LatencyBudget.Stats> snapshot) {
+            stats = snapshot;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return stats.size(); }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            LatencyBudget.Stats s = stats.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> s.tool().name();
+                case 1 -> s.budgetMillis();
+                case 2 -> s.state();
+                case 3 -> s.trips();
+                case 4 -> s.recoveries();
+                case 5 -> s.timeouts();
+                case 6 -> s.skipped();
+                default -> s.sampled();
+            };
+        }
+    }
+
+    /**
+     * Background task categories with their queue depth, running and completed counts.
+     */
+    private JPanel createTasksPanel() {
+        JPanel panel = new JPanel(new BorderLayout(4, 4));
+        panel.setBorder(new TitledBorder("Background tasks"));
+        TasksModel model = new TasksModel();
+        JTable table = new JTable(model);
+        table.setPreferredScrollableViewportSize(new Dimension(760, 96));
+        JLabel timers = new JLabel();
+        Runnable refresh = () -> {
+            model.setStats(ext.getExecutors().snapshot());
+            timers.setText("Timers scheduled: " + ext.getExecutors().scheduledCount());
+        };
+        refresh.run();
+        refreshEvery2s(refresh);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        panel.add(timers, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private static final class TasksModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Category", "Kind", "Submitted", "Queued", "Running", "Completed",
+                "Failed", "Rejected"};
+        private List<ZotaExecutors.Stats> stats = List.of();
+
+        void setStats(List<ZotaExecutors.Stats> snapshot) {
+            stats = snapshot;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return stats.size(); }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            ZotaExecutors.Stats s = stats.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> s.task().label();
+                case 1 -> s.kind();
+                case 2 -> s.submitted();
+                case 3 -> s.queued();
+                case 4 -> s.running();
+                case 5 -> s.completed();
+                case 6 -> s.failed();
+                default -> s.rejected();
+            };
+        }
+    }
+
+    /**
+     * Per-tool scope editor: extra host suffixes and path prefixes treated as Zota traffic
+     * (e.g. merchant callback hosts) in addition to the built-in detection.
+     */
+    private JPanel createScopePanel() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        panel.setBorder(new TitledBorder("Scope"));
+        GridBagConstraints gc = new GridBagConstraints();
+        gc.insets = new Insets(2,4,2,4);
+        gc.anchor = GridBagConstraints.WEST;
+
+        JComboBox<String> toolCombo = new JComboBox<>(new String[] {
+                ZotaConfig.ALL_TOOLS, "REPEATER", "PROXY", "INTRUDER", "SCANNER", "EXTENSIONS", "SEQUENCER"
+        });
+        JTextField hostsField = new JTextField(28);
+        JTextField pathsField = new JTextField(28);
+        Runnable load = () -> {
+            ScopeRule rule = controller.scopeRule((String) toolCombo.getSelectedItem());
+            hostsField.setText(String.join(", ", rule.hostSuffixes));
+            pathsField.setText(String.join(", ", rule.pathPrefixes));
+        };
+        toolCombo.addActionListener(e -> load.run());
+        JButton btnApply = new JButton("Apply");
+        btnApply.addActionListener(e -> {
+            String tool = (String) toolCombo.getSelectedItem();
+            controller.setScopeRule(tool, splitList(hostsField.getText()), splitList(pathsField.getText()));
+            ZotaLogger.info("Updated scope rule for " + tool);
+        });
+        load.run();
+
+        int row = 0;
+        gc.gridx = 0; gc.gridy = row; panel.add(new JLabel("Tool:"), gc);
+        gc.gridx = 1; panel.add(toolCombo, gc); row++;
+        gc.gridx = 0; gc.gridy = row; panel.add(new JLabel("Host suffixes:"), gc);
+        gc.gridx = 1; panel.add(hostsField, gc); row++;
+        gc.gridx = 0; gc.gridy = row; panel.add(new JLabel("Path prefixes:"), gc);
+        gc.gridx = 1; panel.add(pathsField, gc);
+        gc.gridx = 2; panel.add(btnApply, gc);
         return panel;
     }
 
+    /**
+     * Editor for signing recipes, one per line; they override the built-in formulas for matching requests.
+     */
+    private JPanel createRecipesPanel() {
+        JPanel panel = new JPanel(new BorderLayout(4, 4));
+        panel.setBorder(new TitledBorder("Signing recipes (override built-in formulas)"));
+        JTextArea recipesArea = new JTextArea(4, 60);
+        recipesArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        recipesArea.setToolTipText("GET /api/v1/query/exchange-rates/ = query.merchantID + profile.MerchantSecretKey + query.requestID -> query.signature");
+        Runnable load = () -> recipesArea.setText(String.join("\n", controller.getConfig().signingRecipes));
+        JButton btnApply = new JButton("Apply");
+        JButton btnReload = new JButton("Reload");
+        btnApply.addActionListener(e -> {
+            List<String> errors = controller.setSigningRecipes(List.of(recipesArea.getText().split("\\R")));
+            load.run();
+            if (!errors.isEmpty()) {
+                JOptionPane.showMessageDialog(root, String.join("\n", errors), "Invalid signing recipes dropped",
+                        JOptionPane.WARNING_MESSAGE);
+            }
+            ZotaLogger.info("Signing recipes: " + controller.recipes().size() + " active");
+        });
+        btnReload.addActionListener(e -> load.run());
+        load.run();
+        JPanel buttons = new JPanel(new GridLayout(0, 1, 0, 4));
+        buttons.add(btnApply);
+        buttons.add(btnReload);
+        JPanel east = new JPanel(new BorderLayout());
+        east.add(buttons, BorderLayout.NORTH);
+        panel.add(new JScrollPane(recipesArea), BorderLayout.CENTER);
+        panel.add(east, BorderLayout.EAST);
+        return panel;
+    }
+
+    private static List<String> splitList(String text) {
+        List<String> out = new java.util.ArrayList<>();
+        if (text == null) return out;
+        for (String part : text.split("[,\\s]+")) {
+            if (!part.isBlank()) out.add(part.trim());
+        }
+        return out;
+    }
+
     private JPanel createSamplesPanel() {
         JPanel panel = new JPanel(new GridLayout(0, 3, 8, 8));
         panel.setBorder(new TitledBorder("Generate sample requests → Repeater"));
@@ -144,7 +568,7 @@ public class ZotaSettingsTab {
     }
 
     /**
-     * Persists the currently edited profile fields and refreshes the combo-box selection.
+     * Persists the currently edited profile fields and refreshes the list selection.
      */
     private void saveProfile() {
         ZotaProfile p = new ZotaProfile();
@@ -160,22 +584,85 @@ public class ZotaSettingsTab {
         p.setDefaultEndpointId(endpointIdField.getText().trim());
         controller.addOrUpdateProfile(p);
         refreshProfiles();
-        profileCombo.setSelectedItem(p.getName());
+        profileList.select(p.getName(), false);
         populateFromActive();
         ZotaLogger.info("Saved profile: " + p.getName());
     }
 
     /**
-     * Removes the currently selected profile (if any) and updates the combo-box contents.
+     * Removes the currently selected profile (if any) and updates the list contents.
      */
     private void removeSelectedProfile() {
-        String sel = (String) profileCombo.getSelectedItem();
+        ZotaProfile sel = profileList.list().getSelectedValue();
         if (sel != null) {
-            controller.removeProfile(sel);
+            controller.removeProfile(sel.getName());
             refreshProfiles();
         }
     }
 
+    /**
+     * Streams profiles from a JSON file off the EDT; accepts the export format or the legacy name-to-profile map.
+     */
+    private void importProfiles() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(root) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                try (InputStream in = Files.newInputStream(file.toPath())) {
+                    return controller.profiles().importProfiles(in);
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    ZotaLogger.info("Imported " + get() + " profile(s) from " + file.getName());
+                } catch (Exception ex) {
+                    ZotaLogger.error("Profile import failed: " + ex.getMessage());
+                }
+                refreshProfiles();
+            }
+        }.execute();
+    }
+
+    /**
+     * Streams every profile to a JSON file off the EDT, asking first whether secrets should be included.
+     */
+    private void exportProfiles() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("zota-profiles.json"));
+        if (chooser.showSaveDialog(root) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        int secrets = JOptionPane.showConfirmDialog(root, "Include merchant secret keys in the export?",
+                "Export profiles", JOptionPane.YES_NO_CANCEL_OPTION);
+        if (secrets == JOptionPane.CANCEL_OPTION || secrets == JOptionPane.CLOSED_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                    return controller.profiles().exportProfiles(out, secrets == JOptionPane.YES_OPTION);
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    ZotaLogger.info("Exported " + get() + " profile(s) to " + file.getName());
+                } catch (Exception ex) {
+                    ZotaLogger.error("Profile export failed: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
     public JComponent getRoot() {
         return root;
     }
@@ -187,29 +674,52 @@ public class ZotaSettingsTab {
 
         JPanel profilesPanel = createProfilesPanel();
         JPanel behaviorPanel = createBehaviorPanel();
+        JPanel pacingPanel = createPacingPanel();
+        JPanel budgetPanel = createBudgetPanel();
+        JPanel tasksPanel = createTasksPanel();
+        JPanel servicePanel = createServicePanel();
+        JPanel scopePanel = createScopePanel();
+        JPanel recipesPanel = createRecipesPanel();
         JPanel samplesPanel = createSamplesPanel();
 
         content.add(profilesPanel);
         content.add(Box.createVerticalStrut(8));
         content.add(behaviorPanel);
         content.add(Box.createVerticalStrut(8));
+        content.add(pacingPanel);
+        content.add(Box.createVerticalStrut(8));
+        content.add(budgetPanel);
+        content.add(Box.createVerticalStrut(8));
+        content.add(tasksPanel);
+        content.add(Box.createVerticalStrut(8));
+        content.add(servicePanel);
+        content.add(Box.createVerticalStrut(8));
+        content.add(scopePanel);
+        content.add(Box.createVerticalStrut(8));
+        content.add(recipesPanel);
+        content.add(Box.createVerticalStrut(8));
         content.add(samplesPanel);
 
         JPanel wrapper = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
         wrapper.add(content);
-        root.add(wrapper, BorderLayout.CENTER);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Settings", wrapper);
+        tabs.addTab("Journal", new LazyPanel(() -> new JournalPanel(controller.journal()).getRoot()));
+        tabs.addTab("Trace", new LazyPanel(() -> new TracePanel(controller.trace()).getRoot()));
+        tabs.addTab("Latency", new LazyPanel(() -> new LatencyPanel(controller.latency()).getRoot()));
+        tabs.addTab("Orders", new LazyPanel(() -> new OrdersReportPanel(ext.getReports().store(), this::fetchReportRange).getRoot()));
+        tabs.addTab("Timeline", new LazyPanel(() -> new OrderTimelinePanel(ext.getOrders(), ext.getPoller(), controller).getRoot()));
+        root.add(tabs, BorderLayout.CENTER);
         populateFromActive();
     }
 
     private void refreshProfiles() {
-        profileModel.removeAllElements();
-        List<ZotaProfile> all = controller.allProfiles();
-        for (ZotaProfile p : all) {
-            profileModel.addElement(p.getName());
-        }
+        profileList.list().clearSelection();
+        profileList.refresh();
         ZotaProfile act = controller.activeProfile();
         if (act != null) {
-            profileModel.setSelectedItem(act.getName());
+            profileList.select(act.getName(), false);
             populateFromActive();
         }
     }
@@ -243,6 +753,19 @@ public class ZotaSettingsTab {
         api.repeater().sendToRepeater(signed, "Zota " + kind);
     }
 
+    /**
+     * Opens the chunked orders-report download for the active profile; fetched chunks also land in the Orders view.
+     */
+    private void fetchReportRange() {
+        ZotaProfile p = controller.activeProfile();
+        if (p == null) {
+            ZotaLogger.error("No active profile");
+            return;
+        }
+        ReportFetchDialog.show(api.userInterface().swingUtils().suiteFrame(), p, filters ->
+                new OrdersReportFetcher(ext.getExecutors(), new MontoyaReportTransport(api, ext.getSigner(), controller.journal(), p, filters)));
+    }
+
     private void populateFromActive() {
         ZotaProfile p = controller.activeProfile();
         if (p == null) return;
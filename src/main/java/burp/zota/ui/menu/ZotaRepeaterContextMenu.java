@@ -1,35 +1,64 @@
 package burp.zota.ui.menu;
 
+import burp.api.montoya.MontoyaApi;
 import burp.api.montoya.core.ToolType;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.ui.contextmenu.ContextMenuEvent;
 import burp.api.montoya.ui.contextmenu.ContextMenuItemsProvider;
 import burp.api.montoya.ui.contextmenu.MessageEditorHttpRequestResponse;
 import burp.api.montoya.ui.contextmenu.MessageEditorHttpRequestResponse.SelectionContext;
 import burp.zota.controller.ZotaController;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.fanout.ProfileFanOut;
 import burp.zota.profile.ZotaProfile;
+import burp.zota.replay.CallbackReplayer;
+import burp.zota.replay.CallbackTemplate;
+import burp.zota.replay.MontoyaReplayTransport;
 import burp.zota.signer.ZotaSigner;
+import burp.zota.ui.FanOutResultsDialog;
+import burp.zota.ui.ProfileListView;
+import burp.zota.ui.RecipeDiscoveryDialog;
+import burp.zota.ui.ReplayDialog;
 import burp.zota.util.ZotaLogger;
 
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
+import javax.swing.SwingUtilities;
 import java.awt.Component;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 public class ZotaRepeaterContextMenu implements ContextMenuItemsProvider {
 
+    private final MontoyaApi api;
     private final ZotaController controller;
     private final ZotaSigner signer;
+    private final ProfileFanOut fanOut;
+    private final CallbackReplayer replayer;
+    private final ExecutorService worker;
+    private final ZotaExecutors executors;
 
-    public ZotaRepeaterContextMenu(ZotaController controller, ZotaSigner signer) {
+    public ZotaRepeaterContextMenu(MontoyaApi api, ZotaController controller, ZotaSigner signer, ZotaExecutors executors) {
+        this.api = api;
         this.controller = controller;
         this.signer = signer;
+        this.fanOut = new ProfileFanOut(api, signer, controller.journal(), executors);
+        this.replayer = new CallbackReplayer(executors, new MontoyaReplayTransport(api));
+        this.worker = executors.lane(ZotaExecutors.Task.RESIGN);
+        this.executors = executors;
     }
 
     @Override
     public List<Component> provideMenuItems(ContextMenuEvent event) {
+        if (event.isFromTool(ToolType.PROXY, ToolType.LOGGER)) {
+            return batchMenuItems(event);
+        }
         if (!event.isFromTool(ToolType.REPEATER)) {
             return Collections.emptyList();
         }
@@ -46,6 +75,9 @@ public class ZotaRepeaterContextMenu implements ContextMenuItemsProvider {
         JMenu root = new JMenu("Zota Re-sign");
         addActiveProfileAction(root, editor);
         addProfileSwitcherActions(root, editor);
+        addFanOutAction(root, editor);
+        addDiscoverAction(root, editor);
+        addReplayAction(root, editor);
         if (root.getItemCount() == 0) {
             return Collections.emptyList();
         }
@@ -54,6 +86,36 @@ public class ZotaRepeaterContextMenu implements ContextMenuItemsProvider {
         return items;
     }
 
+    /**
+     * Batch actions for multi-selections in Proxy history or Logger: re-sign every selected request with the
+     * active profile in parallel, then hand them all to Repeater or Organizer.
+     */
+    private List<Component> batchMenuItems(ContextMenuEvent event) {
+        List<HttpRequestResponse> selected = event.selectedRequestResponses();
+        if (selected == null || selected.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ZotaProfile active = controller.activeProfile();
+        if (active == null) {
+            return Collections.emptyList();
+        }
+        List<HttpRequest> requests = new ArrayList<>(selected.size());
+        for (HttpRequestResponse rr : selected) {
+            requests.add(rr.request());
+        }
+        JMenu root = new JMenu("Zota Re-sign " + requests.size() + " request(s) (" + active.getName() + ")");
+        JMenuItem toRepeater = new JMenuItem("Send to Repeater");
+        ToolType tool = event.toolType();
+        toRepeater.addActionListener(e -> resignBatch(requests, active, tool, BatchTarget.REPEATER));
+        JMenuItem toOrganizer = new JMenuItem("Send to Organizer");
+        toOrganizer.addActionListener(e -> resignBatch(requests, active, tool, BatchTarget.ORGANIZER));
+        root.add(toRepeater);
+        root.add(toOrganizer);
+        List<Component> items = new ArrayList<>(1);
+        items.add(root);
+        return items;
+    }
+
     private void addActiveProfileAction(JMenu root, MessageEditorHttpRequestResponse editor) {
         ZotaProfile active = controller.activeProfile();
         if (active == null) {
@@ -67,21 +129,98 @@ public class ZotaRepeaterContextMenu implements ContextMenuItemsProvider {
         root.add(item);
     }
 
+    /**
+     * Submenu with the most recently used profiles and a searchable picker for the rest, so the menu stays
+     * small however many profiles are loaded.
+     */
     private void addProfileSwitcherActions(JMenu root, MessageEditorHttpRequestResponse editor) {
-        List<ZotaProfile> profiles = controller.allProfiles();
-        if (profiles.size() <= 1) {
+        if (controller.profiles().size() <= 1) {
             return;
         }
-        JMenu submenu = new JMenu("Re-sign with profile");
         ZotaProfile active = controller.activeProfile();
-        for (ZotaProfile profile : profiles) {
+        JMenu submenu = new JMenu("Re-sign with profile");
+        for (ZotaProfile profile : controller.profiles().recent()) {
             JMenuItem item = new JMenuItem(profileLabel(profile, active));
             item.addActionListener(e -> resignInEditor(editor, profile));
             submenu.add(item);
         }
+        if (submenu.getItemCount() > 0) {
+            submenu.addSeparator();
+        }
+        JMenuItem choose = new JMenuItem("Choose profile…");
+        choose.addActionListener(e -> {
+            List<ZotaProfile> picked = ProfileListView.pick(api.userInterface().swingUtils().suiteFrame(),
+                    controller.profiles(), "Re-sign with profile", false);
+            if (!picked.isEmpty()) {
+                resignInEditor(editor, picked.get(0));
+            }
+        });
+        submenu.add(choose);
         root.add(submenu);
     }
 
+    private void addFanOutAction(JMenu root, MessageEditorHttpRequestResponse editor) {
+        if (controller.profiles().size() <= 1) {
+            return;
+        }
+        JMenuItem item = new JMenuItem("Send with profiles…");
+        item.addActionListener(e -> fanOutFromEditor(editor));
+        root.add(item);
+    }
+
+    private void addDiscoverAction(JMenu root, MessageEditorHttpRequestResponse editor) {
+        ZotaProfile active = controller.activeProfile();
+        if (active == null) {
+            return;
+        }
+        JMenuItem item = new JMenuItem("Discover signature recipe…");
+        item.addActionListener(e -> RecipeDiscoveryDialog.show(api.userInterface().swingUtils().suiteFrame(), controller,
+                executors, editor.requestResponse().request(), active));
+        root.add(item);
+    }
+
+    /**
+     * Offered only when the request parses as a callback or final redirect; the replayer signs with the active profile.
+     */
+    private void addReplayAction(JMenu root, MessageEditorHttpRequestResponse editor) {
+        ZotaProfile active = controller.activeProfile();
+        if (active == null) {
+            return;
+        }
+        CallbackTemplate template;
+        try {
+            template = CallbackTemplate.from(editor.requestResponse().request());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        String label = template.kind() == CallbackReplayer.Kind.CALLBACK ? "Replay as callbacks…" : "Replay as final redirects…";
+        JMenuItem item = new JMenuItem(label);
+        item.addActionListener(e -> ReplayDialog.show(api.userInterface().swingUtils().suiteFrame(), template, active, replayer));
+        root.add(item);
+    }
+
+    /**
+     * Lets the user search and pick profiles, then re-signs and sends one variant per profile
+     * concurrently and shows the grouped responses.
+     */
+    private void fanOutFromEditor(MessageEditorHttpRequestResponse editor) {
+        List<ZotaProfile> selected = ProfileListView.pick(api.userInterface().swingUtils().suiteFrame(),
+                controller.profiles(), "Send with profiles", true);
+        if (selected.isEmpty()) {
+            return;
+        }
+        HttpRequest request = editor.requestResponse().request();
+        ZotaLogger.info("Sending request with " + selected.size() + " profiles");
+        fanOut.send(request, selected).whenComplete((outcomes, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                ZotaLogger.error("Multi-profile send failed: " + error.getMessage());
+                return;
+            }
+            FanOutResultsDialog.show(api.userInterface().swingUtils().suiteFrame(),
+                    "Zota: " + request.method() + " " + request.pathWithoutQuery(), outcomes);
+        }));
+    }
+
     private static String profileLabel(ZotaProfile profile, ZotaProfile active) {
         String name = profile.getName() == null ? "(unnamed)" : profile.getName();
         String activeName = active == null ? null : active.getName();
@@ -91,22 +230,67 @@ public class ZotaRepeaterContextMenu implements ContextMenuItemsProvider {
         return name;
     }
 
+    /**
+     * Re-signs the editor's request on the resign lane and writes the result back on the EDT.
+     */
     private void resignInEditor(MessageEditorHttpRequestResponse editor, ZotaProfile profile) {
-        try {
-            var request = editor.requestResponse().request();
-            var prepared = signer.applyProfileDefaults(request, profile);
-            ZotaSigner.Result result = signer.sign(prepared, profile);
-            var marked = signer.markManualProfile(result.request(), profile);
-            if (marked != null) {
-                editor.setRequest(marked);
+        controller.profiles().markUsed(profile.getName());
+        HttpRequest request = editor.requestResponse().request();
+        CompletableFuture.supplyAsync(() -> resign(request, profile, ToolType.REPEATER), worker).whenComplete((result, error) -> {
+            if (error != null) {
+                ZotaLogger.error("Failed to re-sign request: " + error.getMessage());
+                return;
             }
+            SwingUtilities.invokeLater(() -> editor.setRequest(result.request()));
             if (result.annotations() != null && result.annotations().hasNotes()) {
                 ZotaLogger.info(result.annotations().notes());
             } else {
                 ZotaLogger.info("Re-signed request in Repeater using profile: " + profile.getName());
             }
-        } catch (Exception ex) {
-            ZotaLogger.error("Failed to re-sign request: " + ex.getMessage());
+        });
+    }
+
+    /**
+     * Re-signs a Proxy or Logger selection, recording each signing against {@code tool}, the tool it came from.
+     */
+    private void resignBatch(List<HttpRequest> requests, ZotaProfile profile, ToolType tool, BatchTarget target) {
+        List<CompletableFuture<ZotaSigner.Result>> futures = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> resign(request, profile, tool), worker));
         }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).whenComplete((v, error) -> {
+            int sent = 0;
+            int failed = 0;
+            for (CompletableFuture<ZotaSigner.Result> f : futures) {
+                if (f.isCompletedExceptionally()) {
+                    failed++;
+                    continue;
+                }
+                HttpRequest signed = f.join().request();
+                if (target == BatchTarget.REPEATER) {
+                    api.repeater().sendToRepeater(signed, "Zota " + profile.getName());
+                } else {
+                    api.organizer().sendToOrganizer(signed);
+                }
+                sent++;
+            }
+            ZotaLogger.info("Batch re-signed " + sent + " request(s) with profile " + profile.getName()
+                    + " to " + target.name().toLowerCase(Locale.ROOT) + (failed > 0 ? " (" + failed + " failed)" : ""));
+        });
     }
+
+    /**
+     * Applies profile defaults, signs and marks the request with the profile, recording the signing against
+     * {@code tool}. Runs off the EDT.
+     */
+    private ZotaSigner.Result resign(HttpRequest request, ZotaProfile profile, ToolType tool) {
+        long started = System.nanoTime();
+        ZotaSigner.Result result = signer.resign(request, profile);
+        controller.trace().record(-1, tool, result.signing(), System.nanoTime() - started,
+                result.request() != request);
+        controller.journal().append(tool, result.signing());
+        return result;
+    }
+
+    private enum BatchTarget { REPEATER, ORGANIZER }
 }
@@ -0,0 +1,108 @@
+package burp.zota.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Shared Jackson configuration. One {@link ObjectMapper} is built for the whole extension, so type
+ * introspection and serializer caches are paid for once; callers keep the immutable, thread-safe
+ * {@link ObjectReader}/{@link ObjectWriter} instances from here (or from {@link #reader(Class)}) in static fields
+ * instead of going through the mapper per call.
+ */
+public final class Json {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final ObjectReader TREE_READER = MAPPER.reader();
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    private Json() {}
+
+    /**
+     * Parses JSON into a tree; an empty or null string yields an empty object.
+     */
+    public static JsonNode tree(String json) throws Exception {
+        if (json == null || json.isEmpty()) {
+            return MAPPER.createObjectNode();
+        }
+        return TREE_READER.readTree(json);
+    }
+
+    /**
+     * Like {@link #tree(String)} but returns null for anything that is not a well-formed JSON object.
+     */
+    public static JsonNode treeOrNull(String json) {
+        if (json == null) {
+            return null;
+        }
+        int start = 0;
+        while (start < json.length() && Character.isWhitespace(json.charAt(start))) {
+            start++;
+        }
+        if (start == json.length() || json.charAt(start) != '{') {
+            return null;
+        }
+        try {
+            return TREE_READER.readTree(json);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static String write(Object value) throws Exception {
+        return WRITER.writeValueAsString(value);
+    }
+
+    public static ObjectNode object() {
+        return MAPPER.createObjectNode();
+    }
+
+    /**
+     * @return a reader bound to {@code type}; cache the result, it is immutable.
+     */
+    public static ObjectReader reader(Class<?> type) {
+        return MAPPER.readerFor(type);
+    }
+
+    /**
+     * @return a reader bound to a generic type; cache the result, it is immutable.
+     */
+    public static ObjectReader reader(TypeReference<?> type) {
+        return MAPPER.readerFor(type);
+    }
+
+    /**
+     * Streaming parser over {@code in}, for inputs too large to bind in one go. Closing it closes the stream.
+     */
+    public static JsonParser parser(InputStream in) throws IOException {
+        return MAPPER.getFactory().createParser(in);
+    }
+
+    /**
+     * Streaming generator writing UTF-8 to {@code out}. Closing it closes the stream.
+     */
+    public static JsonGenerator generator(OutputStream out) throws IOException {
+        return MAPPER.getFactory().createGenerator(out);
+    }
+
+    /**
+     * Text value of a top-level field; empty when absent or null.
+     */
+    public static String text(JsonNode json, String field) {
+        if (json == null) return "";
+        JsonNode n = json.get(field);
+        if (n == null || n.isNull()) return "";
+        return n.asText("");
+    }
+}
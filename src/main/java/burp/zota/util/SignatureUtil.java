@@ -1,36 +1,38 @@
 package burp.zota.util;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 
 public final class SignatureUtil {
-    private static final ObjectMapper mapper = new ObjectMapper();
-
     private SignatureUtil(){}
 
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
     public static String sha256HexLower(String s) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] dig = md.digest(s.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(dig.length * 2);
-            for (byte b : dig) {
-                String hex = Integer.toHexString(b & 0xff);
-                if (hex.length() == 1) sb.append('0');
-                sb.append(hex);
-            }
-            return sb.toString();
+            return toHexLower(md.digest(s.getBytes(StandardCharsets.UTF_8)));
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    public static String toHexLower(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            out[i * 2] = HEX[b >>> 4];
+            out[i * 2 + 1] = HEX[b & 0xf];
+        }
+        return new String(out);
+    }
+
     public static JsonNode withField(JsonNode json, String key, String value) {
         if (json == null || json.isNull()) {
-            ObjectNode on = mapper.createObjectNode();
+            ObjectNode on = Json.object();
             on.put(key, value);
             return on;
         }
@@ -38,7 +40,7 @@ public final class SignatureUtil {
             ((ObjectNode) json).put(key, value);
             return json;
         } else {
-            ObjectNode on = mapper.createObjectNode();
+            ObjectNode on = Json.object();
             on.set("request", json);
             on.put(key, value);
             return on;
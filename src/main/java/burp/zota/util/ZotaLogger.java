@@ -4,6 +4,7 @@ import burp.api.montoya.MontoyaApi;
 
 public final class ZotaLogger {
     private static MontoyaApi api;
+    private static volatile boolean console;
 
     private ZotaLogger(){}
 
@@ -12,11 +13,20 @@ public final class ZotaLogger {
         info("Zota extension loaded");
     }
 
+    /**
+     * Headless use: log to standard output and error, since there is no Burp to log to.
+     */
+    public static void initConsole() {
+        console = true;
+    }
+
     public static void info(String s) {
         if (api != null) api.logging().logToOutput("[Zota] " + s);
+        else if (console) System.out.println("[Zota] " + s);
     }
 
     public static void error(String s) {
         if (api != null) api.logging().logToError("[Zota] " + s);
+        else if (console) System.err.println("[Zota] " + s);
     }
-}
\ No newline at end of file
+}
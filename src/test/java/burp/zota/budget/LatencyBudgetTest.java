@@ -0,0 +1,118 @@
+package burp.zota.budget;
+
+import burp.api.montoya.core.ToolType;
+import burp.zota.exec.ZotaExecutors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyBudgetTest {
+
+    private static final long COOLDOWN_MILLIS = 50;
+
+    private final ZotaExecutors executors = new ZotaExecutors();
+    private final LatencyBudget budget = new LatencyBudget(executors, Map.of("INTRUDER", 20), 1_000, COOLDOWN_MILLIS);
+
+    @AfterEach
+    void close() {
+        executors.close();
+    }
+
+    @Test
+    void opensAfterConsecutiveOverrunsAndSkipsSigning() {
+        for (int i = 0; i < LatencyBudget.TRIP_AFTER; i++) {
+            assertFalse(budget.call(ToolType.INTRUDER, true, this::slow).ran());
+        }
+        assertEquals(LatencyBudget.State.OPEN, stats().state());
+
+        AtomicInteger ran = new AtomicInteger();
+        LatencyBudget.Outcome<Integer> skipped = budget.call(ToolType.INTRUDER, true, ran::incrementAndGet);
+
+        assertFalse(skipped.ran());
+        assertEquals(0, ran.get());
+        assertEquals(1, stats().trips());
+        assertEquals(1, stats().skipped());
+    }
+
+    @Test
+    void probeInBudgetClosesTheCircuit() throws Exception {
+        trip();
+        Thread.sleep(COOLDOWN_MILLIS * 2);
+
+        LatencyBudget.Outcome<String> probe = budget.call(ToolType.INTRUDER, true, () -> "signed");
+
+        assertTrue(probe.ran());
+        assertEquals("signed", probe.value());
+        assertEquals(LatencyBudget.State.CLOSED, stats().state());
+        assertEquals(1, stats().recoveries());
+    }
+
+    @Test
+    void failedProbeReopensTheCircuitForAnotherCooldown() throws Exception {
+        trip();
+        Thread.sleep(COOLDOWN_MILLIS * 2);
+
+        assertThrows(IllegalStateException.class, () -> budget.call(ToolType.INTRUDER, true, () -> {
+            throw new IllegalStateException("profile removed");
+        }));
+
+        assertEquals(LatencyBudget.State.OPEN, stats().state());
+        assertEquals(2, stats().trips());
+        assertFalse(budget.call(ToolType.INTRUDER, true, () -> "signed").ran());
+
+        // the next cooldown lets another probe through
+        Thread.sleep(COOLDOWN_MILLIS * 2);
+        assertTrue(budget.call(ToolType.INTRUDER, true, () -> "signed").ran());
+        assertEquals(LatencyBudget.State.CLOSED, stats().state());
+    }
+
+    @Test
+    void interruptedProbeReopensTheCircuit() throws Exception {
+        trip();
+        Thread.sleep(COOLDOWN_MILLIS * 2);
+
+        Thread.currentThread().interrupt();
+        LatencyBudget.Outcome<String> probe = budget.call(ToolType.INTRUDER, true, this::slow);
+
+        assertTrue(Thread.interrupted());
+        assertEquals("interrupted", probe.skipped());
+        assertEquals(LatencyBudget.State.OPEN, stats().state());
+    }
+
+    @Test
+    void toolsWithoutABudgetRunInline() {
+        Thread caller = Thread.currentThread();
+
+        LatencyBudget.Outcome<Boolean> outcome = budget.call(ToolType.PROXY, true, () -> Thread.currentThread() == caller);
+
+        assertTrue(outcome.ran());
+        assertTrue(outcome.value());
+    }
+
+    private void trip() {
+        for (int i = 0; i < LatencyBudget.TRIP_AFTER; i++) {
+            budget.call(ToolType.INTRUDER, true, this::slow);
+        }
+        assertEquals(LatencyBudget.State.OPEN, stats().state());
+    }
+
+    private String slow() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "late";
+    }
+
+    private LatencyBudget.Stats stats() {
+        return budget.snapshot().get(0);
+    }
+}
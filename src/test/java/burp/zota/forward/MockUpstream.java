@@ -0,0 +1,65 @@
+package burp.zota.forward;
+
+import burp.zota.exec.ZotaExecutors;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stand-in for the Zota API in forwarder tests: records every request as it arrived and answers {@code 200}.
+ * It does not check signatures; tests compare what it received with known answers.
+ */
+class MockUpstream implements AutoCloseable {
+
+    static final byte[] OK = "{\"code\":\"200\",\"message\":\"mock\",\"data\":{}}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * @param query raw query string, or null.
+     */
+    record Received(String method, String path, String query, String body, String profileHeader) {}
+
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private final HttpServer server;
+
+    MockUpstream(ZotaExecutors executors) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executors.lane(ZotaExecutors.Task.SERVICE));
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    List<Received> received() {
+        return received;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            received.add(new Received(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath(),
+                    exchange.getRequestURI().getRawQuery(), body,
+                    exchange.getRequestHeaders().getFirst(SigningForwarder.PROFILE_HEADER)));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, OK.length);
+            exchange.getResponseBody().write(OK);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,134 @@
+package burp.zota.forward;
+
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.profile.CompiledProfile;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends requests through the forwarder to a recording upstream and checks the signatures it received against
+ * known answers computed outside this code base.
+ */
+class SigningForwarderTest {
+
+    private static final String DEPOSIT_BODY =
+            "{\"merchantOrderID\":\"m-1\",\"orderAmount\":\"10.00\",\"customerEmail\":\"a@example.test\"}";
+
+    private final ZotaExecutors executors = new ZotaExecutors();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private MockUpstream upstream;
+    private SigningForwarder forwarder;
+
+    @BeforeEach
+    void start() throws Exception {
+        upstream = new MockUpstream(executors);
+        Map<String, CompiledProfile> profiles = new LinkedHashMap<>();
+        profiles.put("short", CompiledProfile.of(new ZotaProfile("short", "M-1001", "s3cr3t", "https://api.example.test")));
+        profiles.put("long", CompiledProfile.of(new ZotaProfile("long",
+                "ZOTA-MERCHANT-TEST-0001-SANDBOX-EU-WEST-1-SUBACCOUNT-0000000001-RESELLER", "s3cr3t", "https://api.example.test")));
+        forwarder = new SigningForwarder(profiles, null, upstream.url(), Duration.ofSeconds(5), false, executors);
+        forwarder.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    void stop() {
+        forwarder.stop();
+        upstream.close();
+        executors.close();
+    }
+
+    @Test
+    void signsDepositBodies() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/v1/deposit/request/4020/"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(DEPOSIT_BODY)));
+
+        assertEquals(200, response.statusCode());
+        MockUpstream.Received r = upstream.received().get(0);
+        assertEquals("/api/v1/deposit/request/4020/", r.path());
+        // SHA-256("4020" + "m-1" + "10.00" + "a@example.test" + secret)
+        assertEquals("9eff3ad5df346e26f62c601864c14c9396fc7725394ff398d69846988b58edd8",
+                Json.text(Json.tree(r.body()), "signature"));
+    }
+
+    @Test
+    void signsDirectDepositsWithTheHandlersPathId() throws Exception {
+        send(HttpRequest.newBuilder(uri("/api/v1/deposit/request/direct/4020/"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(DEPOSIT_BODY)));
+
+        // SHA-256("direct/4020" + "m-1" + "10.00" + "a@example.test" + secret)
+        assertEquals("6444034d16c095d23bd828d55b0e1dafdc7b467779932694abdf33260c54d3bd",
+                Json.text(Json.tree(upstream.received().get(0).body()), "signature"));
+    }
+
+    @Test
+    void signsQueriesWithTheProfilesMerchantId() throws Exception {
+        send(HttpRequest.newBuilder(uri("/api/v1/query/order-status/?merchantOrderID=m-1&orderID=32000001&timestamp=1760000000")));
+
+        Map<String, String> query = QueryString.parse(upstream.received().get(0).query());
+        assertEquals("M-1001", query.get("merchantID"));
+        // SHA-256("M-1001" + "m-1" + "32000001" + "1760000000" + secret)
+        assertEquals("4bbf1181d6d508225615464f345e8299d6112d5b0e4c4ce5be99eb662413f271", query.get("signature"));
+    }
+
+    @Test
+    void signsWithTheNamedProfileAndStripsTheHeader() throws Exception {
+        // current-balance hashes the query's merchant ID, and a camel-case requestId stands in for an empty requestID
+        send(HttpRequest.newBuilder(uri("/api/v1/query/current-balance/?merchantID=OTHER&requestID=&requestId=r-1&timestamp=1760000000"))
+                .header(SigningForwarder.PROFILE_HEADER, "long"));
+
+        MockUpstream.Received r = upstream.received().get(0);
+        Map<String, String> query = QueryString.parse(r.query());
+        assertEquals("r-1", query.get("requestID"));
+        // SHA-256("OTHER" + "r-1" + "1760000000" + secret)
+        assertEquals("d934352be4713700064b448fc7e371ea375fe01d8c554655f5b77cdfc4a02c6c", query.get("signature"));
+        assertNull(r.profileHeader());
+    }
+
+    @Test
+    void forwardsOtherRequestsUnchanged() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/v1/other/?a=1"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"x\":1}")));
+
+        assertEquals(200, response.statusCode());
+        MockUpstream.Received r = upstream.received().get(0);
+        assertEquals("a=1", r.query());
+        assertEquals("{\"x\":1}", r.body());
+    }
+
+    @Test
+    void rejectsAnUnknownProfile() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/v1/query/order-status/?orderID=1"))
+                .header(SigningForwarder.PROFILE_HEADER, "missing"));
+
+        assertEquals(400, response.statusCode());
+        assertTrue(upstream.received().isEmpty());
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://" + forwarder.address() + pathAndQuery);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,153 @@
+package burp.zota.journal;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.core.ToolType;
+import burp.api.montoya.internal.MontoyaObjectFactory;
+import burp.api.montoya.internal.ObjectFactoryLocator;
+import burp.api.montoya.persistence.PersistedList;
+import burp.api.montoya.persistence.PersistedObject;
+import burp.api.montoya.persistence.Persistence;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.signer.ZotaEndpoint;
+import burp.zota.signer.ZotaSigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the journal against an in-memory stand-in for Burp's project persistence.
+ */
+class SigningJournalTest {
+
+    private static final String SIGNATURE = "9eff3ad5df346e26f62c601864c14c9396fc7725394ff398d69846988b58edd8";
+
+    private final Map<String, Object> store = new HashMap<>();
+    private final List<ZotaExecutors> executors = new ArrayList<>();
+
+    @BeforeAll
+    static void factory() {
+        ObjectFactoryLocator.FACTORY = proxy(MontoyaObjectFactory.class, (method, args) -> switch (method) {
+            case "byteArray" -> byteArray((byte[]) args[0]);
+            case "persistedStringList" -> proxy(PersistedList.class, new ArrayList<String>());
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @AfterEach
+    void close() {
+        executors.forEach(ZotaExecutors::close);
+    }
+
+    @Test
+    void frequentPartialFlushesKeepEveryRecord() {
+        SigningJournal journal = open();
+        int total = 2 * SigningJournal.CHUNK_RECORDS + 5;
+        for (int i = 0; i < total; i++) {
+            journal.append(ToolType.REPEATER, signing("p-" + (i % 3)));
+            if (i % 3 == 2) {
+                journal.flush();
+            }
+        }
+        journal.flush();
+
+        assertEquals(total, journal.entries().size());
+        assertEquals(3, chunkKeys());
+        // the next load sees the same history
+        assertEquals(total, open().entries().size());
+    }
+
+    @Test
+    void decodesWhatWasAppended() {
+        SigningJournal journal = open();
+        journal.append(ToolType.PROXY, new ZotaSigner.Signing(ZotaEndpoint.DEPOSIT, "stage", SIGNATURE, List.of("customerEmail")));
+        journal.flush();
+
+        SigningJournal.Entry e = open().entries().get(0);
+        assertEquals(ToolType.PROXY, e.tool());
+        assertEquals(ZotaEndpoint.DEPOSIT, e.endpoint());
+        assertEquals("stage", e.profile());
+        assertEquals(SIGNATURE, e.signature());
+        assertEquals(List.of("customerEmail"), e.missingFields());
+    }
+
+    @Test
+    void keepsTheNewestChunksOnly() {
+        ZotaExecutors lanes = new ZotaExecutors();
+        SigningJournal journal = new SigningJournal(api(), lanes);
+        int chunks = SigningJournal.MAX_CHUNKS + 2;
+        for (int i = 0; i < chunks * SigningJournal.CHUNK_RECORDS; i++) {
+            journal.append(ToolType.INTRUDER, signing("p"));
+        }
+        journal.append(ToolType.INTRUDER, signing("p"));
+        // waits for the queued chunk writes, then flushes the open chunk
+        lanes.close();
+
+        assertEquals(SigningJournal.MAX_CHUNKS, chunkKeys());
+        assertEquals((SigningJournal.MAX_CHUNKS - 1) * SigningJournal.CHUNK_RECORDS + 1, open().entries().size());
+    }
+
+    private SigningJournal open() {
+        ZotaExecutors lanes = new ZotaExecutors();
+        executors.add(lanes);
+        return new SigningJournal(api(), lanes);
+    }
+
+    private long chunkKeys() {
+        return store.keySet().stream().filter(k -> k.startsWith("zota.journal.chunk.")).count();
+    }
+
+    private static ZotaSigner.Signing signing(String profile) {
+        return new ZotaSigner.Signing(ZotaEndpoint.ORDER_STATUS, profile, SIGNATURE, List.of());
+    }
+
+    private MontoyaApi api() {
+        PersistedObject data = proxy(PersistedObject.class, (method, args) -> switch (method) {
+            case "getByteArray", "getLong", "getStringList" -> store.get((String) args[0]);
+            case "setByteArray", "setLong", "setStringList" -> store.put((String) args[0], args[1]);
+            case "deleteByteArray" -> store.remove((String) args[0]);
+            default -> throw new UnsupportedOperationException(method);
+        });
+        Persistence persistence = proxy(Persistence.class, (method, args) -> data);
+        return proxy(MontoyaApi.class, (method, args) -> persistence);
+    }
+
+    private static ByteArray byteArray(byte[] bytes) {
+        byte[] copy = bytes.clone();
+        return proxy(ByteArray.class, (method, args) -> {
+            if (method.equals("getBytes")) return copy;
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> handler.invoke(method.getName(), args)));
+    }
+
+    /**
+     * A proxy that hands every call to {@code target}, for the {@link List} methods of a {@link PersistedList}.
+     */
+    private static <T> T proxy(Class<T> type, List<?> target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+}
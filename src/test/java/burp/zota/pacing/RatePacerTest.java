@@ -0,0 +1,36 @@
+package burp.zota.pacing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RatePacerTest {
+
+    @Test
+    void forgetsTheOldestUnansweredMessagesFirst() {
+        RatePacer pacer = new RatePacer(1e9, 1e9);
+        for (int id = 0; id <= RatePacer.PENDING_LIMIT; id++) {
+            pacer.acquire(id, "A");
+        }
+
+        // message 0 was evicted, so its 429 is ignored; message 1 is still known
+        pacer.onResponse(0, 429, null, null);
+        assertEquals(0, pacer.snapshot().get(0).throttled());
+        pacer.onResponse(1, 429, null, null);
+        assertEquals(1, pacer.snapshot().get(0).throttled());
+        pacer.onResponse(RatePacer.PENDING_LIMIT, 429, null, null);
+        assertEquals(2, pacer.snapshot().get(0).throttled());
+    }
+
+    @Test
+    void halvesTheRateOnThrottlingAndPausesForRetryAfter() {
+        RatePacer pacer = new RatePacer(8, 16);
+        pacer.acquire(1, "A");
+        pacer.onResponse(1, 503, "5", null);
+
+        RatePacer.Stats stats = pacer.snapshot().get(0);
+        assertEquals(4.0, stats.rate());
+        assertEquals(1, stats.throttled());
+        assertEquals("503 with Retry-After, Retry-After 5.0s: 8.0 -> 4.0/s", stats.lastDecision());
+    }
+}
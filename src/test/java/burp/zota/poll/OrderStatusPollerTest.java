@@ -0,0 +1,159 @@
+package burp.zota.poll;
+
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.profile.ZotaProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusPollerTest {
+
+    private static final long TOLERANCE_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final ZotaExecutors executors = new ZotaExecutors();
+    private final ZotaProfile merchantA = new ZotaProfile("A", "M-A", "secret-a", "https://api.example.test");
+    private final ZotaProfile merchantB = new ZotaProfile("B", "M-B", "secret-b", "https://api.example.test");
+
+    @AfterEach
+    void close() {
+        executors.close();
+    }
+
+    @Test
+    void delaysGrowByTheFactorUpToTheCap() {
+        OrderStatusPoller.Schedule s = new OrderStatusPoller.Schedule(100, 2.0, 500, 10);
+        assertEquals(100, s.delayAfter(0));
+        assertEquals(200, s.delayAfter(1));
+        assertEquals(400, s.delayAfter(2));
+        assertEquals(500, s.delayAfter(3));
+        assertEquals(500, s.delayAfter(9));
+    }
+
+    @Test
+    void requeriesOnBackoffAndGivesUpAfterMaxAttempts() throws Exception {
+        List<Long> calls = Collections.synchronizedList(new ArrayList<>());
+        OrderStatusPoller poller = new OrderStatusPoller(executors, (p, m, o) -> {
+            calls.add(System.nanoTime());
+            return "PROCESSING";
+        }, new OrderStatusPoller.Schedule(20, 2.0, 1_000, 4), 1_000);
+
+        assertTrue(poller.track(merchantA, "m-1", "1001"));
+        OrderStatusPoller.Poll poll = poller.polls().get(0);
+        await(() -> poll.state() == OrderStatusPoller.State.GAVE_UP);
+
+        assertEquals(4, poll.attempts());
+        assertEquals("PROCESSING", poll.lastStatus());
+        assertEquals(4, calls.size());
+        // attempt n is followed by initial * factor^n
+        long[] expectedMillis = {40, 80, 160};
+        for (int i = 0; i < expectedMillis.length; i++) {
+            long gap = calls.get(i + 1) - calls.get(i);
+            assertTrue(gap >= TimeUnit.MILLISECONDS.toNanos(expectedMillis[i]) - TOLERANCE_NANOS,
+                    "gap " + i + " was " + TimeUnit.NANOSECONDS.toMillis(gap) + " ms");
+        }
+        assertEquals(0, poller.activeCount());
+    }
+
+    @Test
+    void stopsAtATerminalStatus() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        OrderStatusPoller poller = new OrderStatusPoller(executors, (p, m, o) ->
+                calls.incrementAndGet() < 3 ? "processing" : "APPROVED",
+                new OrderStatusPoller.Schedule(5, 1.0, 5, 20), 1_000);
+
+        poller.track(merchantA, "m-1", "1001");
+        OrderStatusPoller.Poll poll = poller.polls().get(0);
+        await(() -> poll.state() == OrderStatusPoller.State.FINAL);
+        Thread.sleep(50);
+
+        assertEquals(3, calls.get());
+        assertEquals(3, poll.attempts());
+        assertEquals("APPROVED", poll.lastStatus());
+    }
+
+    @Test
+    void keepsPollingThroughTransportErrors() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        OrderStatusPoller poller = new OrderStatusPoller(executors, (p, m, o) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("502 bad gateway");
+            }
+            return "DECLINED";
+        }, new OrderStatusPoller.Schedule(5, 1.0, 5, 20), 1_000);
+
+        poller.track(merchantA, null, "1001");
+        OrderStatusPoller.Poll poll = poller.polls().get(0);
+        await(() -> poll.state() == OrderStatusPoller.State.FINAL);
+
+        assertEquals(2, poll.attempts());
+        assertEquals(null, poll.lastError());
+    }
+
+    @Test
+    void spacesQueriesPerProfileButNotAcrossProfiles() throws Exception {
+        Map<String, List<Long>> calls = new ConcurrentHashMap<>();
+        OrderStatusPoller poller = new OrderStatusPoller(executors, (p, m, o) -> {
+            calls.computeIfAbsent(p.getName(), k -> Collections.synchronizedList(new ArrayList<>())).add(System.nanoTime());
+            return "APPROVED";
+        }, new OrderStatusPoller.Schedule(0, 1.0, 0, 1), 20);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            poller.track(merchantA, "a-" + i, null);
+            poller.track(merchantB, "b-" + i, null);
+        }
+        await(() -> poller.activeCount() == 0);
+
+        long spacing = TimeUnit.MILLISECONDS.toNanos(50);
+        for (String profile : List.of("A", "B")) {
+            List<Long> times = new ArrayList<>(calls.get(profile));
+            Collections.sort(times);
+            assertEquals(6, times.size());
+            // slots are reserved back to back, so the i-th query cannot start before start + i * spacing
+            for (int i = 1; i < times.size(); i++) {
+                assertTrue(times.get(i) - start >= i * spacing - TOLERANCE_NANOS,
+                        profile + " query " + i + " started after " + TimeUnit.NANOSECONDS.toMillis(times.get(i) - start) + " ms");
+            }
+        }
+        // B's first query does not queue behind A's six
+        long firstB = Collections.min(calls.get("B")) - start;
+        assertTrue(firstB < 2 * spacing, "B waited " + TimeUnit.NANOSECONDS.toMillis(firstB) + " ms behind A");
+    }
+
+    @Test
+    void dropsTheOldestFinishedPolls() throws Exception {
+        OrderStatusPoller poller = new OrderStatusPoller(executors, (p, m, o) -> "APPROVED",
+                new OrderStatusPoller.Schedule(0, 1.0, 0, 1), 1_000_000);
+
+        int total = OrderStatusPoller.MAX_FINISHED + 50;
+        for (int i = 0; i < total; i++) {
+            poller.track(merchantA, "m-" + i, null);
+        }
+        await(() -> poller.activeCount() == 0);
+
+        assertEquals(OrderStatusPoller.MAX_FINISHED, poller.polls().size());
+        // a finished order can be tracked again and is listed as new
+        assertTrue(poller.track(merchantA, "m-" + (total - 1), null));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not reached within 10 s");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
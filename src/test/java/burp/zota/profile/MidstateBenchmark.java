@@ -0,0 +1,103 @@
+package burp.zota.profile;
+
+import burp.zota.util.SignatureUtil;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Compares signing from the cached merchant midstates in {@link CompiledProfile} with hashing the full
+ * concatenation, for the two prefix shapes: merchant ID first (order-status) and merchant ID + secret first
+ * (exchange-rates). A midstate only saves work once the prefix fills a 64-byte SHA-256 block, so each shape
+ * runs with a typical short merchant ID and with a long one. Single-threaded, fixed warm-up and measurement rounds.
+ *
+ * <p>Run with {@code ./gradlew midstateBenchmark}.
+ */
+public final class MidstateBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final long ROUND_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int ORDERS = 1024;
+
+    private static volatile int sink;
+
+    private MidstateBenchmark() {}
+
+    public static void main(String[] args) {
+        System.out.printf("%-52s %10s %10s%n", "case", "ns/op", "min ns/op");
+        bench("ZOTA-MERCHANT-TEST-0001");
+        bench("ZOTA-MERCHANT-TEST-0001-SANDBOX-EU-WEST-1-SUBACCOUNT-0000000001-RESELLER");
+    }
+
+    private static void bench(String merchantId) {
+        ZotaProfile source = new ZotaProfile("bench", merchantId, "a3f1c2d4-5b6e-4f70-8192-a3b4c5d6e7f8",
+                "https://api.zotapay-stage.com");
+        CompiledProfile p = CompiledProfile.of(source);
+        String merchant = p.merchantId();
+        String secret = p.secret();
+        String[] merchantOrderIds = new String[ORDERS];
+        String[] orderIds = new String[ORDERS];
+        String[] timestamps = new String[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            merchantOrderIds[i] = "merchant-order-" + (100000 + i);
+            orderIds[i] = String.valueOf(32000000 + i);
+            timestamps[i] = String.valueOf(1760000000L + i);
+        }
+
+        IntFunction<String> orderStatusConcat = i -> SignatureUtil.sha256HexLower(
+                merchant + merchantOrderIds[i] + orderIds[i] + timestamps[i] + secret);
+        IntFunction<String> orderStatusMidstate = i -> SignatureUtil.toHexLower(
+                p.digestSecretLast(merchant, merchantOrderIds[i], orderIds[i], timestamps[i]));
+        IntFunction<String> exchangeRatesConcat = i -> SignatureUtil.sha256HexLower(
+                merchant + secret + merchantOrderIds[i] + "2026-10-19" + timestamps[i] + orderIds[i]);
+        IntFunction<String> exchangeRatesMidstate = i -> SignatureUtil.toHexLower(
+                p.digestSecretSecond(merchant, merchantOrderIds[i], "2026-10-19", timestamps[i], orderIds[i]));
+
+        for (int i = 0; i < ORDERS; i++) {
+            if (!orderStatusConcat.apply(i).equals(orderStatusMidstate.apply(i))
+                    || !exchangeRatesConcat.apply(i).equals(exchangeRatesMidstate.apply(i))) {
+                throw new IllegalStateException("midstate signature differs from the concatenation at " + i);
+            }
+        }
+
+        String prefix = " (" + merchant.length() + "-byte merchant ID)";
+        run("order-status concatenation" + prefix, orderStatusConcat);
+        run("order-status midstate" + prefix, orderStatusMidstate);
+        run("exchange-rates concatenation" + prefix, exchangeRatesConcat);
+        run("exchange-rates midstate" + prefix, exchangeRatesMidstate);
+    }
+
+    private static void run(String name, IntFunction<String> op) {
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            round(op);
+        }
+        double total = 0;
+        double min = Double.MAX_VALUE;
+        for (int r = 0; r < MEASURED_ROUNDS; r++) {
+            double nsPerOp = round(op);
+            total += nsPerOp;
+            min = Math.min(min, nsPerOp);
+        }
+        System.out.printf("%-52s %10.1f %10.1f%n", name, total / MEASURED_ROUNDS, min);
+    }
+
+    /**
+     * @return mean nanoseconds per operation over one round.
+     */
+    private static double round(IntFunction<String> op) {
+        long ops = 0;
+        int acc = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < ORDERS; i++) {
+                acc += op.apply(i).hashCode();
+            }
+            ops += ORDERS;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ROUND_NANOS);
+        sink += acc;
+        return (double) elapsed / ops;
+    }
+}
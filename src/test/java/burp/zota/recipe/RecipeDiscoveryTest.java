@@ -0,0 +1,120 @@
+package burp.zota.recipe;
+
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.recipe.SignatureRecipe.Location;
+import burp.zota.recipe.SignatureRecipe.Source;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Searches a synthetic exchange-rates sample, signed outside this code base, for its formula.
+ */
+class RecipeDiscoveryTest {
+
+    /** SHA-256("M-1001" + "s3cr3t" + "r-1" + "2026-10-19" + "1760000000" + "32000001"). */
+    private static final String SIGNATURE = "43410278be91af2448b7d6c9d0aa047f6cdcc33b95da26e06311a01b199e627d";
+
+    private static final Source MERCHANT_ID = query("merchantID");
+    private static final Source SECRET = profile(SignatureRecipe.SECRET);
+
+    @Test
+    void recoversTheExchangeRatesOrderingWithTheSecretSecond() {
+        RecipeDiscovery discovery = exchangeRates();
+        RecipeDiscovery.Report report = discovery.run();
+
+        assertEquals(List.of(List.of(MERCHANT_ID, SECRET, query("requestID"), query("date"), query("timestamp"),
+                query("orderID"))), report.matches());
+        assertEquals(List.of(query("note")), report.empty());
+        assertEquals(Map.of(MERCHANT_ID, List.of(profile(SignatureRecipe.MERCHANT_ID))), report.aliases());
+        assertTrue(report.complete());
+        // eight distinct values, up to six at a time: 8 + 8*7 + ... + 8!/2!
+        assertEquals(28_960, discovery.searchSize());
+        assertEquals(discovery.searchSize(), report.tried());
+    }
+
+    @Test
+    void findsTheSameOrderingOnTheCpuLane() {
+        try (ZotaExecutors executors = new ZotaExecutors()) {
+            RecipeDiscovery discovery = exchangeRates();
+            RecipeDiscovery.Report report = discovery.start(executors.lane(ZotaExecutors.Task.DISCOVERY)).join();
+
+            assertEquals(1, report.matches().size());
+            assertEquals(SECRET, report.matches().get(0).get(1));
+            assertEquals(discovery.searchSize(), report.tried());
+        }
+    }
+
+    @Test
+    void refusesSearchesAboveTheLimit() {
+        List<RecipeDiscovery.Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            candidates.add(candidate(query("p" + i), "v" + i));
+        }
+        RecipeDiscovery discovery = new RecipeDiscovery(candidates, SIGNATURE, 16);
+
+        // capped at eight fields: 20!/12! + ... > 10^9
+        assertTrue(discovery.searchSize() > RecipeDiscovery.MAX_SEARCH_SIZE);
+        assertThrows(IllegalArgumentException.class, discovery::run);
+    }
+
+    @Test
+    void stopsWhenCancelled() {
+        RecipeDiscovery discovery = exchangeRates();
+        discovery.cancel();
+        RecipeDiscovery.Report report = discovery.run();
+
+        assertTrue(report.matches().isEmpty());
+        assertFalse(report.complete());
+    }
+
+    private static RecipeDiscovery exchangeRates() {
+        return new RecipeDiscovery(List.of(
+                candidate(MERCHANT_ID, "M-1001"),
+                candidate(query("requestID"), "r-1"),
+                candidate(query("date"), "2026-10-19"),
+                candidate(query("timestamp"), "1760000000"),
+                candidate(query("orderID"), "32000001"),
+                candidate(query("currency"), "EUR"),
+                candidate(query("note"), ""),
+                candidate(profile(SignatureRecipe.MERCHANT_ID), "M-1001"),
+                candidate(SECRET, "s3cr3t"),
+                candidate(profile(SignatureRecipe.ENDPOINT_ID), "4020")
+        ), SIGNATURE.toUpperCase(), 6);
+    }
+
+    @Test
+    void checksShorterOrderingsAsFormulasOfTheirOwn() {
+        // SHA-256("M-1001" + "s3cr3t"), a prefix of longer orderings that are also searched
+        RecipeDiscovery discovery = new RecipeDiscovery(List.of(
+                candidate(SECRET, "s3cr3t"),
+                candidate(MERCHANT_ID, "M-1001"),
+                candidate(query("orderID"), "32000001")
+        ), "cb565ea354e463e9d592168a0ec92c38816cc1706015a1d27c0e2ebedf018af9", 3);
+
+        RecipeDiscovery.Report report = discovery.run();
+
+        assertEquals(List.of(List.of(MERCHANT_ID, SECRET)), report.matches());
+        assertEquals(3 + 6 + 6, report.tried());
+        assertEquals(discovery.searchSize(), report.tried());
+    }
+
+    private static RecipeDiscovery.Candidate candidate(Source source, String value) {
+        return new RecipeDiscovery.Candidate(source, value);
+    }
+
+    private static Source query(String name) {
+        return new Source(Location.QUERY, name);
+    }
+
+    private static Source profile(String name) {
+        return new Source(Location.PROFILE, name);
+    }
+}
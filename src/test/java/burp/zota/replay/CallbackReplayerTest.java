@@ -0,0 +1,160 @@
+package burp.zota.replay;
+
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.util.Json;
+import burp.zota.util.QueryString;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallbackReplayerTest {
+
+    private static final ZotaProfile MERCHANT = new ZotaProfile("test", "M-1", "s3cr3t", "https://api.example.test");
+
+    private final ZotaExecutors executors = new ZotaExecutors();
+
+    @AfterEach
+    void close() {
+        executors.close();
+    }
+
+    @Test
+    void signsExpandedCallbacksWithTheZotaFormula() throws Exception {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("EndpointID", "4020");
+        fields.put("orderID", "32000001");
+        fields.put("merchantOrderID", "m-1");
+        fields.put("status", "PROCESSING");
+        fields.put("amount", "10.00");
+        fields.put("customerEmail", "a@example.test");
+        CallbackTemplate template = new CallbackTemplate(CallbackReplayer.Kind.CALLBACK, "https://merchant.test/cb", fields);
+
+        List<CallbackReplayer.Message> messages = template.expand(
+                new CallbackTemplate.Plan(List.of("approved", "DECLINED"), List.of(), 0, 1), MERCHANT, "http://127.0.0.1:1/cb");
+
+        assertEquals(2, messages.size());
+        // SHA-256(EndpointID + orderID + merchantOrderID + status + amount + customerEmail + secret)
+        assertEquals("0e3f9ef08897e191640d9fe1b584bb40d0d172b87a37b14babc2d1c9f7bf3225",
+                Json.text(Json.tree(messages.get(0).body()), "signature"));
+        assertEquals("1ee555616f5b53786b441a16450b93cd4a05f03adef8bc3d19d375e98c97232e",
+                Json.text(Json.tree(messages.get(1).body()), "signature"));
+    }
+
+    @Test
+    void signsExpandedFinalRedirectsWithTheZotaFormula() throws Exception {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("status", "APPROVED");
+        params.put("orderID", "32000001");
+        params.put("merchantOrderID", "m-1");
+        CallbackTemplate template = new CallbackTemplate(CallbackReplayer.Kind.FINAL_REDIRECT, "https://merchant.test/return", params);
+
+        List<CallbackReplayer.Message> messages = template.expand(
+                new CallbackTemplate.Plan(List.of(), List.of(), 0, 3), MERCHANT, "http://127.0.0.1:1/return");
+
+        assertEquals(3, messages.size());
+        CallbackReplayer.Message m = messages.get(0);
+        assertEquals("GET", m.method());
+        String query = m.url().substring(m.url().indexOf('?') + 1);
+        // SHA-256(status + orderID + merchantOrderID + secret)
+        assertEquals("52c4940fce4f3ebbe4ba56df19c648ea57aa111ed0a5fbd1f019834c3ea59bdf",
+                QueryString.parse(query).get("signature"));
+    }
+
+    @Test
+    void sendsEveryMessageAndReportsStatusesAndErrors() throws Exception {
+        List<CallbackReplayer.Message> received = Collections.synchronizedList(new ArrayList<>());
+        CallbackReplayer replayer = new CallbackReplayer(executors, message -> {
+            received.add(message);
+            return switch (message.status()) {
+                case "APPROVED" -> 200;
+                case "DECLINED" -> 409;
+                default -> throw new IllegalStateException("connection reset");
+            };
+        });
+        List<CallbackReplayer.Message> messages = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            String status = i % 3 == 0 ? "APPROVED" : i % 3 == 1 ? "DECLINED" : "PENDING";
+            messages.add(callback("m-" + i, status));
+        }
+
+        CallbackReplayer.Report report = replayer.start(messages, new CallbackReplayer.Settings(1_000, 4)).await(10, TimeUnit.SECONDS);
+
+        assertEquals(30, report.total());
+        assertEquals(30, report.completed());
+        assertEquals(10, report.ok());
+        assertEquals(Map.of(200, 10, 409, 10), report.statusCounts());
+        assertEquals(Map.of("IllegalStateException: connection reset", 10), report.errors());
+        assertFalse(report.cancelled());
+        assertEquals(30, received.size());
+        assertTrue(report.latency().max() >= report.service().p50());
+    }
+
+    @Test
+    void keepsToTheRateAndConcurrencyLimit() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CallbackReplayer replayer = new CallbackReplayer(executors, message -> {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(30);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return 200;
+        });
+        List<CallbackReplayer.Message> messages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            messages.add(callback("m-" + i, "APPROVED"));
+        }
+
+        CallbackReplayer.Report report = replayer.start(messages, new CallbackReplayer.Settings(200, 2)).await(10, TimeUnit.SECONDS);
+
+        assertEquals(20, report.ok());
+        assertTrue(maxInFlight.get() <= 2, "in flight peaked at " + maxInFlight.get());
+        // 19 intervals of 5 ms at the configured rate, and 10 rounds of 30 ms at two in flight
+        assertTrue(report.elapsedMillis() >= 300, "finished in " + report.elapsedMillis() + " ms");
+    }
+
+    @Test
+    void cancelStopsReleasingMessages() throws Exception {
+        CountDownLatch firstSent = new CountDownLatch(1);
+        CallbackReplayer replayer = new CallbackReplayer(executors, message -> {
+            firstSent.countDown();
+            return 200;
+        });
+        List<CallbackReplayer.Message> messages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            messages.add(callback("m-" + i, "APPROVED"));
+        }
+
+        CallbackReplayer.Run run = replayer.start(messages, new CallbackReplayer.Settings(20, 1));
+        assertTrue(firstSent.await(5, TimeUnit.SECONDS));
+        run.cancel();
+        CallbackReplayer.Report report = run.await(5, TimeUnit.SECONDS);
+
+        assertTrue(run.finished());
+        assertTrue(report.cancelled());
+        assertTrue(report.completed() < 100, "completed " + report.completed());
+        assertEquals(report.completed(), report.ok());
+    }
+
+    private static CallbackReplayer.Message callback(String merchantOrderId, String status) {
+        return new CallbackReplayer.Message(CallbackReplayer.Kind.CALLBACK, "POST", "http://127.0.0.1:1/cb", "{}",
+                merchantOrderId, "1", status);
+    }
+}
@@ -0,0 +1,88 @@
+package burp.zota.scope;
+
+import burp.api.montoya.core.ToolType;
+import burp.zota.config.ScopeRule;
+import burp.zota.config.ZotaConfig;
+import burp.zota.signer.SigningRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static burp.zota.scope.SigningScope.Decision.ANALYZE;
+import static burp.zota.scope.SigningScope.Decision.IGNORE;
+import static burp.zota.scope.SigningScope.Decision.SIGN;
+import static burp.zota.scope.SigningScope.Decision.VERIFY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SigningScopeTest {
+
+    @Test
+    void recognisesEverySigningRulePathOnAnyHost() {
+        SigningScope scope = SigningScope.compile(new ZotaConfig());
+
+        for (SigningRules.Rule rule : SigningRules.rules()) {
+            for (String prefix : rule.pathPrefixes()) {
+                assertEquals(SIGN, scope.decide(ToolType.REPEATER, "merchant.test", prefix + "1000/"), prefix);
+            }
+        }
+        assertEquals(SIGN, scope.decide(ToolType.REPEATER, "api.ZotaPay-stage.com", "/anything"));
+        assertEquals(IGNORE, scope.decide(ToolType.REPEATER, "merchant.test", "/api/v1/other/"));
+        assertEquals(IGNORE, scope.decide(null, "api.zotapay.com", "/api/v1/deposit/request/1000/"));
+    }
+
+    @Test
+    void matchesAHostSuffixAndItsSubdomainsOnLabelBoundaries() {
+        ZotaConfig config = new ZotaConfig();
+        config.scopeRules.put(ZotaConfig.ALL_TOOLS, new ScopeRule(List.of("*.Merchant.Example.com"), List.of()));
+        SigningScope scope = SigningScope.compile(config);
+
+        assertEquals(SIGN, scope.decide(ToolType.REPEATER, "merchant.example.com", "/pay"));
+        assertEquals(SIGN, scope.decide(ToolType.REPEATER, "cb.eu.MERCHANT.example.com", "/pay"));
+        assertEquals(IGNORE, scope.decide(ToolType.REPEATER, "badmerchant.example.com", "/pay"));
+        assertEquals(IGNORE, scope.decide(ToolType.REPEATER, "example.com", "/pay"));
+        // a second lookup comes from the host cache
+        assertEquals(SIGN, scope.decide(ToolType.REPEATER, "cb.eu.MERCHANT.example.com", "/pay"));
+    }
+
+    @Test
+    void appliesRulesOnlyToTheirTool() {
+        ZotaConfig config = new ZotaConfig();
+        config.scopeRules.put("intruder", new ScopeRule(List.of("merchant.test"), List.of("/cb")));
+        config.scopeRules.put("PROXY", new ScopeRule(List.of(), List.of("zota/callback/")));
+        SigningScope scope = SigningScope.compile(config);
+
+        assertEquals(ANALYZE, scope.decide(ToolType.INTRUDER, "merchant.test", "/"));
+        assertEquals(IGNORE, scope.decide(ToolType.REPEATER, "merchant.test", "/"));
+        // an unbucketed prefix also matches longer first segments
+        assertEquals(ANALYZE, scope.decide(ToolType.INTRUDER, "other.test", "/cbx"));
+        assertEquals(ANALYZE, scope.decide(ToolType.PROXY, "other.test", "/zota/callback/1"));
+        assertEquals(IGNORE, scope.decide(ToolType.PROXY, "other.test", "/zota/other"));
+        assertEquals(IGNORE, scope.decide(ToolType.INTRUDER, "other.test", "/zota/callback/1"));
+    }
+
+    @Test
+    void verifyOnlyToolsTakePrecedenceOverSigning() {
+        ZotaConfig config = new ZotaConfig();
+        config.signProxy = true;
+        config.verifyOnlyTools = List.of("REPEATER");
+        SigningScope scope = SigningScope.compile(config);
+        String path = "/api/v1/query/order-status/";
+
+        assertEquals(VERIFY, scope.decide(ToolType.REPEATER, "api.zotapay.com", path));
+        assertEquals(SIGN, scope.decide(ToolType.PROXY, "api.zotapay.com", path));
+        assertEquals(ANALYZE, scope.decide(ToolType.INTRUDER, "api.zotapay.com", path));
+        assertEquals(IGNORE, scope.decide(ToolType.REPEATER, "merchant.test", "/"));
+    }
+
+    @Test
+    void disabledScopeOnlyAnalyzes() {
+        ZotaConfig config = new ZotaConfig();
+        config.enabled = false;
+        SigningScope scope = SigningScope.compile(config);
+
+        assertFalse(scope.signs(ToolType.REPEATER));
+        assertEquals(ANALYZE, scope.decide(ToolType.REPEATER, "api.zotapay.com", "/api/v1/deposit/request/1000/"));
+        assertEquals(IGNORE, scope.decide(ToolType.REPEATER, "merchant.test", "/"));
+    }
+}
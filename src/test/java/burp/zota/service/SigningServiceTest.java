@@ -0,0 +1,134 @@
+package burp.zota.service;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.internal.MontoyaObjectFactory;
+import burp.api.montoya.internal.ObjectFactoryLocator;
+import burp.api.montoya.persistence.PersistedList;
+import burp.api.montoya.persistence.PersistedObject;
+import burp.api.montoya.persistence.Persistence;
+import burp.zota.exec.ZotaExecutors;
+import burp.zota.profile.ProfileManager;
+import burp.zota.profile.ZotaProfile;
+import burp.zota.util.Json;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls the signing service over loopback with profiles kept in an in-memory stand-in for Burp's project
+ * persistence.
+ */
+class SigningServiceTest {
+
+    private static final String TOKEN = "t0ken";
+    /** SHA-256("M-1001" + "m-1" + "32000001" + "1760000000" + "s3cr3t"). */
+    private static final String ORDER_STATUS_SIGNATURE = "4bbf1181d6d508225615464f345e8299d6112d5b0e4c4ce5be99eb662413f271";
+    private static final String ORDER_STATUS = "{\"endpoint\":\"order-status\",\"profile\":\"test\",\"fields\":"
+            + "{\"merchantOrderID\":\"m-1\",\"orderID\":\"32000001\",\"timestamp\":\"1760000000\"}}";
+
+    private final Map<String, Object> store = new HashMap<>();
+    private final ZotaExecutors executors = new ZotaExecutors();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private SigningService service;
+
+    @BeforeAll
+    static void factory() {
+        ObjectFactoryLocator.FACTORY = proxy(MontoyaObjectFactory.class, (method, args) -> {
+            if (method.equals("persistedStringList")) return proxy(PersistedList.class, new ArrayList<String>());
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @BeforeEach
+    void start() throws Exception {
+        ProfileManager profiles = new ProfileManager(api());
+        profiles.addOrUpdate(new ZotaProfile("test", "M-1001", "s3cr3t", "https://api.example.test"));
+        service = new SigningService(profiles, executors);
+        service.start(0, TOKEN);
+    }
+
+    @AfterEach
+    void stop() {
+        service.stop();
+        executors.close();
+    }
+
+    @Test
+    void signsASingleObject() throws Exception {
+        JsonNode answer = post(ORDER_STATUS);
+
+        assertEquals(ORDER_STATUS_SIGNATURE, answer.path("signature").asText());
+        assertEquals("M-1001", answer.path("fields").path("merchantID").asText());
+    }
+
+    @Test
+    void answersEveryArrayElementInOrder() throws Exception {
+        JsonNode answers = post("[" + ORDER_STATUS + ", 1, [{\"endpoint\":\"deposit\"}], null, \"x\", "
+                + "{\"endpoint\":\"nope\"}, " + ORDER_STATUS + "]");
+
+        assertEquals(7, answers.size());
+        assertEquals(ORDER_STATUS_SIGNATURE, answers.get(0).path("signature").asText());
+        for (int i = 1; i <= 4; i++) {
+            assertEquals("expected a JSON object", answers.get(i).path("error").asText(), "element " + i);
+        }
+        assertTrue(answers.get(5).path("error").asText().startsWith("unknown endpoint"));
+        assertEquals(ORDER_STATUS_SIGNATURE, answers.get(6).path("signature").asText());
+    }
+
+    private JsonNode post(String body) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://" + service.address() + "/v1/sign"))
+                .header(SigningService.TOKEN_HEADER, TOKEN)
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return Json.tree(response.body());
+    }
+
+    private MontoyaApi api() {
+        PersistedObject data = proxy(PersistedObject.class, (method, args) -> switch (method) {
+            case "getString", "getStringList" -> store.get((String) args[0]);
+            case "setString", "setStringList" -> store.put((String) args[0], args[1]);
+            case "deleteString" -> store.remove((String) args[0]);
+            default -> throw new UnsupportedOperationException(method);
+        });
+        Persistence persistence = proxy(Persistence.class, (method, args) -> data);
+        return proxy(MontoyaApi.class, (method, args) -> persistence);
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> handler.invoke(method.getName(), args)));
+    }
+
+    /**
+     * A proxy that hands every call to {@code target}, for the {@link List} methods of a {@link PersistedList}.
+     */
+    private static <T> T proxy(Class<T> type, List<?> target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+}
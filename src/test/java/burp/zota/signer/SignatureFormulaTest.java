@@ -0,0 +1,77 @@
+package burp.zota.signer;
+
+import burp.zota.profile.CompiledProfile;
+import burp.zota.profile.ZotaProfile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Known-answer signatures, computed outside this code base, for every formula. The long merchant ID fills a
+ * SHA-256 block, so those cases go through the cached midstates.
+ */
+class SignatureFormulaTest {
+
+    private static final CompiledProfile SHORT = profile("M-1001");
+    private static final CompiledProfile LONG = profile("ZOTA-MERCHANT-TEST-0001-SANDBOX-EU-WEST-1-SUBACCOUNT-0000000001-RESELLER");
+
+    @Test
+    void deposit() {
+        assertEquals("9eff3ad5df346e26f62c601864c14c9396fc7725394ff398d69846988b58edd8",
+                SignatureFormula.sign(ZotaEndpoint.DEPOSIT, SHORT, new String[]{"4020", "m-1", "10.00", "a@example.test"}));
+    }
+
+    @Test
+    void payout() {
+        assertEquals("182f5308299a47b6560f857fd3fc66528ce78e2c3b85cfd602350de47cd4cb5f",
+                SignatureFormula.sign(ZotaEndpoint.PAYOUT, SHORT, new String[]{"4020", "m-1", "10.00", "a@example.test", "GB00TEST"}));
+    }
+
+    @Test
+    void orderStatus() {
+        assertEquals("4bbf1181d6d508225615464f345e8299d6112d5b0e4c4ce5be99eb662413f271",
+                SignatureFormula.sign(ZotaEndpoint.ORDER_STATUS, SHORT, new String[]{"M-1001", "m-1", "32000001", "1760000000"}));
+        assertEquals("79e6bbbed3a52a9369a21da1801cfa54522fd2a91a53a6d48a094216e7177f65",
+                SignatureFormula.sign(ZotaEndpoint.ORDER_STATUS, LONG, new String[]{LONG.merchantId(), "m-1", "32000001", "1760000000"}));
+    }
+
+    @Test
+    void ordersReport() {
+        assertEquals("dc113a58421af86ed4b6927c16e6ffe1f3fdcd871f595b3e17b0bee258004ad5",
+                SignatureFormula.sign(ZotaEndpoint.ORDERS_REPORT, SHORT, new String[]{"M-1001", "created", "4020", "2026-10-01",
+                        "r-1", "APPROVED", "1760000000", "2026-10-02", "SALE"}));
+    }
+
+    @Test
+    void currentBalanceWithAnotherMerchantId() {
+        assertEquals("d934352be4713700064b448fc7e371ea375fe01d8c554655f5b77cdfc4a02c6c",
+                SignatureFormula.sign(ZotaEndpoint.CURRENT_BALANCE, LONG, new String[]{"OTHER", "r-1", "1760000000"}));
+    }
+
+    @Test
+    void exchangeRatesPutTheSecretSecond() {
+        assertEquals("43410278be91af2448b7d6c9d0aa047f6cdcc33b95da26e06311a01b199e627d",
+                SignatureFormula.sign(ZotaEndpoint.EXCHANGE_RATES, SHORT, new String[]{"M-1001", "r-1", "2026-10-19", "1760000000", "32000001"}));
+        assertEquals("3f1e3551b169703a0383b43e4061030a8d7bbb4c2984aa9476cc1dec773e42b9",
+                SignatureFormula.sign(ZotaEndpoint.EXCHANGE_RATES, LONG, new String[]{LONG.merchantId(), "r-1", "2026-10-19", "1760000000", "32000001"}));
+        assertEquals("7d78e54404de9cf9bdfbbed17fc617a7f8044ff8691459dd94694e7ec8a9ff98",
+                SignatureFormula.sign(ZotaEndpoint.EXCHANGE_RATES, LONG, new String[]{"OTHER", "r-1", "2026-10-19", "1760000000", "32000001"}));
+    }
+
+    @Test
+    void nullValuesCountAsEmpty() {
+        assertEquals("d760f16f68efecd905c90c5103f57324ed4ac8f7394b559102b000fb4c447f7a",
+                SignatureFormula.sign(ZotaEndpoint.ORDER_STATUS, SHORT, new String[]{"M-1001", null, "32000001", "1760000000"}));
+    }
+
+    @Test
+    void rejectsTheWrongNumberOfValues() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SignatureFormula.sign(ZotaEndpoint.ORDER_STATUS, SHORT, new String[]{"M-1001", "m-1"}));
+    }
+
+    private static CompiledProfile profile(String merchantId) {
+        return CompiledProfile.of(new ZotaProfile("test", merchantId, "s3cr3t", "https://api.example.test"));
+    }
+}
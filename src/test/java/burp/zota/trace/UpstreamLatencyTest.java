@@ -0,0 +1,46 @@
+package burp.zota.trace;
+
+import burp.zota.signer.ZotaEndpoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamLatencyTest {
+
+    @Test
+    void matchesResponsesToSignedRequests() {
+        UpstreamLatency latency = new UpstreamLatency();
+        latency.sent(1, ZotaEndpoint.DEPOSIT, "test", 1_000, 2_000);
+        latency.sent(2, ZotaEndpoint.DEPOSIT, "test", 1_000, 2_000);
+
+        assertTrue(latency.received(1, 200, 512));
+        assertTrue(latency.received(2, 409, 64));
+        assertFalse(latency.received(2, 200, 0));
+        assertFalse(latency.received(3, 200, 0));
+
+        UpstreamLatency.Stats stats = latency.snapshot().get(0);
+        assertEquals(2, stats.responses());
+        assertEquals(Map.of(200, 1L, 409, 1L), stats.statuses());
+        assertEquals(576, stats.bytes());
+        assertEquals(0, stats.unanswered());
+    }
+
+    @Test
+    void evictsTheOldestUnansweredRequestsPastTheCap() {
+        UpstreamLatency latency = new UpstreamLatency();
+        int extra = 10;
+        for (int id = 0; id < UpstreamLatency.MAX_PENDING + extra; id++) {
+            latency.sent(id, ZotaEndpoint.ORDER_STATUS, "test", 0, 0);
+        }
+
+        assertEquals(extra, latency.snapshot().get(0).unanswered());
+        // the oldest were dropped, the newest are still matched
+        assertFalse(latency.received(extra - 1, 200, 0));
+        assertTrue(latency.received(extra, 200, 0));
+        assertTrue(latency.received(UpstreamLatency.MAX_PENDING + extra - 1, 200, 0));
+    }
+}
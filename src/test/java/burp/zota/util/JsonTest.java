@@ -0,0 +1,24 @@
+package burp.zota.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JsonTest {
+
+    @Test
+    void treeOrNullSkipsLeadingWhitespace() {
+        assertEquals("100", Json.text(Json.treeOrNull("\r\n  {\"orderAmount\": \"100\"}"), "orderAmount"));
+    }
+
+    @Test
+    void treeOrNullRejectsEverythingButObjects() {
+        assertNull(Json.treeOrNull(null));
+        assertNull(Json.treeOrNull(""));
+        assertNull(Json.treeOrNull("  \n"));
+        assertNull(Json.treeOrNull(" [1, 2]"));
+        assertNull(Json.treeOrNull("orderAmount=100"));
+        assertNull(Json.treeOrNull("{\"orderAmount\": "));
+    }
+}